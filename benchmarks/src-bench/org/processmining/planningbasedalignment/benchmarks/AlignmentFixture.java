@@ -0,0 +1,186 @@
+package org.processmining.planningbasedalignment.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.deckfour.xes.in.XUniversalParser;
+import org.deckfour.xes.model.XLog;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.models.connections.GraphLayoutConnection;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.impl.PetrinetFactory;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.generator.algorithms.BlockStructuredNetGenerator;
+import org.processmining.planningbasedalignment.plugins.generator.algorithms.SyntheticLogGenerator;
+import org.processmining.planningbasedalignment.plugins.generator.models.SyntheticPetrinet;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.BlockStructuredNetGeneratorParameters;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.SyntheticLogGeneratorParameters;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentDefaults;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
+import org.processmining.plugins.pnml.base.Pnml;
+import org.processmining.plugins.pnml.importing.PnmlImportUtils;
+
+/**
+ * A Petri net and an event log to be aligned, loaded from a PNML file and a XES file with the same base name, or
+ * generated with the given size. The
+ * parameters are the defaults of the configuration UI (see {@link PlanningBasedAlignmentDefaults}), except for the
+ * initial marking, which is taken from the PNML file if given.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class AlignmentFixture {
+
+	public static final String PNML_EXT = ".pnml";
+	public static final String[] XES_EXTS = { ".xes", ".xes.gz" };
+
+	/**
+	 * The noise rate (of each kind) of the generated logs, so that traces do not fit perfectly.
+	 */
+	private static final double GENERATED_NOISE_RATE = 0.1;
+
+	private final String name;
+	private final Petrinet petrinet;
+	private final XLog log;
+	private final PlanningBasedAlignmentParameters parameters;
+
+	/**
+	 * Load the given files.
+	 *
+	 * @param context The context to run in.
+	 * @param name The name of the fixture.
+	 * @param pnmlFile The PNML file of the Petri net.
+	 * @param xesFile The XES file of the event log.
+	 * @throws Exception if the files cannot be parsed, or the markings of the net cannot be guessed.
+	 */
+	public AlignmentFixture(PluginContext context, String name, File pnmlFile, File xesFile) throws Exception {
+		this.name = name;
+
+		// import the net
+		PnmlImportUtils pnmlImportUtils = new PnmlImportUtils();
+		InputStream input = new FileInputStream(pnmlFile);
+		Pnml pnml;
+		try {
+			pnml = pnmlImportUtils.importPnmlFromStream(context, input, pnmlFile.getName(), pnmlFile.length());
+		} finally {
+			input.close();
+		}
+		this.petrinet = PetrinetFactory.newPetrinet(pnml.getLabel());
+		Marking initialMarking = new Marking();
+		pnml.convertToNet(petrinet, initialMarking, new GraphLayoutConnection(petrinet));
+
+		// import the log
+		Collection<XLog> logs = new XUniversalParser().parse(xesFile);
+		if (logs.isEmpty())
+			throw new IllegalArgumentException("No event log found in " + xesFile.getName() + ".");
+		this.log = logs.iterator().next();
+
+		this.parameters = new PlanningBasedAlignmentParameters();
+		if (!initialMarking.isEmpty())
+			parameters.setInitialMarking(initialMarking);
+		PlanningBasedAlignmentDefaults.complete(parameters, log, petrinet);
+	}
+
+	/**
+	 * Create a fixture from the given Petri net and event log.
+	 *
+	 * @param name The name of the fixture.
+	 * @param net The Petri net, with its markings.
+	 * @param log The event log.
+	 */
+	public AlignmentFixture(String name, SyntheticPetrinet net, XLog log) {
+		this.name = name;
+		this.petrinet = net.getPetrinet();
+		this.log = log;
+
+		this.parameters = new PlanningBasedAlignmentParameters();
+		parameters.setInitialMarking(net.getInitialMarking());
+		parameters.setFinalMarking(net.getFinalMarking());
+		PlanningBasedAlignmentDefaults.complete(parameters, log, petrinet);
+	}
+
+	/**
+	 * Generate a synthetic fixture (see {@link BlockStructuredNetGenerator} and {@link SyntheticLogGenerator}) with
+	 * the default parameters and seeds, so that the same size always yields the same fixture.
+	 *
+	 * @param size The size of the fixture, as "activities:traces" (e.g. "20:50").
+	 * @return The generated fixture.
+	 */
+	public static AlignmentFixture generate(String size) {
+		String[] sizes = size.split(":");
+		if (sizes.length != 2)
+			throw new IllegalArgumentException("Invalid fixture size (expected activities:traces): " + size);
+
+		BlockStructuredNetGeneratorParameters netParameters = new BlockStructuredNetGeneratorParameters();
+		netParameters.setActivitiesNum(Integer.parseInt(sizes[0].trim()));
+		SyntheticPetrinet net = new BlockStructuredNetGenerator(netParameters).generate();
+
+		SyntheticLogGeneratorParameters logParameters = new SyntheticLogGeneratorParameters();
+		logParameters.setTracesNum(Integer.parseInt(sizes[1].trim()));
+		logParameters.setInsertionRate(GENERATED_NOISE_RATE);
+		logParameters.setRemovalRate(GENERATED_NOISE_RATE);
+		logParameters.setSwapRate(GENERATED_NOISE_RATE);
+		XLog log = new SyntheticLogGenerator(
+				net.getPetrinet(), net.getInitialMarking(), net.getFinalMarking(), logParameters).generate();
+
+		return new AlignmentFixture(
+				"synthetic-" + netParameters.getActivitiesNum() + "x" + logParameters.getTracesNum(), net, log);
+	}
+
+	/**
+	 * Load all the pairs of PNML and XES files with the same base name in the given directory, in alphabetical order.
+	 *
+	 * @param context The context to run in.
+	 * @param directory The directory.
+	 * @return The loaded fixtures.
+	 * @throws Exception if a pair of files cannot be loaded.
+	 */
+	public static List<AlignmentFixture> loadAll(PluginContext context, File directory) throws Exception {
+		List<AlignmentFixture> result = new ArrayList<AlignmentFixture>();
+		File[] files = directory.listFiles();
+		if (files == null)
+			throw new IllegalArgumentException(directory + " is not a directory.");
+		Arrays.sort(files);
+
+		for (File pnmlFile : files) {
+			if (!pnmlFile.getName().endsWith(PNML_EXT))
+				continue;
+			String name = pnmlFile.getName().substring(0, pnmlFile.getName().length() - PNML_EXT.length());
+			for (String xesExt : XES_EXTS) {
+				File xesFile = new File(directory, name + xesExt);
+				if (xesFile.isFile()) {
+					result.add(new AlignmentFixture(context, name, pnmlFile, xesFile));
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public String getName() {
+		return name;
+	}
+
+	public Petrinet getPetrinet() {
+		return petrinet;
+	}
+
+	public XLog getLog() {
+		return log;
+	}
+
+	/**
+	 * @return a copy of the default parameters, to be tuned by the caller
+	 */
+	public PlanningBasedAlignmentParameters getParameters() {
+		return new PlanningBasedAlignmentParameters(parameters);
+	}
+
+}
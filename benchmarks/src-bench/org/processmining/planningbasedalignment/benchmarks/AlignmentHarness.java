@@ -0,0 +1,458 @@
+package org.processmining.planningbasedalignment.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.processmining.contexts.cli.CLIContext;
+import org.processmining.contexts.cli.CLIPluginContext;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.algorithms.PlanningBasedAlignment;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.LogLinearHistogram;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlannerSearchStrategy;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
+import org.processmining.planningbasedalignment.utils.ProgressHub;
+import org.processmining.planningbasedalignment.utils.ResourcesUnpacker;
+
+/**
+ * A headless harness running the whole Planning-based Alignment pipeline (PDDL encoding, planning and parsing of the
+ * planner output) on the pairs of PNML and XES files of a directory and on synthetic fixtures of the given sizes (see
+ * {@link AlignmentFixture}), for each of the given search strategies and parallelism levels. With parallelism P, the
+ * traces of a log are split in P contiguous slices that are aligned concurrently, each of them by its own planner
+ * process in its own working directory.
+ *
+ * For each run, the harness reports in JSON the wall-clock time of each stage of the pipeline (the slowest slice
+ * being taken for concurrent stages), the percentiles of the per-trace latencies reported by the encoder and by the
+ * planner, the throughput (aligned traces per second), the peak heap usage of the JVM and the peak resident set size
+ * of the planner. The harness has to be run from the directory where the planner resources are (or have to be)
+ * unpacked.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class AlignmentHarness {
+
+	private static final String USAGE = "usage: AlignmentHarness [<fixtures dir>] [-g activities:traces,...]"
+			+ " [-s strategy,...] [-p parallelism,...] [-r repetitions] [-o output.json] [-w work dir]"
+			+ " [--partially-ordered] [--stream]";
+
+	/**
+	 * The names of the latency metrics, in reporting order.
+	 */
+	private static final String[] LATENCY_METRICS = { "encode", "translator", "search", "trace" };
+
+	private final List<PlannerSearchStrategy> strategies = new ArrayList<PlannerSearchStrategy>();
+	private final List<Integer> parallelismLevels = new ArrayList<Integer>();
+	private int repetitions = 1;
+	private boolean partiallyOrderedEvents = false;
+	private boolean streamPlannerOutput = false;
+	private File workDir = new File("harness_runs");
+
+	/**
+	 * The context the alignments run in.
+	 */
+	private final PluginContext context;
+
+	public AlignmentHarness(PluginContext context) {
+		this.context = context;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+
+		PluginContext context = new CLIPluginContext(new CLIContext(), "Alignment harness");
+		AlignmentHarness harness = new AlignmentHarness(context);
+		File fixturesDir = args[0].startsWith("-") ? null : new File(args[0]);
+		List<String> generatedFixtures = new ArrayList<String>();
+		File output = null;
+		for (int i = (fixturesDir == null) ? 0 : 1; i < args.length; i++) {
+			if (args[i].equals("-g") && i + 1 < args.length) {
+				for (String size : args[++i].split(","))
+					generatedFixtures.add(size.trim());
+			} else if (args[i].equals("-s") && i + 1 < args.length) {
+				for (String strategy : args[++i].split(","))
+					harness.strategies.add(PlannerSearchStrategy.valueOf(strategy.trim()));
+			} else if (args[i].equals("-p") && i + 1 < args.length) {
+				for (String parallelism : args[++i].split(","))
+					harness.parallelismLevels.add(Integer.parseInt(parallelism.trim()));
+			} else if (args[i].equals("-r") && i + 1 < args.length) {
+				harness.repetitions = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-o") && i + 1 < args.length) {
+				output = new File(args[++i]);
+			} else if (args[i].equals("-w") && i + 1 < args.length) {
+				harness.workDir = new File(args[++i]);
+			} else if (args[i].equals("--partially-ordered")) {
+				harness.partiallyOrderedEvents = true;
+			} else if (args[i].equals("--stream")) {
+				harness.streamPlannerOutput = true;
+			} else {
+				System.err.println(USAGE);
+				System.exit(1);
+			}
+		}
+		if (harness.strategies.isEmpty()) {
+			harness.strategies.add(PlannerSearchStrategy.BLIND_A_STAR);
+			harness.strategies.add(PlannerSearchStrategy.LAZY_GREEDY);
+		}
+		if (harness.parallelismLevels.isEmpty())
+			harness.parallelismLevels.add(1);
+		if (fixturesDir == null && generatedFixtures.isEmpty()) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+
+		List<AlignmentFixture> fixtures = new ArrayList<AlignmentFixture>();
+		if (fixturesDir != null)
+			fixtures.addAll(AlignmentFixture.loadAll(context, fixturesDir));
+		for (String size : generatedFixtures)
+			fixtures.add(AlignmentFixture.generate(size));
+
+		harness.checkPlannerResources();
+		String report = harness.run(fixtures);
+
+		if (output == null) {
+			System.out.println(report);
+		} else {
+			if (output.getParentFile() != null)
+				output.getParentFile().mkdirs();
+			Writer writer = new OutputStreamWriter(new FileOutputStream(output), "UTF-8");
+			try {
+				writer.write(report);
+			} finally {
+				writer.close();
+			}
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Unpack the planner resources in the current working directory, if needed.
+	 *
+	 * @throws InterruptedException
+	 */
+	private void checkPlannerResources() throws InterruptedException {
+		if (SliceAlignment.hasPlannerResources())
+			return;
+
+		context.log("Unpacking planner resources...");
+		ResourcesUnpacker resourcesUnpacker = new ResourcesUnpacker(context);
+		resourcesUnpacker.start();
+		resourcesUnpacker.join();
+		if (!SliceAlignment.hasPlannerResources())
+			throw new IllegalStateException("Planner resources not found in " + new File(".").getAbsolutePath());
+	}
+
+	/**
+	 * Run all the configurations on the given fixtures.
+	 *
+	 * @param fixtures The fixtures.
+	 * @return The JSON report of the runs.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public String run(List<AlignmentFixture> fixtures) throws IOException, InterruptedException {
+		StringBuffer json = new StringBuffer();
+		json.append("{\n");
+		json.append("  \"timestamp\": " + quote(
+				new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.ROOT).format(new Date())) + ",\n");
+		json.append("  \"javaVersion\": " + quote(System.getProperty("java.version")) + ",\n");
+		json.append("  \"processors\": " + Runtime.getRuntime().availableProcessors() + ",\n");
+		json.append("  \"maxHeapBytes\": " + Runtime.getRuntime().maxMemory() + ",\n");
+		json.append("  \"runs\": [");
+
+		boolean first = true;
+		for (AlignmentFixture fixture : fixtures) {
+			for (PlannerSearchStrategy strategy : strategies) {
+				for (int parallelism : parallelismLevels) {
+					for (int repetition = 1; repetition <= repetitions; repetition++) {
+						context.log("Aligning " + fixture.getName() + " with " + strategy + " (parallelism "
+								+ parallelism + ", repetition " + repetition + ")...");
+						RunResult result = runAlignment(fixture, strategy, parallelism);
+						json.append(first ? "\n" : ",\n");
+						json.append(result.toJson(fixture, strategy, parallelism, repetition));
+						first = false;
+					}
+				}
+			}
+		}
+
+		json.append("\n  ]\n}\n");
+		return json.toString();
+	}
+
+	/**
+	 * Align the given fixture, splitting its traces in the given number of slices to be aligned concurrently.
+	 *
+	 * @param fixture The fixture.
+	 * @param strategy The search strategy of the planner.
+	 * @param parallelism The number of slices.
+	 * @return The figures of the run.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	private RunResult runAlignment(AlignmentFixture fixture, PlannerSearchStrategy strategy, int parallelism)
+			throws IOException, InterruptedException {
+
+		XLog log = fixture.getLog();
+		int tracesNum = log.size();
+		int slicesNum = Math.max(1, Math.min(parallelism, tracesNum));
+		int sliceSize = (tracesNum + slicesNum - 1) / slicesNum;
+		File runDir = new File(workDir, "run_" + System.currentTimeMillis());
+
+		// prepare the slices, each with its own working directory
+		List<SliceAlignment> slices = new ArrayList<SliceAlignment>();
+		for (int from = 1; from <= tracesNum; from += sliceSize) {
+			PlanningBasedAlignmentParameters parameters = fixture.getParameters();
+			parameters.setPlannerSearchStrategy(strategy);
+			parameters.setPartiallyOrderedEvents(partiallyOrderedEvents);
+			parameters.setStreamPlannerOutput(streamPlannerOutput);
+			parameters.setTracesInterval(new int[] { from, Math.min(from + sliceSize - 1, tracesNum) });
+			File sliceDir = new File(runDir, "slice_" + slices.size());
+			sliceDir.mkdirs();
+			slices.add(new SliceAlignment(context.createChildContext("Slice " + slices.size()), sliceDir, log,
+					fixture.getPetrinet(), parameters));
+		}
+
+		// run the slices concurrently
+		System.gc();
+		resetPeakHeapUsage();
+		long startTime = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, slices.size()));
+		List<Future<SliceAlignment>> futures = new ArrayList<Future<SliceAlignment>>();
+		for (SliceAlignment slice : slices)
+			futures.add(executor.submit(slice));
+		executor.shutdown();
+
+		RunResult result = new RunResult();
+		try {
+			for (Future<SliceAlignment> future : futures)
+				result.add(future.get());
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			for (SliceAlignment slice : slices)
+				slice.kill();
+			throw e;
+		} catch (ExecutionException e) {
+			executor.shutdownNow();
+			throw new RuntimeException(e.getCause());
+		}
+		result.wallTime = (System.nanoTime() - startTime) / 1e6;
+		result.peakHeapBytes = getPeakHeapUsage();
+		result.tracesNum = tracesNum;
+		for (XTrace trace : log)
+			result.eventsNum += trace.size();
+
+		FileUtils.deleteQuietly(runDir);
+		return result;
+	}
+
+	private static void resetPeakHeapUsage() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+		}
+	}
+
+	/**
+	 * @return the sum of the peak usages of the heap memory pools since the last reset (an upper bound of the actual
+	 *         peak heap usage, as the pools do not peak at the same time)
+	 */
+	private static long getPeakHeapUsage() {
+		long result = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				result += pool.getPeakUsage().getUsed();
+		}
+		return result;
+	}
+
+	private static String quote(String value) {
+		StringBuffer result = new StringBuffer("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+				result.append('\\').append(c);
+			else if (c < ' ')
+				result.append(String.format("\\u%04x", (int) c));
+			else
+				result.append(c);
+		}
+		return result.append('"').toString();
+	}
+
+	private static String number(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			return "null";
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	/**
+	 * The alignment of a slice of the traces of a log, keeping track of the time spent in each stage.
+	 */
+	private static class SliceAlignment extends PlanningBasedAlignment implements Callable<SliceAlignment> {
+
+		private final PluginContext context;
+		private final File directory;
+		private final XLog log;
+		private final Petrinet petrinet;
+		private final PlanningBasedAlignmentParameters parameters;
+		private final Map<String, Double> stageTimes = new LinkedHashMap<String, Double>();
+		private PlanningBasedReplayResult result;
+
+		private SliceAlignment(PluginContext context, File directory, XLog log, Petrinet petrinet,
+				PlanningBasedAlignmentParameters parameters) {
+			this.context = context;
+			this.directory = directory;
+			this.log = log;
+			this.petrinet = petrinet;
+			this.parameters = parameters;
+		}
+
+		private static boolean hasPlannerResources() {
+			return new File(PLANNER_MANAGER_SCRIPT).exists() && new File(FAST_DOWNWARD_DIR).exists();
+		}
+
+		public SliceAlignment call() {
+			result = align(context, directory, log, petrinet, parameters);
+			if (progressHub != null) {
+				for (ProgressHub.Stage stage : progressHub.getStages())
+					stageTimes.put(stage.getName(), stage.getElapsedMillisecs());
+			}
+			return this;
+		}
+
+		private void kill() {
+			killSubprocesses();
+		}
+	}
+
+	/**
+	 * The figures of a run, collected from its slices.
+	 */
+	private static class RunResult {
+
+		private final Map<String, Double> stageTimes = new LinkedHashMap<String, Double>();
+		private final Map<String, LogLinearHistogram> latencies = new LinkedHashMap<String, LogLinearHistogram>();
+		private int tracesNum;
+		private long eventsNum;
+		private int alignedTracesNum;
+		private int failedSlicesNum;
+		private double wallTime;
+		private long peakHeapBytes;
+		private double peakPlannerRss;
+
+		private RunResult() {
+			for (String metric : LATENCY_METRICS)
+				latencies.put(metric, new LogLinearHistogram(LogLinearHistogram.TIME_SCALE));
+		}
+
+		private void add(SliceAlignment slice) {
+			// concurrent stages last as long as the slowest slice
+			for (Entry<String, Double> entry : slice.stageTimes.entrySet()) {
+				Double time = stageTimes.get(entry.getKey());
+				stageTimes.put(entry.getKey(), (time == null) ? entry.getValue() : Math.max(time, entry.getValue()));
+			}
+
+			if (slice.result == null) {
+				failedSlicesNum++;
+				return;
+			}
+			alignedTracesNum += slice.result.getAlignments().size();
+
+			for (TraceAlignmentStatistics statistics : slice.result.getTraceAlignmentStatistics()) {
+				double traceTime = 0;
+				traceTime += record("encode", statistics.getEncodeTime());
+				traceTime += record("translator", statistics.getTranslatorTime());
+				traceTime += record("search", statistics.getSearchTime());
+				latencies.get("trace").recordValue(traceTime);
+				peakPlannerRss = Math.max(peakPlannerRss, statistics.getPeakRss());
+			}
+			slice.result.dispose();
+		}
+
+		private double record(String metric, double value) {
+			if (value == TraceAlignmentStatistics.NOT_AVAILABLE || value < 0)
+				return 0;
+			latencies.get(metric).recordValue(value);
+			return value;
+		}
+
+		private String toJson(AlignmentFixture fixture, PlannerSearchStrategy strategy, int parallelism,
+				int repetition) {
+
+			StringBuffer json = new StringBuffer();
+			json.append("    {\n");
+			json.append("      \"fixture\": " + quote(fixture.getName()) + ",\n");
+			json.append("      \"strategy\": " + quote(strategy.name()) + ",\n");
+			json.append("      \"parallelism\": " + parallelism + ",\n");
+			json.append("      \"repetition\": " + repetition + ",\n");
+			json.append("      \"traces\": " + tracesNum + ",\n");
+			json.append("      \"events\": " + eventsNum + ",\n");
+			json.append("      \"alignedTraces\": " + alignedTracesNum + ",\n");
+			json.append("      \"failedSlices\": " + failedSlicesNum + ",\n");
+			json.append("      \"wallTimeMs\": " + number(wallTime) + ",\n");
+			json.append("      \"throughputTracesPerSec\": "
+					+ number((wallTime > 0) ? alignedTracesNum / (wallTime / 1000) : 0) + ",\n");
+			json.append("      \"peakHeapBytes\": " + peakHeapBytes + ",\n");
+			json.append("      \"peakPlannerRssKb\": " + number(peakPlannerRss) + ",\n");
+
+			json.append("      \"stagesMs\": {");
+			boolean first = true;
+			for (Entry<String, Double> entry : stageTimes.entrySet()) {
+				json.append(first ? "" : ", ");
+				json.append(quote(entry.getKey()) + ": " + number(entry.getValue()));
+				first = false;
+			}
+			json.append("},\n");
+
+			json.append("      \"latencyMs\": {");
+			first = true;
+			for (Entry<String, LogLinearHistogram> entry : latencies.entrySet()) {
+				LogLinearHistogram histogram = entry.getValue();
+				json.append(first ? "\n" : ",\n");
+				json.append("        " + quote(entry.getKey()) + ": {\"count\": " + histogram.getTotalCount());
+				if (histogram.getTotalCount() > 0) {
+					json.append(", \"min\": " + number(histogram.getMin()));
+					for (double percentile : LogLinearHistogram.REPORTED_PERCENTILES) {
+						json.append(", " + quote("p" + String.valueOf(percentile).replaceAll("\\.0$", "")) + ": "
+								+ number(histogram.getValueAtPercentile(percentile)));
+					}
+					json.append(", \"max\": " + number(histogram.getMax()));
+				}
+				json.append("}");
+				first = false;
+			}
+			json.append("\n      }\n");
+			json.append("    }");
+			return json.toString();
+		}
+	}
+
+}
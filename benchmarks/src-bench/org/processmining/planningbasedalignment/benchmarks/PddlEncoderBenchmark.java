@@ -0,0 +1,131 @@
+package org.processmining.planningbasedalignment.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.deckfour.xes.model.XTrace;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.BlockStructuredNetGeneratorParameters;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.AbstractPddlEncoder;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.PartialOrderAwarePddlEncoder;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.StandardPddlEncoder;
+
+/**
+ * The throughput of the PDDL encoders on synthetic alignment problems (see {@link SyntheticAlignmentProblem}). The
+ * allocation rate is reported when running with the GC profiler (-prof gc), while the size of the encodings is
+ * reported through the encodedChars and encodings counters (their ratio is the number of characters per encoding).
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PddlEncoderBenchmark {
+
+	/**
+	 * The number of distinct traces encoded in turn by each benchmark.
+	 */
+	private static final int TRACES_NUM = 16;
+
+	/**
+	 * The maximum number of branches of the parallel blocks of the nets.
+	 */
+	private static final int MAX_BRANCHES = 4;
+
+	@State(Scope.Thread)
+	public static class Encoders {
+
+		@Param({ "20", "200" })
+		public int transitionsNum;
+
+		/**
+		 * The probability of a block of the net to be parallel (the other blocks being sequences).
+		 */
+		@Param({ "0", "0.5" })
+		public double parallelProbability;
+
+		@Param({ "20", "200" })
+		public int traceLength;
+
+		@Param({ "1", "4" })
+		public int groupSize;
+
+		private AbstractPddlEncoder standardEncoder;
+		private AbstractPddlEncoder partialOrderAwareEncoder;
+		private List<XTrace> traces;
+		private int nextTrace;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			BlockStructuredNetGeneratorParameters netParameters = new BlockStructuredNetGeneratorParameters();
+			netParameters.setActivitiesNum(transitionsNum);
+			netParameters.setMaxBranches(MAX_BRANCHES);
+			netParameters.setParallelProbability(parallelProbability);
+			netParameters.setChoiceProbability(0);
+			netParameters.setLoopProbability(0);
+			SyntheticAlignmentProblem problem = new SyntheticAlignmentProblem(
+					netParameters, traceLength, groupSize, TRACES_NUM);
+			this.standardEncoder = new StandardPddlEncoder(problem.getPetrinet(), problem.getParameters());
+			this.partialOrderAwareEncoder = new PartialOrderAwarePddlEncoder(
+					problem.getPetrinet(), problem.getParameters());
+			this.traces = problem.getTraces();
+			this.nextTrace = 0;
+		}
+
+		private XTrace nextTrace() {
+			XTrace trace = traces.get(nextTrace);
+			nextTrace = (nextTrace + 1) % traces.size();
+			return trace;
+		}
+	}
+
+	/**
+	 * The size of the produced encodings, summed over each iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class EncodingSize {
+
+		public long encodedChars;
+		public long encodings;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			encodedChars = 0;
+			encodings = 0;
+		}
+
+		private String[] record(String[] encoding) {
+			for (String part : encoding)
+				encodedChars += part.length();
+			encodings++;
+			return encoding;
+		}
+	}
+
+	@Benchmark
+	public String[] standardEncoding(Encoders encoders, EncodingSize encodingSize) {
+		return encodingSize.record(encoders.standardEncoder.getPddlEncoding(encoders.nextTrace()));
+	}
+
+	@Benchmark
+	public String[] partialOrderAwareEncoding(Encoders encoders, EncodingSize encodingSize) {
+		return encodingSize.record(encoders.partialOrderAwareEncoder.getPddlEncoding(encoders.nextTrace()));
+	}
+
+}
@@ -0,0 +1,279 @@
+package org.processmining.planningbasedalignment.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.processmining.planningbasedalignment.utils.JsonReader;
+
+/**
+ * A gate that fails when the performance of the PDDL encoders or of the whole alignment pipeline regresses with
+ * respect to the checked-in baselines. It compares the results of the JMH benchmarks (throughput and allocated bytes
+ * per operation, by benchmark and parameters) and of {@link AlignmentHarness} (throughput and peak heap usage, by
+ * fixture, strategy and parallelism, taking the median over the repetitions) with the baselines, i.e. the results of
+ * a previous run on the reference machine in the same format.
+ *
+ * Every metric is reported, and the gate exits with status 1 if any of them is worse than its baseline beyond the
+ * tolerance of its kind. Metrics without a baseline (e.g. new benchmarks) are reported but do not fail the gate. When
+ * a baseline file is missing (e.g. on the first run on a machine), the results are recorded as the new baseline and
+ * the gate passes, unless baselines are explicitly required (e.g. on a machine that must only compare).
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class PerformanceGate {
+
+	private static final String USAGE = "usage: PerformanceGate <baselines dir> <results dir>"
+			+ " [-t throughput tolerance] [-a allocation tolerance] [-m peak heap tolerance]"
+			+ " [--require-baselines]";
+
+	public static final String BENCHMARKS_FILE = "benchmarks.json";
+	public static final String HARNESS_FILE = "harness.json";
+
+	/**
+	 * The suffix of the JMH secondary metric reporting the bytes allocated per operation (GC profiler).
+	 */
+	private static final String ALLOCATION_METRIC_SUFFIX = "gc.alloc.rate.norm";
+
+	private static final double DEFAULT_THROUGHPUT_TOLERANCE = 0.2;
+	private static final double DEFAULT_ALLOCATION_TOLERANCE = 0.1;
+	private static final double DEFAULT_PEAK_HEAP_TOLERANCE = 0.25;
+
+	/**
+	 * The kinds of compared metrics.
+	 */
+	public enum Metric {
+		THROUGHPUT("throughput", true),
+		ALLOCATION("allocation", false),
+		PEAK_HEAP("peak heap", false);
+
+		private final String label;
+		private final boolean higherIsBetter;
+
+		private Metric(String label, boolean higherIsBetter) {
+			this.label = label;
+			this.higherIsBetter = higherIsBetter;
+		}
+	}
+
+	/**
+	 * The maximum relative degradation allowed for each kind of metric (e.g. 0.2 for 20%).
+	 */
+	private final Map<Metric, Double> tolerances = new LinkedHashMap<Metric, Double>();
+
+	/**
+	 * The flag stating whether missing baseline files fail the gate, rather than being recorded out of the results.
+	 */
+	private boolean requireBaselines = false;
+
+	private int regressionsNum = 0;
+	private int missingBaselinesNum = 0;
+	private int recordedBaselinesNum = 0;
+
+	public PerformanceGate() {
+		tolerances.put(Metric.THROUGHPUT, DEFAULT_THROUGHPUT_TOLERANCE);
+		tolerances.put(Metric.ALLOCATION, DEFAULT_ALLOCATION_TOLERANCE);
+		tolerances.put(Metric.PEAK_HEAP, DEFAULT_PEAK_HEAP_TOLERANCE);
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+
+		PerformanceGate gate = new PerformanceGate();
+		File baselinesDir = new File(args[0]);
+		File resultsDir = new File(args[1]);
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].equals("-t") && i + 1 < args.length) {
+				gate.tolerances.put(Metric.THROUGHPUT, Double.parseDouble(args[++i]));
+			} else if (args[i].equals("-a") && i + 1 < args.length) {
+				gate.tolerances.put(Metric.ALLOCATION, Double.parseDouble(args[++i]));
+			} else if (args[i].equals("-m") && i + 1 < args.length) {
+				gate.tolerances.put(Metric.PEAK_HEAP, Double.parseDouble(args[++i]));
+			} else if (args[i].equals("--require-baselines")) {
+				gate.requireBaselines = true;
+			} else {
+				System.err.println(USAGE);
+				System.exit(1);
+			}
+		}
+
+		gate.check(new File(baselinesDir, BENCHMARKS_FILE), new File(resultsDir, BENCHMARKS_FILE), false);
+		gate.check(new File(baselinesDir, HARNESS_FILE), new File(resultsDir, HARNESS_FILE), true);
+
+		if (gate.missingBaselinesNum > 0) {
+			System.out.println(gate.missingBaselinesNum + " baseline(s) missing: record them on the reference machine "
+					+ "and check them in.");
+			System.exit(1);
+		}
+		if (gate.recordedBaselinesNum > 0) {
+			System.out.println(gate.recordedBaselinesNum + " missing baseline(s) recorded in " + baselinesDir
+					+ " out of this run: check them in to compare the next runs against them.");
+		}
+		if (gate.regressionsNum > 0) {
+			System.out.println(gate.regressionsNum + " performance regression(s) beyond the tolerance.");
+			System.exit(1);
+		}
+		System.out.println("No performance regression beyond the tolerance.");
+		System.exit(0);
+	}
+
+	/**
+	 * Compare the given results with the given baseline, reporting each metric. If the baseline is missing, the
+	 * results are recorded as the baseline (unless baselines are required).
+	 *
+	 * @param baselineFile The baseline.
+	 * @param resultFile The results.
+	 * @param harness Whether the files are reports of {@link AlignmentHarness}, rather than of JMH.
+	 * @throws IOException if the results cannot be read, or the baseline cannot be recorded.
+	 */
+	public void check(File baselineFile, File resultFile, boolean harness) throws IOException {
+		System.out.println("== " + resultFile.getName());
+		if (!resultFile.isFile())
+			throw new IOException("Results not found: " + resultFile);
+		if (!baselineFile.isFile()) {
+			if (requireBaselines) {
+				System.out.println("No baseline found in " + baselineFile + ".");
+				missingBaselinesNum++;
+			} else {
+				baselineFile.getParentFile().mkdirs();
+				Files.copy(resultFile.toPath(), baselineFile.toPath());
+				System.out.println("No baseline found in " + baselineFile + ": recorded out of these results.");
+				recordedBaselinesNum++;
+			}
+			return;
+		}
+
+		Map<String, Map<Metric, Double>> baseline = harness ? readHarness(baselineFile) : readBenchmarks(baselineFile);
+		Map<String, Map<Metric, Double>> result = harness ? readHarness(resultFile) : readBenchmarks(resultFile);
+		for (Entry<String, Map<Metric, Double>> entry : result.entrySet()) {
+			Map<Metric, Double> baselineMetrics = baseline.get(entry.getKey());
+			for (Entry<Metric, Double> metric : entry.getValue().entrySet()) {
+				Double baselineValue = (baselineMetrics == null) ? null : baselineMetrics.get(metric.getKey());
+				report(entry.getKey(), metric.getKey(), baselineValue, metric.getValue());
+			}
+		}
+		for (String key : baseline.keySet()) {
+			if (!result.containsKey(key))
+				System.out.println(String.format(Locale.ROOT, "%-10s %s", "MISSING", key));
+		}
+	}
+
+	/**
+	 * Report the comparison of a metric with its baseline, counting it if it is a regression.
+	 */
+	private void report(String key, Metric metric, Double baselineValue, double value) {
+		String status;
+		String change = "";
+		if (baselineValue == null) {
+			status = "NEW";
+		} else {
+			double tolerance = tolerances.get(metric);
+			boolean regression = metric.higherIsBetter ?
+					value < baselineValue * (1 - tolerance) : value > baselineValue * (1 + tolerance);
+			status = regression ? "REGRESSION" : "OK";
+			if (regression)
+				regressionsNum++;
+			if (baselineValue != 0)
+				change = String.format(Locale.ROOT, " (%+.1f%%)", 100 * (value - baselineValue) / baselineValue);
+		}
+		System.out.println(String.format(Locale.ROOT, "%-10s %s, %s: %s -> %.4g%s", status, key, metric.label,
+				(baselineValue == null) ? "-" : String.format(Locale.ROOT, "%.4g", baselineValue), value, change));
+	}
+
+	/**
+	 * Read the throughput and the allocation of each benchmark from the given JMH report.
+	 *
+	 * @param file The JSON report of JMH.
+	 * @return The metrics, by benchmark and parameters.
+	 * @throws IOException if the report cannot be read.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Map<Metric, Double>> readBenchmarks(File file) throws IOException {
+		Map<String, Map<Metric, Double>> result = new TreeMap<String, Map<Metric, Double>>();
+		for (Object benchmark : (List<Object>) JsonReader.parse(file)) {
+			Map<String, Object> fields = (Map<String, Object>) benchmark;
+
+			// identify the benchmark by its name and parameters
+			String key = (String) fields.get("benchmark");
+			Map<String, Object> params = (Map<String, Object>) fields.get("params");
+			if (params != null)
+				key += new TreeMap<String, Object>(params).toString();
+
+			Map<Metric, Double> metrics = new LinkedHashMap<Metric, Double>();
+			metrics.put(Metric.THROUGHPUT, toDouble(((Map<String, Object>) fields.get("primaryMetric")).get("score")));
+			Map<String, Object> secondaryMetrics = (Map<String, Object>) fields.get("secondaryMetrics");
+			if (secondaryMetrics != null) {
+				for (Entry<String, Object> secondaryMetric : secondaryMetrics.entrySet()) {
+					if (secondaryMetric.getKey().endsWith(ALLOCATION_METRIC_SUFFIX))
+						metrics.put(Metric.ALLOCATION,
+								toDouble(((Map<String, Object>) secondaryMetric.getValue()).get("score")));
+				}
+			}
+			result.put(key, metrics);
+		}
+		return result;
+	}
+
+	/**
+	 * Read the median throughput and peak heap usage of each configuration from the given report of
+	 * {@link AlignmentHarness}.
+	 *
+	 * @param file The JSON report of the harness.
+	 * @return The metrics, by fixture, strategy and parallelism.
+	 * @throws IOException if the report cannot be read.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Map<Metric, Double>> readHarness(File file) throws IOException {
+		Map<String, List<Double>> throughputs = new TreeMap<String, List<Double>>();
+		Map<String, List<Double>> peakHeaps = new TreeMap<String, List<Double>>();
+		Map<String, Object> report = (Map<String, Object>) JsonReader.parse(file);
+		for (Object run : (List<Object>) report.get("runs")) {
+			Map<String, Object> fields = (Map<String, Object>) run;
+			String key = fields.get("fixture") + "[strategy=" + fields.get("strategy") + ", parallelism="
+					+ (int) toDouble(fields.get("parallelism")) + "]";
+			if (!throughputs.containsKey(key)) {
+				throughputs.put(key, new ArrayList<Double>());
+				peakHeaps.put(key, new ArrayList<Double>());
+			}
+			throughputs.get(key).add(toDouble(fields.get("throughputTracesPerSec")));
+			peakHeaps.get(key).add(toDouble(fields.get("peakHeapBytes")));
+		}
+
+		Map<String, Map<Metric, Double>> result = new TreeMap<String, Map<Metric, Double>>();
+		for (String key : throughputs.keySet()) {
+			Map<Metric, Double> metrics = new LinkedHashMap<Metric, Double>();
+			metrics.put(Metric.THROUGHPUT, median(throughputs.get(key)));
+			metrics.put(Metric.PEAK_HEAP, median(peakHeaps.get(key)));
+			result.put(key, metrics);
+		}
+		return result;
+	}
+
+	private static double median(List<Double> values) {
+		List<Double> sorted = new ArrayList<Double>(values);
+		Collections.sort(sorted);
+		int middle = sorted.size() / 2;
+		return (sorted.size() % 2 == 1) ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+	}
+
+	/**
+	 * @return the numeric value of a JSON number, or of a string such as "NaN" (as written by JMH)
+	 */
+	private static double toDouble(Object value) {
+		if (value instanceof Number)
+			return ((Number) value).doubleValue();
+		return Double.parseDouble(String.valueOf(value));
+	}
+
+}
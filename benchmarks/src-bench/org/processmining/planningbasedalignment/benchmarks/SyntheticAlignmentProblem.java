@@ -0,0 +1,125 @@
+package org.processmining.planningbasedalignment.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.deckfour.xes.classification.XEventNameClassifier;
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryNaiveImpl;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XTrace;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.planningbasedalignment.plugins.generator.algorithms.BlockStructuredNetGenerator;
+import org.processmining.planningbasedalignment.plugins.generator.models.SyntheticPetrinet;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.BlockStructuredNetGeneratorParameters;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlannerSearchStrategy;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
+import org.processmining.plugins.connectionfactories.logpetrinet.TransEvClassMapping;
+
+/**
+ * A synthetic alignment problem, made of a Petri net and of some traces to be aligned on it. The net is generated by
+ * {@link BlockStructuredNetGenerator} and each of its activities is mapped to the event class with the same name.
+ * Traces are random sequences of the activities, where consecutive events are grouped in isochronous groups of the
+ * given size. Problems are reproducible, since nets and traces are generated from fixed seeds.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class SyntheticAlignmentProblem {
+
+	private static final long SEED = 42;
+	private static final String DUMMY_EVENT_CLASS = "DUMMY";
+
+	private final Petrinet petrinet;
+	private final PlanningBasedAlignmentParameters parameters;
+	private final List<XTrace> traces;
+
+	/**
+	 * @param netParameters The parameters of the generation of the net.
+	 * @param traceLength The number of events of each trace.
+	 * @param groupSize The number of consecutive events with the same timestamp.
+	 * @param tracesNum The number of traces.
+	 */
+	public SyntheticAlignmentProblem(
+			BlockStructuredNetGeneratorParameters netParameters, int traceLength, int groupSize, int tracesNum) {
+
+		SyntheticPetrinet net = new BlockStructuredNetGenerator(netParameters).generate();
+		this.petrinet = net.getPetrinet();
+
+		// map each activity to the event class with the same name
+		List<String> activities = new ArrayList<String>();
+		Map<String, XEventClass> eventClasses = new HashMap<String, XEventClass>();
+		Map<XEventClass, Integer> movesOnLogCosts = new HashMap<XEventClass, Integer>();
+		for (int i = 0; i < netParameters.getActivitiesNum(); i++) {
+			String activity = BlockStructuredNetGenerator.ACTIVITY_PREFIX + i;
+			XEventClass eventClass = new XEventClass(activity, i);
+			activities.add(activity);
+			eventClasses.put(activity, eventClass);
+			movesOnLogCosts.put(eventClass, 1);
+		}
+
+		TransEvClassMapping mapping = new TransEvClassMapping(
+				new XEventNameClassifier(), new XEventClass(DUMMY_EVENT_CLASS, Integer.MAX_VALUE));
+		Map<Transition, Integer> movesOnModelCosts = new HashMap<Transition, Integer>();
+		Map<Transition, Integer> synchronousMovesCosts = new HashMap<Transition, Integer>();
+		for (Transition transition : petrinet.getTransitions()) {
+			if (transition.isInvisible()) {
+				mapping.put(transition, mapping.getDummyEventClass());
+				movesOnModelCosts.put(transition, 0);
+			} else {
+				mapping.put(transition, eventClasses.get(transition.getLabel()));
+				movesOnModelCosts.put(transition, 1);
+			}
+			synchronousMovesCosts.put(transition, 0);
+		}
+
+		this.parameters = new PlanningBasedAlignmentParameters();
+		parameters.setInitialMarking(net.getInitialMarking());
+		parameters.setFinalMarking(net.getFinalMarking());
+		parameters.setTransitionsEventsMapping(mapping);
+		parameters.setMovesOnLogCosts(movesOnLogCosts);
+		parameters.setMovesOnModelCosts(movesOnModelCosts);
+		parameters.setSynchronousMovesCosts(synchronousMovesCosts);
+		parameters.setPlannerSearchStrategy(PlannerSearchStrategy.BLIND_A_STAR);
+		parameters.setPartiallyOrderedEvents(groupSize > 1);
+
+		// build the traces
+		this.traces = new ArrayList<XTrace>(tracesNum);
+		XFactory factory = new XFactoryNaiveImpl();
+		Random random = new Random(SEED);
+		for (int i = 0; i < tracesNum; i++) {
+			XTrace trace = factory.createTrace();
+			XConceptExtension.instance().assignName(trace, "trace " + i);
+			for (int j = 0; j < traceLength; j++) {
+				XEvent event = factory.createEvent();
+				XConceptExtension.instance().assignName(event, activities.get(random.nextInt(activities.size())));
+				XTimeExtension.instance().assignTimestamp(event, new Date((j / groupSize) * 60000L));
+				trace.add(event);
+			}
+			traces.add(trace);
+		}
+	}
+
+	/* GETTERS & SETTERS */
+
+	public Petrinet getPetrinet() {
+		return petrinet;
+	}
+
+	public PlanningBasedAlignmentParameters getParameters() {
+		return parameters;
+	}
+
+	public List<XTrace> getTraces() {
+		return traces;
+	}
+
+}
@@ -3,10 +3,14 @@
 from __future__ import absolute_import, division, print_function  # to run both on Python 2 and 3
 
 import glob
+import os
 import re
 import shutil
 import subprocess
 import sys
+import tempfile
+import threading
+import time
 from os import path
 from os import remove
 
@@ -20,11 +24,70 @@ DECIMAL_NUMBER_REGEX = '\-?\d+(,\d{3})*(\.\d+)*'
 INPUT_SEARCH_TIME_ENTRY_PREFIX = 'Total time: ' + DECIMAL_NUMBER_REGEX
 INPUT_EXPANDED_STATES_ENTRY_PREFIX = 'Expanded ' + DECIMAL_NUMBER_REGEX + ' state'
 INPUT_GENERATED_STATES_ENTRY_PREFIX = 'Generated ' + DECIMAL_NUMBER_REGEX + ' state'
+INPUT_TRANSLATOR_TIME_ENTRY_PREFIX = 'Done! \\[' + DECIMAL_NUMBER_REGEX + 's CPU'
+INPUT_PEAK_MEMORY_ENTRY_PREFIX = 'Peak memory: ' + DECIMAL_NUMBER_REGEX + ' KB'
+INPUT_GROUNDED_ACTIONS_ENTRY_PREFIX = 'Translator operators: ' + DECIMAL_NUMBER_REGEX
 OUTPUT_SEARCH_TIME_ENTRY_PREFIX = '; searchtime = '
 OUTPUT_EXPANDED_STATES_ENTRY_PREFIX = '; expandedstates = '
 OUTPUT_GENERATED_STATES_ENTRY_PREFIX = '; generatedstates = '
+OUTPUT_TRANSLATOR_TIME_ENTRY_PREFIX = '; translatortime = '
+OUTPUT_PEAK_MEMORY_ENTRY_PREFIX = '; peakmemory = '
+OUTPUT_PEAK_RSS_ENTRY_PREFIX = '; peakrss = '
+OUTPUT_GROUNDED_ACTIONS_ENTRY_PREFIX = '; groundedactions = '
 MILLISECS_PER_SECOND = 1000
 
+# when given, alignments are streamed on stdout (between the markers below) instead of being left in plan files
+STREAM_FLAG = '--stream'
+OUTPUT_BEGIN_ALIGNMENT_MARKER = '; begin alignment '
+OUTPUT_END_ALIGNMENT_MARKER = '; end alignment '
+
+# printed on stdout once the planner completes a trace, to let the caller track progress
+OUTPUT_COMPLETED_TRACE_MARKER = '; completed trace '
+
+# when given, the raw planner output is always forwarded on stdout (otherwise, only the tail of failed runs)
+DEBUG_FLAG = '--debug'
+DIAGNOSTIC_LINES_NUM = 50
+
+
+def search_number(entry_regex, text):
+    """Return the number in the first entry of the given text matching the given regex (None if not found)."""
+    entry = re.search(entry_regex, text)
+    if entry is None:
+        return None
+    return re.search(DECIMAL_NUMBER_REGEX, entry.group(0)).group(0).replace(',', '')
+
+
+def run_planner(args, work_dir):
+    """
+    Run the planner with the given arguments in the given working directory (where the translator writes its
+    intermediate files, e.g. output.sas) and wait for its completion.
+
+    Return the exit code, the standard output, the standard error and the peak resident set size (in KB) of the
+    planner process, including the sub-processes it waited for (None if it cannot be measured on this platform).
+    """
+    process = subprocess.Popen(args, stdout=subprocess.PIPE, stderr=subprocess.PIPE, cwd=work_dir)
+    if not hasattr(os, 'wait4'):
+        out, err = process.communicate()
+        return process.returncode, out, err, None
+
+    # drain stderr in background, so that the planner cannot block on a full pipe while stdout is read
+    err_chunks = []
+    err_reader = threading.Thread(target=lambda: err_chunks.append(process.stderr.read()))
+    err_reader.start()
+    out = process.stdout.read()
+    err_reader.join()
+    process.stdout.close()
+    process.stderr.close()
+
+    # reap the process ourselves, to get its resource usage
+    _, status, usage = os.wait4(process.pid, 0)
+    process.returncode = os.WEXITSTATUS(status) if os.WIFEXITED(status) else -os.WTERMSIG(status)
+
+    # ru_maxrss is expressed in bytes on macOS and in KB elsewhere
+    peak_rss = usage.ru_maxrss // 1024 if sys.platform == 'darwin' else usage.ru_maxrss
+    return process.returncode, out, b''.join(err_chunks), peak_rss
+
+
 # positions expressed with respect to the ORIGINAL sys.argv
 ROOT_DIR_POS = 1
 SRC_DIR_POS = ROOT_DIR_POS + 1
@@ -55,6 +118,15 @@ if __name__ == '__main__':
     # '< chosen_heuristic >',
     # '--search',
     # '< chosen_strategy >']
+    #
+    # optionally, the STREAM_FLAG and the DEBUG_FLAG can be given anywhere before '< root_dir_path >'.
+
+    # strip optional flags, so that positions are not affected
+    STREAM_MODE = STREAM_FLAG in sys.argv[:ROOT_DIR_POS + 2]
+    DEBUG_MODE = DEBUG_FLAG in sys.argv[:ROOT_DIR_POS + 2]
+    for flag in [STREAM_FLAG, DEBUG_FLAG]:
+        if flag in sys.argv[:ROOT_DIR_POS + 2]:
+            sys.argv.remove(flag)
 
     # to be kept equal to equivalent constants in ResultPerspective.java
     ROOT_DIR = sys.argv[ROOT_DIR_POS]
@@ -64,11 +136,16 @@ if __name__ == '__main__':
 
     planner_args = sys.argv[PLANNER_MANAGER_ARGS_NUM:]
 
+    # run the planner in a private working directory (next to the output directory), so that concurrent planner
+    # managers never share the intermediate files of the planner
+    WORK_DIR = tempfile.mkdtemp(prefix='planner_work_', dir=path.dirname(path.abspath(DEST_DIR)))
+
     for domain in glob.glob(path.join(SRC_DIR, DOMAIN_FILE_PATTERN)):
         # extract trace number
         basename = path.basename(domain)
         trace_number = re.search(INTEGER_NUMBER_REGEX, basename).group(0)
 
+        # to be kept equal to equivalent constant in PlannerOutputStreamReader.java
         print('processing trace #{0:s}...'.format(trace_number))
 
         # get correct file names for problem and output
@@ -79,36 +156,78 @@ if __name__ == '__main__':
         planner_args[ALIGNMENT_FILE_POS] = alignment
         planner_args[DOMAIN_FILE_POS] = domain
         planner_args[PROBLEM_FILE_POS] = problem
-        process = subprocess.Popen(planner_args, stdout=subprocess.PIPE, stderr=subprocess.PIPE)
-
-        # get planner search time from process std out
-        out, err = process.communicate()
-
-        # log errors to stderr if needed
-        if err:
-            sys.stderr.write(str(err) + '\n')
+        planner_start_time = time.time()
+        returncode, out, err, trace_peak_rss = run_planner(planner_args, WORK_DIR)
+        planner_time_ms = (time.time() - planner_start_time) * MILLISECS_PER_SECOND
 
         # decode process output to prevent errors when running with Python 3
-        out = out.decode('utf-8')
+        out = out.decode('utf-8', 'replace')
+        err = err.decode('utf-8', 'replace')
+
+        # forward raw planner output and errors for diagnostics, to be kept in the per-trace buffer of the caller
+        # (only the tail, unless in debug mode)
+        plan_found = returncode == 0 and path.isfile(alignment)
+        if DEBUG_MODE or not plan_found:
+            out_lines = out.splitlines()
+            err_lines = err.splitlines()
+            if not DEBUG_MODE:
+                out_lines = out_lines[-DIAGNOSTIC_LINES_NUM:]
+                err_lines = err_lines[-DIAGNOSTIC_LINES_NUM:]
+            sys.stdout.write('\n'.join(out_lines + err_lines) + '\n')
 
         # parse alignment time
-        trace_alignment_time = re.search(INPUT_SEARCH_TIME_ENTRY_PREFIX, out).group(0)
-        trace_alignment_time = re.search(DECIMAL_NUMBER_REGEX, trace_alignment_time).group(0)
-        trace_alignment_time_ms = float(trace_alignment_time) * MILLISECS_PER_SECOND
+        trace_alignment_time = search_number(INPUT_SEARCH_TIME_ENTRY_PREFIX, out)
 
         # parse alignment expanded states
-        trace_alignment_expanded_states = re.search(INPUT_EXPANDED_STATES_ENTRY_PREFIX, out).group(0)
-        trace_alignment_expanded_states = re.search(DECIMAL_NUMBER_REGEX, trace_alignment_expanded_states).group(0)
+        trace_alignment_expanded_states = search_number(INPUT_EXPANDED_STATES_ENTRY_PREFIX, out)
 
         # parse alignment generated states
-        trace_alignment_generated_states = re.search(INPUT_GENERATED_STATES_ENTRY_PREFIX, out).group(0)
-        trace_alignment_generated_states = re.search(DECIMAL_NUMBER_REGEX, trace_alignment_generated_states).group(0)
-
-        # append stats to output file
-        with open(alignment, 'a') as alignment_file:
-            alignment_file.write(OUTPUT_SEARCH_TIME_ENTRY_PREFIX + str(trace_alignment_time_ms) + 'ms\n')
-            alignment_file.write(OUTPUT_EXPANDED_STATES_ENTRY_PREFIX + str(trace_alignment_expanded_states) + '\n')
-            alignment_file.write(OUTPUT_GENERATED_STATES_ENTRY_PREFIX + str(trace_alignment_generated_states))
+        trace_alignment_generated_states = search_number(INPUT_GENERATED_STATES_ENTRY_PREFIX, out)
+
+        # parse translator time and search peak memory
+        trace_translator_time = search_number(INPUT_TRANSLATOR_TIME_ENTRY_PREFIX, out)
+        trace_peak_memory = search_number(INPUT_PEAK_MEMORY_ENTRY_PREFIX, out)
+
+        # parse number of actions grounded by the translator
+        trace_grounded_actions = search_number(INPUT_GROUNDED_ACTIONS_ENTRY_PREFIX, out)
+
+        stats = []
+        if trace_alignment_time is not None:
+            stats.append(OUTPUT_SEARCH_TIME_ENTRY_PREFIX + str(float(trace_alignment_time) * MILLISECS_PER_SECOND) + 'ms')
+        if trace_alignment_expanded_states is not None:
+            stats.append(OUTPUT_EXPANDED_STATES_ENTRY_PREFIX + trace_alignment_expanded_states)
+        if trace_alignment_generated_states is not None:
+            stats.append(OUTPUT_GENERATED_STATES_ENTRY_PREFIX + trace_alignment_generated_states)
+        if trace_translator_time is not None:
+            stats.append(OUTPUT_TRANSLATOR_TIME_ENTRY_PREFIX + str(float(trace_translator_time) * MILLISECS_PER_SECOND) + 'ms')
+        if trace_peak_memory is not None:
+            stats.append(OUTPUT_PEAK_MEMORY_ENTRY_PREFIX + trace_peak_memory + 'KB')
+        if trace_peak_rss is not None:
+            stats.append(OUTPUT_PEAK_RSS_ENTRY_PREFIX + str(trace_peak_rss) + 'KB')
+        if trace_grounded_actions is not None:
+            stats.append(OUTPUT_GROUNDED_ACTIONS_ENTRY_PREFIX + trace_grounded_actions)
+
+        if plan_found and STREAM_MODE:
+            # send plan and stats on stdout, then drop the plan file written by the planner
+            with open(alignment, 'r') as alignment_file:
+                plan = alignment_file.read().splitlines()
+
+            sys.stdout.write(OUTPUT_BEGIN_ALIGNMENT_MARKER + trace_number + '\n')
+            sys.stdout.write('\n'.join(plan + stats) + '\n')
+            sys.stdout.write(OUTPUT_END_ALIGNMENT_MARKER + trace_number + '\n')
+            sys.stdout.flush()
+
+            try:
+                remove(alignment)
+            except OSError:
+                pass
+        elif plan_found:
+            # append stats to output file
+            with open(alignment, 'a') as alignment_file:
+                alignment_file.write('\n'.join(stats))
+
+        sys.stdout.write('{0:s}{1:s} in {2:.1f} ms\n'.format(OUTPUT_COMPLETED_TRACE_MARKER, trace_number, planner_time_ms))
+        sys.stdout.flush()
 
         try:
             # remove domain and problem files
@@ -119,8 +238,8 @@ if __name__ == '__main__':
             pass
 
     try:
-        # cleanup
-        remove(path.join(ROOT_DIR, 'output.sas'))
+        # cleanup (intermediate files of the planner, e.g. output.sas)
+        shutil.rmtree(WORK_DIR)
 
         # remove input directory
         if not DEV:
@@ -0,0 +1,81 @@
+package org.processmining.planningbasedalignment.plugins.generator;
+
+import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.models.connections.petrinets.behavioral.FinalMarkingConnection;
+import org.processmining.models.connections.petrinets.behavioral.InitialMarkingConnection;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.generator.algorithms.BlockStructuredNetGenerator;
+import org.processmining.planningbasedalignment.plugins.generator.models.SyntheticPetrinet;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.BlockStructuredNetGeneratorParameters;
+import org.processmining.planningbasedalignment.plugins.generator.ui.BlockStructuredNetGeneratorConfiguration;
+import org.processmining.planningbasedalignment.utils.HelpMessages;
+
+/**
+ * The ProM plug-in for generating random block-structured Petri nets of configurable size and concurrency, e.g. to
+ * benchmark the alignment on models larger than the available ones.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+@Plugin(
+	name = "Generate Block-structured Petri Net",
+	parameterLabels = { "Parameters" },
+	returnLabels = { "Petri Net", "Initial Marking", "Final Marking" },
+	returnTypes = { Petrinet.class, Marking.class, Marking.class },
+	userAccessible = true
+)
+public class BlockStructuredNetGeneratorPlugin {
+
+	/**
+	 * The plug-in variant that generates a Petri net with the parameters provided by the user.
+	 *
+	 * @param context The context to run in.
+	 * @return The Petri net, its initial marking and its final marking.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE, uiLabel = UITopiaVariant.USEVARIANT)
+	@PluginVariant(variantLabel = "Generate Block-structured Petri Net", requiredParameterLabels = {})
+	public Object[] generateNet(UIPluginContext context) {
+
+		// start configuration GUI to tune parameters
+		BlockStructuredNetGeneratorConfiguration configurationUI = new BlockStructuredNetGeneratorConfiguration();
+		BlockStructuredNetGeneratorParameters parameters = configurationUI.getParameters(context);
+
+		if (parameters == null) {
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+		return generateNet(context, parameters);
+	}
+
+	/**
+	 * The plug-in variant that generates a Petri net with the given parameters, without any UI.
+	 *
+	 * @param context The context to run in.
+	 * @param parameters The parameters of the generation.
+	 * @return The Petri net, its initial marking and its final marking.
+	 */
+	@PluginVariant(variantLabel = "Generate Block-structured Petri Net", requiredParameterLabels = { 0 })
+	public Object[] generateNet(PluginContext context, BlockStructuredNetGeneratorParameters parameters) {
+		SyntheticPetrinet net = new BlockStructuredNetGenerator(parameters).generate();
+		Petrinet petrinet = net.getPetrinet();
+
+		// connect the markings to the net, so that the other plug-ins find them
+		context.getConnectionManager().addConnection(new InitialMarkingConnection(petrinet, net.getInitialMarking()));
+		context.getConnectionManager().addConnection(new FinalMarkingConnection(petrinet, net.getFinalMarking()));
+
+		// set result labels
+		context.getFutureResult(0).setLabel(petrinet.getLabel());
+		context.getFutureResult(1).setLabel("Initial Marking of " + petrinet.getLabel());
+		context.getFutureResult(2).setLabel("Final Marking of " + petrinet.getLabel());
+
+		return new Object[] { petrinet, net.getInitialMarking(), net.getFinalMarking() };
+	}
+
+}
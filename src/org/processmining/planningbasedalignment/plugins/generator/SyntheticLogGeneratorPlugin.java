@@ -0,0 +1,114 @@
+package org.processmining.planningbasedalignment.plugins.generator;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.model.XLog;
+import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
+import org.processmining.datapetrinets.utils.MarkingsHelper;
+import org.processmining.framework.connections.ConnectionCannotBeObtained;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.framework.plugin.events.Logger.MessageLevel;
+import org.processmining.models.connections.petrinets.behavioral.FinalMarkingConnection;
+import org.processmining.models.connections.petrinets.behavioral.InitialMarkingConnection;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.generator.algorithms.SyntheticLogGenerator;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.SyntheticLogGeneratorParameters;
+import org.processmining.planningbasedalignment.plugins.generator.ui.SyntheticLogGeneratorConfiguration;
+import org.processmining.planningbasedalignment.utils.HelpMessages;
+
+/**
+ * The ProM plug-in for generating random event logs from a Petri net, with controlled trace lengths, noise and
+ * timestamp granularity (hence partial ordering), e.g. to benchmark the alignment on logs larger than the available
+ * ones.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+@Plugin(
+	name = "Generate Synthetic Event Log",
+	parameterLabels = { "Petri Net", "Parameters" },
+	returnLabels = { "Synthetic Event Log" },
+	returnTypes = { XLog.class },
+	userAccessible = true
+)
+public class SyntheticLogGeneratorPlugin {
+
+	/**
+	 * The plug-in variant that generates an event log from the given Petri net, with the parameters provided by the
+	 * user.
+	 *
+	 * @param context The context to run in.
+	 * @param petrinet The Petri net to play out.
+	 * @return The event log.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE, uiLabel = UITopiaVariant.USEVARIANT)
+	@PluginVariant(variantLabel = "Generate Synthetic Event Log", requiredParameterLabels = { 0 })
+	public XLog generateLog(UIPluginContext context, Petrinet petrinet) {
+
+		// start configuration GUI to tune parameters
+		SyntheticLogGeneratorConfiguration configurationUI = new SyntheticLogGeneratorConfiguration();
+		SyntheticLogGeneratorParameters parameters = configurationUI.getParameters(context);
+
+		if (parameters == null) {
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+		return generateLog(context, petrinet, parameters);
+	}
+
+	/**
+	 * The plug-in variant that generates an event log from the given Petri net, with the given parameters, without
+	 * any UI. The markings of the net are the ones connected to it, if any, otherwise they are guessed from its
+	 * structure.
+	 *
+	 * @param context The context to run in.
+	 * @param petrinet The Petri net to play out.
+	 * @param parameters The parameters of the generation.
+	 * @return The event log.
+	 */
+	@PluginVariant(variantLabel = "Generate Synthetic Event Log", requiredParameterLabels = { 0, 1 })
+	public XLog generateLog(PluginContext context, Petrinet petrinet, SyntheticLogGeneratorParameters parameters) {
+
+		Marking initialMarking = getInitialMarking(context, petrinet);
+		Marking finalMarking = getFinalMarking(context, petrinet);
+		if (initialMarking == null || finalMarking == null) {
+			context.log("Cannot find the markings of " + petrinet.getLabel() + ".", MessageLevel.ERROR);
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+
+		context.getProgress().setIndeterminate(true);
+		XLog log = new SyntheticLogGenerator(petrinet, initialMarking, finalMarking, parameters).generate();
+
+		// set result label
+		context.getFutureResult(0).setLabel(XConceptExtension.instance().extractName(log));
+
+		return log;
+	}
+
+	private Marking getInitialMarking(PluginContext context, Petrinet petrinet) {
+		try {
+			return context.getConnectionManager()
+					.getFirstConnection(InitialMarkingConnection.class, context, petrinet)
+					.getObjectWithRole(InitialMarkingConnection.MARKING);
+		} catch (ConnectionCannotBeObtained e) {
+			return MarkingsHelper.guessInitialMarkingByStructure(petrinet);
+		}
+	}
+
+	private Marking getFinalMarking(PluginContext context, Petrinet petrinet) {
+		try {
+			return context.getConnectionManager()
+					.getFirstConnection(FinalMarkingConnection.class, context, petrinet)
+					.getObjectWithRole(FinalMarkingConnection.MARKING);
+		} catch (ConnectionCannotBeObtained e) {
+			return MarkingsHelper.guessFinalMarkingByStructure(petrinet);
+		}
+	}
+
+}
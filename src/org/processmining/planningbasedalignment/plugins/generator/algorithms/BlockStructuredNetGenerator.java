@@ -0,0 +1,178 @@
+package org.processmining.planningbasedalignment.plugins.generator.algorithms;
+
+import java.util.Random;
+
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.graphbased.directed.petrinet.impl.PetrinetFactory;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.generator.models.SyntheticPetrinet;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.BlockStructuredNetGeneratorParameters;
+
+/**
+ * Generate random block-structured (hence sound) workflow nets. The net is built top-down from a single block
+ * between the source and the sink places, containing all the activities. A block with more than one activity is
+ * randomly turned into a sequence, a parallel block (with invisible AND-split and AND-join), an exclusive choice or a
+ * loop (with invisible enter and exit transitions, where the body is followed either by the exit or by a redo block
+ * leading back to the start of the body), whose branches split its activities evenly, so that the depth of the nesting
+ * is logarithmic in the number of activities. Nets are reproducible, since they are generated from the given seed.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class BlockStructuredNetGenerator {
+
+	public static final String ACTIVITY_PREFIX = "activity ";
+
+	private final BlockStructuredNetGeneratorParameters parameters;
+
+	/**
+	 * @param parameters The parameters of the generation.
+	 * @throws IllegalArgumentException if the parameters are not valid.
+	 */
+	public BlockStructuredNetGenerator(BlockStructuredNetGeneratorParameters parameters) {
+		if (parameters.getActivitiesNum() < 1)
+			throw new IllegalArgumentException("The number of activities must be positive.");
+		if (parameters.getMaxBranches() < 2)
+			throw new IllegalArgumentException("The maximum number of branches must be at least 2.");
+		if (parameters.getParallelProbability() < 0 || parameters.getChoiceProbability() < 0
+				|| parameters.getLoopProbability() < 0 || parameters.getParallelProbability()
+						+ parameters.getChoiceProbability() + parameters.getLoopProbability() > 1)
+			throw new IllegalArgumentException("The probabilities of the blocks must be non-negative and sum up to "
+					+ "at most 1.");
+
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Generate a new net.
+	 *
+	 * @return The net, with its initial marking (a token in the source place) and final marking (a token in the sink
+	 *         place).
+	 */
+	public SyntheticPetrinet generate() {
+		Petrinet petrinet = PetrinetFactory.newPetrinet("Synthetic net (" + parameters.getActivitiesNum()
+				+ " activities, seed " + parameters.getSeed() + ")");
+		Place source = petrinet.addPlace("source");
+		Place sink = petrinet.addPlace("sink");
+
+		NetBuilder builder = new NetBuilder(petrinet, new Random(parameters.getSeed()));
+		builder.addBlock(source, sink, parameters.getActivitiesNum());
+
+		Marking initialMarking = new Marking();
+		initialMarking.add(source);
+		Marking finalMarking = new Marking();
+		finalMarking.add(sink);
+		return new SyntheticPetrinet(petrinet, initialMarking, finalMarking);
+	}
+
+	/**
+	 * The state of the generation of a net.
+	 */
+	private class NetBuilder {
+
+		private final Petrinet petrinet;
+		private final Random random;
+		private int placesNum = 0;
+		private int activitiesNum = 0;
+		private int blocksNum = 0;
+
+		private NetBuilder(Petrinet petrinet, Random random) {
+			this.petrinet = petrinet;
+			this.random = random;
+		}
+
+		/**
+		 * Add a random block with the given number of activities, consuming from the given input place and producing
+		 * in the given output place. Only the arcs leaving the input place and entering the output place are added,
+		 * since these places may be shared with other blocks (the branches of a choice, or the body, the redo block
+		 * and the exit of a loop).
+		 */
+		private void addBlock(Place input, Place output, int size) {
+			if (size == 1) {
+				Transition activity = petrinet.addTransition(ACTIVITY_PREFIX + activitiesNum++);
+				petrinet.addArc(input, activity);
+				petrinet.addArc(activity, output);
+				return;
+			}
+
+			int block = blocksNum++;
+			double operator = random.nextDouble();
+			if (operator < parameters.getParallelProbability()) {
+				Transition split = addInvisibleTransition("tau split " + block);
+				Transition join = addInvisibleTransition("tau join " + block);
+				petrinet.addArc(input, split);
+				petrinet.addArc(join, output);
+				for (int branchSize : splitSize(size, randomBranchesNum(size))) {
+					Place branchInput = addPlace();
+					Place branchOutput = addPlace();
+					petrinet.addArc(split, branchInput);
+					petrinet.addArc(branchOutput, join);
+					addBlock(branchInput, branchOutput, branchSize);
+				}
+
+			} else if (operator < parameters.getParallelProbability() + parameters.getChoiceProbability()) {
+				for (int branchSize : splitSize(size, randomBranchesNum(size)))
+					addBlock(input, output, branchSize);
+
+			} else if (operator < parameters.getParallelProbability() + parameters.getChoiceProbability()
+					+ parameters.getLoopProbability()) {
+				int[] sizes = splitSize(size, 2);
+				Transition enter = addInvisibleTransition("tau enter " + block);
+				Transition exit = addInvisibleTransition("tau exit " + block);
+				Place bodyInput = addPlace();
+				Place bodyOutput = addPlace();
+				petrinet.addArc(input, enter);
+				petrinet.addArc(enter, bodyInput);
+				petrinet.addArc(bodyOutput, exit);
+				petrinet.addArc(exit, output);
+				addBlock(bodyInput, bodyOutput, sizes[0]);
+				addBlock(bodyOutput, bodyInput, sizes[1]);
+
+			} else {
+				Place place = input;
+				int[] sizes = splitSize(size, randomBranchesNum(size));
+				for (int i = 0; i < sizes.length; i++) {
+					Place next = (i == sizes.length - 1) ? output : addPlace();
+					addBlock(place, next, sizes[i]);
+					place = next;
+				}
+			}
+		}
+
+		private int randomBranchesNum(int size) {
+			return 2 + random.nextInt(Math.min(parameters.getMaxBranches(), size) - 1);
+		}
+
+		/**
+		 * Split the given number of activities evenly in the given number of branches, assigning the remainder to
+		 * random branches.
+		 */
+		private int[] splitSize(int size, int branchesNum) {
+			int[] sizes = new int[branchesNum];
+			for (int i = 0; i < branchesNum; i++)
+				sizes[i] = size / branchesNum;
+			for (int i = 0; i < size % branchesNum; i++) {
+				int branch;
+				do {
+					branch = random.nextInt(branchesNum);
+				} while (sizes[branch] > size / branchesNum);
+				sizes[branch]++;
+			}
+			return sizes;
+		}
+
+		private Place addPlace() {
+			return petrinet.addPlace("p" + placesNum++);
+		}
+
+		private Transition addInvisibleTransition(String label) {
+			Transition transition = petrinet.addTransition(label);
+			transition.setInvisible(true);
+			return transition;
+		}
+
+	}
+
+}
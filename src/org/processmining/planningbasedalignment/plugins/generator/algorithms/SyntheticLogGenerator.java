@@ -0,0 +1,476 @@
+package org.processmining.planningbasedalignment.plugins.generator.algorithms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.deckfour.xes.classification.XEventNameClassifier;
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryRegistry;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetEdge;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetNode;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.SyntheticLogGeneratorParameters;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms.GranularityPartialOrderMaker;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkConsumer;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkTask;
+
+/**
+ * Generate random event logs from a Petri net. Each trace is obtained by playing out the net from its initial marking
+ * to its final one, firing a random enabled transition at each step and recording the labels of the visible ones. The
+ * length of each trace is drawn from the given distribution: once a playout reaches it, the transitions that are the
+ * closest to the final marking are preferred (so that loops are exited), and the playout whose length is the closest
+ * to it is kept among a bounded number of attempts (nets without loops cannot produce arbitrarily long traces).
+ * Then, noise is added by inserting, removing and swapping events with the given rates, and events are given
+ * exponentially distributed intervals, rounded down to the given granularity.
+ *
+ * Logs are reproducible: each trace is generated from its own random generator, seeded from the given seed and the
+ * position of the trace, so that the traces do not depend on the number of workers generating them in parallel. The
+ * instances are thread-safe.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class SyntheticLogGenerator {
+
+	/**
+	 * The maximum number of playouts generated to get a trace with the drawn length.
+	 */
+	private static final int MAX_PLAYOUT_ATTEMPTS = 100;
+
+	/**
+	 * The maximum number of consecutive playouts that are not closer to the drawn length than the best one (e.g. when
+	 * the net cannot produce traces that short).
+	 */
+	private static final int MAX_FRUITLESS_ATTEMPTS = 10;
+
+	/**
+	 * The maximum number of fired transitions of a playout, as a multiple of the maximum trace length plus the
+	 * number of transitions (to stop playouts in livelocks).
+	 */
+	private static final int MAX_STEPS_FACTOR = 10;
+
+	/**
+	 * The start time of the log, i.e. 2020-01-01T00:00:00Z.
+	 */
+	private static final long START_TIME = 1577836800000L;
+
+	/**
+	 * The increment of the seeds of consecutive traces (the golden ratio, as in SplitMix64).
+	 */
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+	private final Petrinet petrinet;
+	private final SyntheticLogGeneratorParameters parameters;
+	private final GranularityPartialOrderMaker timestampRounder;
+	private final long meanEventInterval;
+
+	/* the net, indexed for fast playouts */
+	private final int[][] presets;
+	private final int[][] postsets;
+	private final int[][] consumers;
+	private final String[] labels;
+	private final int[] initialMarking;
+	private final int[] finalMarking;
+	private final String[] activities;
+
+	/**
+	 * The minimum number of transitions to fire to move a token from the post-set of each transition to a place of
+	 * the final marking.
+	 */
+	private final int[] distances;
+
+	/**
+	 * @param petrinet The Petri net to play out.
+	 * @param initialMarking The initial marking of the net.
+	 * @param finalMarking The final marking of the net.
+	 * @param parameters The parameters of the generation.
+	 * @throws IllegalArgumentException if the parameters are not valid.
+	 */
+	public SyntheticLogGenerator(Petrinet petrinet, Marking initialMarking, Marking finalMarking,
+			SyntheticLogGeneratorParameters parameters) {
+
+		if (parameters.getTracesNum() < 0)
+			throw new IllegalArgumentException("The number of traces must be non-negative.");
+		if (parameters.getMinTraceLength() < 0 || parameters.getMaxTraceLength() < parameters.getMinTraceLength())
+			throw new IllegalArgumentException("The trace lengths must be non-negative, and the minimum one must not "
+					+ "be greater than the maximum one.");
+		if (!isRate(parameters.getInsertionRate()) || !isRate(parameters.getRemovalRate())
+				|| !isRate(parameters.getSwapRate()))
+			throw new IllegalArgumentException("The noise rates must be between 0 and 1.");
+		if (parameters.getMeanEventInterval() < 0 || parameters.getTimestampGranularity() <= 0)
+			throw new IllegalArgumentException("The mean event interval must be non-negative, and the timestamp "
+					+ "granularity must be positive.");
+
+		this.petrinet = petrinet;
+		this.parameters = parameters;
+		this.timestampRounder = new GranularityPartialOrderMaker(
+				parameters.getTimeUnit().toMillis(parameters.getTimestampGranularity()), 0,
+				TimeZone.getTimeZone("UTC"));
+		this.meanEventInterval = parameters.getTimeUnit().toMillis(parameters.getMeanEventInterval());
+
+		// index places
+		Map<Place, Integer> placeIndexes = new HashMap<Place, Integer>();
+		for (Place place : petrinet.getPlaces())
+			placeIndexes.put(place, placeIndexes.size());
+
+		// index transitions pre-sets, post-sets and labels
+		Collection<Transition> transitions = petrinet.getTransitions();
+		int transitionsNum = transitions.size();
+		this.presets = new int[transitionsNum][];
+		this.postsets = new int[transitionsNum][];
+		this.labels = new String[transitionsNum];
+		List<List<Integer>> placeConsumers = new ArrayList<List<Integer>>();
+		for (int p = 0; p < placeIndexes.size(); p++)
+			placeConsumers.add(new ArrayList<Integer>());
+		Set<String> visibleLabels = new LinkedHashSet<String>();
+		int t = 0;
+		for (Transition transition : transitions) {
+			Collection<PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode>> inEdges =
+					petrinet.getInEdges(transition);
+			Collection<PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode>> outEdges =
+					petrinet.getOutEdges(transition);
+
+			presets[t] = new int[inEdges.size()];
+			int i = 0;
+			for (PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode> inEdge : inEdges) {
+				presets[t][i] = placeIndexes.get(inEdge.getSource());
+				placeConsumers.get(presets[t][i++]).add(t);
+			}
+
+			postsets[t] = new int[outEdges.size()];
+			i = 0;
+			for (PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode> outEdge : outEdges)
+				postsets[t][i++] = placeIndexes.get(outEdge.getTarget());
+
+			if (!transition.isInvisible()) {
+				labels[t] = transition.getLabel();
+				visibleLabels.add(transition.getLabel());
+			}
+			t++;
+		}
+		this.consumers = new int[placeConsumers.size()][];
+		for (int p = 0; p < consumers.length; p++) {
+			consumers[p] = new int[placeConsumers.get(p).size()];
+			for (int i = 0; i < consumers[p].length; i++)
+				consumers[p][i] = placeConsumers.get(p).get(i);
+		}
+		this.activities = visibleLabels.toArray(new String[visibleLabels.size()]);
+		this.distances = new int[transitionsNum];
+
+		this.initialMarking = new int[placeIndexes.size()];
+		this.finalMarking = new int[placeIndexes.size()];
+		for (Map.Entry<Place, Integer> entry : placeIndexes.entrySet()) {
+			this.initialMarking[entry.getValue()] = initialMarking.occurrences(entry.getKey());
+			this.finalMarking[entry.getValue()] = finalMarking.occurrences(entry.getKey());
+		}
+		computeDistances();
+	}
+
+	/**
+	 * Compute the distances of the transitions from the final marking, by a backward breadth-first search from the
+	 * places of the final marking.
+	 */
+	private void computeDistances() {
+		List<List<Integer>> placeProducers = new ArrayList<List<Integer>>();
+		for (int p = 0; p < finalMarking.length; p++)
+			placeProducers.add(new ArrayList<Integer>());
+		for (int t = 0; t < postsets.length; t++) {
+			for (int p : postsets[t])
+				placeProducers.get(p).add(t);
+		}
+
+		int[] placeDistances = new int[finalMarking.length];
+		Arrays.fill(placeDistances, Integer.MAX_VALUE);
+		Arrays.fill(distances, Integer.MAX_VALUE);
+		Deque<Integer> queue = new ArrayDeque<Integer>();
+		for (int p = 0; p < finalMarking.length; p++) {
+			if (finalMarking[p] > 0) {
+				placeDistances[p] = 0;
+				queue.add(p);
+			}
+		}
+		while (!queue.isEmpty()) {
+			int p = queue.poll();
+			for (int t : placeProducers.get(p)) {
+				if (distances[t] != Integer.MAX_VALUE)
+					continue;
+				distances[t] = placeDistances[p];
+				for (int q : presets[t]) {
+					if (placeDistances[q] == Integer.MAX_VALUE) {
+						placeDistances[q] = placeDistances[p] + 1;
+						queue.add(q);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generate a new event log, in parallel.
+	 *
+	 * @return The event log.
+	 */
+	public XLog generate() {
+		final XFactory factory = XFactoryRegistry.instance().currentDefault();
+		final XLog log = factory.createLog();
+		log.getExtensions().add(XConceptExtension.instance());
+		log.getExtensions().add(XTimeExtension.instance());
+		log.getClassifiers().add(new XEventNameClassifier());
+		XConceptExtension.instance().assignName(log, "Synthetic log of " + petrinet.getLabel() + " (seed "
+				+ parameters.getSeed() + ")");
+
+		// generate the traces in parallel, collecting them in order
+		boolean completed = ParallelChunkProcessor.process(parameters.getTracesNum(), new ChunkTask<List<XTrace>>() {
+
+			public List<XTrace> process(int chunkStart, int chunkEnd) {
+				List<XTrace> traces = new ArrayList<XTrace>(chunkEnd - chunkStart);
+				for (int i = chunkStart; i < chunkEnd; i++)
+					traces.add(generateTrace(factory, i));
+				return traces;
+			}
+		}, new ChunkConsumer<List<XTrace>>() {
+
+			public void consume(List<XTrace> traces) {
+				log.addAll(traces);
+			}
+		}, null);
+		if (!completed)
+			throw new RuntimeException(new InterruptedException("The generation of the log has been interrupted."));
+		return log;
+	}
+
+	/**
+	 * Generate the trace at the given position of the log.
+	 *
+	 * @param factory The factory of the trace and of its events.
+	 * @param index The position of the trace in the log.
+	 * @return The trace.
+	 */
+	public XTrace generateTrace(XFactory factory, int index) {
+		Random random = new Random(mix(parameters.getSeed() + (index + 1) * SEED_INCREMENT));
+
+		// play out the net and add noise
+		List<String> events = addNoise(random, playOut(random, drawTraceLength(random)));
+
+		// assign exponentially distributed timestamps, rounded down to the granularity
+		XTrace trace = factory.createTrace();
+		XConceptExtension.instance().assignName(trace, "trace " + index);
+		long time = START_TIME + index * meanEventInterval;
+		for (String activity : events) {
+			time += Math.round(-Math.log(1 - random.nextDouble()) * meanEventInterval);
+			XEvent event = factory.createEvent();
+			XConceptExtension.instance().assignName(event, activity);
+			XTimeExtension.instance().assignTimestamp(event, new Date(timestampRounder.modifyTimestamp(time)));
+			trace.add(event);
+		}
+		return trace;
+	}
+
+	/**
+	 * Draw the length of a trace from the distribution given in the parameters.
+	 */
+	private int drawTraceLength(Random random) {
+		int min = parameters.getMinTraceLength();
+		int max = parameters.getMaxTraceLength();
+		switch (parameters.getTraceLengthDistribution()) {
+			case NORMAL :
+				// centered in the interval, that covers 3 standard deviations on both sides (truncated)
+				double mean = (min + max) / 2.0;
+				double standardDeviation = (max - min) / 6.0;
+				long length;
+				do {
+					length = Math.round(mean + random.nextGaussian() * standardDeviation);
+				} while (length < min || length > max);
+				return (int) length;
+			default :
+				return min + random.nextInt(max - min + 1);
+		}
+	}
+
+	/**
+	 * Play out the net from the initial marking to the final one several times, returning the visible labels of the
+	 * playout whose length is the closest to the given one. Playouts that do not reach the final marking (because of
+	 * a deadlock or a livelock) are returned only if no other playout is found.
+	 */
+	private List<String> playOut(Random random, int targetLength) {
+		List<String> best = null;
+		long bestDistance = Long.MAX_VALUE;
+		int maxSteps = MAX_STEPS_FACTOR * (parameters.getMaxTraceLength() + labels.length);
+		int[] marking = new int[initialMarking.length];
+		int[] enabled = new int[labels.length];
+		int[] enabledPositions = new int[labels.length];
+
+		int lastImprovement = 0;
+		for (int attempt = 0; attempt < MAX_PLAYOUT_ATTEMPTS && attempt - lastImprovement <= MAX_FRUITLESS_ATTEMPTS
+				&& bestDistance > 0; attempt++) {
+			List<String> playout = new ArrayList<String>(targetLength);
+
+			// init marking and enabled transitions
+			System.arraycopy(initialMarking, 0, marking, 0, marking.length);
+			int unmatchedPlaces = 0;
+			for (int p = 0; p < marking.length; p++) {
+				if (marking[p] != finalMarking[p])
+					unmatchedPlaces++;
+			}
+			int enabledNum = 0;
+			for (int t = 0; t < labels.length; t++) {
+				enabledPositions[t] = -1;
+				if (isEnabled(marking, t)) {
+					enabledPositions[t] = enabledNum;
+					enabled[enabledNum++] = t;
+				}
+			}
+
+			// fire random enabled transitions, then the ones closest to the end once the length is reached
+			for (int step = 0; unmatchedPlaces > 0 && enabledNum > 0 && step < maxSteps; step++) {
+				if (playout.size() - targetLength >= bestDistance)
+					break; // it cannot get closer than the best one
+				int t = (playout.size() < targetLength) ?
+						enabled[random.nextInt(enabledNum)] : pickClosestToEnd(random, enabled, enabledNum);
+				for (int p : presets[t]) {
+					unmatchedPlaces -= (marking[p] != finalMarking[p]) ? 1 : 0;
+					marking[p]--;
+					unmatchedPlaces += (marking[p] != finalMarking[p]) ? 1 : 0;
+				}
+				for (int p : postsets[t]) {
+					unmatchedPlaces -= (marking[p] != finalMarking[p]) ? 1 : 0;
+					marking[p]++;
+					unmatchedPlaces += (marking[p] != finalMarking[p]) ? 1 : 0;
+				}
+				if (labels[t] != null)
+					playout.add(labels[t]);
+
+				// update the enabled transitions consuming from the modified places
+				enabledNum = updateEnabled(marking, presets[t], enabled, enabledPositions, enabledNum);
+				enabledNum = updateEnabled(marking, postsets[t], enabled, enabledPositions, enabledNum);
+			}
+
+			// keep the closest playout, preferring the ones reaching the final marking
+			long distance = Math.abs(playout.size() - targetLength) + (unmatchedPlaces > 0 ? Integer.MAX_VALUE : 0);
+			if (distance < bestDistance) {
+				best = playout;
+				bestDistance = distance;
+				lastImprovement = attempt;
+			}
+		}
+		return (best == null) ? new ArrayList<String>() : best;
+	}
+
+	/**
+	 * Pick the enabled transition that is the closest to the final marking, breaking ties at random.
+	 */
+	private int pickClosestToEnd(Random random, int[] enabled, int enabledNum) {
+		int result = -1;
+		int ties = 0;
+		for (int i = 0; i < enabledNum; i++) {
+			int t = enabled[i];
+			if (result < 0 || distances[t] < distances[result]) {
+				result = t;
+				ties = 1;
+			} else if (distances[t] == distances[result] && random.nextInt(++ties) == 0) {
+				result = t;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Update the set of enabled transitions, after the marking of the given places has changed.
+	 *
+	 * @return The new number of enabled transitions.
+	 */
+	private int updateEnabled(int[] marking, int[] places, int[] enabled, int[] enabledPositions, int enabledNum) {
+		for (int p : places) {
+			for (int consumer : consumers[p]) {
+				boolean wasEnabled = enabledPositions[consumer] >= 0;
+				if (wasEnabled == isEnabled(marking, consumer))
+					continue;
+				if (wasEnabled) {
+					int last = enabled[--enabledNum];
+					enabled[enabledPositions[consumer]] = last;
+					enabledPositions[last] = enabledPositions[consumer];
+					enabledPositions[consumer] = -1;
+				} else {
+					enabledPositions[consumer] = enabledNum;
+					enabled[enabledNum++] = consumer;
+				}
+			}
+		}
+		return enabledNum;
+	}
+
+	private boolean isEnabled(int[] marking, int transition) {
+		for (int p : presets[transition]) {
+			if (marking[p] <= 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Insert random activities before events, remove events and swap consecutive events, with the rates given in the
+	 * parameters.
+	 */
+	private List<String> addNoise(Random random, List<String> events) {
+		List<String> result = new ArrayList<String>(events.size());
+		for (String event : events) {
+			if (activities.length > 0 && random.nextDouble() < parameters.getInsertionRate())
+				result.add(activities[random.nextInt(activities.length)]);
+			if (random.nextDouble() >= parameters.getRemovalRate())
+				result.add(event);
+		}
+		for (int i = 0; i < result.size() - 1; i++) {
+			if (random.nextDouble() < parameters.getSwapRate()) {
+				Collections.swap(result, i, i + 1);
+				i++;
+			}
+		}
+		return result;
+	}
+
+	private static boolean isRate(double rate) {
+		return rate >= 0 && rate <= 1;
+	}
+
+	/**
+	 * Scramble the bits of the given seed (the finalizer of MurmurHash3), so that the seeds of consecutive traces
+	 * yield uncorrelated random generators.
+	 */
+	private static long mix(long seed) {
+		seed = (seed ^ (seed >>> 33)) * 0xff51afd7ed558ccdL;
+		seed = (seed ^ (seed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return seed ^ (seed >>> 33);
+	}
+
+	/* GETTERS & SETTERS */
+
+	public Petrinet getPetrinet() {
+		return petrinet;
+	}
+
+	public SyntheticLogGeneratorParameters getParameters() {
+		return parameters;
+	}
+
+}
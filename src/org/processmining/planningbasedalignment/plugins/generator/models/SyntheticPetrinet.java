@@ -0,0 +1,38 @@
+package org.processmining.planningbasedalignment.plugins.generator.models;
+
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.semantics.petrinet.Marking;
+
+/**
+ * A generated Petri net, together with its initial and final markings.
+ * 
+ * @author Giacomo Lanciano
+ *
+ */
+public class SyntheticPetrinet {
+
+	private final Petrinet petrinet;
+	private final Marking initialMarking;
+	private final Marking finalMarking;
+
+	public SyntheticPetrinet(Petrinet petrinet, Marking initialMarking, Marking finalMarking) {
+		this.petrinet = petrinet;
+		this.initialMarking = initialMarking;
+		this.finalMarking = finalMarking;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public Petrinet getPetrinet() {
+		return petrinet;
+	}
+
+	public Marking getInitialMarking() {
+		return initialMarking;
+	}
+
+	public Marking getFinalMarking() {
+		return finalMarking;
+	}
+
+}
@@ -0,0 +1,13 @@
+package org.processmining.planningbasedalignment.plugins.generator.models;
+
+/**
+ * An enumeration of the distributions of the (noise-free) lengths of the generated traces, between the given minimum
+ * and maximum.
+ * 
+ * @author Giacomo Lanciano
+ *
+ */
+public enum TraceLengthDistribution {
+	UNIFORM,
+	NORMAL
+}
@@ -0,0 +1,113 @@
+package org.processmining.planningbasedalignment.plugins.generator.parameters;
+
+import org.processmining.basicutils.parameters.impl.PluginParametersImpl;
+import org.processmining.planningbasedalignment.plugins.generator.BlockStructuredNetGeneratorPlugin;
+
+/**
+ * A class representing the parameters that the user has to provide to run {@link BlockStructuredNetGeneratorPlugin}.
+ * The probabilities of the block operators must sum up to at most 1, the remaining probability being the one of
+ * sequences.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class BlockStructuredNetGeneratorParameters extends PluginParametersImpl {
+
+	public static final int DEFAULT_ACTIVITIES_NUM = 20;
+	public static final int DEFAULT_MAX_BRANCHES = 3;
+	public static final double DEFAULT_PARALLEL_PROBABILITY = 0.3;
+	public static final double DEFAULT_CHOICE_PROBABILITY = 0.3;
+	public static final double DEFAULT_LOOP_PROBABILITY = 0.1;
+	public static final long DEFAULT_SEED = 42;
+
+	/**
+	 * The number of visible transitions of the net.
+	 */
+	private int activitiesNum;
+
+	/**
+	 * The maximum number of branches of a block (i.e. the maximum degree of concurrency of a parallel block).
+	 */
+	private int maxBranches;
+
+	/**
+	 * The probability of a block to be parallel (AND-split and AND-join).
+	 */
+	private double parallelProbability;
+
+	/**
+	 * The probability of a block to be an exclusive choice (XOR-split and XOR-join).
+	 */
+	private double choiceProbability;
+
+	/**
+	 * The probability of a block to be a loop.
+	 */
+	private double loopProbability;
+
+	/**
+	 * The seed of the random generator, so that the same parameters always yield the same net.
+	 */
+	private long seed;
+
+	public BlockStructuredNetGeneratorParameters() {
+		super();
+		setActivitiesNum(DEFAULT_ACTIVITIES_NUM);
+		setMaxBranches(DEFAULT_MAX_BRANCHES);
+		setParallelProbability(DEFAULT_PARALLEL_PROBABILITY);
+		setChoiceProbability(DEFAULT_CHOICE_PROBABILITY);
+		setLoopProbability(DEFAULT_LOOP_PROBABILITY);
+		setSeed(DEFAULT_SEED);
+	}
+
+	/* GETTERS & SETTERS */
+
+	public int getActivitiesNum() {
+		return activitiesNum;
+	}
+
+	public void setActivitiesNum(int activitiesNum) {
+		this.activitiesNum = activitiesNum;
+	}
+
+	public int getMaxBranches() {
+		return maxBranches;
+	}
+
+	public void setMaxBranches(int maxBranches) {
+		this.maxBranches = maxBranches;
+	}
+
+	public double getParallelProbability() {
+		return parallelProbability;
+	}
+
+	public void setParallelProbability(double parallelProbability) {
+		this.parallelProbability = parallelProbability;
+	}
+
+	public double getChoiceProbability() {
+		return choiceProbability;
+	}
+
+	public void setChoiceProbability(double choiceProbability) {
+		this.choiceProbability = choiceProbability;
+	}
+
+	public double getLoopProbability() {
+		return loopProbability;
+	}
+
+	public void setLoopProbability(double loopProbability) {
+		this.loopProbability = loopProbability;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+}
@@ -0,0 +1,186 @@
+package org.processmining.planningbasedalignment.plugins.generator.parameters;
+
+import java.util.concurrent.TimeUnit;
+
+import org.processmining.basicutils.parameters.impl.PluginParametersImpl;
+import org.processmining.planningbasedalignment.plugins.generator.SyntheticLogGeneratorPlugin;
+import org.processmining.planningbasedalignment.plugins.generator.models.TraceLengthDistribution;
+
+/**
+ * A class representing the parameters that the user has to provide to run {@link SyntheticLogGeneratorPlugin}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class SyntheticLogGeneratorParameters extends PluginParametersImpl {
+
+	public static final int DEFAULT_TRACES_NUM = 100;
+	public static final int DEFAULT_MIN_TRACE_LENGTH = 5;
+	public static final int DEFAULT_MAX_TRACE_LENGTH = 50;
+	public static final long DEFAULT_MEAN_EVENT_INTERVAL = 30;
+	public static final long DEFAULT_TIMESTAMP_GRANULARITY = 1;
+	public static final TimeUnit DEFAULT_TIME_UNIT = TimeUnit.MINUTES;
+	public static final long DEFAULT_SEED = 42;
+
+	/**
+	 * The number of traces of the log.
+	 */
+	private int tracesNum;
+
+	/**
+	 * The minimum length of the traces, before adding noise.
+	 */
+	private int minTraceLength;
+
+	/**
+	 * The maximum length of the traces, before adding noise.
+	 */
+	private int maxTraceLength;
+
+	/**
+	 * The distribution of the lengths of the traces between {@link #minTraceLength} and {@link #maxTraceLength}.
+	 */
+	private TraceLengthDistribution traceLengthDistribution;
+
+	/**
+	 * The probability of inserting a random activity before each event.
+	 */
+	private double insertionRate;
+
+	/**
+	 * The probability of removing each event.
+	 */
+	private double removalRate;
+
+	/**
+	 * The probability of swapping each event with the next one.
+	 */
+	private double swapRate;
+
+	/**
+	 * The mean (exponentially distributed) time between two consecutive events, in {@link #timeUnit}.
+	 */
+	private long meanEventInterval;
+
+	/**
+	 * The granularity of the timestamps, in {@link #timeUnit}. Events whose timestamps fall within the same
+	 * checkpoints are isochronous, i.e. coarser granularities yield more partially ordered traces.
+	 */
+	private long timestampGranularity;
+
+	/**
+	 * The time unit of {@link #meanEventInterval} and {@link #timestampGranularity}.
+	 */
+	private TimeUnit timeUnit;
+
+	/**
+	 * The seed of the random generator, so that the same parameters always yield the same log.
+	 */
+	private long seed;
+
+	public SyntheticLogGeneratorParameters() {
+		super();
+		setTracesNum(DEFAULT_TRACES_NUM);
+		setMinTraceLength(DEFAULT_MIN_TRACE_LENGTH);
+		setMaxTraceLength(DEFAULT_MAX_TRACE_LENGTH);
+		setTraceLengthDistribution(TraceLengthDistribution.UNIFORM);
+		setInsertionRate(0);
+		setRemovalRate(0);
+		setSwapRate(0);
+		setMeanEventInterval(DEFAULT_MEAN_EVENT_INTERVAL);
+		setTimestampGranularity(DEFAULT_TIMESTAMP_GRANULARITY);
+		setTimeUnit(DEFAULT_TIME_UNIT);
+		setSeed(DEFAULT_SEED);
+	}
+
+	/* GETTERS & SETTERS */
+
+	public int getTracesNum() {
+		return tracesNum;
+	}
+
+	public void setTracesNum(int tracesNum) {
+		this.tracesNum = tracesNum;
+	}
+
+	public int getMinTraceLength() {
+		return minTraceLength;
+	}
+
+	public void setMinTraceLength(int minTraceLength) {
+		this.minTraceLength = minTraceLength;
+	}
+
+	public int getMaxTraceLength() {
+		return maxTraceLength;
+	}
+
+	public void setMaxTraceLength(int maxTraceLength) {
+		this.maxTraceLength = maxTraceLength;
+	}
+
+	public TraceLengthDistribution getTraceLengthDistribution() {
+		return traceLengthDistribution;
+	}
+
+	public void setTraceLengthDistribution(TraceLengthDistribution traceLengthDistribution) {
+		this.traceLengthDistribution = traceLengthDistribution;
+	}
+
+	public double getInsertionRate() {
+		return insertionRate;
+	}
+
+	public void setInsertionRate(double insertionRate) {
+		this.insertionRate = insertionRate;
+	}
+
+	public double getRemovalRate() {
+		return removalRate;
+	}
+
+	public void setRemovalRate(double removalRate) {
+		this.removalRate = removalRate;
+	}
+
+	public double getSwapRate() {
+		return swapRate;
+	}
+
+	public void setSwapRate(double swapRate) {
+		this.swapRate = swapRate;
+	}
+
+	public long getMeanEventInterval() {
+		return meanEventInterval;
+	}
+
+	public void setMeanEventInterval(long meanEventInterval) {
+		this.meanEventInterval = meanEventInterval;
+	}
+
+	public long getTimestampGranularity() {
+		return timestampGranularity;
+	}
+
+	public void setTimestampGranularity(long timestampGranularity) {
+		this.timestampGranularity = timestampGranularity;
+	}
+
+	public TimeUnit getTimeUnit() {
+		return timeUnit;
+	}
+
+	public void setTimeUnit(TimeUnit timeUnit) {
+		this.timeUnit = timeUnit;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+}
@@ -0,0 +1,104 @@
+package org.processmining.planningbasedalignment.plugins.generator.ui;
+
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+
+import org.deckfour.uitopia.api.event.TaskListener.InteractionResult;
+import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.framework.util.ui.widgets.ProMTextField;
+import org.processmining.planningbasedalignment.plugins.generator.BlockStructuredNetGeneratorPlugin;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.BlockStructuredNetGeneratorParameters;
+import org.processmining.planningbasedalignment.utils.ConfigurationPanel;
+
+/**
+ * The configuration wizard for tuning the parameters to run {@link BlockStructuredNetGeneratorPlugin}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class BlockStructuredNetGeneratorConfiguration {
+
+	/**
+	 * Run the configuration wizard for tuning the parameters.
+	 *
+	 * @param context The context where to run in.
+	 * @return The parameters.
+	 */
+	public BlockStructuredNetGeneratorParameters getParameters(UIPluginContext context) {
+
+		BlockStructuredNetGeneratorParameters result = new BlockStructuredNetGeneratorParameters();
+
+		// init UI
+		ConfigurationPanel panel;
+		ProMTextField activitiesField;
+		ProMTextField branchesField;
+		ProMTextField parallelField;
+		ProMTextField choiceField;
+		ProMTextField loopField;
+		ProMTextField seedField;
+		do {
+			panel = new ConfigurationPanel("");
+			activitiesField = panel.addTextField("Activities", String.valueOf(result.getActivitiesNum()));
+			activitiesField.setToolTipText("The number of visible transitions of the net.");
+			branchesField = panel.addTextField("Max Branches", String.valueOf(result.getMaxBranches()));
+			branchesField.setToolTipText("The maximum number of branches of a block (i.e. the maximum concurrency).");
+			parallelField = panel.addTextField(
+					"Parallel Block Probability", String.valueOf(result.getParallelProbability()));
+			parallelField.setToolTipText("The probability of a block to be parallel.");
+			choiceField = panel.addTextField("Choice Block Probability", String.valueOf(result.getChoiceProbability()));
+			choiceField.setToolTipText("The probability of a block to be an exclusive choice.");
+			loopField = panel.addTextField("Loop Block Probability", String.valueOf(result.getLoopProbability()));
+			loopField.setToolTipText("The probability of a block to be a loop (the other blocks are sequences).");
+			seedField = panel.addTextField("Seed", String.valueOf(result.getSeed()));
+			seedField.setToolTipText("The seed of the random generator (the same seed yields the same net).");
+
+			// prompt user
+			InteractionResult interactionResult = context.showConfiguration("Configuration", panel);
+
+			if (interactionResult == InteractionResult.CANCEL) {
+				return null;
+			}
+
+			try {
+				result.setActivitiesNum(Integer.parseInt(activitiesField.getText()));
+				result.setMaxBranches(Integer.parseInt(branchesField.getText()));
+				result.setParallelProbability(Double.parseDouble(parallelField.getText()));
+				result.setChoiceProbability(Double.parseDouble(choiceField.getText()));
+				result.setLoopProbability(Double.parseDouble(loopField.getText()));
+				result.setSeed(Long.parseLong(seedField.getText()));
+
+			} catch (NumberFormatException e) {
+				// if an input is not a number, force the integrity check to fail
+				e.printStackTrace();
+				result.setActivitiesNum(0);
+			}
+
+		} while (!checkParametersIntegrity(result));
+
+		return result;
+	}
+
+	/**
+	 * Check whether the provided parameters are valid.
+	 *
+	 * @param parameters The parameters.
+	 * @return true if the parameters are valid.
+	 */
+	private boolean checkParametersIntegrity(BlockStructuredNetGeneratorParameters parameters) {
+
+		double blocksProbability = parameters.getParallelProbability() + parameters.getChoiceProbability()
+				+ parameters.getLoopProbability();
+		if (parameters.getActivitiesNum() > 0 && parameters.getMaxBranches() >= 2
+				&& parameters.getParallelProbability() >= 0 && parameters.getChoiceProbability() >= 0
+				&& parameters.getLoopProbability() >= 0 && blocksProbability <= 1)
+			return true;
+
+		JOptionPane.showMessageDialog(
+				new JPanel(),
+				"The inserted parameters are invalid.",
+				"Invalid parameters", JOptionPane.ERROR_MESSAGE);
+
+		return false;
+	}
+
+}
@@ -0,0 +1,137 @@
+package org.processmining.planningbasedalignment.plugins.generator.ui;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+
+import org.deckfour.uitopia.api.event.TaskListener.InteractionResult;
+import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.framework.util.ui.widgets.ProMComboBox;
+import org.processmining.framework.util.ui.widgets.ProMTextField;
+import org.processmining.planningbasedalignment.plugins.generator.SyntheticLogGeneratorPlugin;
+import org.processmining.planningbasedalignment.plugins.generator.models.TraceLengthDistribution;
+import org.processmining.planningbasedalignment.plugins.generator.parameters.SyntheticLogGeneratorParameters;
+import org.processmining.planningbasedalignment.utils.ConfigurationPanel;
+
+/**
+ * The configuration wizard for tuning the parameters to run {@link SyntheticLogGeneratorPlugin}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class SyntheticLogGeneratorConfiguration {
+
+	private static final TimeUnit[] UNITS = { TimeUnit.SECONDS, TimeUnit.MINUTES, TimeUnit.HOURS, TimeUnit.DAYS };
+
+	/**
+	 * Run the configuration wizard for tuning the parameters.
+	 *
+	 * @param context The context where to run in.
+	 * @return The parameters.
+	 */
+	public SyntheticLogGeneratorParameters getParameters(UIPluginContext context) {
+
+		SyntheticLogGeneratorParameters result = new SyntheticLogGeneratorParameters();
+
+		// init UI
+		ConfigurationPanel panel;
+		ProMTextField tracesField;
+		ProMTextField minLengthField;
+		ProMTextField maxLengthField;
+		ProMComboBox<TraceLengthDistribution> distributionComboBox;
+		ProMTextField insertionField;
+		ProMTextField removalField;
+		ProMTextField swapField;
+		ProMTextField intervalField;
+		ProMTextField granularityField;
+		ProMComboBox<TimeUnit> unitComboBox;
+		ProMTextField seedField;
+		do {
+			panel = new ConfigurationPanel("");
+			tracesField = panel.addTextField("Traces", String.valueOf(result.getTracesNum()));
+			tracesField.setToolTipText("The number of traces of the log.");
+			minLengthField = panel.addTextField("Min Trace Length", String.valueOf(result.getMinTraceLength()));
+			minLengthField.setToolTipText("The minimum length of the traces, before adding noise.");
+			maxLengthField = panel.addTextField("Max Trace Length", String.valueOf(result.getMaxTraceLength()));
+			maxLengthField.setToolTipText("The maximum length of the traces, before adding noise.");
+			distributionComboBox = panel.addComboBox("Trace Length Distribution", TraceLengthDistribution.values());
+			distributionComboBox.setSelectedItem(result.getTraceLengthDistribution());
+			distributionComboBox.setToolTipText("The distribution of the lengths of the traces.");
+			insertionField = panel.addTextField("Insertion Rate", String.valueOf(result.getInsertionRate()));
+			insertionField.setToolTipText("The probability of inserting a random activity before each event.");
+			removalField = panel.addTextField("Removal Rate", String.valueOf(result.getRemovalRate()));
+			removalField.setToolTipText("The probability of removing each event.");
+			swapField = panel.addTextField("Swap Rate", String.valueOf(result.getSwapRate()));
+			swapField.setToolTipText("The probability of swapping each event with the next one.");
+			intervalField = panel.addTextField("Mean Event Interval", String.valueOf(result.getMeanEventInterval()));
+			intervalField.setToolTipText("The mean time between two consecutive events.");
+			granularityField = panel.addTextField(
+					"Timestamp Granularity", String.valueOf(result.getTimestampGranularity()));
+			granularityField.setToolTipText("The granularity of the timestamps (the coarser, the more isochronous "
+					+ "events).");
+			unitComboBox = panel.addComboBox("Time Unit", UNITS);
+			unitComboBox.setSelectedItem(result.getTimeUnit());
+			unitComboBox.setToolTipText("The time unit of the mean event interval and of the timestamp granularity.");
+			seedField = panel.addTextField("Seed", String.valueOf(result.getSeed()));
+			seedField.setToolTipText("The seed of the random generator (the same seed yields the same log).");
+
+			// prompt user
+			InteractionResult interactionResult = context.showConfiguration("Configuration", panel);
+
+			if (interactionResult == InteractionResult.CANCEL) {
+				return null;
+			}
+
+			result.setTraceLengthDistribution((TraceLengthDistribution) distributionComboBox.getSelectedItem());
+			result.setTimeUnit((TimeUnit) unitComboBox.getSelectedItem());
+			try {
+				result.setTracesNum(Integer.parseInt(tracesField.getText()));
+				result.setMinTraceLength(Integer.parseInt(minLengthField.getText()));
+				result.setMaxTraceLength(Integer.parseInt(maxLengthField.getText()));
+				result.setInsertionRate(Double.parseDouble(insertionField.getText()));
+				result.setRemovalRate(Double.parseDouble(removalField.getText()));
+				result.setSwapRate(Double.parseDouble(swapField.getText()));
+				result.setMeanEventInterval(Long.parseLong(intervalField.getText()));
+				result.setTimestampGranularity(Long.parseLong(granularityField.getText()));
+				result.setSeed(Long.parseLong(seedField.getText()));
+
+			} catch (NumberFormatException e) {
+				// if an input is not a number, force the integrity check to fail
+				e.printStackTrace();
+				result.setTracesNum(-1);
+			}
+
+		} while (!checkParametersIntegrity(result));
+
+		return result;
+	}
+
+	/**
+	 * Check whether the provided parameters are valid.
+	 *
+	 * @param parameters The parameters.
+	 * @return true if the parameters are valid.
+	 */
+	private boolean checkParametersIntegrity(SyntheticLogGeneratorParameters parameters) {
+
+		if (parameters.getTracesNum() >= 0 && parameters.getMinTraceLength() >= 0
+				&& parameters.getMaxTraceLength() >= parameters.getMinTraceLength()
+				&& isRate(parameters.getInsertionRate()) && isRate(parameters.getRemovalRate())
+				&& isRate(parameters.getSwapRate()) && parameters.getMeanEventInterval() >= 0
+				&& parameters.getTimestampGranularity() > 0)
+			return true;
+
+		JOptionPane.showMessageDialog(
+				new JPanel(),
+				"The inserted parameters are invalid.",
+				"Invalid parameters", JOptionPane.ERROR_MESSAGE);
+
+		return false;
+	}
+
+	private static boolean isRate(double rate) {
+		return rate >= 0 && rate <= 1;
+	}
+
+}
@@ -0,0 +1,241 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.analysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.processmining.framework.plugin.Progress;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkConsumer;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkTask;
+import org.processmining.plugins.DataConformance.Alignment;
+
+/**
+ * A checker of the fitness constraint between the alignments computed under Partial Order assumption and the standard
+ * ones, i.e. the fitness of a trace aligned under Partial Order assumption must be greater or equal to the fitness of
+ * the same trace aligned under Total Order assumption. Alignments are joined by case id through a hash index over the
+ * standard result, and their fitness values are compared exactly. Traces are checked in parallel, and only the
+ * violations are reported, in the order of the alignments under Partial Order assumption.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class FitnessConstraintChecker {
+
+	/**
+	 * The maximum number of alignments checked by a worker in a single task.
+	 */
+	private static final int MAX_CHUNK_SIZE = 10000;
+
+	/**
+	 * A listener of the violations of the fitness constraint.
+	 */
+	public interface ViolationListener {
+
+		/**
+		 * Called on the thread running the check, once for each violation.
+		 */
+		void violationFound(Violation violation);
+
+	}
+
+	/**
+	 * The case ids, the positions in the log (0 if unknown) and the fitness values of the alignments of the two
+	 * results.
+	 */
+	private final String[] partialOrderCaseIds;
+	private final int[] partialOrderTracePositions;
+	private final float[] partialOrderFitness;
+	private final float[] totalOrderFitness;
+
+	/**
+	 * The index of the alignments of the standard result, by case id.
+	 */
+	private final Map<String, Integer> totalOrderIndexes;
+
+	private int matchedNum;
+	private int unmatchedNum;
+	private int violationsNum;
+
+	public FitnessConstraintChecker(
+			PlanningBasedReplayResult partialOrderAwareResult, PlanningBasedReplayResult result) {
+
+		// read the partial-order-aware alignments
+		AbstractAlignmentStore alignmentStore = partialOrderAwareResult.getAlignmentStore();
+		if (alignmentStore != null) {
+			int alignmentsNum = alignmentStore.size();
+			this.partialOrderCaseIds = new String[alignmentsNum];
+			this.partialOrderTracePositions = new int[alignmentsNum];
+			this.partialOrderFitness = new float[alignmentsNum];
+			for (int i = 0; i < alignmentsNum; i++) {
+				partialOrderCaseIds[i] = alignmentStore.getCaseId(i);
+				partialOrderTracePositions[i] = alignmentStore.getTracePosition(i);
+				partialOrderFitness[i] = alignmentStore.getFitness(i);
+			}
+		} else {
+			int alignmentsNum = partialOrderAwareResult.getAlignments().size();
+			this.partialOrderCaseIds = new String[alignmentsNum];
+			this.partialOrderTracePositions = new int[alignmentsNum];
+			this.partialOrderFitness = new float[alignmentsNum];
+			int i = 0;
+			for (Alignment alignment : partialOrderAwareResult.getAlignments()) {
+				partialOrderCaseIds[i] = alignment.getTraceName();
+				partialOrderFitness[i] = alignment.getFitness();
+				i++;
+			}
+		}
+
+		// index the standard alignments by case id
+		alignmentStore = result.getAlignmentStore();
+		if (alignmentStore != null) {
+			int alignmentsNum = alignmentStore.size();
+			this.totalOrderFitness = new float[alignmentsNum];
+			this.totalOrderIndexes = new HashMap<String, Integer>(2 * alignmentsNum);
+			for (int i = 0; i < alignmentsNum; i++) {
+				totalOrderIndexes.put(alignmentStore.getCaseId(i), i);
+				totalOrderFitness[i] = alignmentStore.getFitness(i);
+			}
+		} else {
+			int alignmentsNum = result.getAlignments().size();
+			this.totalOrderFitness = new float[alignmentsNum];
+			this.totalOrderIndexes = new HashMap<String, Integer>(2 * alignmentsNum);
+			int i = 0;
+			for (Alignment alignment : result.getAlignments()) {
+				totalOrderIndexes.put(alignment.getTraceName(), i);
+				totalOrderFitness[i] = alignment.getFitness();
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Check the fitness constraint on all the alignments.
+	 *
+	 * @param listener The listener to be notified of the violations.
+	 * @param progress The progress to be updated (it may be null).
+	 * @return true if the check has been completed, false if it has been cancelled.
+	 */
+	public boolean check(final ViolationListener listener, final Progress progress) {
+		matchedNum = 0;
+		unmatchedNum = 0;
+		violationsNum = 0;
+
+		// check the alignments in parallel, reporting the violations in order
+		int alignmentsNum = partialOrderCaseIds.length;
+		return ParallelChunkProcessor.process(alignmentsNum, MAX_CHUNK_SIZE, new ChunkTask<ChunkResult>() {
+
+			public ChunkResult process(int chunkStart, int chunkEnd) {
+				return checkChunk(chunkStart, chunkEnd);
+			}
+		}, new ChunkConsumer<ChunkResult>() {
+
+			public void consume(ChunkResult chunkResult) {
+				matchedNum += chunkResult.matchedNum;
+				unmatchedNum += chunkResult.checkedNum - chunkResult.matchedNum;
+				violationsNum += chunkResult.violations.size();
+				for (Violation violation : chunkResult.violations)
+					listener.violationFound(violation);
+
+				if (progress != null)
+					progress.setValue(progress.getValue() + chunkResult.checkedNum);
+			}
+		}, progress);
+	}
+
+	private ChunkResult checkChunk(int chunkStart, int chunkEnd) {
+		ChunkResult result = new ChunkResult();
+		for (int i = chunkStart; i < chunkEnd; i++) {
+			result.checkedNum++;
+			Integer totalOrderIndex = totalOrderIndexes.get(partialOrderCaseIds[i]);
+			if (totalOrderIndex == null)
+				continue;
+
+			result.matchedNum++;
+			float fitness = partialOrderFitness[i];
+			float otherFitness = totalOrderFitness[totalOrderIndex];
+
+			// assume the first result to have been computed under partially ordered assumption
+			if (fitness < otherFitness) {
+				result.violations.add(new Violation(
+						partialOrderCaseIds[i], partialOrderTracePositions[i], fitness, otherFitness));
+			}
+		}
+		return result;
+	}
+
+	/* GETTERS & SETTERS */
+
+	/**
+	 * @return the number of alignments to be checked
+	 */
+	public int size() {
+		return partialOrderCaseIds.length;
+	}
+
+	public int getMatchedNum() {
+		return matchedNum;
+	}
+
+	public int getUnmatchedNum() {
+		return unmatchedNum;
+	}
+
+	public int getViolationsNum() {
+		return violationsNum;
+	}
+
+	/**
+	 * The outcome of the check of a chunk of alignments.
+	 */
+	private static class ChunkResult {
+
+		private int checkedNum;
+		private int matchedNum;
+		private final List<Violation> violations = new ArrayList<Violation>();
+
+	}
+
+	/**
+	 * A trace violating the fitness constraint.
+	 */
+	public static class Violation {
+
+		private final String caseId;
+		private final int tracePosition;
+		private final float partialOrderFitness;
+		private final float totalOrderFitness;
+
+		public Violation(String caseId, int tracePosition, float partialOrderFitness, float totalOrderFitness) {
+			this.caseId = caseId;
+			this.tracePosition = tracePosition;
+			this.partialOrderFitness = partialOrderFitness;
+			this.totalOrderFitness = totalOrderFitness;
+		}
+
+		/* GETTERS & SETTERS */
+
+		public String getCaseId() {
+			return caseId;
+		}
+
+		/**
+		 * @return the position of the trace in the log (starting from 1), or 0 if unknown
+		 */
+		public int getTracePosition() {
+			return tracePosition;
+		}
+
+		public float getPartialOrderFitness() {
+			return partialOrderFitness;
+		}
+
+		public float getTotalOrderFitness() {
+			return totalOrderFitness;
+		}
+
+	}
+
+}
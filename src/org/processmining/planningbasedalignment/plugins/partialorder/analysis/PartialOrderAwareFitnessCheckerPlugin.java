@@ -0,0 +1,143 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.analysis;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.Progress;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.framework.util.HTMLToString;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.utils.HelpMessages;
+
+/**
+ * The ProM plug-in for checking the result of Planning-based Alignment under partial ordering assumptions, by joining
+ * the alignments of the two results by case id and comparing their fitness values directly (see
+ * {@link FitnessConstraintChecker}), without building a generic alignment comparison.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+@Plugin(
+	name = "Partial Order Aware Fitness Constraint Check",
+	parameterLabels = { "Partial Order Aware Alignment", "Standard Alignment" },
+	returnLabels = { "Traces Violating Fitness Constraint" },
+	returnTypes = { HTMLToString.class },
+	userAccessible = true
+)
+public class PartialOrderAwareFitnessCheckerPlugin implements HTMLToString, FitnessConstraintChecker.ViolationListener {
+
+	/**
+	 * The maximum number of violations shown in the report.
+	 */
+	private static final int MAX_SHOWN_VIOLATIONS = 1000;
+
+	/**
+	 * The first traces violating the fitness constraint (at most {@link #MAX_SHOWN_VIOLATIONS}, since the others are
+	 * only counted).
+	 */
+	protected List<FitnessConstraintChecker.Violation> violations;
+
+	/**
+	 * The number of traces violating the fitness constraint.
+	 */
+	protected int violationsNum;
+
+	/**
+	 * The number of checked alignments, and of the ones without a counterpart in the standard result.
+	 */
+	protected int checkedNum;
+	protected int unmatchedNum;
+
+	/**
+	 * The plug-in variant that compares two alignment results, the first of which is assumed to be the one that has
+	 * been computed under Partial Order assumption, and reports the traces violating the fitness constraint, i.e.
+	 * whose fitness under Partial Order assumption is lower than their standard fitness.
+	 *
+	 * @param context The context to run in.
+	 * @param partialOrderAwareResult The Planning-based alignments under Partial Order assumption.
+	 * @param result The standard Planning-based alignments.
+	 * @return The text report of the traces violating the fitness constraint.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE)
+	@PluginVariant(requiredParameterLabels = { 0, 1 })
+	public HTMLToString checkFitnessConstraint(
+			PluginContext context, PlanningBasedReplayResult partialOrderAwareResult,
+			PlanningBasedReplayResult result) {
+
+		FitnessConstraintChecker checker = new FitnessConstraintChecker(partialOrderAwareResult, result);
+
+		// init progress bar
+		Progress progress = context.getProgress();
+		progress.setIndeterminate(false);
+		progress.setMaximum(checker.size());
+		progress.setMinimum(0);
+
+		this.violations = new ArrayList<FitnessConstraintChecker.Violation>();
+		this.violationsNum = 0;
+		if (!checker.check(this, progress)) {
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+		this.checkedNum = checker.size();
+		this.unmatchedNum = checker.getUnmatchedNum();
+
+		return this;
+	}
+
+	public void violationFound(FitnessConstraintChecker.Violation violation) {
+		if (this.violations.size() < MAX_SHOWN_VIOLATIONS)
+			this.violations.add(violation);
+		this.violationsNum++;
+	}
+
+	@Override
+	public String toHTMLString(boolean includeHTMLTags) {
+		StringBuffer buffer = new StringBuffer();
+		NumberFormat realFormat = NumberFormat.getNumberInstance();
+		realFormat.setMaximumFractionDigits(6);
+
+		if (includeHTMLTags) {
+			buffer.append("<html>");
+		}
+
+		buffer.append("<h2>Fitness Constraint Check</h2>");
+		buffer.append("<table>");
+		buffer.append("<tr><th>Stat</th><th>Value</th></tr>");
+		buffer.append("<tr><td>Checked alignments</td><td>" + this.checkedNum + "</td></tr>");
+		buffer.append("<tr><td>Without standard alignment</td><td>" + this.unmatchedNum + "</td></tr>");
+		buffer.append("<tr><td>Violating traces</td><td>" + this.violationsNum + "</td></tr>");
+		buffer.append("</table>");
+
+		if (!this.violations.isEmpty()) {
+			buffer.append("<h3>Traces Violating Fitness Constraint</h3>");
+			buffer.append("<table>");
+			buffer.append("<tr><th>Position</th><th>Case ID</th><th>Partial Order Fitness</th>"
+					+ "<th>Standard Fitness</th></tr>");
+			for (FitnessConstraintChecker.Violation violation : this.violations) {
+				String position = (violation.getTracePosition() > 0) ?
+						String.valueOf(violation.getTracePosition()) : "-";
+				buffer.append("<tr><td>" + position + "</td><td>"
+						+ StringEscapeUtils.escapeHtml4(violation.getCaseId()) + "</td><td>"
+						+ realFormat.format(violation.getPartialOrderFitness()) + "</td><td>"
+						+ realFormat.format(violation.getTotalOrderFitness()) + "</td></tr>");
+			}
+			buffer.append("</table>");
+			if (this.violationsNum > this.violations.size())
+				buffer.append("<p>Only the first " + MAX_SHOWN_VIOLATIONS + " violating traces are shown.</p>");
+		}
+
+		if (includeHTMLTags) {
+			buffer.append("</html>");
+		}
+
+		return buffer.toString();
+	}
+
+}
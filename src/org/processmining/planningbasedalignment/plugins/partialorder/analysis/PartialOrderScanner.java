@@ -0,0 +1,301 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.apache.commons.math3.special.Gamma;
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XTrace;
+
+/**
+ * A single-pass scanner of the isochronous groups of the traces of a partially ordered event log. For each trace, it
+ * counts the size of its isochronous groups (the events with the same timestamp, as grouped by the
+ * partial-order-aware PDDL encoder), and the number of linearizations the trace admits, i.e. the product of the
+ * factorials of the sizes of its groups. Since the planner may have to explore all the interleavings of the events in
+ * a group, traces admitting too many linearizations are flagged as likely to blow up.
+ *
+ * A scanner is not thread-safe: traces can be scanned in parallel by several scanners, to be merged afterwards.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class PartialOrderScanner {
+
+	/**
+	 * The default threshold on the decimal logarithm of the number of linearizations of a trace to flag it.
+	 */
+	public static final double DEFAULT_BLOW_UP_THRESHOLD = 6;
+
+	/**
+	 * The maximum number of flagged traces to be kept (the ones with the most linearizations).
+	 */
+	public static final int MAX_FLAGGED_TRACES = 50;
+
+	private static final double LN_10 = Math.log(10);
+
+	/**
+	 * The precomputed decimal logarithms of the factorials of small numbers.
+	 */
+	private static final double[] LOG10_FACTORIALS = new double[1024];
+
+	static {
+		for (int i = 1; i < LOG10_FACTORIALS.length; i++)
+			LOG10_FACTORIALS[i] = LOG10_FACTORIALS[i - 1] + Math.log10(i);
+	}
+
+	/**
+	 * Order traces by decreasing number of linearizations, then by position.
+	 */
+	private static final Comparator<TraceSummary> TRACE_SUMMARIES_ORDER = new Comparator<TraceSummary>() {
+
+		public int compare(TraceSummary trace1, TraceSummary trace2) {
+			int result = Double.compare(trace2.getLog10Linearizations(), trace1.getLog10Linearizations());
+			return (result != 0) ? result : trace1.getTracePosition() - trace2.getTracePosition();
+		}
+	};
+
+	private final double blowUpThreshold;
+	private final TimeZone timeZone;
+
+	/**
+	 * The number of isochronous groups, by size.
+	 */
+	private long[] groupSizeCounts;
+
+	private int tracesNum;
+	private long eventsNum;
+	private long missingTimestampsNum;
+	private int flaggedTracesNum;
+	private List<TraceSummary> flaggedTraces;
+	private TraceSummary worstTrace;
+
+	public PartialOrderScanner() {
+		this(DEFAULT_BLOW_UP_THRESHOLD);
+	}
+
+	/**
+	 * @param blowUpThreshold The threshold on the decimal logarithm of the number of linearizations of a trace to flag
+	 *            it.
+	 */
+	public PartialOrderScanner(double blowUpThreshold) {
+		this.blowUpThreshold = blowUpThreshold;
+		this.timeZone = TimeZone.getDefault();
+		this.groupSizeCounts = new long[16];
+		this.flaggedTraces = new ArrayList<TraceSummary>();
+	}
+
+	/**
+	 * Scan the given trace.
+	 *
+	 * @param trace The trace.
+	 * @param tracePosition The position of the trace in the event log (starting from 1).
+	 */
+	public void scan(XTrace trace, int tracePosition) {
+
+		// collect the wall-clock timestamps (the encoder groups events by their formatted local time)
+		long[] timestamps = new long[trace.size()];
+		int i = 0;
+		for (XEvent event : trace) {
+			Date date = XTimeExtension.instance().extractTimestamp(event);
+			if (date == null) {
+				missingTimestampsNum++;
+				timestamps[i++] = Long.MIN_VALUE;
+			} else {
+				long time = date.getTime();
+				timestamps[i++] = time + timeZone.getOffset(time);
+			}
+		}
+		Arrays.sort(timestamps);
+
+		// count the runs of equal timestamps
+		int groupsNum = 0;
+		int maxGroupSize = 0;
+		double log10Linearizations = 0;
+		int groupStart = 0;
+		for (i = 1; i <= timestamps.length; i++) {
+			if (i == timestamps.length || timestamps[i] != timestamps[groupStart]) {
+				int groupSize = i - groupStart;
+				addGroup(groupSize);
+				groupsNum++;
+				maxGroupSize = Math.max(maxGroupSize, groupSize);
+				log10Linearizations += log10Factorial(groupSize);
+				groupStart = i;
+			}
+		}
+
+		tracesNum++;
+		eventsNum += timestamps.length;
+
+		TraceSummary scannedTrace = null;
+		if (worstTrace == null || log10Linearizations > worstTrace.getLog10Linearizations()) {
+			scannedTrace = new TraceSummary(tracePosition, XConceptExtension.instance().extractName(trace),
+					timestamps.length, groupsNum, maxGroupSize, log10Linearizations);
+			worstTrace = scannedTrace;
+		}
+		if (log10Linearizations >= blowUpThreshold) {
+			flaggedTracesNum++;
+			if (scannedTrace == null)
+				scannedTrace = new TraceSummary(tracePosition, XConceptExtension.instance().extractName(trace),
+						timestamps.length, groupsNum, maxGroupSize, log10Linearizations);
+			flaggedTraces.add(scannedTrace);
+			if (flaggedTraces.size() > 2 * MAX_FLAGGED_TRACES)
+				trimFlaggedTraces();
+		}
+	}
+
+	/**
+	 * Add the results of the given scanner to the ones of this scanner.
+	 *
+	 * @param other The other scanner.
+	 */
+	public void merge(PartialOrderScanner other) {
+		for (int size = 1; size < other.groupSizeCounts.length; size++) {
+			if (other.groupSizeCounts[size] > 0)
+				addGroups(size, other.groupSizeCounts[size]);
+		}
+		tracesNum += other.tracesNum;
+		eventsNum += other.eventsNum;
+		missingTimestampsNum += other.missingTimestampsNum;
+		flaggedTracesNum += other.flaggedTracesNum;
+		flaggedTraces.addAll(other.flaggedTraces);
+		trimFlaggedTraces();
+		if (other.worstTrace != null && (worstTrace == null
+				|| TRACE_SUMMARIES_ORDER.compare(other.worstTrace, worstTrace) < 0))
+			worstTrace = other.worstTrace;
+	}
+
+	/**
+	 * Compute the decimal logarithm of the factorial of the given number.
+	 */
+	public static double log10Factorial(int n) {
+		if (n < LOG10_FACTORIALS.length)
+			return LOG10_FACTORIALS[n];
+		return Gamma.logGamma(n + 1.0) / LN_10;
+	}
+
+	private void addGroup(int size) {
+		addGroups(size, 1);
+	}
+
+	private void addGroups(int size, long count) {
+		if (size >= groupSizeCounts.length)
+			groupSizeCounts = Arrays.copyOf(groupSizeCounts, Math.max(size + 1, 2 * groupSizeCounts.length));
+		groupSizeCounts[size] += count;
+	}
+
+	private void trimFlaggedTraces() {
+		Collections.sort(flaggedTraces, TRACE_SUMMARIES_ORDER);
+		if (flaggedTraces.size() > MAX_FLAGGED_TRACES)
+			flaggedTraces = new ArrayList<TraceSummary>(flaggedTraces.subList(0, MAX_FLAGGED_TRACES));
+	}
+
+	/* GETTERS & SETTERS */
+
+	/**
+	 * @return the number of isochronous groups, by size (the array may be longer than the maximum size)
+	 */
+	public long[] getGroupSizeCounts() {
+		return groupSizeCounts.clone();
+	}
+
+	public long getGroupsNum() {
+		long groupsNum = 0;
+		for (long count : groupSizeCounts)
+			groupsNum += count;
+		return groupsNum;
+	}
+
+	public int getTracesNum() {
+		return tracesNum;
+	}
+
+	public long getEventsNum() {
+		return eventsNum;
+	}
+
+	public long getMissingTimestampsNum() {
+		return missingTimestampsNum;
+	}
+
+	public double getBlowUpThreshold() {
+		return blowUpThreshold;
+	}
+
+	public int getFlaggedTracesNum() {
+		return flaggedTracesNum;
+	}
+
+	/**
+	 * @return the flagged traces with the most linearizations (at most {@link #MAX_FLAGGED_TRACES}), by decreasing
+	 *         number of linearizations
+	 */
+	public List<TraceSummary> getFlaggedTraces() {
+		trimFlaggedTraces();
+		return Collections.unmodifiableList(flaggedTraces);
+	}
+
+	/**
+	 * @return the trace admitting the most linearizations, or null if no trace has been scanned
+	 */
+	public TraceSummary getWorstTrace() {
+		return worstTrace;
+	}
+
+	/**
+	 * The summary of the isochronous groups of a trace.
+	 */
+	public static class TraceSummary {
+
+		private final int tracePosition;
+		private final String caseId;
+		private final int eventsNum;
+		private final int groupsNum;
+		private final int maxGroupSize;
+		private final double log10Linearizations;
+
+		public TraceSummary(int tracePosition, String caseId, int eventsNum, int groupsNum, int maxGroupSize,
+				double log10Linearizations) {
+			this.tracePosition = tracePosition;
+			this.caseId = caseId;
+			this.eventsNum = eventsNum;
+			this.groupsNum = groupsNum;
+			this.maxGroupSize = maxGroupSize;
+			this.log10Linearizations = log10Linearizations;
+		}
+
+		/* GETTERS & SETTERS */
+
+		public int getTracePosition() {
+			return tracePosition;
+		}
+
+		public String getCaseId() {
+			return caseId;
+		}
+
+		public int getEventsNum() {
+			return eventsNum;
+		}
+
+		public int getGroupsNum() {
+			return groupsNum;
+		}
+
+		public int getMaxGroupSize() {
+			return maxGroupSize;
+		}
+
+		public double getLog10Linearizations() {
+			return log10Linearizations;
+		}
+
+	}
+
+}
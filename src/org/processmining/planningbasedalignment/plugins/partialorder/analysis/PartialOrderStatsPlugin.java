@@ -1,21 +1,19 @@
 package org.processmining.planningbasedalignment.plugins.partialorder.analysis;
 
 import java.text.NumberFormat;
-import java.util.ArrayList;
-import java.util.Map.Entry;
+import java.util.List;
 
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
-import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
-import org.deckfour.xes.model.XTrace;
 import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.Progress;
 import org.processmining.framework.plugin.annotations.Plugin;
 import org.processmining.framework.plugin.annotations.PluginVariant;
 import org.processmining.framework.util.HTMLToString;
-import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.PartialOrderAwarePddlEncoder;
 import org.processmining.planningbasedalignment.utils.HelpMessages;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkConsumer;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkTask;
 
 /**
  * The ProM plug-in for analyzing a partially ordered event log.
@@ -33,9 +31,9 @@ import org.processmining.planningbasedalignment.utils.HelpMessages;
 public class PartialOrderStatsPlugin implements HTMLToString {
 
 	/**
-	 * The summary containing the relevant statistics about isochronous groups size.
+	 * The scanner containing the relevant statistics about isochronous groups size.
 	 */
-	protected SummaryStatistics stats;
+	protected PartialOrderScanner scanner;
 	
 	/**
 	 * The plug-in variant that analyze the given partially ordered event log.
@@ -48,29 +46,36 @@ public class PartialOrderStatsPlugin implements HTMLToString {
 		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
 		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE)
 	@PluginVariant(requiredParameterLabels = { 0 })
-	public HTMLToString analyzeLog(PluginContext context, XLog log) {
+	public HTMLToString analyzeLog(PluginContext context, final XLog log) {
 		
 		// init progress bar
-		Progress progress = context.getProgress();
+		final Progress progress = context.getProgress();
 		progress.setIndeterminate(false);
 		progress.setMaximum(log.size());
 		progress.setMinimum(0);
 		
-		// init stats
-		this.stats = new SummaryStatistics();
-		PartialOrderAwarePddlEncoder encoder = new PartialOrderAwarePddlEncoder();
-		
-		for (XTrace trace : log) {
-			encoder.buildIsochronousGroups(trace);
-			
-			// iterate over the isochronous groups of the trace
-			for (Entry<Integer, ArrayList<XEvent>> entry : encoder.getGroupIdToEventsMapping().entrySet()) {
-				// add isochronous group size to stats
-				this.stats.addValue(entry.getValue().size());
+		// scan the log in parallel, merging the results of the chunks in order
+		this.scanner = new PartialOrderScanner();
+		boolean completed = ParallelChunkProcessor.process(log.size(), new ChunkTask<PartialOrderScanner>() {
+
+			public PartialOrderScanner process(int chunkStart, int chunkEnd) {
+				PartialOrderScanner chunkScanner = new PartialOrderScanner();
+				for (int i = chunkStart; i < chunkEnd; i++)
+					chunkScanner.scan(log.get(i), i + 1);
+				return chunkScanner;
+			}
+		}, new ChunkConsumer<PartialOrderScanner>() {
+
+			public void consume(PartialOrderScanner chunkScanner) {
+				scanner.merge(chunkScanner);
+
+				// update progress bar
+				progress.setValue(progress.getValue() + chunkScanner.getTracesNum());
 			}
-			
-			// update progress bar
-			progress.inc();
+		}, progress);
+		if (!completed) {
+			context.getFutureResult(0).cancel(true);
+			return null;
 		}
 		
 		return this;
@@ -81,6 +86,33 @@ public class PartialOrderStatsPlugin implements HTMLToString {
 		StringBuffer buffer = new StringBuffer();
 		NumberFormat realFormat = NumberFormat.getNumberInstance();
 		realFormat.setMaximumFractionDigits(2);
+		NumberFormat percentFormat = NumberFormat.getPercentInstance();
+		percentFormat.setMaximumFractionDigits(2);
+		
+		// compute the statistics about isochronous groups size from the histogram
+		long[] groupSizeCounts = this.scanner.getGroupSizeCounts();
+		long groupsNum = 0;
+		double sum = 0;
+		int minSize = 0;
+		int maxSize = 0;
+		for (int size = 1; size < groupSizeCounts.length; size++) {
+			if (groupSizeCounts[size] == 0)
+				continue;
+			if (minSize == 0)
+				minSize = size;
+			maxSize = size;
+			groupsNum += groupSizeCounts[size];
+			sum += (double) size * groupSizeCounts[size];
+		}
+		double mean = (groupsNum > 0) ? sum / groupsNum : Double.NaN;
+		double squaredDeviations = 0;
+		for (int size = 1; size < groupSizeCounts.length; size++)
+			squaredDeviations += groupSizeCounts[size] * (size - mean) * (size - mean);
+		double stdDev = Double.NaN;
+		if (groupsNum > 1)
+			stdDev = Math.sqrt(squaredDeviations / (groupsNum - 1));
+		else if (groupsNum == 1)
+			stdDev = 0;
 		
 		if (includeHTMLTags) {
 			buffer.append("<html>");
@@ -89,17 +121,68 @@ public class PartialOrderStatsPlugin implements HTMLToString {
 		buffer.append("<h2>Partial Order Statistics</h2>");
 		buffer.append("<table>");
 		buffer.append("<tr><th>Stat</th><th>Value</th></tr>");
-		buffer.append("<tr><td>Average</td><td>" + realFormat.format(this.stats.getMean()) + "</td></tr>");
-		buffer.append("<tr><td>Maximum</td><td>" + realFormat.format(this.stats.getMax()) + "</td></tr>");
-		buffer.append("<tr><td>Minimum</td><td>" + realFormat.format(this.stats.getMin()) + "</td></tr>");
-		buffer.append("<tr><td>Std dev</td><td>" + realFormat.format(this.stats.getStandardDeviation()) + "</td></tr>");
+		buffer.append("<tr><td>Traces</td><td>" + this.scanner.getTracesNum() + "</td></tr>");
+		buffer.append("<tr><td>Events</td><td>" + this.scanner.getEventsNum() + "</td></tr>");
+		buffer.append("<tr><td>Events without timestamp</td><td>" + this.scanner.getMissingTimestampsNum()
+				+ "</td></tr>");
+		buffer.append("<tr><td>Isochronous groups</td><td>" + groupsNum + "</td></tr>");
+		buffer.append("<tr><td>Average</td><td>" + realFormat.format(mean) + "</td></tr>");
+		buffer.append("<tr><td>Maximum</td><td>" + maxSize + "</td></tr>");
+		buffer.append("<tr><td>Minimum</td><td>" + minSize + "</td></tr>");
+		buffer.append("<tr><td>Std dev</td><td>" + realFormat.format(stdDev) + "</td></tr>");
+		buffer.append("</table>");
+		
+		buffer.append("<h3>Isochronous Groups Size Histogram</h3>");
+		buffer.append("<table>");
+		buffer.append("<tr><th>Size</th><th>Groups</th><th>Percentage</th></tr>");
+		for (int size = 1; size < groupSizeCounts.length; size++) {
+			if (groupSizeCounts[size] == 0)
+				continue;
+			buffer.append("<tr><td>" + size + "</td><td>" + groupSizeCounts[size] + "</td><td>"
+					+ percentFormat.format((double) groupSizeCounts[size] / groupsNum) + "</td></tr>");
+		}
 		buffer.append("</table>");
 		
+		buffer.append("<h3>Linearizations</h3>");
+		buffer.append("<p>The number of linearizations of a trace is the product of the factorials of the sizes of its "
+				+ "isochronous groups. Traces admitting at least 10<sup>"
+				+ realFormat.format(this.scanner.getBlowUpThreshold())
+				+ "</sup> linearizations are likely to blow up the search of the planner.</p>");
+		PartialOrderScanner.TraceSummary worstTrace = this.scanner.getWorstTrace();
+		if (worstTrace != null) {
+			buffer.append("<p>Maximum: 10<sup>" + realFormat.format(worstTrace.getLog10Linearizations())
+					+ "</sup> (trace " + escapeHTML(worstTrace.getCaseId()) + ")</p>");
+		}
+		buffer.append("<p>Flagged traces: " + this.scanner.getFlaggedTracesNum() + "</p>");
+		
+		List<PartialOrderScanner.TraceSummary> flaggedTraces = this.scanner.getFlaggedTraces();
+		if (!flaggedTraces.isEmpty()) {
+			buffer.append("<table>");
+			buffer.append("<tr><th>Position</th><th>Case ID</th><th>Events</th><th>Groups</th><th>Max group size</th>"
+					+ "<th>Linearizations (log10)</th></tr>");
+			for (PartialOrderScanner.TraceSummary trace : flaggedTraces) {
+				buffer.append("<tr><td>" + trace.getTracePosition() + "</td><td>" + escapeHTML(trace.getCaseId())
+						+ "</td><td>" + trace.getEventsNum() + "</td><td>" + trace.getGroupsNum() + "</td><td>"
+						+ trace.getMaxGroupSize() + "</td><td>" + realFormat.format(trace.getLog10Linearizations())
+						+ "</td></tr>");
+			}
+			buffer.append("</table>");
+			if (this.scanner.getFlaggedTracesNum() > flaggedTraces.size())
+				buffer.append("<p>Only the " + flaggedTraces.size()
+						+ " traces with the most linearizations are shown.</p>");
+		}
+		
 		if (includeHTMLTags) {
 			buffer.append("</html>");
 		}
 		
 		return buffer.toString();
 	}
+	
+	private static String escapeHTML(String text) {
+		if (text == null)
+			return "";
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
 
 }
@@ -10,12 +10,12 @@ import java.util.concurrent.ThreadLocalRandom;
 import org.apache.commons.lang3.time.DateUtils;
 import org.deckfour.xes.extension.std.XConceptExtension;
 import org.deckfour.xes.extension.std.XTimeExtension;
-import org.deckfour.xes.factory.XFactory;
-import org.deckfour.xes.factory.XFactoryRegistry;
-import org.deckfour.xes.model.XAttributeMap;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
+import org.deckfour.xes.model.impl.XEventImpl;
+import org.deckfour.xes.model.impl.XLogImpl;
+import org.deckfour.xes.model.impl.XTraceImpl;
 import org.processmining.contexts.uitopia.UIPluginContext;
 import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
 import org.processmining.framework.plugin.PluginContext;
@@ -24,10 +24,18 @@ import org.processmining.framework.plugin.annotations.Plugin;
 import org.processmining.framework.plugin.annotations.PluginVariant;
 import org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms.DailyPartialOrderMaker;
 import org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms.EightHoursPartialOrderMaker;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms.GranularityPartialOrderMaker;
 import org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms.TimeWisePartialOrderMaker;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.models.TimeWisePartiallyOrderedLog;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.parameters.GranularityPartialOrderMakerParameters;
 import org.processmining.planningbasedalignment.plugins.partialorder.maker.parameters.GroupsWisePartialOrderMakerParameters;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.ui.GranularityPartialOrderMakerConfiguration;
 import org.processmining.planningbasedalignment.plugins.partialorder.maker.ui.GroupsWisePartialOrderMakerConfiguration;
+import org.processmining.planningbasedalignment.utils.CopyOnWriteAttributeMap;
 import org.processmining.planningbasedalignment.utils.HelpMessages;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkConsumer;
+import org.processmining.planningbasedalignment.utils.ParallelChunkProcessor.ChunkTask;
 
 /**
  * The ProM plug-in for making an event log partially ordered, according to several different granularities.
@@ -44,6 +52,15 @@ import org.processmining.planningbasedalignment.utils.HelpMessages;
 )
 public class PartialOrderMakerPlugin {
 
+	/**
+	 * A transformation of a trace into a new one.
+	 */
+	private interface TraceTransformer {
+		
+		XTrace transform(XTrace trace);
+		
+	}
+
 	/**
 	 * The plug-in variant that create a copy of the given event log with all timestamps rounded down to the midnight of
 	 * the same day.
@@ -78,6 +95,89 @@ public class PartialOrderMakerPlugin {
 		return makeTimeWisePartialOrder(context, log, new EightHoursPartialOrderMaker());
 	}
 	
+	/**
+	 * The plug-in variant that create a view of the given event log with all timestamps rounded down to the midnight of
+	 * the same day. Timestamps are modified when traces are read, so the log is not copied.
+	 * 
+	 * @param context The context to run in.
+	 * @param log The event log to modify.
+	 * @return The partially ordered view of the event log with a daily granularity.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE, uiLabel = UITopiaVariant.USEVARIANT)
+	@PluginVariant(
+		variantLabel = "Make a partially ordered view of an Event Log (Daily Granularity)",
+		requiredParameterLabels = { 0 })
+	public XLog makeDailyPartialOrderView(PluginContext context, XLog log) {
+		return makeTimeWisePartialOrderView(context, log, new DailyPartialOrderMaker());
+	}
+	
+	/**
+	 * The plug-in variant that create a view of the given event log with timestamps rounded down to to the closest 
+	 * previous checkpoint of the same day (00:00, 08:00, 16:00). Timestamps are modified when traces are read, so the
+	 * log is not copied.
+	 * 
+	 * @param context The context to run in.
+	 * @param log The event log to modify.
+	 * @return The partially ordered view of the event log with a 8-hours granularity.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE, uiLabel = UITopiaVariant.USEVARIANT)
+	@PluginVariant(
+		variantLabel = "Make a partially ordered view of an Event Log (8-hours Granularity)",
+		requiredParameterLabels = { 0 })
+	public XLog makeEightHoursPartialOrderView(PluginContext context, XLog log) {
+		return makeTimeWisePartialOrderView(context, log, new EightHoursPartialOrderMaker());
+	}
+	
+	/**
+	 * The plug-in variant that create a copy of the given event log with timestamps rounded down to the closest 
+	 * previous checkpoint, where checkpoints are set every amount of time provided by the user.
+	 * 
+	 * @param context The context to run in.
+	 * @param log The event log to modify.
+	 * @return The partially ordered event log with the given granularity.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE, uiLabel = UITopiaVariant.USEVARIANT)
+	@PluginVariant(
+		variantLabel = "Make an Event Log partially ordered setting the granularity", requiredParameterLabels = { 0 })
+	public XLog makeGranularityPartialOrder(UIPluginContext context, XLog log) {
+		TimeWisePartialOrderMaker partialOrderMaker = createGranularityPartialOrderMaker(context);
+		if (partialOrderMaker == null) {
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+		return makeTimeWisePartialOrder(context, log, partialOrderMaker);
+	}
+	
+	/**
+	 * The plug-in variant that create a view of the given event log with timestamps rounded down to the closest 
+	 * previous checkpoint, where checkpoints are set every amount of time provided by the user. Timestamps are 
+	 * modified when traces are read, so the log is not copied.
+	 * 
+	 * @param context The context to run in.
+	 * @param log The event log to modify.
+	 * @return The partially ordered view of the event log with the given granularity.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE, uiLabel = UITopiaVariant.USEVARIANT)
+	@PluginVariant(
+		variantLabel = "Make a partially ordered view of an Event Log setting the granularity",
+		requiredParameterLabels = { 0 })
+	public XLog makeGranularityPartialOrderView(UIPluginContext context, XLog log) {
+		TimeWisePartialOrderMaker partialOrderMaker = createGranularityPartialOrderMaker(context);
+		if (partialOrderMaker == null) {
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+		return makeTimeWisePartialOrderView(context, log, partialOrderMaker);
+	}
+	
 	/**
 	 * The plug-in variant that create a copy of the given event log with timestamps adjusted in order to divide traces
 	 * in isochronous groups whose expected size is equal to the value provided by the user. 
@@ -103,57 +203,51 @@ public class PartialOrderMakerPlugin {
 			return null;
 		}
 		
-		int expectedGroupSize = parameters.getExpectedGroupSize(); 
-		int intervalRadius = parameters.getIntervalRadius();
+		final int expectedGroupSize = parameters.getExpectedGroupSize(); 
+		final int intervalRadius = parameters.getIntervalRadius();
 		
-		// init progress bar
-		Progress progress = context.getProgress();
-		progress.setIndeterminate(false);
-		progress.setMaximum(log.size());
-		progress.setMinimum(0);
-		
-		// create new log with the same attributes (make copy to avoid side-effects)
-		XFactory factory = XFactoryRegistry.instance().currentDefault();
-		XLog newLog = factory.createLog((XAttributeMap) log.getAttributes().clone());
+		// create new log with the same attributes (shared copy-on-write to avoid side-effects)
+		XLog newLog = new XLogImpl(new CopyOnWriteAttributeMap(log.getAttributes()));
 		String newLogName = "Partially Ordered " + XConceptExtension.instance().extractName(log);
 		XConceptExtension.instance().assignName(newLog, newLogName);
 		
-		long hour;
-		int tracePointer;
-		List<Integer> groupsDistribution;
-		for (XTrace trace : log) {
-			
-			// create new trace with the same attributes (make copy to avoid side-effects)
-			XTrace newTrace = factory.createTrace((XAttributeMap) trace.getAttributes().clone());
+		boolean completed = transformTraces(context, log, newLog, new TraceTransformer() {
 			
-			// iterate over the trace to build isochronous groups
-			hour = 0;
-			tracePointer = 0;
-			groupsDistribution = computeGroupsDistribution(trace, expectedGroupSize, intervalRadius);
-			for (Integer groupSize : groupsDistribution) {
+			public XTrace transform(XTrace trace) {
 				
-				// create a time stamp associated with the current hour
-				Date newTimestamp = new Date(hour);
+				// create new trace with the same attributes (shared copy-on-write to avoid side-effects)
+				XTrace newTrace = new XTraceImpl(new CopyOnWriteAttributeMap(trace.getAttributes()));
 				
-				for (XEvent event : trace.subList(tracePointer, tracePointer + groupSize)) {
+				// iterate over the trace to build isochronous groups
+				long hour = 0;
+				int tracePointer = 0;
+				List<Integer> groupsDistribution = computeGroupsDistribution(trace, expectedGroupSize, intervalRadius);
+				for (Integer groupSize : groupsDistribution) {
 					
-					// create new event with the same attributes (make copy to avoid side-effects)
-					XEvent newEvent = factory.createEvent((XAttributeMap) event.getAttributes().clone());	
+					// create a time stamp associated with the current hour
+					Date newTimestamp = new Date(hour);
 					
-					// set timestamp to new value
-					XTimeExtension.instance().assignTimestamp(newEvent, newTimestamp);
+					for (XEvent event : trace.subList(tracePointer, tracePointer + groupSize)) {
+						
+						// create new event with the same attributes (only the timestamp is not shared)
+						XEvent newEvent = new XEventImpl(new CopyOnWriteAttributeMap(event.getAttributes()));	
+						
+						// set timestamp to new value
+						XTimeExtension.instance().assignTimestamp(newEvent, newTimestamp);
+						
+						newTrace.add(newEvent);
+					}
 					
-					newTrace.add(newEvent);
+					tracePointer += groupSize;
+					hour += DateUtils.MILLIS_PER_HOUR;
 				}
-				
-				tracePointer += groupSize;
-				hour += DateUtils.MILLIS_PER_HOUR;
+				return newTrace;
 			}
-			
-			newLog.add(newTrace);
-			
-			// update progress bar
-			progress.inc();
+		});
+		
+		if (!completed) {
+			context.getFutureResult(0).cancel(true);
+			return null;
 		}
 		
 		// set result label
@@ -165,6 +259,25 @@ public class PartialOrderMakerPlugin {
 		return newLog;
 	}
 	
+	/**
+	 * Run the configuration wizard to create a {@link GranularityPartialOrderMaker}.
+	 * 
+	 * @param context The context to run in.
+	 * @return The partial order maker, or null if the user cancelled the configuration.
+	 */
+	private TimeWisePartialOrderMaker createGranularityPartialOrderMaker(UIPluginContext context) {
+		
+		// start configuration GUI to tune parameters
+		GranularityPartialOrderMakerConfiguration configurationUI = new GranularityPartialOrderMakerConfiguration();
+		GranularityPartialOrderMakerParameters parameters = configurationUI.getParameters(context);
+		
+		if (parameters == null)
+			return null;
+		
+		return new GranularityPartialOrderMaker(
+				parameters.getGranularity(), parameters.getUnit(), parameters.getShift(), parameters.getUnit());
+	}
+	
 	/**
 	 * Create a copy of the given event log with all timestamps rounded according to the time-wise criteria defined by 
 	 * the given {@link TimeWisePartialOrderMaker}. 
@@ -175,56 +288,54 @@ public class PartialOrderMakerPlugin {
 	 * @return The new modified event log.
 	 */
 	private XLog makeTimeWisePartialOrder(
-			PluginContext context, XLog log, TimeWisePartialOrderMaker partialOrderMaker) {
+			final PluginContext context, XLog log, final TimeWisePartialOrderMaker partialOrderMaker) {
 
-		// init progress bar
-		Progress progress = context.getProgress();
-		progress.setIndeterminate(false);
-		progress.setMaximum(log.size());
-		progress.setMinimum(0);
-		
-		// create new log with the same attributes (make copy to avoid side-effects)
-		XFactory factory = XFactoryRegistry.instance().currentDefault();
-		XLog newLog = factory.createLog((XAttributeMap) log.getAttributes().clone());
+		// create new log with the same attributes (shared copy-on-write to avoid side-effects)
+		XLog newLog = new XLogImpl(new CopyOnWriteAttributeMap(log.getAttributes()));
 		String newLogName = "Partially Ordered " + XConceptExtension.instance().extractName(log);
 		XConceptExtension.instance().assignName(newLog, newLogName);
 		
-		for (XTrace trace : log) {
-			String caseId = XConceptExtension.instance().extractName(trace);
-
-			// initialize a default timestamp for events that have a null one
-			Date defaultDate = new Date(0);
-			
-			// create new trace with the same attributes (make copy to avoid side-effects)
-			XTrace newTrace = factory.createTrace((XAttributeMap) trace.getAttributes().clone());
+		boolean completed = transformTraces(context, log, newLog, new TraceTransformer() {
 			
-			int eventPos = 1;
-			for (XEvent event : trace) {
-				// create new event with the same attributes (make copy to avoid side-effects)
-				XEvent newEvent = factory.createEvent((XAttributeMap) event.getAttributes().clone());
-				Date timestamp = XTimeExtension.instance().extractTimestamp(newEvent);
-				
-				if (timestamp == null) {
-					// the event has a null timestamp, set it as equal to the timestamp of the previous event
-					context.log(new RuntimeException("Null timestamp at trace " + caseId + ", event #" + eventPos));
-					timestamp = defaultDate;
-				}
-				
-				// set timestamp to new value
-				Date newTimestamp = partialOrderMaker.modifyTimestamp(timestamp);
-				XTimeExtension.instance().assignTimestamp(newEvent, newTimestamp);
+			public XTrace transform(XTrace trace) {
+				String caseId = XConceptExtension.instance().extractName(trace);
+
+				// initialize a default timestamp for events that have a null one
+				Date defaultDate = new Date(0);
 				
-				newTrace.add(newEvent);
+				// create new trace with the same attributes (shared copy-on-write to avoid side-effects)
+				XTrace newTrace = new XTraceImpl(new CopyOnWriteAttributeMap(trace.getAttributes()));
 				
-				// update default date
-				defaultDate = (Date) timestamp.clone();
-				eventPos++;
+				int eventPos = 1;
+				for (XEvent event : trace) {
+					// create new event with the same attributes (only the timestamp is not shared)
+					XEvent newEvent = new XEventImpl(new CopyOnWriteAttributeMap(event.getAttributes()));
+					Date timestamp = XTimeExtension.instance().extractTimestamp(newEvent);
+					
+					if (timestamp == null) {
+						// the event has a null timestamp, set it as equal to the timestamp of the previous event
+						context.log(
+								new RuntimeException("Null timestamp at trace " + caseId + ", event #" + eventPos));
+						timestamp = defaultDate;
+					}
+					
+					// set timestamp to new value
+					Date newTimestamp = partialOrderMaker.modifyTimestamp(timestamp);
+					XTimeExtension.instance().assignTimestamp(newEvent, newTimestamp);
+					
+					newTrace.add(newEvent);
+					
+					// update default date
+					defaultDate = (Date) timestamp.clone();
+					eventPos++;
+				}
+				return newTrace;
 			}
-			
-			newLog.add(newTrace);
-			
-			// update progress bar
-			progress.inc();
+		});
+		
+		if (!completed) {
+			context.getFutureResult(0).cancel(true);
+			return null;
 		}
 		
 		// set result label
@@ -236,6 +347,69 @@ public class PartialOrderMakerPlugin {
 		return newLog;
 	}
 	
+	/**
+	 * Create a view of the given event log with all timestamps rounded according to the time-wise criteria defined by 
+	 * the given {@link TimeWisePartialOrderMaker}.
+	 * 
+	 * @param context The context to run in.
+	 * @param log The event log to modify.
+	 * @param partialOrderMaker The criteria according to which the timestamps have to be modified.
+	 * @return The partially ordered view of the event log.
+	 */
+	private XLog makeTimeWisePartialOrderView(
+			PluginContext context, XLog log, TimeWisePartialOrderMaker partialOrderMaker) {
+		
+		XLog newLog = new TimeWisePartiallyOrderedLog(log, partialOrderMaker);
+		
+		// set result label
+		DateFormat dateFormat = new SimpleDateFormat("HH:mm:ss");
+		Date date = new Date();		
+		String resultLabel = XConceptExtension.instance().extractName(newLog) + " View (created @ "
+				+ dateFormat.format(date) + ")";		
+		context.getFutureResult(0).setLabel(resultLabel);
+		
+		return newLog;
+	}
+	
+	/**
+	 * Transform the traces of the given log in parallel, adding the transformed traces to the new log in the same
+	 * order as the original ones.
+	 * 
+	 * @param context The context to run in.
+	 * @param log The event log to transform.
+	 * @param newLog The event log where to add the transformed traces.
+	 * @param transformer The transformation to apply to each trace (it must be thread-safe).
+	 * @return true if all the traces have been transformed, false if the plug-in has been cancelled.
+	 */
+	private boolean transformTraces(
+			PluginContext context, final XLog log, final XLog newLog, final TraceTransformer transformer) {
+		
+		// init progress bar
+		final Progress progress = context.getProgress();
+		progress.setIndeterminate(false);
+		progress.setMaximum(log.size());
+		progress.setMinimum(0);
+		
+		// transform the log in parallel, collecting the transformed traces in order
+		return ParallelChunkProcessor.process(log.size(), new ChunkTask<List<XTrace>>() {
+
+			public List<XTrace> process(int chunkStart, int chunkEnd) {
+				List<XTrace> newTraces = new ArrayList<XTrace>(chunkEnd - chunkStart);
+				for (XTrace trace : log.subList(chunkStart, chunkEnd))
+					newTraces.add(transformer.transform(trace));
+				return newTraces;
+			}
+		}, new ChunkConsumer<List<XTrace>>() {
+
+			public void consume(List<XTrace> newTraces) {
+				newLog.addAll(newTraces);
+
+				// update progress bar
+				progress.setValue(progress.getValue() + newTraces.size());
+			}
+		}, progress);
+	}
+	
 	/**
 	 * Compute a distribution of groups sizes, uniformly and randomly chosen from an interval of values defined by the
 	 * given expected size and the radius of the interval. 
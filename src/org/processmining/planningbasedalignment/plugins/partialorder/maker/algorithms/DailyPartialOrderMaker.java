@@ -1,9 +1,6 @@
 package org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms;
 
-import java.util.Calendar;
-import java.util.Date;
-
-import org.apache.commons.lang3.time.DateUtils;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Round down timestamp to midnight of the same day.
@@ -11,11 +8,10 @@ import org.apache.commons.lang3.time.DateUtils;
  * @author Giacomo Lanciano
  *
  */
-public class DailyPartialOrderMaker implements TimeWisePartialOrderMaker {
+public class DailyPartialOrderMaker extends GranularityPartialOrderMaker {
 
-	@Override
-	public Date modifyTimestamp(Date timestamp) {
-		return DateUtils.truncate(timestamp, Calendar.DATE);
+	public DailyPartialOrderMaker() {
+		super(1, TimeUnit.DAYS);
 	}
 
 }
@@ -0,0 +1,159 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Round down timestamp to the closest previous checkpoint, where checkpoints are set every given amount of time (e.g.
+ * every 15 minutes, 8 hours or 2 days) starting from the local midnight of 1970-01-01, optionally shifted. Checkpoints
+ * are computed on the local wall-clock time, so that daily checkpoints fall at midnight also across daylight saving
+ * time changes.
+ *
+ * Timestamps are bucketed as epoch milliseconds, without Calendar objects. The offsets of the time zone are cached by
+ * hour, so that no object is allocated besides the resulting timestamp. The instances are thread-safe.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class GranularityPartialOrderMaker implements TimeWisePartialOrderMaker {
+
+	/**
+	 * The number of cached hours (a power of 2).
+	 */
+	private static final int OFFSET_CACHE_SIZE = 1 << 12;
+
+	/**
+	 * The marker of the cache entries of hours where the offset changes (their offsets are not cached).
+	 */
+	private static final int VARIABLE_OFFSET = Integer.MIN_VALUE;
+
+	/**
+	 * The hour of the empty cache entries (no timestamp belongs to it).
+	 */
+	private static final long EMPTY_HOUR = Integer.MIN_VALUE;
+
+	/**
+	 * The distance between two consecutive checkpoints, in milliseconds.
+	 */
+	private final long granularity;
+
+	/**
+	 * The shift of the checkpoints from the local midnight of 1970-01-01, in milliseconds.
+	 */
+	private final long shift;
+
+	/**
+	 * The time zone of the wall-clock time.
+	 */
+	private final TimeZone timeZone;
+
+	/**
+	 * The offsets of the time zone, by hour since the epoch. Each entry packs the hour in the upper 32 bits and the
+	 * offset in the lower ones, so that it is read and written atomically.
+	 */
+	private final AtomicLongArray offsetCache;
+
+	public GranularityPartialOrderMaker(long granularity, TimeUnit unit) {
+		this(granularity, unit, 0, unit);
+	}
+
+	public GranularityPartialOrderMaker(long granularity, TimeUnit unit, long shift, TimeUnit shiftUnit) {
+		this(unit.toMillis(granularity), shiftUnit.toMillis(shift), TimeZone.getDefault());
+	}
+
+	/**
+	 * @param granularity The distance between two consecutive checkpoints, in milliseconds.
+	 * @param shift The shift of the checkpoints from the local midnight of 1970-01-01, in milliseconds.
+	 * @param timeZone The time zone of the wall-clock time.
+	 */
+	public GranularityPartialOrderMaker(long granularity, long shift, TimeZone timeZone) {
+		if (granularity <= 0)
+			throw new IllegalArgumentException("The granularity must be positive: " + granularity);
+
+		this.granularity = granularity;
+		this.shift = shift % granularity;
+		this.timeZone = (TimeZone) timeZone.clone();
+		this.offsetCache = new AtomicLongArray(OFFSET_CACHE_SIZE);
+		for (int i = 0; i < OFFSET_CACHE_SIZE; i++)
+			offsetCache.set(i, EMPTY_HOUR << 32);
+	}
+
+	@Override
+	public Date modifyTimestamp(Date timestamp) {
+		return new Date(modifyTimestamp(timestamp.getTime()));
+	}
+
+	/**
+	 * Modify the given timestamp.
+	 *
+	 * @param timestamp The timestamp to be modified, in milliseconds since the epoch.
+	 * @return The modified timestamp, in milliseconds since the epoch.
+	 */
+	public long modifyTimestamp(long timestamp) {
+
+		// round down the wall-clock time
+		int offset = getOffset(timestamp);
+		long localTime = timestamp + offset;
+		long localCheckpoint = localTime - floorMod(localTime - shift, granularity);
+
+		// go back to the epoch, checking whether the offset of the checkpoint is different
+		long checkpoint = localCheckpoint - offset;
+		int checkpointOffset = getOffset(checkpoint);
+		if (checkpointOffset != offset)
+			checkpoint = localCheckpoint - checkpointOffset;
+		return checkpoint;
+	}
+
+	/**
+	 * Get the offset of the time zone at the given time, looking it up in the cache first.
+	 */
+	private int getOffset(long time) {
+		long hour = floorDiv(time, TimeUnit.HOURS.toMillis(1));
+		int slot = (int) (hour & (OFFSET_CACHE_SIZE - 1));
+		long entry = offsetCache.get(slot);
+		if ((entry >> 32) == hour) {
+			int offset = (int) entry;
+			if (offset != VARIABLE_OFFSET)
+				return offset;
+			return timeZone.getOffset(time);
+		}
+
+		// the offset is constant over the hour if it is the same at both its ends
+		long hourStart = hour * TimeUnit.HOURS.toMillis(1);
+		int offset = timeZone.getOffset(hourStart);
+		if (offset != timeZone.getOffset(hourStart + TimeUnit.HOURS.toMillis(1) - 1)) {
+			offsetCache.set(slot, (hour << 32) | (VARIABLE_OFFSET & 0xffffffffL));
+			return timeZone.getOffset(time);
+		}
+		offsetCache.set(slot, (hour << 32) | (offset & 0xffffffffL));
+		return offset;
+	}
+
+	private static long floorDiv(long x, long y) {
+		long quotient = x / y;
+		if ((x % y != 0) && ((x ^ y) < 0))
+			quotient--;
+		return quotient;
+	}
+
+	private static long floorMod(long x, long y) {
+		return x - floorDiv(x, y) * y;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public long getGranularity() {
+		return granularity;
+	}
+
+	public long getShift() {
+		return shift;
+	}
+
+	public TimeZone getTimeZone() {
+		return (TimeZone) timeZone.clone();
+	}
+
+}
@@ -0,0 +1,181 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.maker.models;
+
+import java.util.AbstractList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.deckfour.xes.classification.XEventClassifier;
+import org.deckfour.xes.extension.XExtension;
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.info.XLogInfo;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.deckfour.xes.model.XVisitor;
+import org.deckfour.xes.model.impl.XEventImpl;
+import org.deckfour.xes.model.impl.XTraceImpl;
+import org.deckfour.xes.util.XAttributeUtils;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms.TimeWisePartialOrderMaker;
+import org.processmining.planningbasedalignment.utils.CopyOnWriteAttributeMap;
+
+/**
+ * A partially ordered view of an event log, whose timestamps are modified by a {@link TimeWisePartialOrderMaker} when
+ * traces are read. Creating the view does not copy the log: a trace is built only when it is accessed, sharing the
+ * attributes of the original one (only the timestamps of its events are not shared). An event with a null timestamp
+ * gets the one of the previous event, as in a partially ordered copy of the log.
+ *
+ * The view is read-only, and it reflects the original log, that must not be modified while the view is in use. Since
+ * traces are built on every access, changes to their attributes are not kept.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class TimeWisePartiallyOrderedLog extends AbstractList<XTrace> implements XLog {
+
+	/**
+	 * The original event log.
+	 */
+	private final XLog log;
+
+	/**
+	 * The modifier of the timestamps.
+	 */
+	private final TimeWisePartialOrderMaker partialOrderMaker;
+
+	/**
+	 * The attributes of the view (shared with the original log, except for the name).
+	 */
+	private XAttributeMap attributes;
+
+	/**
+	 * The log infos of the view, by classifier.
+	 */
+	private final Map<XEventClassifier, XLogInfo> infos;
+
+	public TimeWisePartiallyOrderedLog(XLog log, TimeWisePartialOrderMaker partialOrderMaker) {
+		this.log = log;
+		this.partialOrderMaker = partialOrderMaker;
+		this.attributes = new CopyOnWriteAttributeMap(log.getAttributes());
+		this.infos = new HashMap<XEventClassifier, XLogInfo>();
+
+		String logName = "Partially Ordered " + XConceptExtension.instance().extractName(log);
+		XConceptExtension.instance().assignName(this, logName);
+	}
+
+	@Override
+	public XTrace get(int index) {
+		XTrace trace = log.get(index);
+
+		// create new trace with the same attributes (shared copy-on-write to avoid side-effects)
+		XTrace newTrace = new XTraceImpl(new CopyOnWriteAttributeMap(trace.getAttributes()));
+
+		// initialize a default timestamp for events that have a null one
+		Date defaultDate = new Date(0);
+
+		for (XEvent event : trace) {
+			// create new event with the same identity and attributes (only the timestamp is not shared)
+			XEvent newEvent = new XEventImpl(event.getID(), new CopyOnWriteAttributeMap(event.getAttributes()));
+			Date timestamp = XTimeExtension.instance().extractTimestamp(event);
+
+			if (timestamp == null) {
+				// the event has a null timestamp, set it as equal to the timestamp of the previous event
+				timestamp = defaultDate;
+			}
+
+			// set timestamp to new value
+			XTimeExtension.instance().assignTimestamp(newEvent, partialOrderMaker.modifyTimestamp(timestamp));
+			newTrace.add(newEvent);
+
+			// update default date
+			defaultDate = timestamp;
+		}
+		return newTrace;
+	}
+
+	@Override
+	public int size() {
+		return log.size();
+	}
+
+	public List<XEventClassifier> getClassifiers() {
+		return log.getClassifiers();
+	}
+
+	public List<XAttribute> getGlobalTraceAttributes() {
+		return log.getGlobalTraceAttributes();
+	}
+
+	public List<XAttribute> getGlobalEventAttributes() {
+		return log.getGlobalEventAttributes();
+	}
+
+	public boolean accept(XVisitor visitor) {
+		if (!visitor.precondition())
+			return false;
+
+		visitor.init(this);
+		visitor.visitLogPre(this);
+		for (XExtension extension : getExtensions())
+			extension.accept(visitor, this);
+		for (XEventClassifier classifier : getClassifiers())
+			classifier.accept(visitor, this);
+		for (XAttribute attribute : getGlobalTraceAttributes())
+			attribute.accept(visitor, this);
+		for (XAttribute attribute : getGlobalEventAttributes())
+			attribute.accept(visitor, this);
+		for (XAttribute attribute : attributes.values())
+			attribute.accept(visitor, this);
+		for (XTrace trace : this)
+			trace.accept(visitor, this);
+		visitor.visitLogPost(this);
+		return true;
+	}
+
+	public synchronized XLogInfo getInfo(XEventClassifier classifier) {
+		return infos.get(classifier);
+	}
+
+	public synchronized void setInfo(XEventClassifier classifier, XLogInfo info) {
+		infos.put(classifier, info);
+	}
+
+	@Override
+	public Object clone() {
+		TimeWisePartiallyOrderedLog clone = new TimeWisePartiallyOrderedLog(log, partialOrderMaker);
+		clone.attributes = new CopyOnWriteAttributeMap(attributes);
+		return clone;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public XAttributeMap getAttributes() {
+		return attributes;
+	}
+
+	public void setAttributes(XAttributeMap attributes) {
+		this.attributes = attributes;
+	}
+
+	public boolean hasAttributes() {
+		return !attributes.isEmpty();
+	}
+
+	public Set<XExtension> getExtensions() {
+		return XAttributeUtils.extractExtensions(attributes);
+	}
+
+	public XLog getOriginalLog() {
+		return log;
+	}
+
+	public TimeWisePartialOrderMaker getPartialOrderMaker() {
+		return partialOrderMaker;
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.maker.parameters;
+
+import java.util.concurrent.TimeUnit;
+
+import org.processmining.basicutils.parameters.impl.PluginParametersImpl;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.PartialOrderMakerPlugin;
+
+/**
+ * A class representing the parameters that the user has to provide to run the custom granularity variant of
+ * {@link PartialOrderMakerPlugin}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class GranularityPartialOrderMakerParameters extends PluginParametersImpl {
+
+	/**
+	 * The distance between two consecutive checkpoints, in {@link #unit}.
+	 */
+	private long granularity;
+
+	/**
+	 * The time unit of {@link #granularity} and {@link #shift}.
+	 */
+	private TimeUnit unit;
+
+	/**
+	 * The shift of the checkpoints from the local midnight, in {@link #unit}.
+	 */
+	private long shift;
+
+	public GranularityPartialOrderMakerParameters() {
+		super();
+	}
+
+	/* GETTERS & SETTERS */
+
+	public long getGranularity() {
+		return granularity;
+	}
+
+	public void setGranularity(long granularity) {
+		this.granularity = granularity;
+	}
+
+	public TimeUnit getUnit() {
+		return unit;
+	}
+
+	public void setUnit(TimeUnit unit) {
+		this.unit = unit;
+	}
+
+	public long getShift() {
+		return shift;
+	}
+
+	public void setShift(long shift) {
+		this.shift = shift;
+	}
+
+}
@@ -0,0 +1,107 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.maker.ui;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+
+import org.deckfour.uitopia.api.event.TaskListener.InteractionResult;
+import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.framework.util.ui.widgets.ProMComboBox;
+import org.processmining.framework.util.ui.widgets.ProMTextField;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.PartialOrderMakerPlugin;
+import org.processmining.planningbasedalignment.plugins.partialorder.maker.parameters.GranularityPartialOrderMakerParameters;
+import org.processmining.planningbasedalignment.utils.ConfigurationPanel;
+
+/**
+ * The configuration wizard for tuning the parameters to run the custom granularity variant of
+ * {@link PartialOrderMakerPlugin}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class GranularityPartialOrderMakerConfiguration {
+
+	private static final String DEFAULT_GRANULARITY = "1";
+	private static final String DEFAULT_SHIFT = "0";
+	private static final TimeUnit[] UNITS = { TimeUnit.SECONDS, TimeUnit.MINUTES, TimeUnit.HOURS, TimeUnit.DAYS };
+
+	/**
+	 * Run the configuration wizard for tuning the parameters.
+	 *
+	 * @param context The context where to run in.
+	 * @return The parameters.
+	 */
+	public GranularityPartialOrderMakerParameters getParameters(UIPluginContext context) {
+
+		GranularityPartialOrderMakerParameters result = new GranularityPartialOrderMakerParameters();
+
+		// init UI
+		long granularity;
+		long shift;
+		TimeUnit unit;
+		ConfigurationPanel panel;
+		ProMTextField granularityField;
+		ProMComboBox<TimeUnit> unitComboBox;
+		ProMTextField shiftField;
+		do {
+			panel = new ConfigurationPanel("");
+			granularityField = new ProMTextField(DEFAULT_GRANULARITY);
+			shiftField = new ProMTextField(DEFAULT_SHIFT);
+
+			panel.addProperty("Granularity", granularityField);
+			granularityField.setToolTipText("The distance between two consecutive checkpoints.");
+			unitComboBox = panel.addComboBox("Time Unit", UNITS);
+			unitComboBox.setSelectedItem(TimeUnit.DAYS);
+			unitComboBox.setToolTipText("The time unit of the granularity and of the shift.");
+			panel.addProperty("Shift", shiftField);
+			shiftField.setToolTipText("The shift of the checkpoints from midnight (e.g. 6 hours to start days at 06:00).");
+
+			// prompt user
+			InteractionResult interactionResult = context.showConfiguration("Configuration", panel);
+
+			if (interactionResult == InteractionResult.CANCEL) {
+				return null;
+			}
+
+			unit = (TimeUnit) unitComboBox.getSelectedItem();
+			try {
+				granularity = Long.parseLong(granularityField.getText());
+				shift = Long.parseLong(shiftField.getText());
+
+			} catch (NumberFormatException e) {
+				// if an input is not an integer, force the integrity check to fail
+				e.printStackTrace();
+				granularity = 0;
+				shift = -1;
+			}
+
+		} while (!checkParametersIntegrity(granularity, shift));
+
+		result.setGranularity(granularity);
+		result.setUnit(unit);
+		result.setShift(shift);
+		return result;
+	}
+
+	/**
+	 * Check whether the provided parameters are valid.
+	 *
+	 * @param granularity The distance between two consecutive checkpoints.
+	 * @param shift The shift of the checkpoints from midnight.
+	 * @return true if the parameters are valid.
+	 */
+	private boolean checkParametersIntegrity(long granularity, long shift) {
+
+		if (granularity > 0 && shift >= 0)
+			return true;
+
+		JOptionPane.showMessageDialog(
+				new JPanel(),
+				"The inserted parameters are invalid.",
+				"Invalid parameters", JOptionPane.ERROR_MESSAGE);
+
+		return false;
+	}
+
+}
@@ -0,0 +1,86 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.JFileChooser;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.io.AlignmentExportFormat;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.utils.HelpMessages;
+import org.processmining.planningbasedalignment.utils.ProgressHub;
+
+/**
+ * The ProM plug-in to export the alignments of a Planning-based Alignment result in one of the
+ * {@link AlignmentExportFormat}s (CSV with a row per trace or per move, or XES decorated with the alignment extension).
+ * 
+ * @author Giacomo Lanciano
+ *
+ */
+@Plugin(
+	name = "Export Planning-based Alignments",
+	parameterLabels = { "Petri Net Replay Result", "File", "Format" },
+	returnLabels = { "Exported Alignments" },
+	returnTypes = { Void.class },
+	userAccessible = true
+)
+public class AlignmentExportPlugin {
+
+	/**
+	 * The plug-in variant that runs in a UI context and prompts the user for the file and the format.
+	 * 
+	 * @param context The context to run in.
+	 * @param result The result of a Planning-based Alignment.
+	 * @throws IOException
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE)
+	@PluginVariant(requiredParameterLabels = { 0 })
+	public void runUI(UIPluginContext context, PlanningBasedReplayResult result) throws IOException {
+		JFileChooser chooser = new JFileChooser();
+		Map<FileFilter, AlignmentExportFormat> formats = new HashMap<FileFilter, AlignmentExportFormat>();
+		for (AlignmentExportFormat format : AlignmentExportFormat.values()) {
+			FileFilter filter = new FileNameExtensionFilter(format.getDescription(), format.getExtension());
+			formats.put(filter, format);
+			chooser.addChoosableFileFilter(filter);
+			if (format == AlignmentExportFormat.TRACES_CSV)
+				chooser.setFileFilter(filter);
+		}
+		chooser.setAcceptAllFileFilterUsed(false);
+		if (chooser.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) {
+			context.getFutureResult(0).cancel(true);
+			return;
+		}
+
+		AlignmentExportFormat format = formats.get(chooser.getFileFilter());
+		export(context, result, format.withExtension(chooser.getSelectedFile()), format);
+	}
+
+	/**
+	 * Export the alignments of the given result in the given file.
+	 * 
+	 * @param context The context to run in.
+	 * @param result The result of a Planning-based Alignment.
+	 * @param file The file to be written.
+	 * @param format The format of the file.
+	 * @throws IOException
+	 */
+	@PluginVariant(requiredParameterLabels = { 0, 1, 2 })
+	public void export(PluginContext context, PlanningBasedReplayResult result, File file,
+			AlignmentExportFormat format) throws IOException {
+
+		format.createExporter().export(result, file, new ProgressHub(context));
+		context.log("The alignments have been exported to " + file.getAbsolutePath() + ".");
+	}
+
+}
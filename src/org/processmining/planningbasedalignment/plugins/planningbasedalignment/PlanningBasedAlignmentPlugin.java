@@ -1,13 +1,5 @@
 package org.processmining.planningbasedalignment.plugins.planningbasedalignment;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
@@ -16,14 +8,20 @@ import org.deckfour.xes.model.XLog;
 import org.processmining.contexts.uitopia.UIPluginContext;
 import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
 import org.processmining.framework.connections.ConnectionCannotBeObtained;
+import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.annotations.Plugin;
 import org.processmining.framework.plugin.annotations.PluginCategory;
 import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.framework.plugin.events.Logger.MessageLevel;
 import org.processmining.framework.util.ui.widgets.helper.UserCancelledException;
+import org.processmining.models.connections.petrinets.behavioral.FinalMarkingConnection;
+import org.processmining.models.connections.petrinets.behavioral.InitialMarkingConnection;
 import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.semantics.petrinet.Marking;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.algorithms.PlanningBasedAlignment;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.connections.PlanningBasedAlignmentConnection;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentDefaults;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.ui.PlanningBasedAlignmentConfiguration;
 import org.processmining.planningbasedalignment.utils.HelpMessages;
@@ -47,15 +45,6 @@ import org.processmining.planningbasedalignment.utils.ResourcesUnpacker;
 )
 public class PlanningBasedAlignmentPlugin extends PlanningBasedAlignment {
 
-	private static final int PYTHON_2 = 2;
-	private static final int PYTHON_3 = 3;
-	private static final int PYTHON_2_MIN_VERSION = 7;
-	private static final int PYTHON_3_MIN_VERSION = 2;
-	
-	private static final String python = "Python ";
-	private static final Pattern pythonVersionRegexPattern = Pattern.compile("\\d+\\.\\d+");
-	
-	
 	/**
 	 * A flag that tells whether another run of the plug-in is in progress or not, to avoid conflicts due to the fact
 	 * that the underlying planner is not designed to handle concurrent execution.
@@ -89,7 +78,7 @@ public class PlanningBasedAlignmentPlugin extends PlanningBasedAlignment {
 			return null;
 		}
 		
-		if (!isPythonInstalled()) {			
+		if (!isPythonInstalled(context)) {			
 			JOptionPane.showMessageDialog(
 					new JPanel(),
 					"The plug-in is not able to find and call Python 2.7+ or 3.2+ on your machine. Please, install it "
@@ -128,13 +117,7 @@ public class PlanningBasedAlignmentPlugin extends PlanningBasedAlignment {
 		// start algorithm
 		PlanningBasedReplayResult result = runAlgorithm(context, log, petrinet, parameters);
 
-		String resultLabel = "Replay result - log " + XConceptExtension.instance().extractName(log) 
-				+ " on " + petrinet.getLabel() + " using Automated Planning";
-
-		if (parameters.isPartiallyOrderedEvents())
-			resultLabel += " (Partial Order Assumption)";
-
-		context.getFutureResult(0).setLabel(resultLabel);
+		context.getFutureResult(0).setLabel(getResultLabel(log, petrinet, parameters));
 		
 		// release lock
 		plannerLock = false;
@@ -143,6 +126,85 @@ public class PlanningBasedAlignmentPlugin extends PlanningBasedAlignment {
 
 	}
 
+	/**
+	 * The plug-in variant that runs without any UI, with the given parameters (e.g. when invoked from a script or in a
+	 * batch job on a server without a display). The parameters that are not set take their default values, except for
+	 * the markings of the Petri net, which are taken from its connections, if any.
+	 * 
+	 * @param context The context to run in.
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @param parameters The parameters to be used by the alignment algorithm.
+	 * @return The result of the replay of the event log on the Petri net.
+	 */
+	@PluginVariant(variantLabel = "Headless Planning-based Alignment", requiredParameterLabels = { 0, 1, 2 })
+	public PlanningBasedReplayResult runHeadless(
+			PluginContext context, XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		
+		if (plannerLock) {
+			context.log("It is not allowed to run many instances of the plug-in in parallel, since the underlying "
+					+ "planner is not designed to handle concurrent executions.", MessageLevel.ERROR);
+			abortExecution(context);
+			return null;
+		}
+		
+		if (!isPythonInstalled(context)) {
+			context.log("The plug-in is not able to find and call Python 2.7+ or 3.2+ on your machine. Please, install "
+					+ "it and make sure it is visible in the PATH.", MessageLevel.ERROR);
+			abortExecution(context);
+			return null;
+		}
+		
+		// acquire lock
+		plannerLock = true;
+		
+		try {
+			if (!checkPlannerSources()) {
+				resourcesUnpacker = new ResourcesUnpacker(context);
+				resourcesUnpacker.start();
+			}
+			
+			// complete a copy of the parameters, preferring the markings connected to the Petri net
+			PlanningBasedAlignmentParameters actualParameters = new PlanningBasedAlignmentParameters(parameters);
+			if (actualParameters.getInitialMarking() == null) {
+				try {
+					actualParameters.setInitialMarking(context.getConnectionManager()
+							.getFirstConnection(InitialMarkingConnection.class, context, petrinet)
+							.<Marking>getObjectWithRole(InitialMarkingConnection.MARKING));
+				} catch (ConnectionCannotBeObtained e) {
+					// guessed by structure below
+				}
+			}
+			if (actualParameters.getFinalMarking() == null) {
+				try {
+					actualParameters.setFinalMarking(context.getConnectionManager()
+							.getFirstConnection(FinalMarkingConnection.class, context, petrinet)
+							.<Marking>getObjectWithRole(FinalMarkingConnection.MARKING));
+				} catch (ConnectionCannotBeObtained e) {
+					// guessed by structure below
+				}
+			}
+			try {
+				PlanningBasedAlignmentDefaults.complete(actualParameters, log, petrinet);
+			} catch (IllegalArgumentException e) {
+				context.log(e.getMessage(), MessageLevel.ERROR);
+				abortExecution(context);
+				return null;
+			}
+			
+			// start algorithm
+			PlanningBasedReplayResult result = runAlgorithm(context, log, petrinet, actualParameters);
+			
+			context.getFutureResult(0).setLabel(getResultLabel(log, petrinet, actualParameters));
+			
+			return result;
+			
+		} finally {
+			// release lock
+			plannerLock = false;
+		}
+	}
+
 	/**
 	 * Invokes the algorithm to compute replay result.
 	 * 
@@ -153,7 +215,7 @@ public class PlanningBasedAlignmentPlugin extends PlanningBasedAlignment {
 	 * @return The result of the replay of the event log on the Petri net.
 	 */
 	private PlanningBasedReplayResult runAlgorithm(
-			UIPluginContext context, XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+			PluginContext context, XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
 
 		PlanningBasedReplayResult replayRes = align(context, log, petrinet, parameters);
 
@@ -167,89 +229,31 @@ public class PlanningBasedAlignmentPlugin extends PlanningBasedAlignment {
 	}
 
 	/**
-	 * Abort the execution of the plug-in and its subprocesses.
-	 * 
-	 * @param context The context to run in.
-	 */
-	private void abortExecution(UIPluginContext context) {
-		context.getFutureResult(0).cancel(true);
-		killSubprocesses();
-	}
-	
-	private boolean checkVersionOnStream(InputStream output) throws IOException
-	{
-		InputStreamReader inputStreamReader = new InputStreamReader(output);
-		BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
-		String line = null;
-		Matcher pythonVersionMatcher = null;
-		while ((line = bufferedReader.readLine()) != null) {
-							
-			// check only the line with Python version
-			if (line.startsWith(python)) {	
-				pythonVersionMatcher = pythonVersionRegexPattern.matcher(line);
-				
-				if (pythonVersionMatcher.find()) {
-					String pythonVersion = pythonVersionMatcher.group();
-					
-					String[] pythonVersionTokens = pythonVersion.split("\\.");
-					int majorVersion = Integer.parseInt(pythonVersionTokens[0]);
-					int minorVersion = Integer.parseInt(pythonVersionTokens[1]);
-
-					if ((majorVersion == PYTHON_2 && minorVersion >= PYTHON_2_MIN_VERSION)
-							|| (majorVersion == PYTHON_3 && minorVersion >= PYTHON_3_MIN_VERSION)) {
-						System.out.println("Python found.");
-						return true;	
-					}
-				}
-				
-				// no need to check other lines
-				break;
-			}
-		}
-		return false; 
-	}
-
-	/**
-	 * Check whether Python 2.7+ or 3.2+ is installed and callable from command line.
+	 * Build the label of the result of the replay.
 	 * 
-	 * @return true if Python 2.7+ or 3.2+ is installed and callable from command line.
-	 * @throws InterruptedException 
-	 * @throws IOException 
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has been replayed.
+	 * @param parameters The parameters used by the alignment algorithm.
+	 * @return The label of the result.
 	 */
-	private boolean isPythonInstalled() {
-
-		String[] commandArgs = new String[]{"python", "-V"};
-		ProcessBuilder processBuilder = new ProcessBuilder(commandArgs);
-		Process pythonVersionCheckerProcess = null; 
-
-		try {
-			pythonVersionCheckerProcess = processBuilder.start();
-
-			// Python version number is outputed on std error?
-			if (checkVersionOnStream(pythonVersionCheckerProcess.getInputStream()) || checkVersionOnStream(pythonVersionCheckerProcess.getErrorStream()))
-					return true;
-			
-
-			// wait for the process to return
-			pythonVersionCheckerProcess.waitFor();
-
-		} catch (IOException | InterruptedException e) {
-			System.out.println(e);
-		}
+	private String getResultLabel(XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		String resultLabel = "Replay result - log " + XConceptExtension.instance().extractName(log) 
+				+ " on " + petrinet.getLabel() + " using Automated Planning";
 
-		System.out.println("Python not found.");
-		return false;
+		if (parameters.isPartiallyOrderedEvents())
+			resultLabel += " (Partial Order Assumption)";
+		
+		return resultLabel;
 	}
 
 	/**
-	 * Check whether the planner source code has already been unpacked.
+	 * Abort the execution of the plug-in and its subprocesses.
 	 * 
-	 * @return true if the planner source code has already been unpacked.
+	 * @param context The context to run in.
 	 */
-	private static boolean checkPlannerSources() {
-		File plannerManagerScript = new File(PlanningBasedAlignment.PLANNER_MANAGER_SCRIPT);
-		File fdScript = new File(PlanningBasedAlignment.FAST_DOWNWARD_DIR);
-		return plannerManagerScript.exists() && fdScript.exists();
+	private void abortExecution(PluginContext context) {
+		context.getFutureResult(0).cancel(true);
+		killSubprocesses();
 	}
 
-}
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.processmining.contexts.uitopia.annotations.UIExportPlugin;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.io.ReplayResultFormat;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.io.ReplayResultWriter;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+
+/**
+ * The ProM plug-in to save the result of a Planning-based Alignment in a compact binary file.
+ * 
+ * @author Giacomo Lanciano
+ *
+ */
+@Plugin(
+	name = "Export Planning-based Alignment Result",
+	parameterLabels = { "Petri Net Replay Result", "File" },
+	returnLabels = {},
+	returnTypes = {},
+	userAccessible = true
+)
+@UIExportPlugin(
+	description = "Planning-based Alignment Result",
+	extension = ReplayResultFormat.FILE_EXTENSION
+)
+public class ReplayResultExportPlugin {
+
+	/**
+	 * Save the given result in the given file.
+	 * 
+	 * @param context The context to run in.
+	 * @param result The result of a Planning-based Alignment.
+	 * @param file The file to be written.
+	 * @throws IOException
+	 */
+	@PluginVariant(requiredParameterLabels = { 0, 1 })
+	public void export(PluginContext context, PlanningBasedReplayResult result, File file) throws IOException {
+		ReplayResultWriter.write(result, file);
+	}
+
+}
@@ -0,0 +1,91 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import org.deckfour.xes.model.XLog;
+import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.contexts.uitopia.annotations.UITopiaVariant;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.io.ReplayResultFormat;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.io.ReplayResultReader;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.utils.HelpMessages;
+
+/**
+ * The ProM plug-in to load the result of a Planning-based Alignment saved by {@link ReplayResultExportPlugin}. Since
+ * the event log is not saved along with the alignments, the result is loaded for a given event log and Petri net, and
+ * it is rejected if it has not been computed on them.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+@Plugin(
+	name = "Import Planning-based Alignment Result",
+	parameterLabels = { "Event Log", "Petri Net", "File" },
+	returnLabels = { "Petri Net Replay Result" },
+	returnTypes = { PlanningBasedReplayResult.class },
+	userAccessible = true
+)
+public class ReplayResultImportPlugin {
+
+	/**
+	 * The plug-in variant that runs in a UI context and prompts the user for the file to be loaded.
+	 *
+	 * @param context The context to run in.
+	 * @param log The event log that has been aligned.
+	 * @param petrinet The Petri net on which the log has been aligned.
+	 * @return The loaded result, or null if the user cancels or the file cannot be loaded.
+	 */
+	@UITopiaVariant(
+		affiliation = HelpMessages.AFFILIATION, author = HelpMessages.AUTHOR, email = HelpMessages.EMAIL,
+		pack = HelpMessages.PLANNING_BASED_ALIGNMENT_PACKAGE)
+	@PluginVariant(requiredParameterLabels = { 0, 1 })
+	public PlanningBasedReplayResult runUI(UIPluginContext context, XLog log, Petrinet petrinet) {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setFileFilter(new FileNameExtensionFilter(
+				"Planning-based Alignment Result", ReplayResultFormat.FILE_EXTENSION));
+		if (chooser.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) {
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+
+		try {
+			return load(context, log, petrinet, chooser.getSelectedFile());
+
+		} catch (IOException e) {
+			JOptionPane.showMessageDialog(new JPanel(), e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+			context.getFutureResult(0).cancel(true);
+			return null;
+		}
+	}
+
+	/**
+	 * Load the result saved in the given file.
+	 *
+	 * @param context The context to run in.
+	 * @param log The event log that has been aligned.
+	 * @param petrinet The Petri net on which the log has been aligned.
+	 * @param file The saved result.
+	 * @return The loaded result.
+	 * @throws IOException if the file cannot be read, or if the result has not been computed on the given event log
+	 * and Petri net.
+	 */
+	@PluginVariant(requiredParameterLabels = { 0, 1, 2 })
+	public PlanningBasedReplayResult load(PluginContext context, XLog log, Petrinet petrinet, File file)
+			throws IOException {
+
+		PlanningBasedReplayResult result = new ReplayResultReader(file).read(log, petrinet);
+		context.getFutureResult(0).setLabel(file.getName());
+		return result;
+	}
+
+}
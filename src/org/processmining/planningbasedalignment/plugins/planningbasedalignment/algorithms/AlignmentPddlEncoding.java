@@ -8,6 +8,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.deckfour.xes.extension.std.XConceptExtension;
@@ -17,12 +18,14 @@ import org.deckfour.xes.model.impl.XAttributeMapImpl;
 import org.deckfour.xes.model.impl.XTraceImpl;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.LogLinearHistogram;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.AbstractPddlEncoder;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.PartialOrderAwarePddlEncoder;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.StandardPddlEncoder;
-import org.processmining.planningbasedalignment.utils.FilesWritingProgressChecker;
 import org.processmining.planningbasedalignment.utils.OSUtils;
+import org.processmining.planningbasedalignment.utils.ProgressHub;
 
 /**
  * The implementation of the algorithm for generating the PDDL encoding of an alignment problem instance.
@@ -38,8 +41,6 @@ public class AlignmentPddlEncoding {
 	protected static final String PDDL_PROBLEM_FILE_PREFIX = "problem";
 	protected static final String MAPPING_FILE_NAME = "_mapping.txt";
 	protected static final int EMPTY_TRACE_POS = 0;
-	protected static final int PDDL_FILES_PER_TRACE = 2;
-	protected static final int PROGRESS_CHECKER_DELAY = 1000;
 	
 	public static final String DEFAULT_TIME_UNIT = " ms";
 	
@@ -64,9 +65,14 @@ public class AlignmentPddlEncoding {
 	protected long startTime;
 	
 	/**
-	 * The separated thread that check PDDL encoding progress.
+	 * The hub collecting the progress of the alignment stages.
 	 */
-	protected Thread pddlEncodingProgressChecker;
+	protected ProgressHub progressHub;
+	
+	/**
+	 * The progress of the PDDL encoding stage.
+	 */
+	protected ProgressHub.Stage pddlEncodingProgress;
 	
 	/**
 	 * The mapping between the position of a trace in a log (starting from 1) and the relate case id. Notice that key
@@ -74,6 +80,11 @@ public class AlignmentPddlEncoding {
 	 */
 	protected Map<Integer, String> positionToCaseIdMapping;
 	
+	/**
+	 * The performance record of each encoded trace, indexed by trace position (the empty trace is not included).
+	 */
+	protected Map<Integer, TraceAlignmentStatistics> traceAlignmentStatistics;
+	
 	/**
 	 * The positions in the log of the traces to align.
 	 */
@@ -84,6 +95,22 @@ public class AlignmentPddlEncoding {
 	 */
 	protected SummaryStatistics preprocessingTimeSummary;
 	
+	/**
+	 * The histogram of the traces pre-processing time (used to estimate percentiles).
+	 */
+	protected LogLinearHistogram preprocessingTimeHistogram;
+	
+	/**
+	 * The total cost of performing a move in log for each event of the encoded traces, indexed by trace position
+	 * (starting from 1, as key 0 is reserved for the empty trace).
+	 */
+	protected int[] traceMovesOnLogCosts;
+	
+	/**
+	 * The flag stating whether the empty trace has been encoded along with the traces to align.
+	 */
+	protected boolean emptyTraceEncoded;
+	
 	/**
 	 * Produces the PDDL input files (representing the instances of the alignment problem) to be fed to the planner.
 	 * 
@@ -126,21 +153,24 @@ public class AlignmentPddlEncoding {
 		
 		// initialize position to case id mapping
 		positionToCaseIdMapping = new HashMap<Integer, String>();
+		traceAlignmentStatistics = new TreeMap<Integer, TraceAlignmentStatistics>();
+		traceMovesOnLogCosts = new int[log.size() + 1];
 		
-		// add empty trace to the collection of trace to be aligned (to compute fitness)
-		XTrace emptyTrace = new XTraceImpl(new XAttributeMapImpl());
-		writePddlEncoding(emptyTrace, EMPTY_TRACE_POS);
+		// add empty trace to the collection of trace to be aligned (to compute fitness), if needed
+		emptyTraceEncoded = isEmptyTraceEncodingNeeded(petrinet, parameters);
+		if (emptyTraceEncoded) {
+			XTrace emptyTrace = new XTraceImpl(new XAttributeMapImpl());
+			writePddlEncoding(emptyTrace, EMPTY_TRACE_POS);
+		}
 		
-		// start progress checker (ignoring empty trace related files)
-		int totalPddlFilesNum =  tracesToAlign.size() * PDDL_FILES_PER_TRACE;
-		pddlEncodingProgressChecker = new FilesWritingProgressChecker(
-				context, pddlFilesDir, totalPddlFilesNum, PDDL_FILES_PER_TRACE, " PDDL files written so far.",
-				PROGRESS_CHECKER_DELAY);
-		pddlEncodingProgressChecker.start();
+		// start tracking progress (ignoring empty trace)
+		progressHub = new ProgressHub(context);
+		pddlEncodingProgress = progressHub.startStage("PDDL encodings", tracesToAlign.size());
 		
 		// create the PDDL encoding for each trace
 		XTrace trace;
 		preprocessingTimeSummary = new SummaryStatistics();
+		preprocessingTimeHistogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
 		for (Integer tracePos : tracesToAlign) {
 			trace = log.get(tracePos);
 			writePddlEncoding(trace, tracePos+1);
@@ -149,18 +179,29 @@ public class AlignmentPddlEncoding {
 		// output pre-processing statistics
 		System.out.println(preprocessingTimeSummaryToString());
 		
-		pddlEncodingProgressChecker.interrupt();
+		pddlEncodingProgress.finish();
 		
 		context.log("Dumping mapping between case ids and positions of the traces in the log...");
 		writePositionToCaseIdMapping();
 	}
 	
+	/**
+	 * Tell whether the alignment problem of the empty trace has to be encoded, i.e. whether the planner is needed to
+	 * compute the cost of aligning the empty trace. By default, it is always encoded.
+	 * 
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @param parameters The parameters to be used by the encoding algorithm.
+	 * @return true if the empty trace has to be encoded.
+	 */
+	protected boolean isEmptyTraceEncodingNeeded(Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		return true;
+	}
+	
 	/**
 	 * Shut down all active computations.
 	 */
 	protected void killSubprocesses() {
-		if (pddlEncodingProgressChecker != null)
-			pddlEncodingProgressChecker.interrupt();
+		// nothing to shut down, as the encoding runs in the calling thread
 	}
 	
 	/**
@@ -183,12 +224,28 @@ public class AlignmentPddlEncoding {
 		long elapsedTime = System.currentTimeMillis() - startTime;
 		
 		//update statistics
-		if (tracePos != EMPTY_TRACE_POS)
+		if (tracePos != EMPTY_TRACE_POS) {
 			preprocessingTimeSummary.addValue(elapsedTime);
+			preprocessingTimeHistogram.recordValue(elapsedTime);
+		}
+		
+		// keep the cost of the moves in log computed by the encoder (used for fitness)
+		traceMovesOnLogCosts[tracePos] = pddlEncoder.getTraceMovesOnLogCost();
 		
 		// write contents on disk
 		OSUtils.writeTextualFile(sbDomainFileName, pddlEncoding[0]);
 		OSUtils.writeTextualFile(sbProblemFileName, pddlEncoding[1]);
+		
+		if (tracePos != EMPTY_TRACE_POS) {
+			// start the performance record of the trace (completed once the planner output is parsed)
+			TraceAlignmentStatistics traceStatistics = new TraceAlignmentStatistics(
+					tracePos, positionToCaseIdMapping.get(tracePos));
+			traceStatistics.setEncodeTime(elapsedTime);
+			traceStatistics.setPddlSize(new File(sbDomainFileName).length() + new File(sbProblemFileName).length());
+			traceAlignmentStatistics.put(tracePos, traceStatistics);
+			
+			pddlEncodingProgress.completed(System.currentTimeMillis() - startTime);
+		}
 	}
 	
 	/**
@@ -0,0 +1,236 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.algorithms;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetEdge;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetNode;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
+
+/**
+ * The in-JVM computation of the cost of aligning the empty trace, i.e. the cost of the cheapest firing sequence
+ * (made of moves in the model only) that leads from the initial to the final marking of a Petri net. Dijkstra's
+ * algorithm is run over the reachability graph of the net, interpreted with the same (1-safe) semantics of the PDDL
+ * encoding: firing a transition removes the tokens from its input places and then puts a token in each of its output
+ * places, while the goal is reached when exactly the places of the final marking hold a token.
+ *
+ * The result is cached along with the Petri net, so that it is computed once per model (and costs function).
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class EmptyTraceCostCalculator {
+
+	/**
+	 * The maximum number of markings to be visited before giving up (the caller is expected to fall back to the
+	 * planner in such case).
+	 */
+	public static final int DEFAULT_MAX_STATES = 1000000;
+
+	/**
+	 * The cache of the computed costs, weakly referencing the Petri nets.
+	 */
+	private static final Map<Petrinet, CachedCost> CACHE =
+			Collections.synchronizedMap(new WeakHashMap<Petrinet, CachedCost>());
+
+	private EmptyTraceCostCalculator() {}
+
+	/**
+	 * Return the cost of aligning the empty trace on the given Petri net, possibly retrieving it from the cache.
+	 *
+	 * @param petrinet The Petri net.
+	 * @param parameters The parameters providing markings and moves in model costs.
+	 * @return The cost of the cheapest firing sequence from the initial to the final marking, or null if no such
+	 * sequence has been found within {@link #DEFAULT_MAX_STATES} visited markings.
+	 */
+	public static Float getEmptyTraceCost(Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		Marking initialMarking = parameters.getInitialMarking();
+		Marking finalMarking = parameters.getFinalMarking();
+		Map<Transition, Integer> movesOnModelCosts = parameters.getMovesOnModelCosts();
+
+		CachedCost cachedCost = CACHE.get(petrinet);
+		if (cachedCost != null && cachedCost.matches(initialMarking, finalMarking, movesOnModelCosts))
+			return cachedCost.cost;
+
+		Float cost = computeEmptyTraceCost(
+				petrinet, initialMarking, finalMarking, movesOnModelCosts, DEFAULT_MAX_STATES);
+
+		if (cost != null)
+			CACHE.put(petrinet, new CachedCost(initialMarking, finalMarking, movesOnModelCosts, cost));
+
+		return cost;
+	}
+
+	/**
+	 * Compute the cost of the cheapest firing sequence from the initial to the final marking of the given Petri net.
+	 *
+	 * @param petrinet The Petri net.
+	 * @param initialMarking The initial marking.
+	 * @param finalMarking The final marking.
+	 * @param movesOnModelCosts The costs associated to each transition.
+	 * @param maxStates The maximum number of markings to be visited.
+	 * @return The cost of the cheapest firing sequence, or null if the final marking has not been reached.
+	 */
+	public static Float computeEmptyTraceCost(
+			Petrinet petrinet, Marking initialMarking, Marking finalMarking,
+			Map<Transition, Integer> movesOnModelCosts, int maxStates) {
+
+		// index places
+		Map<Place, Integer> placeIndexes = new HashMap<Place, Integer>();
+		for (Place place : petrinet.getPlaces())
+			placeIndexes.put(place, placeIndexes.size());
+
+		// index transitions pre-sets, post-sets and costs
+		Collection<Transition> transitions = petrinet.getTransitions();
+		int transitionsNum = transitions.size();
+		int[][] presets = new int[transitionsNum][];
+		int[][] postsets = new int[transitionsNum][];
+		int[] costs = new int[transitionsNum];
+		int t = 0;
+		for (Transition transition : transitions) {
+			Collection<PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode>> inEdges =
+					petrinet.getInEdges(transition);
+			Collection<PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode>> outEdges =
+					petrinet.getOutEdges(transition);
+
+			presets[t] = new int[inEdges.size()];
+			int i = 0;
+			for (PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode> inEdge : inEdges)
+				presets[t][i++] = placeIndexes.get(inEdge.getSource());
+
+			postsets[t] = new int[outEdges.size()];
+			i = 0;
+			for (PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode> outEdge : outEdges)
+				postsets[t][i++] = placeIndexes.get(outEdge.getTarget());
+
+			Integer cost = movesOnModelCosts.get(transition);
+			costs[t] = (cost == null) ? 0 : cost;
+			t++;
+		}
+
+		BitSet source = toBitSet(initialMarking, placeIndexes);
+		BitSet target = toBitSet(finalMarking, placeIndexes);
+
+		// Dijkstra's algorithm over the reachability graph
+		Map<BitSet, Long> distances = new HashMap<BitSet, Long>();
+		PriorityQueue<SearchNode> frontier = new PriorityQueue<SearchNode>(11, new Comparator<SearchNode>() {
+
+			@Override
+			public int compare(SearchNode node1, SearchNode node2) {
+				return Long.compare(node1.distance, node2.distance);
+			}
+		});
+		distances.put(source, 0L);
+		frontier.add(new SearchNode(source, 0));
+
+		int visitedStates = 0;
+		while (!frontier.isEmpty()) {
+			SearchNode node = frontier.poll();
+
+			// skip outdated entries
+			if (node.distance > distances.get(node.marking))
+				continue;
+
+			if (node.marking.equals(target))
+				return (float) node.distance;
+
+			if (++visitedStates > maxStates)
+				return null;
+
+			for (t = 0; t < transitionsNum; t++) {
+				if (!isEnabled(node.marking, presets[t]))
+					continue;
+
+				// fire transition
+				BitSet successor = (BitSet) node.marking.clone();
+				for (int place : presets[t])
+					successor.clear(place);
+				for (int place : postsets[t])
+					successor.set(place);
+
+				long distance = node.distance + costs[t];
+				Long knownDistance = distances.get(successor);
+				if (knownDistance == null || distance < knownDistance) {
+					distances.put(successor, distance);
+					frontier.add(new SearchNode(successor, distance));
+				}
+			}
+		}
+
+		// final marking not reachable
+		return null;
+	}
+
+	/**
+	 * Check whether all the given input places hold a token in the given marking.
+	 */
+	private static boolean isEnabled(BitSet marking, int[] preset) {
+		for (int place : preset) {
+			if (!marking.get(place))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Convert the given marking into the set of (indexes of) places holding at least a token.
+	 */
+	private static BitSet toBitSet(Marking marking, Map<Place, Integer> placeIndexes) {
+		BitSet result = new BitSet(placeIndexes.size());
+		for (Place place : marking.baseSet()) {
+			Integer index = placeIndexes.get(place);
+			if (index != null)
+				result.set(index);
+		}
+		return result;
+	}
+
+	/**
+	 * A marking reached by the search, along with the cost of the cheapest known firing sequence leading to it.
+	 */
+	private static class SearchNode {
+
+		private final BitSet marking;
+		private final long distance;
+
+		private SearchNode(BitSet marking, long distance) {
+			this.marking = marking;
+			this.distance = distance;
+		}
+	}
+
+	/**
+	 * A cached cost, along with the inputs it has been computed from.
+	 */
+	private static class CachedCost {
+
+		private final Marking initialMarking;
+		private final Marking finalMarking;
+		private final Map<Transition, Integer> movesOnModelCosts;
+		private final float cost;
+
+		private CachedCost(
+				Marking initialMarking, Marking finalMarking, Map<Transition, Integer> movesOnModelCosts, float cost) {
+			this.initialMarking = new Marking(initialMarking);
+			this.finalMarking = new Marking(finalMarking);
+			this.movesOnModelCosts = new HashMap<Transition, Integer>(movesOnModelCosts);
+			this.cost = cost;
+		}
+
+		private boolean matches(
+				Marking initialMarking, Marking finalMarking, Map<Transition, Integer> movesOnModelCosts) {
+			return this.initialMarking.equals(initialMarking) && this.finalMarking.equals(finalMarking)
+					&& this.movesOnModelCosts.equals(movesOnModelCosts);
+		}
+	}
+}
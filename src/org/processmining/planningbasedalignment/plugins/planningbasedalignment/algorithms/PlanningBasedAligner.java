@@ -0,0 +1,156 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.algorithms;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.deckfour.xes.model.XLog;
+import org.processmining.contexts.cli.CLIContext;
+import org.processmining.contexts.cli.CLIPluginContext;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentDefaults;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParametersReader;
+import org.processmining.planningbasedalignment.utils.ResourcesUnpacker;
+
+/**
+ * A programmatic entry point for Planning-based Alignment, that runs without any UI (e.g. in batch jobs on servers
+ * without a display). The parameters that are not set take their default values (see
+ * {@link PlanningBasedAlignmentDefaults}), and can be read from a properties or JSON file (see
+ * {@link PlanningBasedAlignmentParametersReader}). For example:
+ *
+ * <pre>
+ * PlanningBasedAligner aligner = new PlanningBasedAligner();
+ * PlanningBasedReplayResult result = aligner.align(log, petrinet, new File("parameters.properties"));
+ * ...
+ * result.dispose();
+ * </pre>
+ *
+ * The result should be disposed once it is no longer needed, so that the resources backing its alignments (e.g. the
+ * file where they are spilled to) are released right away, rather than when it is garbage collected.
+ *
+ * As for the plug-in, the planner is run from the current working directory, where its resources are unpacked if
+ * needed. An aligner runs one alignment at a time, but several aligners can run concurrently as long as each of them
+ * has its own working directory for the planner files (see {@link #setWorkingDirectory(File)}).
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class PlanningBasedAligner extends PlanningBasedAlignment {
+
+	/**
+	 * The context where the alignment runs.
+	 */
+	private final PluginContext context;
+
+	/**
+	 * The directory where the planner input and output files are created (null for the default).
+	 */
+	private File workingDirectory;
+
+	/**
+	 * Create an aligner running in a command-line context.
+	 */
+	public PlanningBasedAligner() {
+		this(new CLIPluginContext(new CLIContext(), "Planning-based Alignment"));
+	}
+
+	/**
+	 * Create an aligner running in the given context (e.g. the one of a headless plug-in).
+	 *
+	 * @param context The context to run in.
+	 */
+	public PlanningBasedAligner(PluginContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Align the given event log and Petri net, with the parameters read from the given file.
+	 *
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @param parametersFile The properties or JSON file with the parameters.
+	 * @return The result of the replay of the event log on the Petri net.
+	 * @throws IOException if the parameters file cannot be read.
+	 * @throws IllegalArgumentException if the parameters are not valid.
+	 * @throws IllegalStateException if the planner cannot be run, or the alignment fails.
+	 */
+	public PlanningBasedReplayResult align(XLog log, Petrinet petrinet, File parametersFile) throws IOException {
+		PlanningBasedAlignmentParameters parameters = PlanningBasedAlignmentParametersReader.fromFile(parametersFile)
+				.read(log, petrinet);
+		return align(log, petrinet, parameters);
+	}
+
+	/**
+	 * Align the given event log and Petri net. The parameters that are not set are set to their default values.
+	 *
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @param parameters The parameters to use.
+	 * @return The result of the replay of the event log on the Petri net.
+	 * @throws IllegalArgumentException if the markings of the Petri net are not given and cannot be guessed.
+	 * @throws IllegalStateException if the planner cannot be run, or the alignment fails.
+	 */
+	public PlanningBasedReplayResult align(XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		checkPlanner();
+		PlanningBasedAlignmentDefaults.complete(parameters, log, petrinet);
+
+		if (workingDirectory != null)
+			workingDirectory.mkdirs();
+		PlanningBasedReplayResult result = align(context, workingDirectory, log, petrinet, parameters);
+		if (result == null)
+			throw new IllegalStateException("The alignment failed (see the standard error for details).");
+
+		return result;
+	}
+
+	/**
+	 * Shut down the planner, if running.
+	 */
+	public void cancel() {
+		killSubprocesses();
+	}
+
+	/**
+	 * Check whether the planner can be run, unpacking its resources in the current working directory if needed.
+	 *
+	 * @throws IllegalStateException if the planner cannot be run.
+	 */
+	private void checkPlanner() {
+		if (!isPythonInstalled(context))
+			throw new IllegalStateException("Python 2.7+ or 3.2+ not found in the PATH.");
+
+		if (!checkPlannerSources()) {
+			context.log("Unpacking planner resources...");
+			resourcesUnpacker = new ResourcesUnpacker(context);
+			resourcesUnpacker.start();
+			try {
+				resourcesUnpacker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while unpacking the planner resources.");
+			} finally {
+				resourcesUnpacker = null;
+			}
+			if (!checkPlannerSources())
+				throw new IllegalStateException("Cannot unpack the planner resources in "
+						+ new File(".").getAbsolutePath() + ".");
+		}
+	}
+
+	/* GETTERS & SETTERS */
+
+	public PluginContext getContext() {
+		return context;
+	}
+
+	public File getWorkingDirectory() {
+		return workingDirectory;
+	}
+
+	public void setWorkingDirectory(File workingDirectory) {
+		this.workingDirectory = workingDirectory;
+	}
+
+}
@@ -3,12 +3,13 @@ package org.processmining.planningbasedalignment.plugins.planningbasedalignment.
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URISyntaxException;
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Map.Entry;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -16,23 +17,27 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.deckfour.xes.classification.XEventClass;
 import org.deckfour.xes.classification.XEventClassifier;
-import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XLog;
-import org.deckfour.xes.model.XTrace;
 import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.events.Logger.MessageLevel;
 import org.processmining.models.graphbased.directed.petrinet.Petrinet;
 import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractWritableAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.CompactAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.LogLinearHistogram;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.MappedFileAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.MoveCounters;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlannerSearchStrategy;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl.AbstractPddlEncoder;
-import org.processmining.planningbasedalignment.utils.FilesWritingProgressChecker;
+import org.processmining.planningbasedalignment.utils.BoundedLineBuffer;
 import org.processmining.planningbasedalignment.utils.OSUtils;
+import org.processmining.planningbasedalignment.utils.PlannerOutputStreamReader;
+import org.processmining.planningbasedalignment.utils.PlannerOutputStreamReader.AlignmentOutputHandler;
+import org.processmining.planningbasedalignment.utils.ProgressHub;
 import org.processmining.planningbasedalignment.utils.StreamAsyncReader;
-import org.processmining.plugins.DataConformance.DataAlignment.DataAlignmentState;
-import org.processmining.plugins.DataConformance.DataAlignment.GenericTrace;
-import org.processmining.plugins.DataConformance.framework.ExecutionStep;
-import org.processmining.plugins.DataConformance.framework.ExecutionTrace;
 
 /**
  * The implementation of the algorithm for Planning-based Alignment of an event log and a Petri net.
@@ -50,9 +55,23 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 	protected static final String SEARCH_TIME_ENTRY_PREFIX = "; searchtime = ";
 	protected static final String EXPANDED_STATES_ENTRY_PREFIX = "; expandedstates = ";
 	protected static final String GENERATED_STATES_ENTRY_PREFIX = "; generatedstates = ";
+	protected static final String TRANSLATOR_TIME_ENTRY_PREFIX = "; translatortime = ";
+	protected static final String PEAK_MEMORY_ENTRY_PREFIX = "; peakmemory = ";
+	protected static final String PEAK_RSS_ENTRY_PREFIX = "; peakrss = ";
+	protected static final String GROUNDED_ACTIONS_ENTRY_PREFIX = "; groundedactions = ";
+	protected static final String ALIGNMENT_FILE_PREFIX = "alignment_";
 	protected static final String COMMAND_ARG_PLACEHOLDER = "+";
-	protected static final int INITIAL_EXECUTION_TRACE_CAPACITY = 10;
-	protected static final int RESULT_FILES_PER_TRACE = 1;
+	protected static final String STREAM_OUTPUT_FLAG = "--stream";
+	protected static final String DEBUG_FLAG = "--debug";
+	protected static final Pattern REAL_NUMBER_REGEX_PATTERN = Pattern.compile("\\-?\\d+(,\\d{3})*(\\.\\d+)*");
+	
+	private static final int PYTHON_2 = 2;
+	private static final int PYTHON_3 = 3;
+	private static final int PYTHON_2_MIN_VERSION = 7;
+	private static final int PYTHON_3_MIN_VERSION = 2;
+	
+	private static final String python = "Python ";
+	private static final Pattern pythonVersionRegexPattern = Pattern.compile("\\d+\\.\\d+");
 
 	/**
 	 * The separated process in which the planner is executed.
@@ -60,9 +79,14 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 	protected Process plannerManagerProcess;
 	
 	/**
-	 * The separated thread that check alignment progress.
+	 * The progress of the planning stage.
+	 */
+	protected ProgressHub.Stage planningProgress;
+	
+	/**
+	 * The progress of the parsing stage.
 	 */
-	protected Thread alignmentProgressChecker;
+	protected ProgressHub.Stage parsingProgress;
 	
 	/**
 	 * The separated thread that unpack the planner source code.
@@ -73,6 +97,48 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 	 * The output directory for the planner.
 	 */
 	protected File plansFoundDir;
+	
+	/**
+	 * The alignments parsed so far.
+	 */
+	protected AbstractWritableAlignmentStore alignmentStore;
+	
+	/**
+	 * The per-transition counters of the moves parsed so far.
+	 */
+	protected MoveCounters moveCounters;
+	
+	/**
+	 * The position of the trace whose alignment has been parsed last.
+	 */
+	protected int lastParsedTracePos;
+	
+	/**
+	 * The cost of aligning the empty trace (used to compute fitness).
+	 */
+	protected float emptyTraceAlignmentCost;
+	
+	/**
+	 * The summaries containing the relevant statistics about the planner executions.
+	 */
+	protected SummaryStatistics alignmentTimeSummary;
+	protected SummaryStatistics expandedStatesSummary;
+	protected SummaryStatistics generatedStatesSummary;
+	
+	/**
+	 * The histograms of the statistics about the planner executions (used to estimate percentiles).
+	 */
+	protected LogLinearHistogram translatorTimeHistogram;
+	protected LogLinearHistogram alignmentTimeHistogram;
+	protected LogLinearHistogram expandedStatesHistogram;
+	protected LogLinearHistogram generatedStatesHistogram;
+	
+	/**
+	 * The flags stating whether the statistics about the planner executions are reliable (i.e. no overflow occurred).
+	 */
+	protected boolean alignmentTimeReliable;
+	protected boolean expandedStatesReliable;
+	protected boolean generatedStatesReliable;
 		
 	/**
 	 * The method that performs the alignment of an event log and a Petri net using Automated Planning.
@@ -85,23 +151,147 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 	 */
 	protected PlanningBasedReplayResult align(
 			PluginContext context, XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		
+		return align(context, null, log, petrinet, parameters);
+	}
+	
+	/**
+	 * The method that performs the alignment of an event log and a Petri net using Automated Planning, keeping the
+	 * planner input and output files in the given directory (so that several alignments can run concurrently).
+	 * 
+	 * @param context The context where to run in.
+	 * @param parentDir The directory where the planner input and output files are created (null for the default).
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @param parameters The parameters to use.
+	 * @return The result of the replay of the event log on the Petri net.
+	 */
+	protected PlanningBasedReplayResult align(PluginContext context, File parentDir, XLog log, Petrinet petrinet,
+			PlanningBasedAlignmentParameters parameters) {
 		  
 		PlanningBasedReplayResult output = null;
 		
 		try {
-			buildPlannerInput(null, context, log, petrinet, parameters);
-			invokePlanner(context, parameters);			
-			output = parsePlannerOutput(log, petrinet, parameters);
+			// the alignments spilled to disk are kept along with the planner files
+			if (parentDir != null)
+				this.parentDir = parentDir;
+
+			initParsingState(petrinet, parameters);
+			buildPlannerInput(parentDir, context, log, petrinet, parameters);
+			invokePlanner(context, parameters);
+			
+			// when streamed, the planner output has already been parsed while the planner was running
+			if (!parameters.isStreamPlannerOutput())
+				parsePlannerOutputFiles();
+			
+			output = buildReplayResult(log, petrinet, parameters);
 			
 		} catch (InterruptedException e) {
 			killSubprocesses();
 		} catch(Exception e){
 			e.printStackTrace();
 		}
-		
+
+		// release the alignments parsed so far (e.g. spilled to disk) if no result backed by them has been built
+		if (output == null && alignmentStore != null)
+			alignmentStore.dispose();
+
 		return output;
 	}
 
+	/**
+	 * Compute the cost of aligning the empty trace in the JVM, so that the planner is invoked only if such computation
+	 * is not feasible.
+	 */
+	@Override
+	protected boolean isEmptyTraceEncodingNeeded(Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		Float emptyTraceCost = EmptyTraceCostCalculator.getEmptyTraceCost(petrinet, parameters);
+		
+		if (emptyTraceCost == null)
+			return true;
+		
+		emptyTraceAlignmentCost = emptyTraceCost;
+		return false;
+	}
+	
+	private static boolean checkVersionOnStream(InputStream output) throws IOException
+	{
+		InputStreamReader inputStreamReader = new InputStreamReader(output);
+		BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
+		String line = null;
+		Matcher pythonVersionMatcher = null;
+		while ((line = bufferedReader.readLine()) != null) {
+							
+			// check only the line with Python version
+			if (line.startsWith(python)) {	
+				pythonVersionMatcher = pythonVersionRegexPattern.matcher(line);
+				
+				if (pythonVersionMatcher.find()) {
+					String pythonVersion = pythonVersionMatcher.group();
+					
+					String[] pythonVersionTokens = pythonVersion.split("\\.");
+					int majorVersion = Integer.parseInt(pythonVersionTokens[0]);
+					int minorVersion = Integer.parseInt(pythonVersionTokens[1]);
+
+					if ((majorVersion == PYTHON_2 && minorVersion >= PYTHON_2_MIN_VERSION)
+							|| (majorVersion == PYTHON_3 && minorVersion >= PYTHON_3_MIN_VERSION))
+						return true;
+				}
+				
+				// no need to check other lines
+				break;
+			}
+		}
+		return false; 
+	}
+	
+	/**
+	 * Check whether Python 2.7+ or 3.2+ is installed and callable from command line. The outcome is reported to the
+	 * log of the given context, while callers are in charge of reporting the failure to the user.
+	 * 
+	 * @param context The context where to run in.
+	 * @return true if Python 2.7+ or 3.2+ is installed and callable from command line.
+	 */
+	protected static boolean isPythonInstalled(PluginContext context) {
+
+		String[] commandArgs = new String[]{"python", "-V"};
+		ProcessBuilder processBuilder = new ProcessBuilder(commandArgs);
+		Process pythonVersionCheckerProcess = null; 
+
+		try {
+			pythonVersionCheckerProcess = processBuilder.start();
+
+			// Python version number is outputed on std error?
+			if (checkVersionOnStream(pythonVersionCheckerProcess.getInputStream())
+					|| checkVersionOnStream(pythonVersionCheckerProcess.getErrorStream())) {
+				context.log("Python found.");
+				return true;
+			}
+
+			// wait for the process to return
+			pythonVersionCheckerProcess.waitFor();
+
+		} catch (IOException e) {
+			context.log("Cannot run \"python -V\": " + e.getMessage(), MessageLevel.WARNING);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		context.log("Python 2.7+ or 3.2+ not found.", MessageLevel.WARNING);
+		return false;
+	}
+
+	/**
+	 * Check whether the planner source code has already been unpacked.
+	 * 
+	 * @return true if the planner source code has already been unpacked.
+	 */
+	protected static boolean checkPlannerSources() {
+		File plannerManagerScript = new File(PLANNER_MANAGER_SCRIPT);
+		File fdScript = new File(FAST_DOWNWARD_DIR);
+		return plannerManagerScript.exists() && fdScript.exists();
+	}
+	
 	/**
 	 * Shut down all active computations.
 	 */
@@ -109,8 +299,6 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 		super.killSubprocesses();
 		if (plannerManagerProcess != null)
 			plannerManagerProcess.destroy();
-		if (alignmentProgressChecker != null)
-			alignmentProgressChecker.interrupt();
 	}
 	
 	/**
@@ -123,7 +311,7 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 	 * @throws URISyntaxException
 	 */
 	private void invokePlanner(
-			PluginContext context, PlanningBasedAlignmentParameters parameters)
+			final PluginContext context, PlanningBasedAlignmentParameters parameters)
 					throws InterruptedException, IOException, URISyntaxException {
 		
 		if (!pddlFilesDir.exists()) {
@@ -143,20 +331,78 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 		plannerManagerProcess = processBuilder.start();
 		
 		// read std out & err in separated thread
-		StreamAsyncReader errorGobbler = new StreamAsyncReader(plannerManagerProcess.getErrorStream(), "ERROR");
-		StreamAsyncReader outputGobbler = new StreamAsyncReader(plannerManagerProcess.getInputStream(), "OUTPUT");
+		int totalAlignmentsNum = tracesToAlign.size();
+		final boolean streamPlannerOutput = parameters.isStreamPlannerOutput();
+		final boolean debugMode = parameters.isDebugMode();
+		final BoundedLineBuffer errorLines = new BoundedLineBuffer(
+				PlannerOutputStreamReader.DEFAULT_DIAGNOSTIC_LINES_NUM);
+		StreamAsyncReader errorGobbler = new StreamAsyncReader(plannerManagerProcess.getErrorStream(), "ERROR") {
+			
+			@Override
+			protected void processLine(String line) {
+				// keep only the last errors of the planner manager, unless in debug mode
+				errorLines.add(line);
+				if (debugMode)
+					super.processLine(line);
+			}
+		};
+		PlannerOutputStreamReader outputGobbler = new PlannerOutputStreamReader(
+				plannerManagerProcess.getInputStream(), "OUTPUT", new AlignmentOutputHandler() {
+					
+					@Override
+					public void handleAlignment(int tracePos, List<String> outputLines) {
+						// parse alignments as soon as they are streamed by the planner
+						parseAlignment(tracePos, outputLines);
+					}
+					
+					@Override
+					public void handlePlannerCompletion(
+							int tracePos, double plannerTime, List<String> diagnosticLines) {
+						
+						if (tracePos != EMPTY_TRACE_POS)
+							planningProgress.completed(plannerTime);
+						
+						// report the last lines of planner output if no alignment has been found
+						boolean aligned = streamPlannerOutput ? 
+								(lastParsedTracePos == tracePos) : 
+								new File(plansFoundDir, ALIGNMENT_FILE_PREFIX + tracePos).isFile();
+						if (!aligned) {
+							StringBuffer message = new StringBuffer();
+							message.append("No alignment found for trace #" + tracePos + ". Last planner output:\n");
+							for (String line : diagnosticLines)
+								message.append(line + '\n');
+							System.err.println(message);
+							context.log("No alignment found for trace #" + tracePos + " (see planner output).");
+						}
+					}
+				}, debugMode);
+		
+		// track progress (ignoring empty trace)
+		if (streamPlannerOutput)
+			parsingProgress = progressHub.startStage("Parsed alignments", totalAlignmentsNum);
+		planningProgress = progressHub.startStage("Planner executions", totalAlignmentsNum);
+		
 		errorGobbler.start();
 		outputGobbler.start();
-		
-		// start progress checker (ignoring empty trace related files)
-		int totalAlignmentsNum = tracesToAlign.size();
-		alignmentProgressChecker = new FilesWritingProgressChecker(
-				context, plansFoundDir, totalAlignmentsNum, RESULT_FILES_PER_TRACE, " alignments processed so far.");
-		alignmentProgressChecker.start();
 
-		// wait for the process to return to read the generated outputs
+		// wait for the process to return and for its output to be consumed
 		plannerManagerProcess.waitFor();
-		alignmentProgressChecker.interrupt();
+		outputGobbler.join();
+		errorGobbler.join();
+		if (!debugMode) {
+			for (String line : errorLines.toList())
+				System.err.println(line);
+		}
+		if (outputGobbler.getFailure() != null)
+			throw new RuntimeException("Failed to handle the planner output.", outputGobbler.getFailure());
+		planningProgress.finish();
+		
+		if (streamPlannerOutput) {
+			parsingProgress.finish();
+			
+			// delete (empty) alignment files directory from disk
+			FileUtils.deleteQuietly(plansFoundDir);
+		}
 	}
 	
 	/**
@@ -192,6 +438,14 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 		File plannerManagerScript = new File(PLANNER_MANAGER_SCRIPT);
 		commandComponents.add(plannerManagerScript.getCanonicalPath());
 		
+		// the flag telling the planner manager to stream alignments on stdout
+		if (parameters.isStreamPlannerOutput())
+			commandComponents.add(STREAM_OUTPUT_FLAG);
+		
+		// the flag telling the planner manager to forward the raw planner output
+		if (parameters.isDebugMode())
+			commandComponents.add(DEBUG_FLAG);
+		
 		// the path of the current working directory
 		File workingDir = new File(".");
 		commandComponents.add(workingDir.getCanonicalPath());
@@ -242,167 +496,227 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 	}
 	
 	/**
-	 * Parse planner output to build the alignment results.
+	 * Reset the data structures used to collect the parsed alignments and the related statistics.
 	 * 
-	 * @param log The event log to replay.
 	 * @param petrinet The Petri net on which the log has to be replayed.
 	 * @param parameters The parameters to be used by the encoding algorithm.
-	 * @return The alignment of the event log and the Petri net.
 	 * @throws IOException
 	 */
-	private PlanningBasedReplayResult parsePlannerOutput(
-			XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) throws IOException {
+	private void initParsingState(Petrinet petrinet, PlanningBasedAlignmentParameters parameters) throws IOException {
+		if (parameters.isSpillAlignmentsToDisk())
+			alignmentStore = new MappedFileAlignmentStore(parentDir);
+		else
+			alignmentStore = new CompactAlignmentStore();
+		moveCounters = new MoveCounters(petrinet, parameters.getTransitionsEventsMapping());
+		
+		lastParsedTracePos = -1;
+		emptyTraceAlignmentCost = 0;
+		alignmentTimeReliable = true;
+		expandedStatesReliable = true;
+		generatedStatesReliable = true;
+		alignmentTimeSummary = new SummaryStatistics();
+		expandedStatesSummary = new SummaryStatistics();
+		generatedStatesSummary = new SummaryStatistics();
+		translatorTimeHistogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
+		alignmentTimeHistogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
+		expandedStatesHistogram = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+		generatedStatesHistogram = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+	}
+	
+	/**
+	 * Parse the planner output files to collect the alignments.
+	 * 
+	 * @throws IOException
+	 */
+	private void parsePlannerOutputFiles() throws IOException {
 		
 		if (!plansFoundDir.exists()) {
 			throw new RuntimeException("The planner output directory does not exist.");
 		}
 		
 		int tracePos;
-		String caseId;
-		float traceAlignmentCost;
-		float emptyTraceAlignmentCost = 0;
-		String outputLine;
-		BufferedReader processOutputReader;
 		Matcher realNumberMatcher;
-		Pattern realNumberRegexPattern = Pattern.compile("\\-?\\d+(,\\d{3})*(\\.\\d+)*");
-		
-		// result
-		ExecutionTrace logTrace;
-		ExecutionTrace modelTrace;
-		DataAlignmentState dataAlignmentState;
-		ArrayList<DataAlignmentState> alignments = new ArrayList<DataAlignmentState>();
-		PlanningBasedReplayResult result = null;		
-		
-		// initialize stats summaries
-		boolean alignmentTimeReliable = true;
-		boolean expandedStatesReliable = true;
-		boolean generatedStatesReliable = true;
-		SummaryStatistics alignmentTimeSummary = new SummaryStatistics();
-		SummaryStatistics expandedStatesSummary = new SummaryStatistics();
-		SummaryStatistics generatedStatesSummary = new SummaryStatistics();
 		
 		// iterate over planner output files
 		File[] alignmentFiles = plansFoundDir.listFiles();
+		parsingProgress = progressHub.startStage("Parsed alignments", tracesToAlign.size());
 		for(final File alignmentFile : alignmentFiles) {
-
-			traceAlignmentCost = 0;
 			
 			// extract trace position from file name
-			realNumberMatcher = realNumberRegexPattern.matcher(alignmentFile.getName());
+			realNumberMatcher = REAL_NUMBER_REGEX_PATTERN.matcher(alignmentFile.getName());
 			realNumberMatcher.find();
 			tracePos = Integer.parseInt(realNumberMatcher.group());
 			
-			// retrieve case id 
-			caseId = positionToCaseIdMapping.get(tracePos);
-			
-			if (caseId == null) {
-				throw new RuntimeException("The given position does not match any case id.");
-			}
+			parseAlignment(tracePos, FileUtils.readLines(alignmentFile));
 			
-			// initialize alignment execution traces
-			logTrace = new GenericTrace(INITIAL_EXECUTION_TRACE_CAPACITY, caseId);
-			modelTrace = new GenericTrace(INITIAL_EXECUTION_TRACE_CAPACITY, caseId);
+			// delete alignment file from disk
+			FileUtils.deleteQuietly(alignmentFile);
+		}
+		parsingProgress.finish();
+		
+		// delete alignment files directory from disk
+		FileUtils.deleteQuietly(plansFoundDir);
+	}
+	
+	/**
+	 * Parse the planner output related to a single trace, either read from a plan file or streamed by the planner.
+	 * 
+	 * @param tracePos The position of the trace in the log (0 is reserved for the empty trace).
+	 * @param outputLines The lines produced by the planner for the trace.
+	 */
+	private synchronized void parseAlignment(int tracePos, List<String> outputLines) {
+		
+		long parsingStartTime = System.currentTimeMillis();
+		float traceAlignmentCost = 0;
+		Matcher realNumberMatcher;
+		
+		// retrieve case id 
+		String caseId = positionToCaseIdMapping.get(tracePos);
+		
+		if (caseId == null) {
+			throw new RuntimeException("The given position does not match any case id.");
+		}
+		
+		// initialize alignment and statistics
+		TraceAlignmentStatistics traceStatistics = traceAlignmentStatistics.get(tracePos);
+		if (traceStatistics == null)
+			traceStatistics = new TraceAlignmentStatistics(tracePos, caseId);
+		if (tracePos != EMPTY_TRACE_POS)
+			alignmentStore.beginAlignment(tracePos, caseId);
 
-			// parse planner output file line by line
-			processOutputReader = new BufferedReader(new FileReader(alignmentFile));
-			while ((outputLine = processOutputReader.readLine()) != null) {
+		// parse planner output line by line
+		for (String outputLine : outputLines) {
 
-				// parse real number in output line
-				realNumberMatcher = realNumberRegexPattern.matcher(outputLine);
-				realNumberMatcher.find();
+			// parse real number in output line
+			realNumberMatcher = REAL_NUMBER_REGEX_PATTERN.matcher(outputLine);
+			realNumberMatcher.find();
+			
+			if(outputLine.startsWith(COST_ENTRY_PREFIX)) {
+				// parse alignment cost
+				traceAlignmentCost = Float.parseFloat(realNumberMatcher.group());
+				
+				if (tracePos == EMPTY_TRACE_POS)
+					// if empty trace, set the cost to compute fitness
+					emptyTraceAlignmentCost = traceAlignmentCost;
+
+			} else if (tracePos != EMPTY_TRACE_POS) {
 				
-				if(outputLine.startsWith(COST_ENTRY_PREFIX)) {
-					// parse alignment cost
-					traceAlignmentCost = Float.parseFloat(realNumberMatcher.group());
+				double parsedValue;
+				if(outputLine.startsWith(SEARCH_TIME_ENTRY_PREFIX)) {
+					parsedValue = Double.parseDouble(realNumberMatcher.group());
+					
+					// if the value is negative, then an overflow has occurred. the stat is not reliable anymore
+					if (parsedValue < 0)
+						alignmentTimeReliable = false;
 					
-					if (tracePos == EMPTY_TRACE_POS)
-						// if empty trace, set the cost to compute fitness
-						emptyTraceAlignmentCost = traceAlignmentCost;
+					alignmentTimeSummary.addValue(parsedValue);
+					alignmentTimeHistogram.recordValue(parsedValue);
+					traceStatistics.setSearchTime(parsedValue);
 
-				} else if (tracePos != EMPTY_TRACE_POS) {
+				} else if(outputLine.startsWith(EXPANDED_STATES_ENTRY_PREFIX)) {
+					parsedValue = Double.parseDouble(realNumberMatcher.group());
 					
-					double parsedValue;
-					if(outputLine.startsWith(SEARCH_TIME_ENTRY_PREFIX)) {
-						parsedValue = Double.parseDouble(realNumberMatcher.group());
-						
-						// if the value is negative, then an overflow has occurred. the stat is not reliable anymore
-						if (parsedValue < 0)
-							alignmentTimeReliable = false;
-						
-						alignmentTimeSummary.addValue(parsedValue);
+					if (parsedValue < 0)
+						expandedStatesReliable = false;
+					
+					expandedStatesSummary.addValue(parsedValue);
+					expandedStatesHistogram.recordValue(parsedValue);
+					traceStatistics.setExpandedStates(parsedValue);
+					
+				} else if(outputLine.startsWith(GENERATED_STATES_ENTRY_PREFIX)) {
+					parsedValue = Double.parseDouble(realNumberMatcher.group());
+					
+					if (parsedValue < 0)
+						generatedStatesReliable = false;
+					
+					generatedStatesSummary.addValue(parsedValue);
+					generatedStatesHistogram.recordValue(parsedValue);
+					traceStatistics.setGeneratedStates(parsedValue);
+					
+				} else if(outputLine.startsWith(TRANSLATOR_TIME_ENTRY_PREFIX)) {
+					parsedValue = Double.parseDouble(realNumberMatcher.group());
+					translatorTimeHistogram.recordValue(parsedValue);
+					traceStatistics.setTranslatorTime(parsedValue);
+					
+				} else if(outputLine.startsWith(PEAK_MEMORY_ENTRY_PREFIX)) {
+					traceStatistics.setPeakMemory(Double.parseDouble(realNumberMatcher.group()));
+					
+				} else if(outputLine.startsWith(PEAK_RSS_ENTRY_PREFIX)) {
+					traceStatistics.setPeakRss(Double.parseDouble(realNumberMatcher.group()));
+					
+				} else if(outputLine.startsWith(GROUNDED_ACTIONS_ENTRY_PREFIX)) {
+					traceStatistics.setGroundedActions(Double.parseDouble(realNumberMatcher.group()));
+					
+				} else {
+					// parse alignment move
+					String stepName = extractMovePddlId(outputLine);
+
+					// check move type
+					if (isSynchronousMove(outputLine)) {							
+						Transition transition = (Transition) pddlEncoder.getPddlIdToPetrinetNodeMapping().get(stepName);
+						alignmentStore.addSynchronousMove(transition);
+						moveCounters.addSynchronousMove(transition);
+
+					} else if (isModelMove(outputLine)) {
+						Transition transition = (Transition) pddlEncoder.getPddlIdToPetrinetNodeMapping().get(stepName);
+						alignmentStore.addModelMove(transition);
+						moveCounters.addModelMove(transition);
+
+					} else if (isLogMove(outputLine)) {
+						XEventClass eventClass = pddlEncoder.getPddlIdToEventClassMapping().get(stepName);
+						alignmentStore.addLogMove(eventClass);
+						moveCounters.addLogMove(eventClass);
 
-					} else if(outputLine.startsWith(EXPANDED_STATES_ENTRY_PREFIX)) {
-						parsedValue = Double.parseDouble(realNumberMatcher.group());
-						
-						if (parsedValue < 0)
-							expandedStatesReliable = false;
-						
-						expandedStatesSummary.addValue(parsedValue);
-						
-					} else if(outputLine.startsWith(GENERATED_STATES_ENTRY_PREFIX)) {
-						parsedValue = Double.parseDouble(realNumberMatcher.group());
-						
-						if (parsedValue < 0)
-							generatedStatesReliable = false;
-						
-						generatedStatesSummary.addValue(parsedValue);
-						
-					} else {
-						// parse alignment move
-						ExecutionStep step = null;
-						String stepName = extractMovePddlId(outputLine);
-	
-						// check move type
-						if (isSynchronousMove(outputLine)) {							
-							Transition transition = (Transition) pddlEncoder.getPddlIdToPetrinetNodeMapping().get(stepName);
-							step = new ExecutionStep(transition.getLabel(), transition);
-							logTrace.add(step);
-							modelTrace.add(step);
-	
-						} else if (isModelMove(outputLine)) {
-							Transition transition = (Transition) pddlEncoder.getPddlIdToPetrinetNodeMapping().get(stepName);
-							step = new ExecutionStep(transition.getLabel(), transition);
-							
-							if (transition.isInvisible())
-								step.setInvisible(true);
-							
-							logTrace.add(ExecutionStep.bottomStep);
-							modelTrace.add(step);
-	
-						} else if (isLogMove(outputLine)) {
-							XEventClass eventClass = pddlEncoder.getPddlIdToEventClassMapping().get(stepName);
-							step = new ExecutionStep(eventClass.getId(), eventClass);
-							logTrace.add(step);
-							modelTrace.add(ExecutionStep.bottomStep);
-	
-						}
 					}
 				}
 			}
-			processOutputReader.close();
-			
-			if (tracePos != EMPTY_TRACE_POS) {
-				XTrace trace = log.get(tracePos-1);
-				
-				// create alignment object
-				dataAlignmentState = new DataAlignmentState(logTrace, modelTrace, traceAlignmentCost);
-				float fitness = computeFitness(trace, traceAlignmentCost, emptyTraceAlignmentCost, parameters);
-				dataAlignmentState.setControlFlowFitness(fitness);
-				
-				// add alignment object to collection
-				alignments.add(dataAlignmentState);
-			}
-			
-			// delete alignment file from disk
-			FileUtils.deleteQuietly(alignmentFile);
 		}
 		
-		// delete alignment files directory from disk
-		FileUtils.deleteQuietly(plansFoundDir);
+		if (tracePos != EMPTY_TRACE_POS) {
+			// complete alignment (fitness is computed once that the empty trace cost is known)
+			alignmentStore.endAlignment(traceAlignmentCost);
+			traceAlignmentStatistics.put(tracePos, traceStatistics);
+			parsingProgress.completed(System.currentTimeMillis() - parsingStartTime);
+		}
+		lastParsedTracePos = tracePos;
+	}
+	
+	/**
+	 * Build the alignment results out of the parsed planner output.
+	 * 
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @param parameters The parameters to be used by the encoding algorithm.
+	 * @return The alignment of the event log and the Petri net.
+	 */
+	private PlanningBasedReplayResult buildReplayResult(
+			XLog log, Petrinet petrinet, PlanningBasedAlignmentParameters parameters) {
+		
+		PlanningBasedReplayResult result = null;
+		
+		// set fitness values (alignments are sorted according to the positions of the traces in the log)
+		alignmentStore.sortByTracePosition();
+		for (int i = 0; i < alignmentStore.size(); i++) {
+			float fitness = computeFitness(
+					alignmentStore.getTracePosition(i), alignmentStore.getCost(i), emptyTraceAlignmentCost);
+			alignmentStore.setFitness(i, fitness);
+		}
 		
-		// produce result to be visualized
+		// produce result to be visualized, backed by the store (alignment objects are built only when accessed)
 		XEventClassifier eventClassifier = parameters.getTransitionsEventsMapping().getEventClassifier();
-		result = new PlanningBasedReplayResult(alignments, eventClassifier, log, petrinet);
+		result = new PlanningBasedReplayResult(alignmentStore, eventClassifier, log, petrinet);
+		for (TraceAlignmentStatistics traceStatistics : traceAlignmentStatistics.values())
+			traceStatistics.setSearchStrategy(parameters.getPlannerSearchStrategy());
+		result.setTraceAlignmentStatistics(
+				new ArrayList<TraceAlignmentStatistics>(traceAlignmentStatistics.values()));
+		result.setMoveCounters(moveCounters);
+		
+		// add histograms to result (to estimate percentiles)
+		result.setPreprocessingTimeHistogram(preprocessingTimeHistogram);
+		result.setTranslatorTimeHistogram(translatorTimeHistogram);
+		result.setAlignmentTimeHistogram(alignmentTimeHistogram);
+		result.setExpandedStatesHistogram(expandedStatesHistogram);
+		result.setGeneratedStatesHistogram(generatedStatesHistogram);
 		
 		// add alignment time stats to result (if any)
 		if (alignmentTimeSummary.getN() > 0) {			
@@ -474,32 +788,17 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 	}
 	
 	/**
-	 * Compute the fitness of the given trace.
+	 * Compute the fitness of the trace in the given position.
 	 * 
-	 * @param trace The trace.
+	 * @param tracePos The position of the trace in the log (starting from 1).
 	 * @param alignmentCost The cost of aligning the trace.
 	 * @param emptyTraceCost The cost of aligning an empty trace on the same model (used for worst case scenario).
-	 * @param parameters The parameters of the plug-in.
 	 * @return a float representing the fitness of the trace.
 	 */
-	private float computeFitness(
-			XTrace trace, float alignmentCost, float emptyTraceCost, PlanningBasedAlignmentParameters parameters) {
-		
-		XEventClassifier eventClassifier = parameters.getTransitionsEventsMapping().getEventClassifier();
+	private float computeFitness(int tracePos, float alignmentCost, float emptyTraceCost) {
 		
-		// compute the cost of performing a move in log for each event in the trace
-		float traceCost = 0;
-		for (XEvent event : trace) {
-			for(Entry<XEventClass, Integer> entry : parameters.getMovesOnLogCosts().entrySet()) {
-				String eventClass = entry.getKey().getId();
-				if(eventClass.equalsIgnoreCase(eventClassifier.getClassIdentity(event))) {
-					traceCost += entry.getValue();
-					break;
-				}
-			}
-		}
-		
-		float worstCaseCost = traceCost + emptyTraceCost;
+		// the cost of performing a move in log for each event in the trace is computed while encoding it
+		float worstCaseCost = traceMovesOnLogCosts[tracePos] + emptyTraceCost;
 		return 1 - (alignmentCost / worstCaseCost);
 	}
 	
@@ -546,6 +845,11 @@ public class PlanningBasedAlignment extends AlignmentPddlEncoding {
 		result.append(DEFAULT_TIME_UNIT + '\n');
 		result.append("\tStandard deviation:    " + realFormat.format(alignmentTimeSummary.getStandardDeviation()));
 		result.append(DEFAULT_TIME_UNIT + '\n');
+		for (double percentile : LogLinearHistogram.REPORTED_PERCENTILES) {
+			result.append("\tp" + realFormat.format(percentile) + " (actual) Time: ");
+			result.append(realFormat.format(alignmentTimeHistogram.getValueAtPercentile(percentile)));
+			result.append(DEFAULT_TIME_UNIT + '\n');
+		}
 		
 		return result.toString();
 	}
@@ -0,0 +1,100 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.utils.CsvUtils;
+import org.processmining.planningbasedalignment.utils.ProgressHub;
+
+/**
+ * Abstract class that can be extended to export the result of a Planning-based Alignment in a textual format,
+ * without any UI. Alignments are read from the alignment store of the result and written one at a time through a
+ * buffered writer, so that the memory used does not depend on the size of the result.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public abstract class AbstractReplayResultExporter {
+
+	protected static final String CSV_SEPARATOR = CsvUtils.SEPARATOR;
+	protected static final String ENCODING = "UTF-8";
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Export the given result in the given file.
+	 *
+	 * @param result The result of a Planning-based Alignment (it must be backed by an alignment store).
+	 * @param file The file to be written.
+	 * @param progressHub The hub where to report the progress of the export (can be null).
+	 * @throws IOException
+	 */
+	public void export(PlanningBasedReplayResult result, File file, ProgressHub progressHub) throws IOException {
+		AbstractAlignmentStore alignmentStore = result.getAlignmentStore();
+		if (alignmentStore == null)
+			throw new IllegalArgumentException("The result does not keep its alignments in a store.");
+
+		ProgressHub.Stage exportProgress = null;
+		if (progressHub != null)
+			exportProgress = progressHub.startStage(getStageName(), alignmentStore.size());
+
+		Writer writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), ENCODING), BUFFER_SIZE);
+		try {
+			writeHeader(writer, result);
+			for (int i = 0; i < alignmentStore.size(); i++) {
+				long startTime = System.currentTimeMillis();
+				writeAlignment(writer, result, i);
+				if (exportProgress != null)
+					exportProgress.completed(System.currentTimeMillis() - startTime);
+			}
+			writeFooter(writer, result);
+		} finally {
+			writer.close();
+			if (exportProgress != null)
+				exportProgress.finish();
+		}
+	}
+
+	/**
+	 * @return the name of the export stage, as shown while reporting progress
+	 */
+	protected abstract String getStageName();
+
+	/**
+	 * Write what precedes the alignments.
+	 */
+	protected abstract void writeHeader(Writer writer, PlanningBasedReplayResult result) throws IOException;
+
+	/**
+	 * Write the alignment with the given index in the alignment store of the result.
+	 */
+	protected abstract void writeAlignment(Writer writer, PlanningBasedReplayResult result, int index)
+			throws IOException;
+
+	/**
+	 * Write what follows the alignments (nothing, by default).
+	 */
+	protected void writeFooter(Writer writer, PlanningBasedReplayResult result) throws IOException {
+	}
+
+	/**
+	 * @return the name of the given move type, as written by the exporters
+	 */
+	protected static String getMoveTypeName(byte moveType) {
+		switch (moveType) {
+			case AbstractAlignmentStore.SYNCHRONOUS_MOVE :
+				return "synchronous";
+			case AbstractAlignmentStore.MODEL_MOVE :
+				return "model";
+			default :
+				return "log";
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.File;
+
+/**
+ * The formats in which the alignments of a result can be exported.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public enum AlignmentExportFormat {
+
+	TRACES_CSV("CSV (one row per trace)", "csv"),
+	MOVES_CSV("CSV (one row per move)", "csv"),
+	XES("XES (alignment extension)", "xes");
+
+	private final String description;
+	private final String extension;
+
+	private AlignmentExportFormat(String description, String extension) {
+		this.description = description;
+		this.extension = extension;
+	}
+
+	/**
+	 * @return a new exporter writing alignments in this format
+	 */
+	public AbstractReplayResultExporter createExporter() {
+		switch (this) {
+			case XES :
+				return new AlignmentXesExporter();
+			case MOVES_CSV :
+				return new MovesCsvExporter();
+			default :
+				return new TracesCsvExporter();
+		}
+	}
+
+	/**
+	 * @return the given file, with the extension of this format appended if it is missing
+	 */
+	public File withExtension(File file) {
+		if (file.getName().endsWith("." + extension))
+			return file;
+		return new File(file.getAbsolutePath() + "." + extension);
+	}
+
+	/* GETTERS & SETTERS */
+
+	public String getDescription() {
+		return description;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+
+}
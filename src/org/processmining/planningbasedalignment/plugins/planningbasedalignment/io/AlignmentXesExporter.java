@@ -0,0 +1,147 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.deckfour.xes.extension.XExtension;
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.model.XAttributable;
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeBoolean;
+import org.deckfour.xes.model.XAttributeContinuous;
+import org.deckfour.xes.model.XAttributeDiscrete;
+import org.deckfour.xes.model.XAttributeID;
+import org.deckfour.xes.model.XAttributeTimestamp;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.deckfour.xes.util.XsDateTimeConversion;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.plugins.balancedconformance.export.XAlignmentConverter;
+import org.processmining.xesalignmentextension.XAlignmentExtension;
+import org.processmining.xesalignmentextension.XAlignmentExtension.XAlignment;
+import org.processmining.xesalignmentextension.XDataAlignmentExtension;
+
+/**
+ * Export the result of a Planning-based Alignment as an XES log whose traces are decorated with the alignment
+ * extension. Each alignment is read from the alignment store of the result and converted to an {@link XAlignment}
+ * right before being written, along with the original trace (looked up by its position in the log), and released
+ * right after, so that neither the alignments nor the aligned log are ever materialized as a whole. Values are escaped
+ * and timestamps are formatted as done by the XES serializer of OpenXES.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class AlignmentXesExporter extends AbstractReplayResultExporter {
+
+	private static final String INDENT = "\t";
+
+	private XAlignmentConverter converter;
+	private XLog log;
+	private XsDateTimeConversion dateTimeConversion;
+
+	@Override
+	protected String getStageName() {
+		return "Exported alignments (XES)";
+	}
+
+	@Override
+	protected void writeHeader(Writer writer, PlanningBasedReplayResult result) throws IOException {
+		converter = new XAlignmentConverter();
+		converter.setClassifier(result.getClassifier()).setVariableMapping(result.getVariableMapping());
+		dateTimeConversion = new XsDateTimeConversion();
+		log = result.getAlignedLog();
+
+		writer.write("<?xml version=\"1.0\" encoding=\"" + ENCODING + "\" ?>\n");
+		writer.write("<log xes.version=\"1.0\" xes.features=\"nested-attributes\">\n");
+
+		Set<XExtension> extensions = new LinkedHashSet<XExtension>(log.getExtensions());
+		extensions.add(XConceptExtension.instance());
+		extensions.add(XAlignmentExtension.instance());
+		extensions.add(XDataAlignmentExtension.instance());
+		for (XExtension extension : extensions) {
+			writer.write(INDENT + "<extension name=\"" + escapeXml(extension.getName()) + "\" prefix=\""
+					+ escapeXml(extension.getPrefix()) + "\" uri=\"" + escapeXml(extension.getUri().toString())
+					+ "\"/>\n");
+		}
+		writeAttributes(writer, log, INDENT);
+	}
+
+	@Override
+	protected void writeAlignment(Writer writer, PlanningBasedReplayResult result, int index) throws IOException {
+		AbstractAlignmentStore alignmentStore = result.getAlignmentStore();
+		XTrace trace = log.get(alignmentStore.getTracePosition(index) - 1);
+		XTrace alignedTrace = converter.viewAsXAlignment(alignmentStore.getAlignment(index), trace).getTrace();
+		writer.write(INDENT + "<trace>\n");
+		writeAttributes(writer, alignedTrace, INDENT + INDENT);
+		for (XEvent event : alignedTrace) {
+			writer.write(INDENT + INDENT + "<event>\n");
+			writeAttributes(writer, event, INDENT + INDENT + INDENT);
+			writer.write(INDENT + INDENT + "</event>\n");
+		}
+		writer.write(INDENT + "</trace>\n");
+	}
+
+	@Override
+	protected void writeFooter(Writer writer, PlanningBasedReplayResult result) throws IOException {
+		writer.write("</log>\n");
+		converter = null;
+		log = null;
+		dateTimeConversion = null;
+	}
+
+	/**
+	 * Write the attributes of the given element, recursively.
+	 */
+	private void writeAttributes(Writer writer, XAttributable element, String indent) throws IOException {
+		if (!element.hasAttributes())
+			return;
+
+		for (XAttribute attribute : element.getAttributes().values()) {
+			String tag;
+			String value;
+			if (attribute instanceof XAttributeTimestamp) {
+				tag = "date";
+				value = dateTimeConversion.format(((XAttributeTimestamp) attribute).getValue());
+			} else if (attribute instanceof XAttributeDiscrete) {
+				tag = "int";
+				value = attribute.toString();
+			} else if (attribute instanceof XAttributeContinuous) {
+				tag = "float";
+				value = attribute.toString();
+			} else if (attribute instanceof XAttributeBoolean) {
+				tag = "boolean";
+				value = attribute.toString();
+			} else if (attribute instanceof XAttributeID) {
+				tag = "id";
+				value = attribute.toString();
+			} else {
+				tag = "string";
+				value = attribute.toString();
+			}
+
+			StringBuffer line = new StringBuffer(indent);
+			line.append('<').append(tag);
+			line.append(" key=\"").append(escapeXml(attribute.getKey())).append('"');
+			line.append(" value=\"").append(escapeXml(value)).append('"');
+			if (attribute.hasAttributes()) {
+				line.append(">\n");
+				writer.write(line.toString());
+				writeAttributes(writer, attribute, indent + INDENT);
+				writer.write(indent + "</" + tag + ">\n");
+			} else {
+				line.append("/>\n");
+				writer.write(line.toString());
+			}
+		}
+	}
+
+	private static String escapeXml(String value) {
+		return (value == null) ? "" : StringEscapeUtils.escapeXml10(value);
+	}
+
+}
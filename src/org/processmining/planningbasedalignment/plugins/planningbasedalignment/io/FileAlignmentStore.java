@@ -0,0 +1,116 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+
+/**
+ * A read-only representation of a set of alignments whose moves are read from a file written by
+ * {@link ReplayResultWriter}. The file is mapped in fixed-size segments, so that moves are paged in by the operating
+ * system only when they are accessed.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class FileAlignmentStore extends AbstractAlignmentStore {
+
+	/**
+	 * The file holding the moves.
+	 */
+	private File file;
+
+	/**
+	 * The random access handle to the file.
+	 */
+	private RandomAccessFile randomAccessFile;
+
+	/**
+	 * The position in the file of the first move.
+	 */
+	private long firstMovePosition;
+
+	/**
+	 * The total number of moves in the file.
+	 */
+	private long fileMovesNum;
+
+	/**
+	 * The mapped segments of the file.
+	 */
+	private MappedByteBuffer[] segments;
+
+	FileAlignmentStore(File file, long firstMovePosition, long fileMovesNum) throws IOException {
+		super();
+		this.file = file;
+		this.randomAccessFile = new RandomAccessFile(file, "r");
+		this.firstMovePosition = firstMovePosition;
+		this.fileMovesNum = fileMovesNum;
+		this.segments = new MappedByteBuffer[(int) ((fileMovesNum + MOVES_PER_SEGMENT - 1) >>> MOVES_PER_SEGMENT_BITS)];
+		for (int segment = 0; segment < segments.length; segment++)
+			segments[segment] = mapSegment(segment);
+	}
+
+	@Override
+	protected byte loadMoveType(long offset) {
+		return unpackMoveType(loadMove(offset));
+	}
+
+	@Override
+	protected int loadMoveIndex(long offset) {
+		return unpackMoveIndex(loadMove(offset));
+	}
+
+	@Override
+	public void dispose() {
+		for (int i = 0; i < segments.length; i++)
+			segments[i] = null;
+		try {
+			randomAccessFile.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	void addTransition(Transition transition) {
+		getTransitionIndex(transition);
+	}
+
+	void addEventClass(XEventClass eventClass) {
+		getEventClassIndex(eventClass);
+	}
+
+	void addAlignment(int tracePos, String caseId, float cost, float fitness, int alignmentMovesNum) {
+		if (movesNum + alignmentMovesNum > fileMovesNum)
+			throw new IllegalStateException("The index of " + file.getName() + " refers to missing moves.");
+		appendAlignment(tracePos, caseId, cost, fitness, alignmentMovesNum);
+	}
+
+	private int loadMove(long offset) {
+		int segment = (int) (offset >>> MOVES_PER_SEGMENT_BITS);
+		int position = (int) (offset & (MOVES_PER_SEGMENT - 1)) * PACKED_MOVE_BYTES;
+		return segments[segment].getInt(position);
+	}
+
+	/**
+	 * Map the given segment of the moves in the file.
+	 */
+	private MappedByteBuffer mapSegment(int segment) throws IOException {
+		long firstMove = (long) segment << MOVES_PER_SEGMENT_BITS;
+		long segmentMovesNum = Math.min(MOVES_PER_SEGMENT, fileMovesNum - firstMove);
+		return randomAccessFile.getChannel().map(MapMode.READ_ONLY,
+				firstMovePosition + firstMove * PACKED_MOVE_BYTES, segmentMovesNum * PACKED_MOVE_BYTES);
+	}
+
+	/* GETTERS & SETTERS */
+
+	public File getFile() {
+		return file;
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.utils.CsvUtils;
+
+/**
+ * Export the result of a Planning-based Alignment as a CSV file with a row per alignment move.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class MovesCsvExporter extends AbstractReplayResultExporter {
+
+	private static final String HEADER = "trace_pos" + CSV_SEPARATOR + "case_id" + CSV_SEPARATOR + "move_pos"
+			+ CSV_SEPARATOR + "move_type" + CSV_SEPARATOR + "activity" + CSV_SEPARATOR + "invisible\n";
+
+	@Override
+	protected String getStageName() {
+		return "Exported alignments (moves)";
+	}
+
+	@Override
+	protected void writeHeader(Writer writer, PlanningBasedReplayResult result) throws IOException {
+		writer.write(HEADER);
+	}
+
+	@Override
+	protected void writeAlignment(Writer writer, PlanningBasedReplayResult result, int index) throws IOException {
+		AbstractAlignmentStore alignmentStore = result.getAlignmentStore();
+		String rowPrefix = alignmentStore.getTracePosition(index) + CSV_SEPARATOR
+				+ CsvUtils.quoteValue(alignmentStore.getCaseId(index)) + CSV_SEPARATOR;
+
+		for (int move = 0; move < alignmentStore.getMovesNum(index); move++) {
+			byte moveType = alignmentStore.getMoveType(index, move);
+			String activity;
+			boolean invisible = false;
+			if (moveType == AbstractAlignmentStore.LOG_MOVE) {
+				activity = alignmentStore.getMoveEventClass(index, move).getId();
+			} else {
+				Transition transition = alignmentStore.getMoveTransition(index, move);
+				activity = transition.getLabel();
+				invisible = transition.isInvisible();
+			}
+
+			StringBuffer row = new StringBuffer(rowPrefix);
+			row.append(move).append(CSV_SEPARATOR);
+			row.append(getMoveTypeName(moveType)).append(CSV_SEPARATOR);
+			row.append(CsvUtils.quoteValue(activity)).append(CSV_SEPARATOR);
+			row.append(invisible).append('\n');
+			writer.write(row.toString());
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetEdge;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetGraph;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetNode;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+
+/**
+ * The constants describing the binary format used to persist the result of a Planning-based Alignment, along with
+ * the fingerprints used to tell whether a saved result belongs to a given event log and Petri net.
+ *
+ * A file is made of the following sections:
+ * <ul>
+ * <li>a fixed-size header (magic number, format version, log and model fingerprints);</li>
+ * <li>the moves of all the alignments, one int per move (packed as in the memory-mapped alignment stores), stored
+ * contiguously in alignment order;</li>
+ * <li>the Petri net (places, transitions and arcs) and the dictionary of the event classes referenced by moves;</li>
+ * <li>the per-trace statistics;</li>
+ * <li>the index of the alignments (trace position, case id, cost, fitness and number of moves of each one);</li>
+ * <li>a fixed-size footer with the offsets of the sections above.</li>
+ * </ul>
+ * Since the footer is at the end of the file, the moves can be written while alignments are produced, whereas a
+ * reader only has to load the index to open the file.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class ReplayResultFormat {
+
+	public static final String FILE_EXTENSION = "pbar";
+	public static final int MAGIC = 0x50424152;  // "PBAR"
+	public static final short VERSION = 1;
+
+	static final int HEADER_BYTES = 4 + 2 + 2 + 8 + 8;
+	static final int FOOTER_BYTES = 8 + 8 + 8 + 4;
+	static final byte NO_SEARCH_STRATEGY = -1;
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private ReplayResultFormat() {
+	}
+
+	/**
+	 * Compute the fingerprint of the given event log, based on the names of its traces and events.
+	 *
+	 * @param log The event log.
+	 * @return A 64-bit FNV-1a hash.
+	 */
+	public static long computeLogFingerprint(XLog log) {
+		XConceptExtension conceptExtension = XConceptExtension.instance();
+		long hash = update(FNV_OFFSET_BASIS, log.size());
+		for (XTrace trace : log) {
+			hash = update(hash, conceptExtension.extractName(trace));
+			hash = update(hash, trace.size());
+			for (XEvent event : trace)
+				hash = update(hash, conceptExtension.extractName(event));
+		}
+		return hash;
+	}
+
+	/**
+	 * Compute the fingerprint of the given Petri net, based on the labels of its nodes and on its arcs.
+	 *
+	 * @param petrinet The Petri net.
+	 * @return A 64-bit FNV-1a hash.
+	 */
+	public static long computeModelFingerprint(PetrinetGraph petrinet) {
+		// sum node and arc hashes, so that the fingerprint does not depend on the iteration order
+		long placesHash = 0;
+		for (Place place : petrinet.getPlaces())
+			placesHash += update(FNV_OFFSET_BASIS, place.getLabel());
+
+		long transitionsHash = 0;
+		for (Transition transition : petrinet.getTransitions())
+			transitionsHash += update(update(FNV_OFFSET_BASIS, transition.getLabel()), transition.isInvisible() ? 1 : 0);
+
+		long arcsHash = 0;
+		for (PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode> edge : petrinet.getEdges())
+			arcsHash += update(update(FNV_OFFSET_BASIS, edge.getSource().getLabel()), edge.getTarget().getLabel());
+
+		long hash = update(FNV_OFFSET_BASIS, placesHash);
+		hash = update(hash, transitionsHash);
+		return update(hash, arcsHash);
+	}
+
+	private static long update(long hash, String value) {
+		if (value == null)
+			return update(hash, -1);
+
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		return update(hash, value.length());
+	}
+
+	private static long update(long hash, long value) {
+		for (int i = 0; i < 8; i++) {
+			hash ^= (value >>> (i * 8)) & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+}
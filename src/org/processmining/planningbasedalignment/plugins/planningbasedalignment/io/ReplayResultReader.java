@@ -0,0 +1,321 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.deckfour.xes.classification.XEventClass;
+import org.deckfour.xes.classification.XEventNameClassifier;
+import org.deckfour.xes.model.XLog;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetGraph;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetNode;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.graphbased.directed.petrinet.impl.PetrinetFactory;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.LogLinearHistogram;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlannerSearchStrategy;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
+
+/**
+ * A reader of the binary format described in {@link ReplayResultFormat}. Opening a file only loads its index and
+ * dictionaries, whereas moves are read from the file when alignments are accessed, so that any alignment can be
+ * retrieved by case id without reading the others.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class ReplayResultReader {
+
+	/**
+	 * The file to be read.
+	 */
+	private File file;
+
+	/**
+	 * The format version of the file.
+	 */
+	private short version;
+
+	/**
+	 * The fingerprints of the event log and of the Petri net of the saved result.
+	 */
+	private long logFingerprint;
+	private long modelFingerprint;
+
+	/**
+	 * The offsets of the sections of the file.
+	 */
+	private long netOffset;
+	private long statisticsOffset;
+	private long indexOffset;
+
+	/**
+	 * The Petri net of the saved result (null until the alignments are read).
+	 */
+	private Petrinet petrinet;
+
+	/**
+	 * Open the given file, checking its header and footer.
+	 *
+	 * @param file The file to be read.
+	 * @throws IOException if the file is not a (complete) saved result, or if it has been saved by a newer version.
+	 */
+	public ReplayResultReader(File file) throws IOException {
+		this.file = file;
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			long length = randomAccessFile.length();
+			if (length < ReplayResultFormat.HEADER_BYTES + ReplayResultFormat.FOOTER_BYTES)
+				throw new IOException(file.getName() + " is not a saved Planning-based Alignment result.");
+
+			if (randomAccessFile.readInt() != ReplayResultFormat.MAGIC)
+				throw new IOException(file.getName() + " is not a saved Planning-based Alignment result.");
+			version = randomAccessFile.readShort();
+			if (version > ReplayResultFormat.VERSION)
+				throw new IOException(file.getName() + " has been saved with a newer format (version " + version + ").");
+			randomAccessFile.readShort();  // reserved for flags
+			logFingerprint = randomAccessFile.readLong();
+			modelFingerprint = randomAccessFile.readLong();
+
+			randomAccessFile.seek(length - ReplayResultFormat.FOOTER_BYTES);
+			netOffset = randomAccessFile.readLong();
+			statisticsOffset = randomAccessFile.readLong();
+			indexOffset = randomAccessFile.readLong();
+			if (randomAccessFile.readInt() != ReplayResultFormat.MAGIC)
+				throw new IOException(file.getName() + " is incomplete (the writer has not been finished).");
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Read the result, pairing it with the event log and the Petri net it has been computed on.
+	 *
+	 * @param log The aligned event log.
+	 * @param petrinet The Petri net.
+	 * @return The result, backed by a {@link FileAlignmentStore}. The alignments refer to the transitions of the saved
+	 * copy of the Petri net (see {@link #getPetrinet()}), that is also the net of the result.
+	 * @throws IOException if the file cannot be read, or if the result has not been computed on the given event log
+	 * and Petri net.
+	 */
+	public PlanningBasedReplayResult read(XLog log, PetrinetGraph petrinet) throws IOException {
+		if (!matches(log, petrinet))
+			throw new IOException(file.getName() + " does not hold the alignments of the given log and Petri net.");
+
+		FileAlignmentStore alignmentStore = readAlignmentStore();
+		List<TraceAlignmentStatistics> traceAlignmentStatistics;
+		try {
+			traceAlignmentStatistics = readTraceAlignmentStatistics();
+		} catch (IOException e) {
+			alignmentStore.dispose();
+			throw e;
+		}
+
+		PlanningBasedReplayResult result = new PlanningBasedReplayResult(
+				alignmentStore, new XEventNameClassifier(), log, this.petrinet);
+		result.setTraceAlignmentStatistics(traceAlignmentStatistics);
+		setStatisticsSummaries(result, traceAlignmentStatistics);
+		return result;
+	}
+
+	/**
+	 * Open the alignments of the saved result, without building the result itself (e.g. to access some alignments
+	 * only, through {@link AbstractAlignmentStore#indexOf(String)}).
+	 *
+	 * @return The alignments, backed by the file.
+	 * @throws IOException
+	 */
+	public FileAlignmentStore readAlignmentStore() throws IOException {
+		long fileMovesNum = (netOffset - ReplayResultFormat.HEADER_BYTES) / AbstractAlignmentStore.PACKED_MOVE_BYTES;
+		FileAlignmentStore alignmentStore = new FileAlignmentStore(
+				file, ReplayResultFormat.HEADER_BYTES, fileMovesNum);
+
+		DataInputStream input = openSection(netOffset);
+		try {
+			petrinet = readPetrinet(input, alignmentStore);
+
+			int eventClassesNum = input.readInt();
+			for (int i = 0; i < eventClassesNum; i++)
+				alignmentStore.addEventClass(new XEventClass(input.readUTF(), i));
+		} finally {
+			input.close();
+		}
+
+		input = openSection(indexOffset);
+		try {
+			int alignmentsNum = input.readInt();
+			for (int i = 0; i < alignmentsNum; i++) {
+				int tracePos = input.readInt();
+				String caseId = input.readUTF();
+				float cost = input.readFloat();
+				float fitness = input.readFloat();
+				alignmentStore.addAlignment(tracePos, caseId, cost, fitness, input.readInt());
+			}
+		} finally {
+			input.close();
+		}
+
+		return alignmentStore;
+	}
+
+	/**
+	 * Tell whether the saved result has been computed on the given event log and Petri net.
+	 *
+	 * @param log The event log.
+	 * @param petrinet The Petri net.
+	 * @return true if both fingerprints match.
+	 */
+	public boolean matches(XLog log, PetrinetGraph petrinet) {
+		return logFingerprint == ReplayResultFormat.computeLogFingerprint(log)
+				&& modelFingerprint == ReplayResultFormat.computeModelFingerprint(petrinet);
+	}
+
+	/**
+	 * Read the Petri net, adding the transitions referenced by moves to the dictionary of the given store.
+	 */
+	private Petrinet readPetrinet(DataInputStream input, FileAlignmentStore alignmentStore) throws IOException {
+		Petrinet result = PetrinetFactory.newPetrinet(input.readUTF());
+
+		int placesNum = input.readInt();
+		List<PetrinetNode> nodes = new ArrayList<PetrinetNode>();
+		for (int i = 0; i < placesNum; i++)
+			nodes.add(result.addPlace(input.readUTF()));
+
+		int transitionsNum = input.readInt();
+		for (int i = 0; i < transitionsNum; i++) {
+			Transition transition = result.addTransition(input.readUTF());
+			transition.setInvisible(input.readBoolean());
+			nodes.add(transition);
+		}
+
+		int arcsNum = input.readInt();
+		for (int i = 0; i < arcsNum; i++) {
+			PetrinetNode source = nodes.get(input.readInt());
+			PetrinetNode target = nodes.get(input.readInt());
+			int weight = input.readInt();
+			if (source instanceof Place)
+				result.addArc((Place) source, (Transition) target, weight);
+			else
+				result.addArc((Transition) source, (Place) target, weight);
+		}
+
+		int dictionaryTransitionsNum = input.readInt();
+		for (int i = 0; i < dictionaryTransitionsNum; i++)
+			alignmentStore.addTransition((Transition) nodes.get(placesNum + input.readInt()));
+
+		return result;
+	}
+
+	private List<TraceAlignmentStatistics> readTraceAlignmentStatistics() throws IOException {
+		DataInputStream input = openSection(statisticsOffset);
+		try {
+			int recordsNum = input.readInt();
+			List<TraceAlignmentStatistics> result = new ArrayList<TraceAlignmentStatistics>(recordsNum);
+			for (int i = 0; i < recordsNum; i++) {
+				TraceAlignmentStatistics traceStatistics = new TraceAlignmentStatistics(input.readInt(), input.readUTF());
+				traceStatistics.setEncodeTime(input.readDouble());
+				traceStatistics.setPddlSize(input.readDouble());
+				traceStatistics.setGroundedActions(input.readDouble());
+				traceStatistics.setTranslatorTime(input.readDouble());
+				traceStatistics.setSearchTime(input.readDouble());
+				traceStatistics.setExpandedStates(input.readDouble());
+				traceStatistics.setGeneratedStates(input.readDouble());
+				traceStatistics.setPeakMemory(input.readDouble());
+				traceStatistics.setPeakRss(input.readDouble());
+				byte searchStrategy = input.readByte();
+				if (searchStrategy != ReplayResultFormat.NO_SEARCH_STRATEGY)
+					traceStatistics.setSearchStrategy(PlannerSearchStrategy.values()[searchStrategy]);
+				result.add(traceStatistics);
+			}
+			return result;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Rebuild the summaries and histograms of the result out of the per-trace statistics.
+	 */
+	private void setStatisticsSummaries(
+			PlanningBasedReplayResult result, List<TraceAlignmentStatistics> traceAlignmentStatistics) {
+
+		SummaryStatistics alignmentTimeSummary = new SummaryStatistics();
+		SummaryStatistics expandedStatesSummary = new SummaryStatistics();
+		SummaryStatistics generatedStatesSummary = new SummaryStatistics();
+		LogLinearHistogram preprocessingTimeHistogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
+		LogLinearHistogram translatorTimeHistogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
+		LogLinearHistogram alignmentTimeHistogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
+		LogLinearHistogram expandedStatesHistogram = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+		LogLinearHistogram generatedStatesHistogram = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+
+		for (TraceAlignmentStatistics traceStatistics : traceAlignmentStatistics) {
+			if (traceStatistics.getEncodeTime() != TraceAlignmentStatistics.NOT_AVAILABLE)
+				preprocessingTimeHistogram.recordValue(traceStatistics.getEncodeTime());
+			if (traceStatistics.getTranslatorTime() != TraceAlignmentStatistics.NOT_AVAILABLE)
+				translatorTimeHistogram.recordValue(traceStatistics.getTranslatorTime());
+			if (traceStatistics.getSearchTime() != TraceAlignmentStatistics.NOT_AVAILABLE) {
+				alignmentTimeSummary.addValue(traceStatistics.getSearchTime());
+				alignmentTimeHistogram.recordValue(traceStatistics.getSearchTime());
+			}
+			if (traceStatistics.getExpandedStates() != TraceAlignmentStatistics.NOT_AVAILABLE) {
+				expandedStatesSummary.addValue(traceStatistics.getExpandedStates());
+				expandedStatesHistogram.recordValue(traceStatistics.getExpandedStates());
+			}
+			if (traceStatistics.getGeneratedStates() != TraceAlignmentStatistics.NOT_AVAILABLE) {
+				generatedStatesSummary.addValue(traceStatistics.getGeneratedStates());
+				generatedStatesHistogram.recordValue(traceStatistics.getGeneratedStates());
+			}
+		}
+
+		if (alignmentTimeSummary.getN() > 0)
+			result.setAlignmentTimeSummary(alignmentTimeSummary);
+		if (expandedStatesSummary.getN() > 0)
+			result.setExpandedStatesSummary(expandedStatesSummary);
+		if (generatedStatesSummary.getN() > 0)
+			result.setGeneratedStatesSummary(generatedStatesSummary);
+		result.setPreprocessingTimeHistogram(preprocessingTimeHistogram);
+		result.setTranslatorTimeHistogram(translatorTimeHistogram);
+		result.setAlignmentTimeHistogram(alignmentTimeHistogram);
+		result.setExpandedStatesHistogram(expandedStatesHistogram);
+		result.setGeneratedStatesHistogram(generatedStatesHistogram);
+	}
+
+	private DataInputStream openSection(long offset) throws IOException {
+		FileInputStream fileInput = new FileInputStream(file);
+		fileInput.getChannel().position(offset);
+		return new DataInputStream(new BufferedInputStream(fileInput));
+	}
+
+	/* GETTERS & SETTERS */
+
+	public File getFile() {
+		return file;
+	}
+
+	public short getVersion() {
+		return version;
+	}
+
+	public long getLogFingerprint() {
+		return logFingerprint;
+	}
+
+	public long getModelFingerprint() {
+		return modelFingerprint;
+	}
+
+	public Petrinet getPetrinet() {
+		return petrinet;
+	}
+
+}
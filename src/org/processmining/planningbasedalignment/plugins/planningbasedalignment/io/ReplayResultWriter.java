@@ -0,0 +1,240 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetEdge;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetGraph;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetNode;
+import org.processmining.models.graphbased.directed.petrinet.elements.Arc;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
+
+/**
+ * A streaming writer of the binary format described in {@link ReplayResultFormat}. The moves of each alignment are
+ * written as soon as the alignment is passed to the writer, so that alignments are never materialized as objects.
+ * Only the (small) index entries are buffered until the writer is finished.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class ReplayResultWriter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The stream writing the file (counting the bytes written so far, to compute section offsets).
+	 */
+	private CountingOutputStream countingStream;
+	private DataOutputStream output;
+
+	/**
+	 * The index entries of the alignments written so far.
+	 */
+	private ByteArrayOutputStream indexBuffer;
+	private DataOutputStream indexOutput;
+
+	/**
+	 * The number of alignments written so far.
+	 */
+	private int alignmentsNum;
+
+	/**
+	 * Create the given file and write its header.
+	 *
+	 * @param file The file to be written.
+	 * @param logFingerprint The fingerprint of the aligned event log.
+	 * @param modelFingerprint The fingerprint of the Petri net the log has been aligned to.
+	 * @throws IOException
+	 */
+	public ReplayResultWriter(File file, long logFingerprint, long modelFingerprint) throws IOException {
+		this.countingStream = new CountingOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+		this.output = new DataOutputStream(countingStream);
+		this.indexBuffer = new ByteArrayOutputStream();
+		this.indexOutput = new DataOutputStream(indexBuffer);
+		this.alignmentsNum = 0;
+
+		output.writeInt(ReplayResultFormat.MAGIC);
+		output.writeShort(ReplayResultFormat.VERSION);
+		output.writeShort(0);  // reserved for flags
+		output.writeLong(logFingerprint);
+		output.writeLong(modelFingerprint);
+	}
+
+	/**
+	 * Write the given result in the given file.
+	 *
+	 * @param result The result of a Planning-based Alignment (it must be backed by an alignment store).
+	 * @param file The file to be written.
+	 * @throws IOException
+	 */
+	public static void write(PlanningBasedReplayResult result, File file) throws IOException {
+		AbstractAlignmentStore alignmentStore = result.getAlignmentStore();
+		if (alignmentStore == null)
+			throw new IllegalArgumentException("The result does not keep its alignments in a store.");
+
+		ReplayResultWriter writer = new ReplayResultWriter(file,
+				ReplayResultFormat.computeLogFingerprint(result.getAlignedLog()),
+				ReplayResultFormat.computeModelFingerprint(result.getPetrinet()));
+		try {
+			for (int i = 0; i < alignmentStore.size(); i++)
+				writer.writeAlignment(alignmentStore, i);
+			writer.finish(alignmentStore, result.getPetrinet(), result.getTraceAlignmentStatistics());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Append the alignment with the given index.
+	 *
+	 * @param alignmentStore The store holding the alignment.
+	 * @param index The index of the alignment in the store.
+	 * @throws IOException
+	 */
+	public void writeAlignment(AbstractAlignmentStore alignmentStore, int index) throws IOException {
+		int movesNum = alignmentStore.getMovesNum(index);
+		for (int move = 0; move < movesNum; move++) {
+			output.writeInt(AbstractAlignmentStore.packMove(
+					alignmentStore.getMoveType(index, move), alignmentStore.getMoveIndex(index, move)));
+		}
+
+		indexOutput.writeInt(alignmentStore.getTracePosition(index));
+		indexOutput.writeUTF(alignmentStore.getCaseId(index));
+		indexOutput.writeFloat(alignmentStore.getCost(index));
+		indexOutput.writeFloat(alignmentStore.getFitness(index));
+		indexOutput.writeInt(movesNum);
+		alignmentsNum++;
+	}
+
+	/**
+	 * Write the sections following the moves, and close the file.
+	 *
+	 * @param alignmentStore The store holding the alignments that have been written (its dictionaries are needed to
+	 * decode the moves).
+	 * @param petrinet The Petri net the log has been aligned to.
+	 * @param traceAlignmentStatistics The per-trace statistics (can be null).
+	 * @throws IOException
+	 */
+	public void finish(AbstractAlignmentStore alignmentStore, PetrinetGraph petrinet,
+			List<TraceAlignmentStatistics> traceAlignmentStatistics) throws IOException {
+
+		long netOffset = countingStream.getByteCount();
+		writePetrinet(alignmentStore, petrinet);
+		writeEventClasses(alignmentStore);
+
+		long statisticsOffset = countingStream.getByteCount();
+		writeTraceAlignmentStatistics(traceAlignmentStatistics);
+
+		long indexOffset = countingStream.getByteCount();
+		output.writeInt(alignmentsNum);
+		indexOutput.flush();
+		indexBuffer.writeTo(output);
+
+		output.writeLong(netOffset);
+		output.writeLong(statisticsOffset);
+		output.writeLong(indexOffset);
+		output.writeInt(ReplayResultFormat.MAGIC);
+		close();
+	}
+
+	/**
+	 * Close the file (an unfinished file cannot be read back).
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		output.close();
+	}
+
+	/**
+	 * Write the places, transitions and arcs of the Petri net, followed by the position (in the written transitions)
+	 * of each transition in the dictionary of the store.
+	 */
+	private void writePetrinet(AbstractAlignmentStore alignmentStore, PetrinetGraph petrinet) throws IOException {
+		Map<PetrinetNode, Integer> nodeIndexes = new HashMap<PetrinetNode, Integer>();
+
+		output.writeUTF(petrinet.getLabel());
+		output.writeInt(petrinet.getPlaces().size());
+		for (Place place : petrinet.getPlaces()) {
+			nodeIndexes.put(place, nodeIndexes.size());
+			output.writeUTF(place.getLabel());
+		}
+
+		// transitions referenced by moves should belong to the net, but they are kept anyway
+		List<Transition> transitions = new ArrayList<Transition>(petrinet.getTransitions());
+		for (int i = 0; i < alignmentStore.getTransitionsNum(); i++) {
+			if (!petrinet.getTransitions().contains(alignmentStore.getTransition(i)))
+				transitions.add(alignmentStore.getTransition(i));
+		}
+		output.writeInt(transitions.size());
+		for (Transition transition : transitions) {
+			nodeIndexes.put(transition, nodeIndexes.size());
+			output.writeUTF(transition.getLabel());
+			output.writeBoolean(transition.isInvisible());
+		}
+
+		List<Arc> arcs = new ArrayList<Arc>();
+		for (PetrinetEdge<? extends PetrinetNode, ? extends PetrinetNode> edge : petrinet.getEdges()) {
+			if (edge instanceof Arc)
+				arcs.add((Arc) edge);
+		}
+		output.writeInt(arcs.size());
+		for (Arc arc : arcs) {
+			output.writeInt(nodeIndexes.get(arc.getSource()));
+			output.writeInt(nodeIndexes.get(arc.getTarget()));
+			output.writeInt(arc.getWeight());
+		}
+
+		int placesNum = petrinet.getPlaces().size();
+		output.writeInt(alignmentStore.getTransitionsNum());
+		for (int i = 0; i < alignmentStore.getTransitionsNum(); i++)
+			output.writeInt(nodeIndexes.get(alignmentStore.getTransition(i)) - placesNum);
+	}
+
+	private void writeEventClasses(AbstractAlignmentStore alignmentStore) throws IOException {
+		output.writeInt(alignmentStore.getEventClassesNum());
+		for (int i = 0; i < alignmentStore.getEventClassesNum(); i++)
+			output.writeUTF(alignmentStore.getEventClass(i).getId());
+	}
+
+	private void writeTraceAlignmentStatistics(List<TraceAlignmentStatistics> traceAlignmentStatistics)
+			throws IOException {
+
+		if (traceAlignmentStatistics == null) {
+			output.writeInt(0);
+			return;
+		}
+
+		output.writeInt(traceAlignmentStatistics.size());
+		for (TraceAlignmentStatistics traceStatistics : traceAlignmentStatistics) {
+			output.writeInt(traceStatistics.getTracePos());
+			output.writeUTF(traceStatistics.getCaseId());
+			output.writeDouble(traceStatistics.getEncodeTime());
+			output.writeDouble(traceStatistics.getPddlSize());
+			output.writeDouble(traceStatistics.getGroundedActions());
+			output.writeDouble(traceStatistics.getTranslatorTime());
+			output.writeDouble(traceStatistics.getSearchTime());
+			output.writeDouble(traceStatistics.getExpandedStates());
+			output.writeDouble(traceStatistics.getGeneratedStates());
+			output.writeDouble(traceStatistics.getPeakMemory());
+			output.writeDouble(traceStatistics.getPeakRss());
+			output.writeByte(traceStatistics.getSearchStrategy() == null
+					? ReplayResultFormat.NO_SEARCH_STRATEGY : traceStatistics.getSearchStrategy().ordinal());
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
+import org.processmining.planningbasedalignment.utils.CsvUtils;
+
+/**
+ * Export the result of a Planning-based Alignment as a CSV file with a row per aligned trace, reporting cost,
+ * fitness, the number of moves of each type and the per-trace statistics.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class TracesCsvExporter extends AbstractReplayResultExporter {
+
+	/**
+	 * The number of leading fields of {@link TraceAlignmentStatistics} (trace position and case id) that are
+	 * already written by the exporter.
+	 */
+	private static final int STATISTICS_KEY_FIELDS = 2;
+
+	@Override
+	protected String getStageName() {
+		return "Exported alignments (traces)";
+	}
+
+	@Override
+	protected void writeHeader(Writer writer, PlanningBasedReplayResult result) throws IOException {
+		StringBuffer header = new StringBuffer();
+		header.append("trace_pos").append(CSV_SEPARATOR);
+		header.append("case_id").append(CSV_SEPARATOR);
+		header.append("cost").append(CSV_SEPARATOR);
+		header.append("fitness").append(CSV_SEPARATOR);
+		header.append("moves").append(CSV_SEPARATOR);
+		header.append("synchronous_moves").append(CSV_SEPARATOR);
+		header.append("model_moves").append(CSV_SEPARATOR);
+		header.append("log_moves");
+		for (int i = STATISTICS_KEY_FIELDS; i < TraceAlignmentStatistics.FIELD_NAMES.length; i++)
+			header.append(CSV_SEPARATOR).append(TraceAlignmentStatistics.FIELD_NAMES[i]);
+		header.append('\n');
+		writer.write(header.toString());
+	}
+
+	@Override
+	protected void writeAlignment(Writer writer, PlanningBasedReplayResult result, int index) throws IOException {
+		AbstractAlignmentStore alignmentStore = result.getAlignmentStore();
+
+		// count moves by type
+		int movesNum = alignmentStore.getMovesNum(index);
+		int[] movesByType = new int[3];
+		for (int move = 0; move < movesNum; move++)
+			movesByType[alignmentStore.getMoveType(index, move)]++;
+
+		StringBuffer row = new StringBuffer();
+		row.append(alignmentStore.getTracePosition(index)).append(CSV_SEPARATOR);
+		row.append(CsvUtils.quoteValue(alignmentStore.getCaseId(index))).append(CSV_SEPARATOR);
+		row.append(alignmentStore.getCost(index)).append(CSV_SEPARATOR);
+		row.append(alignmentStore.getFitness(index)).append(CSV_SEPARATOR);
+		row.append(movesNum).append(CSV_SEPARATOR);
+		row.append(movesByType[AbstractAlignmentStore.SYNCHRONOUS_MOVE]).append(CSV_SEPARATOR);
+		row.append(movesByType[AbstractAlignmentStore.MODEL_MOVE]).append(CSV_SEPARATOR);
+		row.append(movesByType[AbstractAlignmentStore.LOG_MOVE]);
+
+		// append statistics (leaving cells empty if not available)
+		TraceAlignmentStatistics traceStatistics = result.getTraceAlignmentStatistics(alignmentStore.getCaseId(index));
+		Object[] values = (traceStatistics == null) ? null : traceStatistics.getValues();
+		for (int i = STATISTICS_KEY_FIELDS; i < TraceAlignmentStatistics.FIELD_NAMES.length; i++) {
+			row.append(CSV_SEPARATOR);
+			if (values != null && values[i] != null)
+				row.append(values[i]);
+		}
+		row.append('\n');
+		writer.write(row.toString());
+	}
+
+}
@@ -0,0 +1,393 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.plugins.DataConformance.Alignment;
+import org.processmining.plugins.DataConformance.DataAlignment.GenericTrace;
+import org.processmining.plugins.DataConformance.framework.ExecutionStep;
+import org.processmining.plugins.DataConformance.framework.ExecutionTrace;
+import org.processmining.plugins.DataConformance.visualization.DataAwareStepTypes;
+
+/**
+ * Abstract class that can be extended to provide different ways of storing the moves of a set of alignments. Each
+ * move is represented by a type code and the index of the related transition (or event class) in a dictionary, while
+ * per-alignment data (case id, cost, fitness, trace position) are kept in columns on the heap. The
+ * {@link Alignment} objects needed by the visualizers are materialized on access only, one at a time, sharing a single
+ * (flyweight) {@link ExecutionStep} per transition and per event class.
+ *
+ * The store itself is read-only with respect to the moves, that are appended by subclasses (see
+ * {@link AbstractWritableAlignmentStore}). Once {@link #sortByTracePosition()} is called, alignment indexes follow the
+ * positions of the related traces in the event log.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public abstract class AbstractAlignmentStore {
+
+	public static final byte SYNCHRONOUS_MOVE = 0;
+	public static final byte MODEL_MOVE = 1;
+	public static final byte LOG_MOVE = 2;
+
+	/**
+	 * The size of a move packed in a single int (the index of the transition or event class, followed by the bits of
+	 * the move type), as stored in files.
+	 */
+	public static final int PACKED_MOVE_BYTES = 4;
+	private static final int PACKED_MOVE_TYPE_BITS = 2;
+	private static final int PACKED_MOVE_TYPE_MASK = (1 << PACKED_MOVE_TYPE_BITS) - 1;
+
+	/**
+	 * The number of moves in each segment of a memory-mapped file is 2^MOVES_PER_SEGMENT_BITS.
+	 */
+	protected static final int MOVES_PER_SEGMENT_BITS = 24;
+	protected static final long MOVES_PER_SEGMENT = 1L << MOVES_PER_SEGMENT_BITS;
+
+	private static final int INITIAL_ALIGNMENTS_CAPACITY = 16;
+
+	/**
+	 * The number of moves of the appended alignments.
+	 */
+	protected long movesNum;
+
+	/**
+	 * The offset of the first move of each alignment (with an extra entry marking the end of the last one).
+	 */
+	private long[] alignmentOffsets;
+
+	/**
+	 * The position in the event log of the trace of each alignment (starting from 1).
+	 */
+	private int[] tracePositions;
+
+	/**
+	 * The case id of the trace of each alignment.
+	 */
+	private String[] caseIds;
+
+	/**
+	 * The cost of each alignment.
+	 */
+	private float[] costs;
+
+	/**
+	 * The fitness of each alignment.
+	 */
+	private float[] fitnessValues;
+
+	/**
+	 * The number of stored alignments.
+	 */
+	private int alignmentsNum;
+
+	/**
+	 * The order in which alignments are accessed (null if in insertion order).
+	 */
+	private int[] order;
+
+	/**
+	 * The mapping between case ids and alignment indexes (built on demand, null if not built yet).
+	 */
+	private Map<String, Integer> caseIdIndexes;
+
+	/**
+	 * The dictionary of the transitions, along with their flyweight steps.
+	 */
+	private Map<Transition, Integer> transitionIndexes;
+	private Transition[] transitions;
+	private ExecutionStep[] transitionSteps;
+
+	/**
+	 * The dictionary of the event classes, along with their flyweight steps.
+	 */
+	private Map<XEventClass, Integer> eventClassIndexes;
+	private XEventClass[] eventClasses;
+	private ExecutionStep[] eventClassSteps;
+
+	protected AbstractAlignmentStore() {
+		this.movesNum = 0;
+		this.alignmentOffsets = new long[INITIAL_ALIGNMENTS_CAPACITY + 1];
+		this.tracePositions = new int[INITIAL_ALIGNMENTS_CAPACITY];
+		this.caseIds = new String[INITIAL_ALIGNMENTS_CAPACITY];
+		this.costs = new float[INITIAL_ALIGNMENTS_CAPACITY];
+		this.fitnessValues = new float[INITIAL_ALIGNMENTS_CAPACITY];
+		this.alignmentsNum = 0;
+		this.order = null;
+		this.caseIdIndexes = null;
+		this.transitionIndexes = new HashMap<Transition, Integer>();
+		this.transitions = new Transition[0];
+		this.transitionSteps = new ExecutionStep[0];
+		this.eventClassIndexes = new HashMap<XEventClass, Integer>();
+		this.eventClasses = new XEventClass[0];
+		this.eventClassSteps = new ExecutionStep[0];
+	}
+
+	/**
+	 * @param offset The offset of the move in the underlying storage.
+	 * @return the type of the move
+	 */
+	protected abstract byte loadMoveType(long offset);
+
+	/**
+	 * @param offset The offset of the move in the underlying storage.
+	 * @return the index of the transition or event class of the move
+	 */
+	protected abstract int loadMoveIndex(long offset);
+
+	/**
+	 * Release the resources held by the store. The store cannot be used afterwards.
+	 */
+	public abstract void dispose();
+
+	/**
+	 * Append an alignment whose moves are already in the underlying storage, right after the moves of the last
+	 * appended alignment.
+	 *
+	 * @param tracePos The position of the aligned trace in the event log (starting from 1).
+	 * @param caseId The case id of the aligned trace.
+	 * @param cost The cost of the alignment.
+	 * @param fitness The fitness of the alignment.
+	 * @param alignmentMovesNum The number of moves of the alignment.
+	 * @return The index of the appended alignment.
+	 */
+	protected int appendAlignment(int tracePos, String caseId, float cost, float fitness, int alignmentMovesNum) {
+		ensureAlignmentsCapacity(alignmentsNum + 1);
+		alignmentOffsets[alignmentsNum] = movesNum;
+		tracePositions[alignmentsNum] = tracePos;
+		caseIds[alignmentsNum] = caseId;
+		costs[alignmentsNum] = cost;
+		fitnessValues[alignmentsNum] = fitness;
+		movesNum += alignmentMovesNum;
+		alignmentOffsets[alignmentsNum + 1] = movesNum;
+		order = null;
+		caseIdIndexes = null;
+		return alignmentsNum++;
+	}
+
+	/**
+	 * Make alignment indexes follow the positions of the related traces in the event log.
+	 */
+	public void sortByTracePosition() {
+		long[] keys = new long[alignmentsNum];
+		for (int i = 0; i < alignmentsNum; i++)
+			keys[i] = ((long) tracePositions[i] << 32) | i;
+		Arrays.sort(keys);
+
+		order = new int[alignmentsNum];
+		for (int i = 0; i < alignmentsNum; i++)
+			order[i] = (int) keys[i];
+		caseIdIndexes = null;
+	}
+
+	/**
+	 * Find the alignment of the trace with the given case id.
+	 *
+	 * @param caseId The case id of the aligned trace.
+	 * @return The index of the alignment, or -1 if the trace has not been aligned.
+	 */
+	public synchronized int indexOf(String caseId) {
+		if (caseIdIndexes == null) {
+			caseIdIndexes = new HashMap<String, Integer>(alignmentsNum * 2);
+			for (int i = 0; i < alignmentsNum; i++)
+				caseIdIndexes.put(caseIds[slot(i)], i);
+		}
+		Integer index = caseIdIndexes.get(caseId);
+		return (index == null) ? -1 : index;
+	}
+
+	/**
+	 * Build the {@link Alignment} with the given index, as expected by the visualizers of DataAwareReplayer. The
+	 * alignment is not retained by the store.
+	 *
+	 * @param index The index of the alignment.
+	 * @return The materialized alignment.
+	 */
+	public Alignment getAlignment(int index) {
+		int slot = slot(index);
+		long from = alignmentOffsets[slot];
+		long to = alignmentOffsets[slot + 1];
+
+		ExecutionTrace logTrace = new GenericTrace((int) (to - from), caseIds[slot]);
+		ExecutionTrace modelTrace = new GenericTrace((int) (to - from), caseIds[slot]);
+		List<DataAwareStepTypes> stepTypes = new ArrayList<DataAwareStepTypes>((int) (to - from));
+		for (long move = from; move < to; move++) {
+			int moveIndex = loadMoveIndex(move);
+			switch (loadMoveType(move)) {
+				case SYNCHRONOUS_MOVE :
+					logTrace.add(transitionSteps[moveIndex]);
+					modelTrace.add(transitionSteps[moveIndex]);
+					stepTypes.add(DataAwareStepTypes.LMGOOD);
+					break;
+				case MODEL_MOVE :
+					logTrace.add(ExecutionStep.bottomStep);
+					modelTrace.add(transitionSteps[moveIndex]);
+					stepTypes.add(transitions[moveIndex].isInvisible() ?
+							DataAwareStepTypes.MINVI : DataAwareStepTypes.MREAL);
+					break;
+				case LOG_MOVE :
+					logTrace.add(eventClassSteps[moveIndex]);
+					modelTrace.add(ExecutionStep.bottomStep);
+					stepTypes.add(DataAwareStepTypes.L);
+					break;
+			}
+		}
+
+		return new Alignment(logTrace, modelTrace, fitnessValues[slot], stepTypes);
+	}
+
+	/**
+	 * Pack the given move in a single int.
+	 *
+	 * @param type The type of the move.
+	 * @param index The index of the transition or event class of the move.
+	 * @return The packed move.
+	 */
+	public static int packMove(byte type, int index) {
+		return (index << PACKED_MOVE_TYPE_BITS) | type;
+	}
+
+	/**
+	 * @return the type of the given packed move
+	 */
+	public static byte unpackMoveType(int packedMove) {
+		return (byte) (packedMove & PACKED_MOVE_TYPE_MASK);
+	}
+
+	/**
+	 * @return the index of the transition or event class of the given packed move
+	 */
+	public static int unpackMoveIndex(int packedMove) {
+		return packedMove >>> PACKED_MOVE_TYPE_BITS;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public int size() {
+		return alignmentsNum;
+	}
+
+	public int getTracePosition(int index) {
+		return tracePositions[slot(index)];
+	}
+
+	public String getCaseId(int index) {
+		return caseIds[slot(index)];
+	}
+
+	public float getCost(int index) {
+		return costs[slot(index)];
+	}
+
+	public float getFitness(int index) {
+		return fitnessValues[slot(index)];
+	}
+
+	public void setFitness(int index, float fitness) {
+		fitnessValues[slot(index)] = fitness;
+	}
+
+	public int getMovesNum(int index) {
+		int slot = slot(index);
+		return (int) (alignmentOffsets[slot + 1] - alignmentOffsets[slot]);
+	}
+
+	public byte getMoveType(int index, int move) {
+		return loadMoveType(alignmentOffsets[slot(index)] + move);
+	}
+
+	/**
+	 * @return the index in the dictionary of the transition (or event class) of the given move
+	 */
+	public int getMoveIndex(int index, int move) {
+		return loadMoveIndex(alignmentOffsets[slot(index)] + move);
+	}
+
+	/**
+	 * @return the transition of the given synchronous or model move
+	 */
+	public Transition getMoveTransition(int index, int move) {
+		return transitions[loadMoveIndex(alignmentOffsets[slot(index)] + move)];
+	}
+
+	/**
+	 * @return the event class of the given log move
+	 */
+	public XEventClass getMoveEventClass(int index, int move) {
+		return eventClasses[loadMoveIndex(alignmentOffsets[slot(index)] + move)];
+	}
+
+	public int getTransitionsNum() {
+		return transitions.length;
+	}
+
+	public Transition getTransition(int transitionIndex) {
+		return transitions[transitionIndex];
+	}
+
+	public int getEventClassesNum() {
+		return eventClasses.length;
+	}
+
+	public XEventClass getEventClass(int eventClassIndex) {
+		return eventClasses[eventClassIndex];
+	}
+
+	private int slot(int index) {
+		return (order == null) ? index : order[index];
+	}
+
+	private void ensureAlignmentsCapacity(int capacity) {
+		if (capacity <= tracePositions.length)
+			return;
+
+		int newCapacity = Math.max(capacity, tracePositions.length * 2);
+		alignmentOffsets = Arrays.copyOf(alignmentOffsets, newCapacity + 1);
+		tracePositions = Arrays.copyOf(tracePositions, newCapacity);
+		caseIds = Arrays.copyOf(caseIds, newCapacity);
+		costs = Arrays.copyOf(costs, newCapacity);
+		fitnessValues = Arrays.copyOf(fitnessValues, newCapacity);
+	}
+
+	/**
+	 * Retrieve the index of the given transition in the dictionary, adding it if needed.
+	 */
+	protected int getTransitionIndex(Transition transition) {
+		Integer index = transitionIndexes.get(transition);
+		if (index == null) {
+			index = transitions.length;
+			transitionIndexes.put(transition, index);
+			transitions = Arrays.copyOf(transitions, index + 1);
+			transitions[index] = transition;
+
+			ExecutionStep step = new ExecutionStep(transition.getLabel(), transition);
+			if (transition.isInvisible())
+				step.setInvisible(true);
+			transitionSteps = Arrays.copyOf(transitionSteps, index + 1);
+			transitionSteps[index] = step;
+		}
+		return index;
+	}
+
+	/**
+	 * Retrieve the index of the given event class in the dictionary, adding it if needed.
+	 */
+	protected int getEventClassIndex(XEventClass eventClass) {
+		Integer index = eventClassIndexes.get(eventClass);
+		if (index == null) {
+			index = eventClasses.length;
+			eventClassIndexes.put(eventClass, index);
+			eventClasses = Arrays.copyOf(eventClasses, index + 1);
+			eventClasses[index] = eventClass;
+
+			eventClassSteps = Arrays.copyOf(eventClassSteps, index + 1);
+			eventClassSteps[index] = new ExecutionStep(eventClass.getId(), eventClass);
+		}
+		return index;
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+
+/**
+ * Abstract class that can be extended to provide different ways of storing the moves of a set of alignments that are
+ * computed on the fly. Alignments are appended one at a time, through {@link #beginAlignment(int, String)}, the
+ * add*Move methods and {@link #endAlignment(float)}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public abstract class AbstractWritableAlignmentStore extends AbstractAlignmentStore {
+
+	/**
+	 * The position in the event log of the trace of the alignment being appended.
+	 */
+	private int pendingTracePos;
+
+	/**
+	 * The case id of the trace of the alignment being appended.
+	 */
+	private String pendingCaseId;
+
+	/**
+	 * The number of moves of the alignment being appended.
+	 */
+	private int pendingMovesNum;
+
+	protected AbstractWritableAlignmentStore() {
+		super();
+		this.pendingMovesNum = 0;
+	}
+
+	/**
+	 * Write a move to the underlying storage.
+	 *
+	 * @param offset The offset of the move in the underlying storage.
+	 * @param type The type of the move.
+	 * @param index The index of the transition or event class of the move.
+	 */
+	protected abstract void storeMove(long offset, byte type, int index);
+
+	/**
+	 * Start appending a new alignment.
+	 *
+	 * @param tracePos The position of the aligned trace in the event log (starting from 1).
+	 * @param caseId The case id of the aligned trace.
+	 */
+	public void beginAlignment(int tracePos, String caseId) {
+		pendingTracePos = tracePos;
+		pendingCaseId = caseId;
+		pendingMovesNum = 0;
+	}
+
+	/**
+	 * Complete the alignment being appended.
+	 *
+	 * @param cost The cost of the alignment.
+	 * @return The index of the appended alignment.
+	 */
+	public int endAlignment(float cost) {
+		int index = appendAlignment(pendingTracePos, pendingCaseId, cost, 0, pendingMovesNum);
+		pendingCaseId = null;
+		pendingMovesNum = 0;
+		return index;
+	}
+
+	public void addSynchronousMove(Transition transition) {
+		addMove(SYNCHRONOUS_MOVE, getTransitionIndex(transition));
+	}
+
+	public void addModelMove(Transition transition) {
+		addMove(MODEL_MOVE, getTransitionIndex(transition));
+	}
+
+	public void addLogMove(XEventClass eventClass) {
+		addMove(LOG_MOVE, getEventClassIndex(eventClass));
+	}
+
+	private void addMove(byte type, int index) {
+		storeMove(movesNum + pendingMovesNum, type, index);
+		pendingMovesNum++;
+	}
+
+}
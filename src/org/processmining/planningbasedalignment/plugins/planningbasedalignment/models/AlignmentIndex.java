@@ -0,0 +1,184 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.google.common.base.Predicate;
+
+/**
+ * An inverted index from the activities (transitions and event classes) of a set of alignments to the alignments
+ * containing them, split by move type. For each move type and each transition (or event class) in the dictionary of
+ * the {@link AbstractAlignmentStore}, the index keeps the sorted list of the indexes of the alignments having at
+ * least one such move. The index is built with two passes over the store and is read-only afterwards.
+ *
+ * Alignment indexes refer to the order of the store at building time, so the index has to be built after the store
+ * is complete.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class AlignmentIndex {
+
+	private static final byte[] ALL_MOVE_TYPES = {
+			AbstractAlignmentStore.SYNCHRONOUS_MOVE, AbstractAlignmentStore.MODEL_MOVE, AbstractAlignmentStore.LOG_MOVE };
+
+	/**
+	 * The number of indexed alignments.
+	 */
+	private final int alignmentsNum;
+
+	/**
+	 * The posting lists, by move type and by index of the transition (or event class) in the store dictionary.
+	 */
+	private final int[][][] postings;
+
+	/**
+	 * The indexes of the transitions and of the event classes having each activity name.
+	 */
+	private final Map<String, int[]> transitionsByActivity;
+	private final Map<String, int[]> eventClassesByActivity;
+
+	/**
+	 * Build the index of the alignments in the given store.
+	 *
+	 * @param alignmentStore The store of the alignments.
+	 */
+	public AlignmentIndex(AbstractAlignmentStore alignmentStore) {
+		this.alignmentsNum = alignmentStore.size();
+		int[] keysNum = new int[ALL_MOVE_TYPES.length];
+		keysNum[AbstractAlignmentStore.SYNCHRONOUS_MOVE] = alignmentStore.getTransitionsNum();
+		keysNum[AbstractAlignmentStore.MODEL_MOVE] = alignmentStore.getTransitionsNum();
+		keysNum[AbstractAlignmentStore.LOG_MOVE] = alignmentStore.getEventClassesNum();
+
+		// first pass: count the alignments containing each key (once per alignment)
+		int[][] counts = new int[ALL_MOVE_TYPES.length][];
+		int[][] lastSeen = new int[ALL_MOVE_TYPES.length][];
+		for (byte type : ALL_MOVE_TYPES) {
+			counts[type] = new int[keysNum[type]];
+			lastSeen[type] = new int[keysNum[type]];
+			Arrays.fill(lastSeen[type], -1);
+		}
+		for (int i = 0; i < alignmentsNum; i++) {
+			for (int move = 0; move < alignmentStore.getMovesNum(i); move++) {
+				byte type = alignmentStore.getMoveType(i, move);
+				int key = alignmentStore.getMoveIndex(i, move);
+				if (lastSeen[type][key] != i) {
+					lastSeen[type][key] = i;
+					counts[type][key]++;
+				}
+			}
+		}
+
+		// second pass: fill the posting lists (alignment indexes come in increasing order)
+		this.postings = new int[ALL_MOVE_TYPES.length][][];
+		int[][] filled = new int[ALL_MOVE_TYPES.length][];
+		for (byte type : ALL_MOVE_TYPES) {
+			postings[type] = new int[keysNum[type]][];
+			for (int key = 0; key < keysNum[type]; key++)
+				postings[type][key] = new int[counts[type][key]];
+			filled[type] = new int[keysNum[type]];
+			Arrays.fill(lastSeen[type], -1);
+		}
+		for (int i = 0; i < alignmentsNum; i++) {
+			for (int move = 0; move < alignmentStore.getMovesNum(i); move++) {
+				byte type = alignmentStore.getMoveType(i, move);
+				int key = alignmentStore.getMoveIndex(i, move);
+				if (lastSeen[type][key] != i) {
+					lastSeen[type][key] = i;
+					postings[type][key][filled[type][key]++] = i;
+				}
+			}
+		}
+
+		// map activity names to keys
+		Map<String, int[]> transitionsByActivity = new HashMap<String, int[]>();
+		for (int key = 0; key < alignmentStore.getTransitionsNum(); key++)
+			appendKey(transitionsByActivity, alignmentStore.getTransition(key).getLabel(), key);
+		Map<String, int[]> eventClassesByActivity = new HashMap<String, int[]>();
+		for (int key = 0; key < alignmentStore.getEventClassesNum(); key++)
+			appendKey(eventClassesByActivity, alignmentStore.getEventClass(key).getId(), key);
+		this.transitionsByActivity = transitionsByActivity;
+		this.eventClassesByActivity = eventClassesByActivity;
+	}
+
+	/**
+	 * Find the alignments having at least a move of one of the given types on the given activity.
+	 *
+	 * @param activity The name of the activity (the label of a transition or the id of an event class).
+	 * @param moveTypes The move types to consider (all, if none is given).
+	 * @return The set of the indexes of the alignments in the store.
+	 */
+	public BitSet getAlignments(String activity, byte... moveTypes) {
+		BitSet result = new BitSet(alignmentsNum);
+		addAlignments(result, activity, moveTypes);
+		return result;
+	}
+
+	/**
+	 * Find the alignments having at least a move of one of the given types on an activity satisfying the given
+	 * predicate.
+	 *
+	 * @param activityPredicate The predicate on the names of the activities.
+	 * @param moveTypes The move types to consider (all, if none is given).
+	 * @return The set of the indexes of the alignments in the store.
+	 */
+	public BitSet getAlignments(Predicate<String> activityPredicate, byte... moveTypes) {
+		BitSet result = new BitSet(alignmentsNum);
+		for (String activity : getActivities()) {
+			if (activityPredicate.apply(activity))
+				addAlignments(result, activity, moveTypes);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the names of all the indexed activities
+	 */
+	public Set<String> getActivities() {
+		Set<String> activities = new TreeSet<String>(transitionsByActivity.keySet());
+		activities.addAll(eventClassesByActivity.keySet());
+		return Collections.unmodifiableSet(activities);
+	}
+
+	/**
+	 * @return the number of indexed alignments
+	 */
+	public int size() {
+		return alignmentsNum;
+	}
+
+	private void addAlignments(BitSet result, String activity, byte... moveTypes) {
+		if (moveTypes.length == 0)
+			moveTypes = ALL_MOVE_TYPES;
+
+		for (byte type : moveTypes) {
+			int[] keys = (type == AbstractAlignmentStore.LOG_MOVE) ?
+					eventClassesByActivity.get(activity) : transitionsByActivity.get(activity);
+			if (keys == null)
+				continue;
+			for (int key : keys) {
+				for (int alignment : postings[type][key])
+					result.set(alignment);
+			}
+		}
+	}
+
+	private static void appendKey(Map<String, int[]> keysByActivity, String activity, int key) {
+		if (activity == null)
+			return;
+		int[] keys = keysByActivity.get(activity);
+		if (keys == null) {
+			keys = new int[] { key };
+		} else {
+			keys = Arrays.copyOf(keys, keys.length + 1);
+			keys[keys.length - 1] = key;
+		}
+		keysByActivity.put(activity, keys);
+	}
+
+}
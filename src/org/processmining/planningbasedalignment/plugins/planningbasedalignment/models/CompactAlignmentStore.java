@@ -0,0 +1,62 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import java.util.Arrays;
+
+/**
+ * A compact, columnar representation of a set of alignments, whose moves are kept on the heap in shared primitive
+ * arrays.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class CompactAlignmentStore extends AbstractWritableAlignmentStore {
+
+	private static final int INITIAL_MOVES_CAPACITY = 256;
+
+	/**
+	 * The type of each move.
+	 */
+	private byte[] moveTypes;
+
+	/**
+	 * The index of the transition (synchronous and model moves) or event class (log moves) of each move.
+	 */
+	private int[] moveIndexes;
+
+	public CompactAlignmentStore() {
+		super();
+		this.moveTypes = new byte[INITIAL_MOVES_CAPACITY];
+		this.moveIndexes = new int[INITIAL_MOVES_CAPACITY];
+	}
+
+	@Override
+	protected void storeMove(long offset, byte type, int index) {
+		if (offset >= moveTypes.length) {
+			if (offset >= Integer.MAX_VALUE / 2)
+				throw new IllegalStateException("Too many moves to be kept on the heap.");
+
+			int capacity = moveTypes.length * 2;
+			moveTypes = Arrays.copyOf(moveTypes, capacity);
+			moveIndexes = Arrays.copyOf(moveIndexes, capacity);
+		}
+		moveTypes[(int) offset] = type;
+		moveIndexes[(int) offset] = index;
+	}
+
+	@Override
+	protected byte loadMoveType(long offset) {
+		return moveTypes[(int) offset];
+	}
+
+	@Override
+	protected int loadMoveIndex(long offset) {
+		return moveIndexes[(int) offset];
+	}
+
+	@Override
+	public void dispose() {
+		moveTypes = null;
+		moveIndexes = null;
+	}
+
+}
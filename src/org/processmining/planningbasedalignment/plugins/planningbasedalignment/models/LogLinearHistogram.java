@@ -0,0 +1,240 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A mergeable histogram with log-linear buckets (in the style of HDR histograms), used to estimate the percentiles
+ * of the statistics of an alignment run. Values are scaled to longs and, above the linear range, each power of two
+ * is split in a fixed number of sub-buckets, so that the relative error of any estimate is below 1/64.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class LogLinearHistogram {
+
+	public static final int TIME_SCALE = 1000;
+	public static final int COUNT_SCALE = 1;
+	public static final double[] REPORTED_PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+	private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+	private static final String CSV_SEPARATOR = ",";
+
+	/**
+	 * The number of units each recorded value is multiplied by before being bucketed (e.g. 1000 to keep the
+	 * microseconds of a time expressed in milliseconds).
+	 */
+	private final int scale;
+
+	/**
+	 * The number of values falling in each bucket.
+	 */
+	private final long[] counts;
+
+	/**
+	 * The number of values recorded.
+	 */
+	private long totalCount;
+
+	/**
+	 * The number of negative values (e.g. overflows reported by the planner) that have been discarded.
+	 */
+	private long discardedCount;
+
+	/**
+	 * The minimum (scaled) value recorded.
+	 */
+	private long min;
+
+	/**
+	 * The maximum (scaled) value recorded.
+	 */
+	private long max;
+
+	public LogLinearHistogram(int scale) {
+		if (scale <= 0)
+			throw new IllegalArgumentException("The scale of the histogram must be positive.");
+		this.scale = scale;
+		this.counts = new long[BUCKETS];
+		this.totalCount = 0;
+		this.discardedCount = 0;
+		this.min = Long.MAX_VALUE;
+		this.max = 0;
+	}
+
+	/**
+	 * Record the given value.
+	 *
+	 * @param value The value to be recorded (negative values are discarded).
+	 */
+	public synchronized void recordValue(double value) {
+		if (value < 0 || Double.isNaN(value)) {
+			discardedCount++;
+			return;
+		}
+
+		long scaledValue = Math.round(value * scale);
+		if (scaledValue < 0)
+			scaledValue = Long.MAX_VALUE;
+
+		counts[getBucketIndex(scaledValue)]++;
+		totalCount++;
+		min = Math.min(min, scaledValue);
+		max = Math.max(max, scaledValue);
+	}
+
+	/**
+	 * Add all the values recorded by the given histogram to this one. The given histogram is copied under its own lock
+	 * before this one is locked, so that two histograms can be merged into each other concurrently without deadlocks.
+	 *
+	 * @param other The histogram to be merged (it must have the same scale).
+	 */
+	public void merge(LogLinearHistogram other) {
+		if (other.scale != scale)
+			throw new IllegalArgumentException("Cannot merge histograms with different scales.");
+
+		long[] otherCounts;
+		long otherTotalCount;
+		long otherDiscardedCount;
+		long otherMin;
+		long otherMax;
+		synchronized (other) {
+			otherCounts = other.counts.clone();
+			otherTotalCount = other.totalCount;
+			otherDiscardedCount = other.discardedCount;
+			otherMin = other.min;
+			otherMax = other.max;
+		}
+
+		synchronized (this) {
+			for (int i = 0; i < BUCKETS; i++)
+				counts[i] += otherCounts[i];
+			totalCount += otherTotalCount;
+			discardedCount += otherDiscardedCount;
+			min = Math.min(min, otherMin);
+			max = Math.max(max, otherMax);
+		}
+	}
+
+	/**
+	 * Estimate the value below which the given percentage of the recorded values fall.
+	 *
+	 * @param percentile The percentile (between 0 and 100).
+	 * @return The estimated value, or {@link Double#NaN} if no value has been recorded.
+	 */
+	public synchronized double getValueAtPercentile(double percentile) {
+		if (totalCount == 0)
+			return Double.NaN;
+
+		double boundedPercentile = Math.max(0, Math.min(100, percentile));
+		long rank = Math.max(1, (long) Math.ceil(boundedPercentile / 100 * totalCount));
+		long cumulativeCount = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulativeCount += counts[i];
+			if (cumulativeCount >= rank) {
+				// take the middle of the bucket, bounded by the exact extremes
+				long lowerBound = getBucketLowerBound(i);
+				long upperBound = getBucketUpperBound(i);
+				long value = Math.max(min, Math.min(max, lowerBound + (upperBound - lowerBound) / 2));
+				return (double) value / scale;
+			}
+		}
+		return (double) max / scale;
+	}
+
+	/**
+	 * Write the non-empty buckets of the histogram as CSV rows.
+	 *
+	 * @param writer The writer to be used.
+	 * @param name The name identifying the histogram in the first column.
+	 * @throws IOException
+	 */
+	public synchronized void writeCsvRows(Writer writer, String name) throws IOException {
+		long cumulativeCount = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			if (counts[i] == 0)
+				continue;
+
+			cumulativeCount += counts[i];
+			StringBuffer row = new StringBuffer();
+			row.append(name).append(CSV_SEPARATOR);
+			row.append((double) getBucketLowerBound(i) / scale).append(CSV_SEPARATOR);
+			row.append((double) getBucketUpperBound(i) / scale).append(CSV_SEPARATOR);
+			row.append(counts[i]).append(CSV_SEPARATOR);
+			row.append(100.0 * cumulativeCount / totalCount).append('\n');
+			writer.write(row.toString());
+		}
+	}
+
+	/**
+	 * @return the header of the rows written by {@link #writeCsvRows(Writer, String)}
+	 */
+	public static String getCsvHeader() {
+		return "histogram" + CSV_SEPARATOR + "lower_bound" + CSV_SEPARATOR + "upper_bound" + CSV_SEPARATOR
+				+ "count" + CSV_SEPARATOR + "cumulative_percentage\n";
+	}
+
+	/**
+	 * Compute the bucket of the given (scaled) value. Values below the number of sub-buckets are kept exactly,
+	 * whereas larger values are bucketed according to their most significant bits.
+	 */
+	static int getBucketIndex(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+
+		int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+		int subBucket = (int) (value >>> shift);
+		return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (subBucket - HALF_SUB_BUCKETS);
+	}
+
+	static long getBucketLowerBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+
+		int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+		long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+		return subBucket << shift;
+	}
+
+	static long getBucketUpperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+
+		int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+		long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+		long upperBound = ((subBucket + 1) << shift) - 1;
+		return upperBound < 0 ? Long.MAX_VALUE : upperBound;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public int getScale() {
+		return scale;
+	}
+
+	public synchronized long getTotalCount() {
+		return totalCount;
+	}
+
+	public synchronized long getDiscardedCount() {
+		return discardedCount;
+	}
+
+	public synchronized double getMin() {
+		return totalCount == 0 ? Double.NaN : (double) min / scale;
+	}
+
+	public synchronized double getMax() {
+		return totalCount == 0 ? Double.NaN : (double) max / scale;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "LogLinearHistogram [scale=" + scale + ", totalCount=" + totalCount + ", discardedCount="
+				+ discardedCount + ", min=" + getMin() + ", max=" + getMax() + "]";
+	}
+
+}
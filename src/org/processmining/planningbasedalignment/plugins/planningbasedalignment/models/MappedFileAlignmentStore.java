@@ -0,0 +1,112 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A representation of a set of alignments whose moves are spilled to a memory-mapped file, so that they do not take
+ * room on the heap. Each move is packed in a single int (see {@link #packMove(byte, int)}), and the file is mapped in
+ * fixed-size segments as it grows.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class MappedFileAlignmentStore extends AbstractWritableAlignmentStore {
+
+	private static final String FILE_PREFIX = "alignments_";
+	private static final String FILE_SUFFIX = ".bin";
+	private static final long SEGMENT_BYTES = MOVES_PER_SEGMENT * PACKED_MOVE_BYTES;
+
+	/**
+	 * The file backing the store.
+	 */
+	private File file;
+
+	/**
+	 * The random access handle to the file.
+	 */
+	private RandomAccessFile randomAccessFile;
+
+	/**
+	 * The mapped segments of the file.
+	 */
+	private List<MappedByteBuffer> segments;
+
+	/**
+	 * Create a store backed by a new temporary file in the given directory.
+	 *
+	 * @param directory The directory where to create the file (if null, the default temporary directory is used).
+	 * @throws IOException
+	 */
+	public MappedFileAlignmentStore(File directory) throws IOException {
+		super();
+		this.file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, directory);
+		this.file.deleteOnExit();
+		this.randomAccessFile = new RandomAccessFile(file, "rw");
+		this.segments = new ArrayList<MappedByteBuffer>();
+	}
+
+	@Override
+	protected void storeMove(long offset, byte type, int index) {
+		int segment = (int) (offset >>> MOVES_PER_SEGMENT_BITS);
+		if (segment == segments.size())
+			mapSegment(segment);
+
+		int position = (int) (offset & (MOVES_PER_SEGMENT - 1)) * PACKED_MOVE_BYTES;
+		segments.get(segment).putInt(position, packMove(type, index));
+	}
+
+	@Override
+	protected byte loadMoveType(long offset) {
+		return unpackMoveType(loadMove(offset));
+	}
+
+	@Override
+	protected int loadMoveIndex(long offset) {
+		return unpackMoveIndex(loadMove(offset));
+	}
+
+	@Override
+	public void dispose() {
+		segments.clear();
+		try {
+			randomAccessFile.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		FileUtils.deleteQuietly(file);
+	}
+
+	private int loadMove(long offset) {
+		int segment = (int) (offset >>> MOVES_PER_SEGMENT_BITS);
+		int position = (int) (offset & (MOVES_PER_SEGMENT - 1)) * PACKED_MOVE_BYTES;
+		return segments.get(segment).getInt(position);
+	}
+
+	/**
+	 * Map a new segment at the end of the file (growing it).
+	 */
+	private void mapSegment(int segment) {
+		try {
+			MappedByteBuffer buffer = randomAccessFile.getChannel().map(
+					MapMode.READ_WRITE, segment * SEGMENT_BYTES, SEGMENT_BYTES);
+			segments.add(buffer);
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot map the alignments file " + file.getAbsolutePath(), e);
+		}
+	}
+
+	/* GETTERS & SETTERS */
+
+	public File getFile() {
+		return file;
+	}
+
+}
@@ -0,0 +1,145 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.processmining.models.graphbased.directed.petrinet.PetrinetGraph;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.plugins.connectionfactories.logpetrinet.TransEvClassMapping;
+
+/**
+ * The number of synchronous and model moves on each transition of a Petri net, and of log moves on each activity of
+ * the net, over a set of alignments. Counters are kept in primitive arrays, so that they can be updated while
+ * alignments are parsed.
+ * 
+ * Log moves are counted on the activity of the transitions their event class is mapped to, since the id of an event
+ * class depends on the classifier (e.g. "A+complete") and does not need to match any transition label.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class MoveCounters {
+
+	public static final int SYNCHRONOUS_MOVES = 0;
+	public static final int LOG_MOVES = 1;
+	public static final int MODEL_MOVES = 2;
+
+	/**
+	 * The transitions of the net, along with their counters.
+	 */
+	private final Map<Transition, Integer> transitionIndexes;
+	private final Transition[] transitions;
+	private final int[] synchronousMoves;
+	private final int[] modelMoves;
+
+	/**
+	 * The activities (i.e. the transition labels) of the net, along with their log moves counters.
+	 */
+	private final Map<String, Integer> activityIndexes;
+	private final int[] logMoves;
+
+	/**
+	 * The activity index of each event class mapped to a visible transition.
+	 */
+	private final Map<XEventClass, Integer> eventClassActivityIndexes;
+
+	/**
+	 * @param petrinet The Petri net the alignments refer to.
+	 * @param mapping The mapping between the transitions of the net and the event classes, or null if not available
+	 * (in which case, log moves are counted on the activity having the id of their event class as label).
+	 */
+	public MoveCounters(PetrinetGraph petrinet, TransEvClassMapping mapping) {
+		this.transitionIndexes = new HashMap<Transition, Integer>();
+		this.transitions = petrinet.getTransitions().toArray(new Transition[0]);
+		this.activityIndexes = new HashMap<String, Integer>();
+		for (int i = 0; i < transitions.length; i++) {
+			transitionIndexes.put(transitions[i], i);
+			if (!activityIndexes.containsKey(transitions[i].getLabel()))
+				activityIndexes.put(transitions[i].getLabel(), activityIndexes.size());
+		}
+		this.synchronousMoves = new int[transitions.length];
+		this.modelMoves = new int[transitions.length];
+		this.logMoves = new int[activityIndexes.size()];
+
+		this.eventClassActivityIndexes = new HashMap<XEventClass, Integer>();
+		if (mapping != null) {
+			for (Map.Entry<Transition, XEventClass> entry : mapping.entrySet()) {
+				Integer activityIndex = activityIndexes.get(entry.getKey().getLabel());
+				if (activityIndex != null && !entry.getKey().isInvisible()
+						&& !entry.getValue().equals(mapping.getDummyEventClass()))
+					eventClassActivityIndexes.put(entry.getValue(), activityIndex);
+			}
+		}
+	}
+
+	/**
+	 * Build the counters of the alignments in the given store.
+	 *
+	 * @param petrinet The Petri net the alignments refer to.
+	 * @param mapping The mapping between the transitions of the net and the event classes, or null if not available.
+	 * @param alignmentStore The store of the alignments.
+	 */
+	public MoveCounters(PetrinetGraph petrinet, TransEvClassMapping mapping, AbstractAlignmentStore alignmentStore) {
+		this(petrinet, mapping);
+		for (int i = 0; i < alignmentStore.size(); i++) {
+			for (int move = 0; move < alignmentStore.getMovesNum(i); move++) {
+				switch (alignmentStore.getMoveType(i, move)) {
+					case AbstractAlignmentStore.SYNCHRONOUS_MOVE :
+						addSynchronousMove(alignmentStore.getMoveTransition(i, move));
+						break;
+					case AbstractAlignmentStore.MODEL_MOVE :
+						addModelMove(alignmentStore.getMoveTransition(i, move));
+						break;
+					default :
+						addLogMove(alignmentStore.getMoveEventClass(i, move));
+				}
+			}
+		}
+	}
+
+	public synchronized void addSynchronousMove(Transition transition) {
+		Integer index = transitionIndexes.get(transition);
+		if (index != null)
+			synchronousMoves[index]++;
+	}
+
+	public synchronized void addModelMove(Transition transition) {
+		Integer index = transitionIndexes.get(transition);
+		if (index != null)
+			modelMoves[index]++;
+	}
+
+	/**
+	 * Count a log move on the activity the given event class is mapped to. Moves on event classes that cannot be
+	 * related to any activity of the net are not counted, as they cannot be projected on it.
+	 */
+	public synchronized void addLogMove(XEventClass eventClass) {
+		Integer index = eventClassActivityIndexes.get(eventClass);
+		if (index == null)
+			index = activityIndexes.get(eventClass.getId());
+		if (index != null)
+			logMoves[index]++;
+	}
+
+	/**
+	 * Count the moves on the given activity, summing over the transitions labeled with it.
+	 *
+	 * @param activity The name of the activity.
+	 * @return The counters, indexed by {@link #SYNCHRONOUS_MOVES}, {@link #LOG_MOVES} and {@link #MODEL_MOVES}.
+	 */
+	public synchronized int[] getCounts(String activity) {
+		int[] counts = new int[3];
+		for (int i = 0; i < transitions.length; i++) {
+			if (activity.equals(transitions[i].getLabel())) {
+				counts[SYNCHRONOUS_MOVES] += synchronousMoves[i];
+				counts[MODEL_MOVES] += modelMoves[i];
+			}
+		}
+		Integer index = activityIndexes.get(activity);
+		if (index != null)
+			counts[LOG_MOVES] = logMoves[index];
+		return counts;
+	}
+
+}
@@ -1,12 +1,17 @@
 package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
 
+import java.util.AbstractList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.deckfour.xes.classification.XEventClassifier;
 import org.deckfour.xes.model.XLog;
 import org.processmining.models.graphbased.directed.petrinet.PetrinetGraph;
+import org.processmining.plugins.DataConformance.Alignment;
 import org.processmining.plugins.DataConformance.ResultReplay;
 import org.processmining.plugins.DataConformance.DataAlignment.DataAlignmentState;
 import org.processmining.plugins.DataConformance.framework.ReplayState;
@@ -16,6 +21,10 @@ import org.processmining.plugins.DataConformance.framework.VariableMatchCosts;
  * A class to represent the result of a Planning-based Alignment. It extends {@link ResultReplay} in order to be
  * compatible with the visualizations defined in DataAwareReplayer package.
  * 
+ * When the result is backed by an alignment store, the alignments are not handed to {@link ResultReplay}: they are
+ * read from the store by index, and materialized as {@link Alignment} objects only while they are accessed. The store
+ * is released by {@link #dispose()}, or once the result is garbage collected.
+ * 
  * @author Giacomo Lanciano
  *
  */
@@ -41,6 +50,41 @@ public class PlanningBasedReplayResult extends ResultReplay {
 	 */
 	private SummaryStatistics generatedStatesSummary;
 	
+	/**
+	 * The histograms of the statistics of the alignment run, for each phase (used to estimate percentiles).
+	 */
+	private LogLinearHistogram preprocessingTimeHistogram;
+	private LogLinearHistogram translatorTimeHistogram;
+	private LogLinearHistogram alignmentTimeHistogram;
+	private LogLinearHistogram expandedStatesHistogram;
+	private LogLinearHistogram generatedStatesHistogram;
+	
+	/**
+	 * The statistics reported by the planner for each aligned trace.
+	 */
+	private List<TraceAlignmentStatistics> traceAlignmentStatistics;
+	
+	/**
+	 * The mapping between the case id of each aligned trace and its statistics.
+	 */
+	private Map<String, TraceAlignmentStatistics> caseIdToTraceStatisticsMapping;
+	
+	/**
+	 * The compact representation of the alignments, backing the result (null if the result has been built out of
+	 * alignment objects).
+	 */
+	private AbstractAlignmentStore alignmentStore;
+	
+	/**
+	 * The inverted index from activities to the alignments in the store (built on demand).
+	 */
+	private AlignmentIndex alignmentIndex;
+	
+	/**
+	 * The counters of the moves on each transition and event class (built on demand, if not set).
+	 */
+	private MoveCounters moveCounters;
+	
 	public PlanningBasedReplayResult(
 			Collection<? extends DataAlignmentState> alignments, XEventClassifier classifier, XLog log,
 			PetrinetGraph petrinet) {
@@ -64,6 +108,70 @@ public class PlanningBasedReplayResult extends ResultReplay {
 		this.generatedStatesSummary = generatedStatesSummary;
 	}
 	
+	public PlanningBasedReplayResult(
+			AbstractAlignmentStore alignmentStore, XEventClassifier classifier, XLog log, PetrinetGraph petrinet) {
+		
+		this(Collections.<DataAlignmentState>emptyList(), classifier, log, petrinet);
+		this.alignmentStore = alignmentStore;
+	}
+	
+	/**
+	 * Retrieve the alignments. If the result is backed by an alignment store, the returned list is a view of the
+	 * store, materializing each alignment when it is accessed (without retaining it).
+	 */
+	@Override
+	public Collection<Alignment> getAlignments() {
+		if (alignmentStore == null)
+			return super.getAlignments();
+		
+		return new AbstractList<Alignment>() {
+
+			@Override
+			public Alignment get(int index) {
+				return alignmentStore.getAlignment(index);
+			}
+
+			@Override
+			public int size() {
+				return alignmentStore.size();
+			}
+		};
+	}
+	
+	/**
+	 * Retrieve the alignment of the trace with the given case id.
+	 */
+	@Override
+	public Alignment getAlignmentByTraceName(String traceName) {
+		if (alignmentStore == null)
+			return super.getAlignmentByTraceName(traceName);
+		
+		int index = alignmentStore.indexOf(traceName);
+		return (index < 0) ? null : alignmentStore.getAlignment(index);
+	}
+	
+	/**
+	 * Release the resources held by the alignment store backing the result (e.g. the file where the alignments are
+	 * spilled to), if any. The alignments cannot be accessed afterwards.
+	 */
+	public synchronized void dispose() {
+		if (alignmentStore != null)
+			alignmentStore.dispose();
+	}
+	
+	/**
+	 * Release the alignment store when the result is garbage collected (e.g. once it has been removed from the
+	 * workspace), in case it has not been disposed explicitly.
+	 */
+	@Override
+	protected void finalize() throws Throwable {
+		try {
+			dispose();
+		} finally {
+			super.finalize();
+		}
+	}
+	
 	/**
 	 * Extract and return the control flow fitness of the aligned trace.
 	 */
@@ -102,4 +210,99 @@ public class PlanningBasedReplayResult extends ResultReplay {
 		this.generatedStatesSummary = generatedStatesSummary;
 	}
 
+	public LogLinearHistogram getPreprocessingTimeHistogram() {
+		return preprocessingTimeHistogram;
+	}
+
+	public void setPreprocessingTimeHistogram(LogLinearHistogram preprocessingTimeHistogram) {
+		this.preprocessingTimeHistogram = preprocessingTimeHistogram;
+	}
+
+	public LogLinearHistogram getTranslatorTimeHistogram() {
+		return translatorTimeHistogram;
+	}
+
+	public void setTranslatorTimeHistogram(LogLinearHistogram translatorTimeHistogram) {
+		this.translatorTimeHistogram = translatorTimeHistogram;
+	}
+
+	public LogLinearHistogram getAlignmentTimeHistogram() {
+		return alignmentTimeHistogram;
+	}
+
+	public void setAlignmentTimeHistogram(LogLinearHistogram alignmentTimeHistogram) {
+		this.alignmentTimeHistogram = alignmentTimeHistogram;
+	}
+
+	public LogLinearHistogram getExpandedStatesHistogram() {
+		return expandedStatesHistogram;
+	}
+
+	public void setExpandedStatesHistogram(LogLinearHistogram expandedStatesHistogram) {
+		this.expandedStatesHistogram = expandedStatesHistogram;
+	}
+
+	public LogLinearHistogram getGeneratedStatesHistogram() {
+		return generatedStatesHistogram;
+	}
+
+	public void setGeneratedStatesHistogram(LogLinearHistogram generatedStatesHistogram) {
+		this.generatedStatesHistogram = generatedStatesHistogram;
+	}
+
+	public AbstractAlignmentStore getAlignmentStore() {
+		return alignmentStore;
+	}
+
+	/**
+	 * Retrieve the inverted index from activities to alignments, building it on first access.
+	 * 
+	 * @return The index, or null if the result has been built out of alignment objects.
+	 */
+	public synchronized AlignmentIndex getAlignmentIndex() {
+		if (alignmentIndex == null && alignmentStore != null)
+			alignmentIndex = new AlignmentIndex(alignmentStore);
+		return alignmentIndex;
+	}
+
+	/**
+	 * Retrieve the counters of the moves on each transition and activity, building them out of the alignment store
+	 * if they have not been collected while parsing (since the mapping between transitions and event classes is not
+	 * available in that case, log moves are counted on the activities labeled with the ids of their event classes).
+	 * 
+	 * @return The counters, or null if the result has been built out of alignment objects.
+	 */
+	public synchronized MoveCounters getMoveCounters() {
+		if (moveCounters == null && alignmentStore != null)
+			moveCounters = new MoveCounters(petrinet, null, alignmentStore);
+		return moveCounters;
+	}
+
+	public synchronized void setMoveCounters(MoveCounters moveCounters) {
+		this.moveCounters = moveCounters;
+	}
+
+	public List<TraceAlignmentStatistics> getTraceAlignmentStatistics() {
+		return traceAlignmentStatistics;
+	}
+
+	public void setTraceAlignmentStatistics(List<TraceAlignmentStatistics> traceAlignmentStatistics) {
+		this.traceAlignmentStatistics = traceAlignmentStatistics;
+		this.caseIdToTraceStatisticsMapping = new HashMap<String, TraceAlignmentStatistics>();
+		for (TraceAlignmentStatistics traceStatistics : traceAlignmentStatistics)
+			caseIdToTraceStatisticsMapping.put(traceStatistics.getCaseId(), traceStatistics);
+	}
+
+	/**
+	 * Retrieve the statistics about the alignment of the trace with the given case id.
+	 * 
+	 * @param caseId The case id of the trace.
+	 * @return The statistics, or null if they are not available.
+	 */
+	public TraceAlignmentStatistics getTraceAlignmentStatistics(String caseId) {
+		if (caseIdToTraceStatisticsMapping == null)
+			return null;
+		return caseIdToTraceStatisticsMapping.get(caseId);
+	}
+
 }
@@ -0,0 +1,237 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import org.processmining.planningbasedalignment.utils.CsvUtils;
+
+/**
+ * The performance record of the alignment of a single trace, collected while encoding the trace and while the
+ * planner was searching for its alignment.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class TraceAlignmentStatistics {
+
+	public static final double NOT_AVAILABLE = -1;
+	public static final String[] FIELD_NAMES = { "trace_pos", "case_id", "encode_time_ms", "pddl_size_bytes",
+			"grounded_actions", "translator_time_ms", "search_time_ms", "expanded_states", "generated_states",
+			"peak_memory_kb", "peak_rss_kb", "search_strategy" };
+
+	/**
+	 * The position of the trace in the event log (starting from 1).
+	 */
+	private int tracePos;
+
+	/**
+	 * The case id of the trace.
+	 */
+	private String caseId;
+
+	/**
+	 * The time spent to produce the PDDL encoding of the trace (in milliseconds).
+	 */
+	private double encodeTime;
+
+	/**
+	 * The size of the PDDL encoding of the trace (in bytes).
+	 */
+	private double pddlSize;
+
+	/**
+	 * The number of actions grounded by the planner translator.
+	 */
+	private double groundedActions;
+
+	/**
+	 * The time spent by the planner to translate the PDDL encoding (in milliseconds).
+	 */
+	private double translatorTime;
+
+	/**
+	 * The time spent by the planner to search for the alignment (in milliseconds).
+	 */
+	private double searchTime;
+
+	/**
+	 * The number of search states expanded by the planner.
+	 */
+	private double expandedStates;
+
+	/**
+	 * The number of search states generated by the planner.
+	 */
+	private double generatedStates;
+
+	/**
+	 * The peak memory used by the planner search (in KB).
+	 */
+	private double peakMemory;
+
+	/**
+	 * The peak resident set size of the planner process, including its sub-processes (in KB).
+	 */
+	private double peakRss;
+
+	/**
+	 * The search strategy used by the planner (null if the planner has not been run).
+	 */
+	private PlannerSearchStrategy searchStrategy;
+
+	public TraceAlignmentStatistics(int tracePos, String caseId) {
+		this.tracePos = tracePos;
+		this.caseId = caseId;
+		this.encodeTime = NOT_AVAILABLE;
+		this.pddlSize = NOT_AVAILABLE;
+		this.groundedActions = NOT_AVAILABLE;
+		this.translatorTime = NOT_AVAILABLE;
+		this.searchTime = NOT_AVAILABLE;
+		this.expandedStates = NOT_AVAILABLE;
+		this.generatedStates = NOT_AVAILABLE;
+		this.peakMemory = NOT_AVAILABLE;
+		this.peakRss = NOT_AVAILABLE;
+		this.searchStrategy = null;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public int getTracePos() {
+		return tracePos;
+	}
+
+	public String getCaseId() {
+		return caseId;
+	}
+
+	public double getEncodeTime() {
+		return encodeTime;
+	}
+
+	public void setEncodeTime(double encodeTime) {
+		this.encodeTime = encodeTime;
+	}
+
+	public double getPddlSize() {
+		return pddlSize;
+	}
+
+	public void setPddlSize(double pddlSize) {
+		this.pddlSize = pddlSize;
+	}
+
+	public double getGroundedActions() {
+		return groundedActions;
+	}
+
+	public void setGroundedActions(double groundedActions) {
+		this.groundedActions = groundedActions;
+	}
+
+	public double getTranslatorTime() {
+		return translatorTime;
+	}
+
+	public void setTranslatorTime(double translatorTime) {
+		this.translatorTime = translatorTime;
+	}
+
+	public double getSearchTime() {
+		return searchTime;
+	}
+
+	public void setSearchTime(double searchTime) {
+		this.searchTime = searchTime;
+	}
+
+	public double getExpandedStates() {
+		return expandedStates;
+	}
+
+	public void setExpandedStates(double expandedStates) {
+		this.expandedStates = expandedStates;
+	}
+
+	public double getGeneratedStates() {
+		return generatedStates;
+	}
+
+	public void setGeneratedStates(double generatedStates) {
+		this.generatedStates = generatedStates;
+	}
+
+	public double getPeakMemory() {
+		return peakMemory;
+	}
+
+	public void setPeakMemory(double peakMemory) {
+		this.peakMemory = peakMemory;
+	}
+
+	public double getPeakRss() {
+		return peakRss;
+	}
+
+	public void setPeakRss(double peakRss) {
+		this.peakRss = peakRss;
+	}
+
+	public PlannerSearchStrategy getSearchStrategy() {
+		return searchStrategy;
+	}
+
+	public void setSearchStrategy(PlannerSearchStrategy searchStrategy) {
+		this.searchStrategy = searchStrategy;
+	}
+
+	/**
+	 * @return the values of the record, in the same order of {@link #FIELD_NAMES} (null if not available)
+	 */
+	public Object[] getValues() {
+		return new Object[] { tracePos, caseId, valueOrNull(encodeTime), valueOrNull(pddlSize),
+				valueOrNull(groundedActions), valueOrNull(translatorTime), valueOrNull(searchTime),
+				valueOrNull(expandedStates), valueOrNull(generatedStates), valueOrNull(peakMemory),
+				valueOrNull(peakRss), searchStrategy };
+	}
+
+	/**
+	 * @return the record as a CSV row (missing values are left empty)
+	 */
+	public String toCsvRow() {
+		StringBuffer result = new StringBuffer();
+		Object[] values = getValues();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				result.append(CsvUtils.SEPARATOR);
+			if (values[i] instanceof String)
+				result.append(CsvUtils.quoteValue((String) values[i]));
+			else if (values[i] != null)
+				result.append(values[i]);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * @return the header of the rows produced by {@link #toCsvRow()}
+	 */
+	public static String getCsvHeader() {
+		StringBuffer result = new StringBuffer();
+		for (int i = 0; i < FIELD_NAMES.length; i++) {
+			if (i > 0)
+				result.append(CsvUtils.SEPARATOR);
+			result.append(FIELD_NAMES[i]);
+		}
+		return result.toString();
+	}
+
+	private static Double valueOrNull(double value) {
+		return value == NOT_AVAILABLE ? null : value;
+	}
+
+	@Override
+	public String toString() {
+		return "TraceAlignmentStatistics [tracePos=" + tracePos + ", caseId=" + caseId + ", encodeTime=" + encodeTime
+				+ ", pddlSize=" + pddlSize + ", groundedActions=" + groundedActions + ", translatorTime="
+				+ translatorTime + ", searchTime=" + searchTime + ", expandedStates=" + expandedStates
+				+ ", generatedStates=" + generatedStates + ", peakMemory=" + peakMemory + ", peakRss=" + peakRss
+				+ ", searchStrategy=" + searchStrategy + "]";
+	}
+
+}
@@ -0,0 +1,136 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.deckfour.xes.classification.XEventClasses;
+import org.deckfour.xes.classification.XEventClassifier;
+import org.deckfour.xes.classification.XEventNameClassifier;
+import org.deckfour.xes.info.XLogInfoFactory;
+import org.deckfour.xes.model.XLog;
+import org.processmining.datapetrinets.utils.MarkingsHelper;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlannerSearchStrategy;
+import org.processmining.plugins.connectionfactories.logpetrinet.TransEvClassMapping;
+
+/**
+ * The default parameters of Planning-based Alignment, i.e. the ones proposed by the configuration UI, to be used when
+ * no user is there to confirm them. Markings are guessed from the structure of the Petri net, transitions are mapped
+ * to the event classes (by name) with the same label, and unmapped visible transitions are considered invisible.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class PlanningBasedAlignmentDefaults {
+
+	public static final int DEFAULT_MOVE_ON_LOG_COST = 1;
+	public static final int DEFAULT_MOVE_ON_MODEL_COST = 1;
+	public static final int DEFAULT_SYNCHRONOUS_MOVE_COST = 0;
+	public static final PlannerSearchStrategy DEFAULT_SEARCH_STRATEGY = PlannerSearchStrategy.BLIND_A_STAR;
+
+	private static final String DUMMY_EVENT_CLASS = "DUMMY";
+
+	/**
+	 * Create the default parameters to align the given event log and Petri net.
+	 *
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @return The default parameters.
+	 * @throws IllegalArgumentException if the markings of the Petri net cannot be guessed.
+	 */
+	public static PlanningBasedAlignmentParameters createParameters(XLog log, Petrinet petrinet) {
+		PlanningBasedAlignmentParameters parameters = new PlanningBasedAlignmentParameters();
+		complete(parameters, log, petrinet);
+		return parameters;
+	}
+
+	/**
+	 * Set the parameters that have not been set yet (i.e. that are null) to their default values.
+	 *
+	 * @param parameters The parameters to complete.
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @throws IllegalArgumentException if the markings of the Petri net cannot be guessed.
+	 */
+	public static void complete(PlanningBasedAlignmentParameters parameters, XLog log, Petrinet petrinet) {
+
+		// markings
+		if (parameters.getInitialMarking() == null) {
+			Marking initialMarking = MarkingsHelper.guessInitialMarkingByStructure(petrinet);
+			if (initialMarking == null)
+				throw new IllegalArgumentException("Cannot guess the initial marking of " + petrinet.getLabel() + ".");
+			parameters.setInitialMarking(initialMarking);
+		}
+		if (parameters.getFinalMarking() == null) {
+			Marking finalMarking = MarkingsHelper.guessFinalMarkingByStructure(petrinet);
+			if (finalMarking == null)
+				throw new IllegalArgumentException("Cannot guess the final marking of " + petrinet.getLabel() + ".");
+			parameters.setFinalMarking(finalMarking);
+		}
+
+		// mapping between transitions and event classes
+		if (parameters.getTransitionsEventsMapping() == null)
+			parameters.setTransitionsEventsMapping(createMapping(log, petrinet, new XEventNameClassifier()));
+		TransEvClassMapping mapping = parameters.getTransitionsEventsMapping();
+
+		// costs
+		if (parameters.getMovesOnLogCosts() == null) {
+			Map<XEventClass, Integer> movesOnLogCosts = new HashMap<XEventClass, Integer>();
+			XEventClasses eventClasses = XLogInfoFactory.createLogInfo(
+					log, mapping.getEventClassifier()).getEventClasses();
+			for (XEventClass eventClass : eventClasses.getClasses())
+				movesOnLogCosts.put(eventClass, DEFAULT_MOVE_ON_LOG_COST);
+			parameters.setMovesOnLogCosts(movesOnLogCosts);
+		}
+		if (parameters.getMovesOnModelCosts() == null) {
+			Map<Transition, Integer> movesOnModelCosts = new HashMap<Transition, Integer>();
+			for (Transition transition : petrinet.getTransitions())
+				movesOnModelCosts.put(transition, transition.isInvisible() ? 0 : DEFAULT_MOVE_ON_MODEL_COST);
+			parameters.setMovesOnModelCosts(movesOnModelCosts);
+		}
+		if (parameters.getSynchronousMovesCosts() == null) {
+			Map<Transition, Integer> synchronousMovesCosts = new HashMap<Transition, Integer>();
+			for (Transition transition : petrinet.getTransitions())
+				synchronousMovesCosts.put(transition, DEFAULT_SYNCHRONOUS_MOVE_COST);
+			parameters.setSynchronousMovesCosts(synchronousMovesCosts);
+		}
+
+		// planner settings
+		if (parameters.getPlannerSearchStrategy() == null)
+			parameters.setPlannerSearchStrategy(DEFAULT_SEARCH_STRATEGY);
+		if (parameters.getTracesInterval() == null)
+			parameters.setTracesInterval(new int[] { 1, log.size() });
+		if (parameters.getTracesLengthBounds() == null)
+			parameters.setTracesLengthBounds(new int[] { 0, Integer.MAX_VALUE });
+	}
+
+	/**
+	 * Map each transition of the given Petri net to the event class with the same label. As the configuration UI
+	 * suggests, visible transitions that cannot be mapped are set to invisible.
+	 *
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @param classifier The classifier defining the event classes.
+	 * @return The mapping between transitions and event classes.
+	 */
+	public static TransEvClassMapping createMapping(XLog log, Petrinet petrinet, XEventClassifier classifier) {
+		XEventClasses eventClasses = XLogInfoFactory.createLogInfo(log, classifier).getEventClasses();
+		TransEvClassMapping mapping = new TransEvClassMapping(
+				classifier, new XEventClass(DUMMY_EVENT_CLASS, Integer.MAX_VALUE));
+
+		for (Transition transition : petrinet.getTransitions()) {
+			XEventClass eventClass = transition.isInvisible() ?
+					null : eventClasses.getByIdentity(transition.getLabel());
+			if (eventClass == null) {
+				transition.setInvisible(true);
+				eventClass = mapping.getDummyEventClass();
+			}
+			mapping.put(transition, eventClass);
+		}
+		return mapping;
+	}
+
+}
@@ -68,6 +68,21 @@ public class PlanningBasedAlignmentParameters extends PluginParametersImpl {
 	 */
 	private boolean partiallyOrderedEvents;
 	
+	/**
+	 * The flag stating whether the planner has to stream the alignments on its stdout instead of writing plan files.
+	 */
+	private boolean streamPlannerOutput;
+	
+	/**
+	 * The flag stating whether the raw planner output has to be printed (for debugging purposes).
+	 */
+	private boolean debugMode;
+	
+	/**
+	 * The flag stating whether the alignments have to be spilled to disk instead of being kept on the heap.
+	 */
+	private boolean spillAlignmentsToDisk;
+	
 	public PlanningBasedAlignmentParameters() {
 		super();
 		setInitialMarking(null);
@@ -80,6 +95,9 @@ public class PlanningBasedAlignmentParameters extends PluginParametersImpl {
 		setTracesInterval(null);
 		setTracesLengthBounds(null);
 		setPartiallyOrderedEvents(false);
+		setStreamPlannerOutput(false);
+		setDebugMode(false);
+		setSpillAlignmentsToDisk(false);
 	}
 
 	public PlanningBasedAlignmentParameters(PlanningBasedAlignmentParameters parameters) {
@@ -94,6 +112,9 @@ public class PlanningBasedAlignmentParameters extends PluginParametersImpl {
 		setTracesInterval(parameters.getTracesInterval());
 		setTracesLengthBounds(parameters.getTracesLengthBounds());
 		setPartiallyOrderedEvents(parameters.isPartiallyOrderedEvents());
+		setStreamPlannerOutput(parameters.isStreamPlannerOutput());
+		setDebugMode(parameters.isDebugMode());
+		setSpillAlignmentsToDisk(parameters.isSpillAlignmentsToDisk());
 	}
 
 	/* GETTERS & SETTERS */
@@ -178,6 +199,30 @@ public class PlanningBasedAlignmentParameters extends PluginParametersImpl {
 		this.partiallyOrderedEvents = partiallyOrderedEvents;
 	}
 
+	public boolean isStreamPlannerOutput() {
+		return streamPlannerOutput;
+	}
+
+	public void setStreamPlannerOutput(boolean streamPlannerOutput) {
+		this.streamPlannerOutput = streamPlannerOutput;
+	}
+
+	public boolean isDebugMode() {
+		return debugMode;
+	}
+
+	public void setDebugMode(boolean debugMode) {
+		this.debugMode = debugMode;
+	}
+
+	public boolean isSpillAlignmentsToDisk() {
+		return spillAlignmentsToDisk;
+	}
+
+	public void setSpillAlignmentsToDisk(boolean spillAlignmentsToDisk) {
+		this.spillAlignmentsToDisk = spillAlignmentsToDisk;
+	}
+
 	@Override
 	public String toString() {
 		return "PlanningBasedAlignmentParameters [initialMarking=" + initialMarking + ", finalMarking=" + finalMarking
@@ -185,7 +230,8 @@ public class PlanningBasedAlignmentParameters extends PluginParametersImpl {
 				+ transitionsEventsMapping + ", movesOnLogCosts=" + movesOnLogCosts + ", movesOnModelCosts="
 				+ movesOnModelCosts + ", synchronousMovesCosts=" + synchronousMovesCosts + ", tracesInterval="
 				+ Arrays.toString(tracesInterval) + ", tracesLengthBounds=" + Arrays.toString(tracesLengthBounds)
-				+ ", partiallyOrderedEvents=" + partiallyOrderedEvents + "]";
+				+ ", partiallyOrderedEvents=" + partiallyOrderedEvents + ", streamPlannerOutput=" + streamPlannerOutput
+				+ ", debugMode=" + debugMode + ", spillAlignmentsToDisk=" + spillAlignmentsToDisk + "]";
 	}
 
 }
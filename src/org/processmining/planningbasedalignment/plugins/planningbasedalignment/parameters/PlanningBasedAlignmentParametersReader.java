@@ -0,0 +1,277 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.deckfour.xes.model.XLog;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlannerSearchStrategy;
+import org.processmining.planningbasedalignment.utils.JsonReader;
+
+/**
+ * A reader of the parameters of Planning-based Alignment from a properties file or from a JSON file, to run the
+ * alignment without the configuration UI. The parameters that are not given take their default values (see
+ * {@link PlanningBasedAlignmentDefaults}). The supported keys are:
+ *
+ * <pre>
+ * strategy                        BLIND_A_STAR or LAZY_GREEDY
+ * tracesInterval                  the first and the last position of the traces to align, e.g. 1,100
+ * tracesLengthBounds              the minimum and the maximum length of the traces to align, e.g. 0,50
+ * partiallyOrderedEvents          true or false
+ * streamPlannerOutput             true or false
+ * debugMode                       true or false
+ * spillAlignmentsToDisk           true or false
+ * defaultMoveOnLogCost            the cost of the moves in log of every event class
+ * defaultMoveOnModelCost          the cost of the moves in model of every visible transition
+ * defaultSynchronousMoveCost      the cost of the synchronous moves of every transition
+ * moveOnLogCost.&lt;event class&gt;     the cost of the moves in log of the given event class
+ * moveOnModelCost.&lt;transition&gt;    the cost of the moves in model of the transitions with the given label
+ * synchronousMoveCost.&lt;transition&gt; the cost of the synchronous moves of the transitions with the given label
+ * </pre>
+ *
+ * In JSON files, the per-activity costs can either be given with the keys above or as nested objects, e.g.
+ * {"strategy": "LAZY_GREEDY", "tracesInterval": [1, 100], "moveOnLogCost": {"A": 2}}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class PlanningBasedAlignmentParametersReader {
+
+	public static final String JSON_EXT = ".json";
+
+	public static final String STRATEGY = "strategy";
+	public static final String TRACES_INTERVAL = "tracesInterval";
+	public static final String TRACES_LENGTH_BOUNDS = "tracesLengthBounds";
+	public static final String PARTIALLY_ORDERED_EVENTS = "partiallyOrderedEvents";
+	public static final String STREAM_PLANNER_OUTPUT = "streamPlannerOutput";
+	public static final String DEBUG_MODE = "debugMode";
+	public static final String SPILL_ALIGNMENTS_TO_DISK = "spillAlignmentsToDisk";
+	public static final String DEFAULT_MOVE_ON_LOG_COST = "defaultMoveOnLogCost";
+	public static final String DEFAULT_MOVE_ON_MODEL_COST = "defaultMoveOnModelCost";
+	public static final String DEFAULT_SYNCHRONOUS_MOVE_COST = "defaultSynchronousMoveCost";
+	public static final String MOVE_ON_LOG_COST_PREFIX = "moveOnLogCost.";
+	public static final String MOVE_ON_MODEL_COST_PREFIX = "moveOnModelCost.";
+	public static final String SYNCHRONOUS_MOVE_COST_PREFIX = "synchronousMoveCost.";
+
+	private static final String VALUES_SEPARATOR = ",";
+
+	/**
+	 * The parameters as key-value pairs.
+	 */
+	private final Properties properties;
+
+	public PlanningBasedAlignmentParametersReader(Properties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Load the parameters from the given file, parsed as JSON if its extension is ".json", as a properties file
+	 * otherwise.
+	 *
+	 * @param file The file.
+	 * @return The reader of the parameters in the file.
+	 * @throws IOException
+	 */
+	public static PlanningBasedAlignmentParametersReader fromFile(File file) throws IOException {
+		Properties properties;
+		if (file.getName().toLowerCase().endsWith(JSON_EXT)) {
+			Object json = JsonReader.parse(file);
+			if (!(json instanceof Map))
+				throw new IllegalArgumentException("Invalid JSON parameters: an object is expected.");
+			properties = new Properties();
+			flatten("", json, properties);
+		} else {
+			properties = new Properties();
+			InputStream input = new FileInputStream(file);
+			try {
+				properties.load(new InputStreamReader(input, "UTF-8"));
+			} finally {
+				input.close();
+			}
+		}
+		return new PlanningBasedAlignmentParametersReader(properties);
+	}
+
+	/**
+	 * Build the parameters to align the given event log and Petri net.
+	 *
+	 * @param log The event log to replay.
+	 * @param petrinet The Petri net on which the log has to be replayed.
+	 * @return The parameters.
+	 * @throws IllegalArgumentException if a parameter is not valid, or refers to an unknown activity.
+	 */
+	public PlanningBasedAlignmentParameters read(XLog log, Petrinet petrinet) {
+		PlanningBasedAlignmentParameters parameters = new PlanningBasedAlignmentParameters();
+
+		for (String key : properties.stringPropertyNames()) {
+			String value = properties.getProperty(key).trim();
+
+			if (key.equals(STRATEGY)) {
+				try {
+					parameters.setPlannerSearchStrategy(PlannerSearchStrategy.valueOf(value));
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Unknown search strategy: " + value + ".");
+				}
+			} else if (key.equals(TRACES_INTERVAL)) {
+				parameters.setTracesInterval(parseBounds(key, value));
+			} else if (key.equals(TRACES_LENGTH_BOUNDS)) {
+				parameters.setTracesLengthBounds(parseBounds(key, value));
+			} else if (key.equals(PARTIALLY_ORDERED_EVENTS)) {
+				parameters.setPartiallyOrderedEvents(parseBoolean(key, value));
+			} else if (key.equals(STREAM_PLANNER_OUTPUT)) {
+				parameters.setStreamPlannerOutput(parseBoolean(key, value));
+			} else if (key.equals(DEBUG_MODE)) {
+				parameters.setDebugMode(parseBoolean(key, value));
+			} else if (key.equals(SPILL_ALIGNMENTS_TO_DISK)) {
+				parameters.setSpillAlignmentsToDisk(parseBoolean(key, value));
+			} else if (!key.equals(DEFAULT_MOVE_ON_LOG_COST) && !key.equals(DEFAULT_MOVE_ON_MODEL_COST)
+					&& !key.equals(DEFAULT_SYNCHRONOUS_MOVE_COST) && !key.startsWith(MOVE_ON_LOG_COST_PREFIX)
+					&& !key.startsWith(MOVE_ON_MODEL_COST_PREFIX) && !key.startsWith(SYNCHRONOUS_MOVE_COST_PREFIX)) {
+				throw new IllegalArgumentException("Unknown parameter: " + key + ".");
+			}
+		}
+
+		// complete the parameters (the mapping is needed to set the costs)
+		PlanningBasedAlignmentDefaults.complete(parameters, log, petrinet);
+
+		// default costs
+		String value = properties.getProperty(DEFAULT_MOVE_ON_LOG_COST);
+		if (value != null) {
+			int cost = parseCost(DEFAULT_MOVE_ON_LOG_COST, value);
+			for (Map.Entry<XEventClass, Integer> entry : parameters.getMovesOnLogCosts().entrySet())
+				entry.setValue(cost);
+		}
+		value = properties.getProperty(DEFAULT_MOVE_ON_MODEL_COST);
+		if (value != null) {
+			int cost = parseCost(DEFAULT_MOVE_ON_MODEL_COST, value);
+			for (Map.Entry<Transition, Integer> entry : parameters.getMovesOnModelCosts().entrySet()) {
+				if (!entry.getKey().isInvisible())
+					entry.setValue(cost);
+			}
+		}
+		value = properties.getProperty(DEFAULT_SYNCHRONOUS_MOVE_COST);
+		if (value != null) {
+			int cost = parseCost(DEFAULT_SYNCHRONOUS_MOVE_COST, value);
+			for (Map.Entry<Transition, Integer> entry : parameters.getSynchronousMovesCosts().entrySet())
+				entry.setValue(cost);
+		}
+
+		// per-activity costs
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith(MOVE_ON_LOG_COST_PREFIX)) {
+				String eventClassId = key.substring(MOVE_ON_LOG_COST_PREFIX.length());
+				int cost = parseCost(key, properties.getProperty(key));
+				boolean found = false;
+				for (Map.Entry<XEventClass, Integer> entry : parameters.getMovesOnLogCosts().entrySet()) {
+					if (entry.getKey().getId().equals(eventClassId)) {
+						entry.setValue(cost);
+						found = true;
+					}
+				}
+				if (!found)
+					throw new IllegalArgumentException("Unknown event class: " + eventClassId + ".");
+
+			} else if (key.startsWith(MOVE_ON_MODEL_COST_PREFIX)) {
+				setTransitionsCost(parameters.getMovesOnModelCosts(), key, MOVE_ON_MODEL_COST_PREFIX);
+
+			} else if (key.startsWith(SYNCHRONOUS_MOVE_COST_PREFIX)) {
+				setTransitionsCost(parameters.getSynchronousMovesCosts(), key, SYNCHRONOUS_MOVE_COST_PREFIX);
+			}
+		}
+
+		return parameters;
+	}
+
+	private void setTransitionsCost(Map<Transition, Integer> costs, String key, String prefix) {
+		String label = key.substring(prefix.length());
+		int cost = parseCost(key, properties.getProperty(key));
+		boolean found = false;
+		for (Map.Entry<Transition, Integer> entry : costs.entrySet()) {
+			if (entry.getKey().getLabel().equals(label)) {
+				entry.setValue(cost);
+				found = true;
+			}
+		}
+		if (!found)
+			throw new IllegalArgumentException("Unknown transition: " + label + ".");
+	}
+
+	private static int[] parseBounds(String key, String value) {
+		String[] tokens = value.split(VALUES_SEPARATOR);
+		if (tokens.length != 2)
+			throw new IllegalArgumentException("Two values expected for " + key + ": " + value + ".");
+		try {
+			int[] result = new int[] { Integer.parseInt(tokens[0].trim()), Integer.parseInt(tokens[1].trim()) };
+			if (result[0] > result[1])
+				throw new IllegalArgumentException("Invalid bounds for " + key + ": " + value + ".");
+			return result;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Integers expected for " + key + ": " + value + ".");
+		}
+	}
+
+	private static boolean parseBoolean(String key, String value) {
+		if (value.equalsIgnoreCase("true"))
+			return true;
+		if (value.equalsIgnoreCase("false"))
+			return false;
+		throw new IllegalArgumentException("Boolean expected for " + key + ": " + value + ".");
+	}
+
+	private static int parseCost(String key, String value) {
+		try {
+			int cost = Integer.parseInt(value.trim());
+			if (cost >= 0)
+				return cost;
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException("Non-negative integer expected for " + key + ": " + value + ".");
+	}
+
+	/**
+	 * Turn the given JSON value into key-value pairs, where the keys of nested objects are joined with dots and arrays
+	 * of scalars are turned into comma-separated values.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void flatten(String key, Object value, Properties properties) {
+		if (value instanceof Map) {
+			String prefix = key.isEmpty() ? "" : key + ".";
+			for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet())
+				flatten(prefix + entry.getKey(), entry.getValue(), properties);
+
+		} else if (value instanceof List) {
+			StringBuffer values = new StringBuffer();
+			for (Object element : (List<Object>) value) {
+				if (element instanceof Map || element instanceof List || element == null)
+					throw new IllegalArgumentException("Scalar values expected in the array of " + key + ".");
+				if (values.length() > 0)
+					values.append(VALUES_SEPARATOR);
+				values.append(toText(element));
+			}
+			properties.setProperty(key, values.toString());
+
+		} else if (value != null) {
+			properties.setProperty(key, toText(value));
+		}
+	}
+
+	/**
+	 * @return the textual value of a JSON string, number or boolean
+	 */
+	private static String toText(Object value) {
+		if (value instanceof BigDecimal)
+			return ((BigDecimal) value).toPlainString();
+		return value.toString();
+	}
+
+}
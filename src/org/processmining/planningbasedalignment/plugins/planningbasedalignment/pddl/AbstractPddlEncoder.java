@@ -54,6 +54,22 @@ public abstract class AbstractPddlEncoder {
 	 */
 	protected Map<String, XEventClass> pddlIdToEventClassMapping;
 
+	/**
+	 * The mapping between PDDL ids of event classes and the costs of the related moves in log.
+	 */
+	protected Map<String, Integer> pddlIdToMoveOnLogCostMapping;
+
+	/**
+	 * The mapping between the (lower-cased) ids of event classes and the costs of the related moves in log, used to
+	 * compute the worst-case cost of a trace by matching its activity names regardless of case.
+	 */
+	protected Map<String, Integer> activityToMoveOnLogCostMapping;
+
+	/**
+	 * The total cost of performing a move in log for each event of the last encoded trace.
+	 */
+	protected int traceMovesOnLogCost;
+
 	/**
 	 * The encoding of the moves on model that is independent from the traces in the
 	 * event log.
@@ -69,6 +85,8 @@ public abstract class AbstractPddlEncoder {
 			this.petrinetNodeToPddlIdMapping = new HashMap<PetrinetNode, String>();
 			this.pddlIdToPetrinetNodeMapping = new HashMap<String, PetrinetNode>();
 			this.pddlIdToEventClassMapping = new HashMap<String, XEventClass>();
+			this.pddlIdToMoveOnLogCostMapping = new HashMap<String, Integer>();
+			this.activityToMoveOnLogCostMapping = new HashMap<String, Integer>();
 
 			// build the structures needed to properly encode the problem instances.
 			buildMappings();
@@ -93,6 +111,8 @@ public abstract class AbstractPddlEncoder {
 					"Both the Petri net and the parameters have to be initialized for the trace to be encoded.");
 		}
 
+		this.traceMovesOnLogCost = computeTraceMovesOnLogCost(trace);
+
 		return new String[] { createPropositionalDomain(trace), createPropositionalProblem(trace) };
 	}
 
@@ -157,6 +177,38 @@ public abstract class AbstractPddlEncoder {
 		return getCorrectPddlFormat(eventClassifier.getClassIdentity(event));
 	}
 
+	/**
+	 * Return the cost of a move in log for the event class with the given PDDL id.
+	 * 
+	 * @param eventPddlId
+	 *            The PDDL id of the event (class).
+	 * @return The cost of the move in log, or null if the event class has no cost associated.
+	 */
+	protected Integer getMoveOnLogCost(String eventPddlId) {
+		return this.pddlIdToMoveOnLogCostMapping.get(eventPddlId);
+	}
+
+	/**
+	 * Compute the total cost of performing a move in log for each event of the given trace. Events are matched with
+	 * the event classes by activity name regardless of case (and not by PDDL id, that may collapse different names),
+	 * and events without a matching event class cost nothing.
+	 * 
+	 * @param trace
+	 *            The event log trace.
+	 * @return The total cost of the moves in log.
+	 */
+	protected int computeTraceMovesOnLogCost(XTrace trace) {
+		XEventClassifier eventClassifier = this.parameters.getTransitionsEventsMapping().getEventClassifier();
+		int cost = 0;
+		for (XEvent event : trace) {
+			Integer eventCost = this.activityToMoveOnLogCostMapping.get(
+					eventClassifier.getClassIdentity(event).toLowerCase());
+			if (eventCost != null)
+				cost += eventCost;
+		}
+		return cost;
+	}
+
 	/**
 	 * Populate the mappings that relate Petri net nodes and events class with their
 	 * PDDL identifiers.
@@ -199,6 +251,14 @@ public abstract class AbstractPddlEncoder {
 			if (!pddlEventLabelId.equals(DUMMY))
 				this.pddlIdToEventClassMapping.put(pddlEventLabelId, ec);
 
+			// keep the first cost found for a given pddl id (or activity name)
+			Integer moveOnLogCost = this.parameters.getMovesOnLogCosts().get(ec);
+			if (!this.pddlIdToMoveOnLogCostMapping.containsKey(pddlEventLabelId))
+				this.pddlIdToMoveOnLogCostMapping.put(pddlEventLabelId, moveOnLogCost);
+			String activity = ec.getId().toLowerCase();
+			if (!this.activityToMoveOnLogCostMapping.containsKey(activity))
+				this.activityToMoveOnLogCostMapping.put(activity, moveOnLogCost);
+
 		}
 
 		// get pddl ids for places
@@ -369,4 +429,11 @@ public abstract class AbstractPddlEncoder {
 		return this.pddlIdToEventClassMapping;
 	}
 
+	/**
+	 * @return the total cost of performing a move in log for each event of the last encoded trace
+	 */
+	public int getTraceMovesOnLogCost() {
+		return this.traceMovesOnLogCost;
+	}
+
 }
@@ -10,7 +10,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import org.deckfour.xes.classification.XEventClass;
 import org.deckfour.xes.extension.std.XTimeExtension;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XTrace;
@@ -129,7 +128,6 @@ public class PartialOrderAwarePddlEncoder extends AbstractPddlEncoder {
 		StringBuffer syncMovesBuffer = new StringBuffer();
 		StringBuffer movesOnLogBuffer = new StringBuffer();
 		StringBuffer pddlDomainBuffer = new StringBuffer();
-		Map<XEventClass, Integer> movesOnLogCosts = parameters.getMovesOnLogCosts();
 
 		// define domain and objects types
 		pddlDomainBuffer.append("(define (domain Mining)\n");
@@ -249,13 +247,9 @@ public class PartialOrderAwarePddlEncoder extends AbstractPddlEncoder {
 			movesOnLogBuffer.append(" (increase (total-cost) ");
 			
 			// get the cost of the event class
-			for(Entry<XEventClass, Integer> entry : movesOnLogCosts.entrySet()) {
-				String eventClass = encode(entry.getKey());
-				if(eventClass.equalsIgnoreCase(eventName)) {
-					movesOnLogBuffer.append(entry.getValue() + ")\n");
-					break;
-				}
-			}
+			Integer moveOnLogCost = getMoveOnLogCost(eventName);
+			if (moveOnLogCost != null)
+				movesOnLogBuffer.append(moveOnLogCost + ")\n");
 			
 			movesOnLogBuffer.append(")\n");
 			movesOnLogBuffer.append(")\n\n");
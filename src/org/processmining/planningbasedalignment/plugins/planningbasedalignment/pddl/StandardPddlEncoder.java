@@ -1,10 +1,7 @@
 package org.processmining.planningbasedalignment.plugins.planningbasedalignment.pddl;
 
 import java.util.Collection;
-import java.util.Map;
-import java.util.Map.Entry;
 
-import org.deckfour.xes.classification.XEventClass;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XTrace;
 import org.processmining.models.graphbased.directed.petrinet.Petrinet;
@@ -35,7 +32,6 @@ public class StandardPddlEncoder extends AbstractPddlEncoder {
 		StringBuffer syncMovesBuffer = new StringBuffer();
 		StringBuffer movesOnLogBuffer = new StringBuffer();
 		StringBuffer pddlDomainBuffer = new StringBuffer();
-		Map<XEventClass, Integer> movesOnLogCosts = parameters.getMovesOnLogCosts();
 
 		// define domain and objects types
 		pddlDomainBuffer.append("(define (domain Mining)\n");
@@ -158,13 +154,9 @@ public class StandardPddlEncoder extends AbstractPddlEncoder {
 			movesOnLogBuffer.append(" (increase (total-cost) ");
 			
 			// get the cost of the event class
-			for(Entry<XEventClass, Integer> entry : movesOnLogCosts.entrySet()) {
-				String eventClass = encode(entry.getKey());
-				if(eventClass.equalsIgnoreCase(eventName)) {
-					movesOnLogBuffer.append(entry.getValue() + ")\n");
-					break;
-				}
-			}
+			Integer moveOnLogCost = getMoveOnLogCost(eventName);
+			if (moveOnLogCost != null)
+				movesOnLogBuffer.append(moveOnLogCost + ")\n");
 
 			movesOnLogBuffer.append(")\n");
 			movesOnLogBuffer.append(")\n\n");
@@ -5,6 +5,7 @@ import java.awt.Dimension;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JRadioButton;
 
@@ -45,6 +46,21 @@ public class PlannerSettingsDialog extends ConfigurationPanel {
 	 */
 	private JRadioButton subOptimalStrategy;
 	
+	/**
+	 * The check box for streaming the planner output instead of writing plan files.
+	 */
+	private JCheckBox streamPlannerOutput;
+	
+	/**
+	 * The check box for printing the raw planner output.
+	 */
+	private JCheckBox debugMode;
+	
+	/**
+	 * The check box for spilling the alignments to disk.
+	 */
+	private JCheckBox spillAlignmentsToDisk;
+	
 	/**
 	 * The slider for selecting the starting point of the interval of traces to align.
 	 */
@@ -112,6 +128,11 @@ public class PlannerSettingsDialog extends ConfigurationPanel {
 			
 			// add component to view
 			addProperty("Select Planner Search Strategy", searchStrategyBox);
+			
+			// planner output mode selection
+			this.streamPlannerOutput = addCheckBox("Stream planner output (no plan files written)", false);
+			this.debugMode = addCheckBox("Debug mode (print raw planner output)", false);
+			this.spillAlignmentsToDisk = addCheckBox("Spill alignments to disk (for very large logs)", false);
 		}
 
 		// add components to view
@@ -133,6 +154,33 @@ public class PlannerSettingsDialog extends ConfigurationPanel {
 		return null;
 	}
 
+	/**
+	 * Tells whether the planner output has to be streamed instead of written on disk.
+	 * 
+	 * @return true if the planner output has to be streamed.
+	 */
+	public boolean isStreamPlannerOutput() {
+		return streamPlannerOutput != null && streamPlannerOutput.isSelected();
+	}
+
+	/**
+	 * Tells whether the raw planner output has to be printed.
+	 * 
+	 * @return true if the debug mode is on.
+	 */
+	public boolean isDebugMode() {
+		return debugMode != null && debugMode.isSelected();
+	}
+
+	/**
+	 * Tells whether the alignments have to be spilled to disk.
+	 * 
+	 * @return true if the alignments have to be spilled to disk.
+	 */
+	public boolean isSpillAlignmentsToDisk() {
+		return spillAlignmentsToDisk != null && spillAlignmentsToDisk.isSelected();
+	}
+
 	/**
 	 * Returns the endpoints (trace ids) of the interval of traces to be aligned.
 	 * 
@@ -362,6 +362,9 @@ public class PlanningBasedAlignmentConfiguration {
 				result.setPlannerSearchStrategy(plannerSettingsStep.getChosenStrategy());
 				result.setTracesInterval(plannerSettingsStep.getChosenTracesInterval());
 				result.setTracesLengthBounds(plannerSettingsStep.getChosenTracesLengthBounds());
+				result.setStreamPlannerOutput(plannerSettingsStep.isStreamPlannerOutput());
+				result.setDebugMode(plannerSettingsStep.isDebugMode());
+				result.setSpillAlignmentsToDisk(plannerSettingsStep.isSpillAlignmentsToDisk());
 				result.setMovesOnLogCosts(alignmentCostsSettingsStep.getMovesOnLogCosts());
 				result.setMovesOnModelCosts(alignmentCostsSettingsStep.getMovesOnModelCosts());
 				result.setSynchronousMovesCosts(alignmentCostsSettingsStep.getSynchronousMovesCosts());
@@ -0,0 +1,94 @@
+package org.processmining.planningbasedalignment.plugins.visualization.alignment;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.SwingWorker;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.util.ui.widgets.helper.ProMUIHelper;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.io.AbstractReplayResultExporter;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.io.AlignmentExportFormat;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.utils.ProgressHub;
+
+/**
+ * Export all the alignments of a result (not only the ones shown in the list) as CSV or XES. The export runs in a
+ * background thread, reading directly from the alignment store of the result.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+final class ActionExportAlignments implements ActionListener {
+
+	private final Component parent;
+	private final PluginContext context;
+	private final PlanningBasedReplayResult replayResult;
+
+	public ActionExportAlignments(Component parent, PluginContext context, PlanningBasedReplayResult replayResult) {
+		this.parent = parent;
+		this.context = context;
+		this.replayResult = replayResult;
+	}
+
+	public void actionPerformed(ActionEvent e) {
+
+		JFileChooser chooser = new JFileChooser(
+				ActionSaveAs.PREFS.get(ActionSaveAs.LAST_USED_FOLDER, new File(".").getAbsolutePath()));
+		Map<FileFilter, AlignmentExportFormat> formats = new HashMap<FileFilter, AlignmentExportFormat>();
+		for (AlignmentExportFormat format : AlignmentExportFormat.values()) {
+			FileFilter filter = new FileNameExtensionFilter(format.getDescription(), format.getExtension());
+			formats.put(filter, format);
+			chooser.addChoosableFileFilter(filter);
+			if (format == AlignmentExportFormat.TRACES_CSV)
+				chooser.setFileFilter(filter);
+		}
+		chooser.setAcceptAllFileFilterUsed(false);
+		int returnVal = chooser.showSaveDialog(parent);
+		if (returnVal == JFileChooser.APPROVE_OPTION) {
+			File file = chooser.getSelectedFile();
+			ActionSaveAs.PREFS.put(ActionSaveAs.LAST_USED_FOLDER, file.getParent());
+
+			AlignmentExportFormat format = formats.get(chooser.getFileFilter());
+			file = format.withExtension(file);
+
+			final JButton source = (e.getSource() instanceof JButton) ? (JButton) e.getSource() : null;
+			if (source != null)
+				source.setEnabled(false);
+			exportInBackground(format.createExporter(), file, source);
+		}
+	}
+
+	private void exportInBackground(final AbstractReplayResultExporter exporter, final File file,
+			final JButton source) {
+
+		new SwingWorker<Void, Void>() {
+
+			protected Void doInBackground() throws Exception {
+				exporter.export(replayResult, file, new ProgressHub(context));
+				return null;
+			}
+
+			protected void done() {
+				if (source != null)
+					source.setEnabled(true);
+				try {
+					get();
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				} catch (ExecutionException e) {
+					ProMUIHelper.showErrorMessage(parent, e.getCause().getMessage(), "Error saving");
+				}
+			}
+		}.execute();
+	}
+}
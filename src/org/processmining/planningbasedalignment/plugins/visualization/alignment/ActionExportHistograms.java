@@ -0,0 +1,84 @@
+package org.processmining.planningbasedalignment.plugins.visualization.alignment;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.swing.JFileChooser;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import org.processmining.framework.util.ui.widgets.helper.ProMUIHelper;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.LogLinearHistogram;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+
+/**
+ * Export the histograms of the statistics of an alignment run as a CSV file (one row per non-empty bucket).
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+final class ActionExportHistograms implements ActionListener {
+
+	private static final String CSV_EXT = ".csv";
+
+	private final Component parent;
+	private final PlanningBasedReplayResult replayResult;
+
+	public ActionExportHistograms(Component parent, PlanningBasedReplayResult replayResult) {
+		this.parent = parent;
+		this.replayResult = replayResult;
+	}
+
+	public void actionPerformed(ActionEvent e) {
+
+		JFileChooser chooser = new JFileChooser(
+				ActionSaveAs.PREFS.get(ActionSaveAs.LAST_USED_FOLDER, new File(".").getAbsolutePath()));
+		chooser.setFileFilter(new FileNameExtensionFilter("CSV", "csv"));
+		chooser.setAcceptAllFileFilterUsed(false);
+		int returnVal = chooser.showSaveDialog(parent);
+		if (returnVal == JFileChooser.APPROVE_OPTION) {
+			File file = chooser.getSelectedFile();
+			ActionSaveAs.PREFS.put(ActionSaveAs.LAST_USED_FOLDER, file.getParent());
+			if (!file.getAbsolutePath().endsWith(CSV_EXT)) {
+				file = new File(file.getAbsolutePath() + CSV_EXT);
+			}
+
+			try {
+				exportHistograms(replayResult, file);
+			} catch (IOException e1) {
+				ProMUIHelper.showErrorMessage(parent, e1.getMessage(), "Error saving");
+			}
+		}
+	}
+
+	/**
+	 * Write the histograms of the given result in the given CSV file.
+	 *
+	 * @param replayResult The result of the alignment run.
+	 * @param file The file to be written.
+	 * @throws IOException
+	 */
+	static void exportHistograms(PlanningBasedReplayResult replayResult, File file) throws IOException {
+		Writer writer = new BufferedWriter(new FileWriter(file));
+		try {
+			writer.write(LogLinearHistogram.getCsvHeader());
+			writeHistogram(writer, "preprocessing_time", replayResult.getPreprocessingTimeHistogram());
+			writeHistogram(writer, "translator_time", replayResult.getTranslatorTimeHistogram());
+			writeHistogram(writer, "alignment_time", replayResult.getAlignmentTimeHistogram());
+			writeHistogram(writer, "expanded_states", replayResult.getExpandedStatesHistogram());
+			writeHistogram(writer, "generated_states", replayResult.getGeneratedStatesHistogram());
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void writeHistogram(Writer writer, String name, LogLinearHistogram histogram) throws IOException {
+		if (histogram != null)
+			histogram.writeCsvRows(writer, name);
+	}
+}
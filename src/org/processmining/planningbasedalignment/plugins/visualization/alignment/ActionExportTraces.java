@@ -6,12 +6,15 @@ import java.awt.event.ActionListener;
 import javax.swing.JOptionPane;
 
 import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.factory.XFactory;
 import org.deckfour.xes.factory.XFactoryRegistry;
 import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.util.ui.widgets.traceview.ProMTraceList;
 import org.processmining.log.utils.XUtils;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
 import org.processmining.plugins.DataConformance.visualization.alignment.XTraceResolver;
 import org.processmining.plugins.utils.ProvidedObjectHelper;
 import org.processmining.xesalignmentextension.XAlignmentExtension.XAlignment;
@@ -22,14 +25,19 @@ import org.processmining.xesalignmentextension.XAlignmentExtension.XAlignment;
  */
 final class ActionExportTraces implements ActionListener {
 	
+	private static final String TRACE_STATISTICS_ATTRIBUTE_PREFIX = "pba:";
+	
 	private final ProMTraceList<XAlignment> listView;
 	private final PluginContext context;
 	private XTraceResolver traceResolver;
+	private PlanningBasedReplayResult replayResult;
 
-	public ActionExportTraces(PluginContext context, ProMTraceList<XAlignment> listView, XTraceResolver traceResolver) {
+	public ActionExportTraces(PluginContext context, ProMTraceList<XAlignment> listView, XTraceResolver traceResolver,
+			PlanningBasedReplayResult replayResult) {
 		this.listView = listView;
 		this.context = context;
 		this.traceResolver = traceResolver;
+		this.replayResult = replayResult;
 	}
 
 	public void actionPerformed(ActionEvent e) {
@@ -43,11 +51,14 @@ final class ActionExportTraces implements ActionListener {
 			XLog newLog = XFactoryRegistry.instance().currentDefault().createLog();
 			XConceptExtension.instance().assignName(newLog, exportName);
 			for (Object o : selection) {
-				XAlignment a = (XAlignment) o;
-				XTrace trace = traceResolver.getOriginalTrace(XUtils.getConceptName(a.getTrace()));
-				if (trace != null) {
-					newLog.add((XTrace) trace.clone());	
-				}								
+				if (o instanceof LazyXAlignment) {
+					// export all the traces of the variant, without converting the alignment
+					for (String caseId : ((LazyXAlignment) o).getCaseIds())
+						exportTrace(newLog, caseId);
+				} else {
+					XAlignment a = (XAlignment) o;
+					exportTrace(newLog, XUtils.getConceptName(a.getTrace()));
+				}
 			}
 			if (!newLog.isEmpty()) {
 				ProvidedObjectHelper.publish(context, exportName, newLog, XLog.class, true);
@@ -58,4 +69,31 @@ final class ActionExportTraces implements ActionListener {
 			}
 		}
 	}
-}
\ No newline at end of file
+	
+	private void exportTrace(XLog newLog, String caseId) {
+		XTrace trace = traceResolver.getOriginalTrace(caseId);
+		if (trace != null) {
+			XTrace exportedTrace = (XTrace) trace.clone();
+			addTraceStatistics(exportedTrace, replayResult.getTraceAlignmentStatistics(caseId));
+			newLog.add(exportedTrace);
+		}
+	}
+	
+	/**
+	 * Attach the performance record of the alignment to the exported trace, as trace attributes.
+	 */
+	private void addTraceStatistics(XTrace trace, TraceAlignmentStatistics traceStatistics) {
+		if (traceStatistics == null)
+			return;
+		
+		XFactory factory = XFactoryRegistry.instance().currentDefault();
+		Object[] values = traceStatistics.getValues();
+		for (int i = 0; i < values.length; i++) {
+			String key = TRACE_STATISTICS_ATTRIBUTE_PREFIX + TraceAlignmentStatistics.FIELD_NAMES[i];
+			if (values[i] instanceof Double)
+				trace.getAttributes().put(key, factory.createAttributeContinuous(key, (Double) values[i], null));
+			else if (values[i] != null && !(values[i] instanceof String) && !(values[i] instanceof Integer))
+				trace.getAttributes().put(key, factory.createAttributeLiteral(key, values[i].toString(), null));
+		}
+	}
+}
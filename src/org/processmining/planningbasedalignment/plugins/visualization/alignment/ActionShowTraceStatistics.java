@@ -0,0 +1,132 @@
+package org.processmining.planningbasedalignment.plugins.visualization.alignment;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+
+import org.processmining.framework.util.ui.widgets.helper.ProMUIHelper;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
+
+import com.fluxicon.slickerbox.factory.SlickerFactory;
+
+/**
+ * Show the performance record of each aligned trace in a sortable table, which can be exported as a CSV file.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+final class ActionShowTraceStatistics implements ActionListener {
+
+	private static final String CSV_EXT = ".csv";
+
+	private final Component parent;
+	private final PlanningBasedReplayResult replayResult;
+
+	public ActionShowTraceStatistics(Component parent, PlanningBasedReplayResult replayResult) {
+		this.parent = parent;
+		this.replayResult = replayResult;
+	}
+
+	public void actionPerformed(ActionEvent e) {
+		final List<TraceAlignmentStatistics> traceAlignmentStatistics = replayResult.getTraceAlignmentStatistics();
+		if (traceAlignmentStatistics == null || traceAlignmentStatistics.isEmpty()) {
+			ProMUIHelper.showErrorMessage(parent, "No statistics available for the aligned traces.", "Missing Statistics");
+			return;
+		}
+
+		// collect rows and column types (to let the rows be sorted by the numeric value of the cells)
+		Object[][] tableContent = new Object[traceAlignmentStatistics.size()][];
+		final Class<?>[] columnClasses = new Class<?>[TraceAlignmentStatistics.FIELD_NAMES.length];
+		for (int i = 0; i < tableContent.length; i++) {
+			tableContent[i] = traceAlignmentStatistics.get(i).getValues();
+			for (int j = 0; j < columnClasses.length; j++) {
+				if (columnClasses[j] == null && tableContent[i][j] != null)
+					columnClasses[j] = tableContent[i][j].getClass();
+			}
+		}
+
+		DefaultTableModel tableModel = new DefaultTableModel(tableContent, TraceAlignmentStatistics.FIELD_NAMES) {
+			private static final long serialVersionUID = 3790471386734251092L;
+
+			@Override
+			public boolean isCellEditable(int row, int column) {
+				return false;
+			}
+
+			@Override
+			public Class<?> getColumnClass(int column) {
+				return columnClasses[column] != null ? columnClasses[column] : Object.class;
+			}
+		};
+		JTable table = new JTable(tableModel);
+		table.setAutoCreateRowSorter(true);
+
+		final JDialog dialog = new JDialog();
+		dialog.setTitle("Per-trace Statistics");
+		dialog.setPreferredSize(new Dimension(1000, 500));
+		dialog.setLayout(new BorderLayout());
+		dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+
+		JButton exportButton = SlickerFactory.instance().createButton("Export as CSV");
+		exportButton.addActionListener(new ActionListener() {
+
+			public void actionPerformed(ActionEvent e) {
+				exportToCsv(dialog, traceAlignmentStatistics);
+			}
+		});
+		JPanel buttonPanel = new JPanel();
+		buttonPanel.add(exportButton);
+		dialog.add(buttonPanel, BorderLayout.SOUTH);
+
+		dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+		dialog.pack();
+		dialog.setLocationRelativeTo(parent);
+		dialog.setVisible(true);
+	}
+
+	private void exportToCsv(Component dialogParent, List<TraceAlignmentStatistics> traceAlignmentStatistics) {
+		JFileChooser chooser = new JFileChooser(
+				ActionSaveAs.PREFS.get(ActionSaveAs.LAST_USED_FOLDER, new File(".").getAbsolutePath()));
+		chooser.setFileFilter(new FileNameExtensionFilter("CSV", "csv"));
+		chooser.setAcceptAllFileFilterUsed(false);
+		int returnVal = chooser.showSaveDialog(dialogParent);
+		if (returnVal == JFileChooser.APPROVE_OPTION) {
+			File file = chooser.getSelectedFile();
+			ActionSaveAs.PREFS.put(ActionSaveAs.LAST_USED_FOLDER, file.getParent());
+			if (!file.getAbsolutePath().endsWith(CSV_EXT)) {
+				file = new File(file.getAbsolutePath() + CSV_EXT);
+			}
+
+			try {
+				Writer writer = new BufferedWriter(new FileWriter(file));
+				try {
+					writer.write(TraceAlignmentStatistics.getCsvHeader() + "\n");
+					for (TraceAlignmentStatistics traceStatistics : traceAlignmentStatistics)
+						writer.write(traceStatistics.toCsvRow() + "\n");
+				} finally {
+					writer.close();
+				}
+			} catch (IOException e1) {
+				ProMUIHelper.showErrorMessage(dialogParent, e1.getMessage(), "Error saving");
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.processmining.planningbasedalignment.plugins.visualization.alignment;
+
+/**
+ * Running statistics over the fitness values of a changing set of alignments. Values can be added and removed in
+ * logarithmic time: the mean is kept as a running sum, while the median is read from a Fenwick tree counting the
+ * values that fall in each of a fixed number of fitness buckets (fitness is in [0,1], so the error on the median is
+ * bounded by half the bucket width).
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+final class FitnessStatistics {
+
+	/**
+	 * The number of fitness buckets (the resolution of the median is 1 / FITNESS_BUCKETS).
+	 */
+	private static final int FITNESS_BUCKETS = 1 << 14;
+
+	/**
+	 * The Fenwick tree over the bucket counts (1-based).
+	 */
+	private final long[] tree = new long[FITNESS_BUCKETS + 1];
+
+	private long count;
+	private double sum;
+
+	/**
+	 * Add the given fitness value, as many times as the given weight.
+	 */
+	public synchronized void add(double fitness, int weight) {
+		update(fitness, weight);
+	}
+
+	/**
+	 * Remove the given fitness value, as many times as the given weight.
+	 */
+	public synchronized void remove(double fitness, int weight) {
+		update(fitness, -weight);
+	}
+
+	/**
+	 * Remove all the values.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < tree.length; i++)
+			tree[i] = 0;
+		count = 0;
+		sum = 0;
+	}
+
+	/**
+	 * @return the number of values
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the mean of the values, or NaN if there are none
+	 */
+	public synchronized double getMean() {
+		return (count == 0) ? Double.NaN : sum / count;
+	}
+
+	/**
+	 * @return the median of the values (averaging the two middle ones if their number is even), or NaN if there are
+	 *         none
+	 */
+	public synchronized double getMedian() {
+		if (count == 0)
+			return Double.NaN;
+		double lower = getValueAtRank((count + 1) / 2);
+		if (count % 2 == 1)
+			return lower;
+		return (lower + getValueAtRank(count / 2 + 1)) / 2;
+	}
+
+	private void update(double fitness, int weight) {
+		if (Double.isNaN(fitness))
+			return;
+		for (int i = bucketOf(fitness) + 1; i <= FITNESS_BUCKETS; i += i & -i)
+			tree[i] += weight;
+		count += weight;
+		sum += fitness * weight;
+	}
+
+	/**
+	 * Find the value with the given rank (starting from 1), by descending the Fenwick tree.
+	 */
+	private double getValueAtRank(long rank) {
+		int position = 0;
+		long remaining = rank;
+		for (int step = Integer.highestOneBit(FITNESS_BUCKETS); step > 0; step >>= 1) {
+			int next = position + step;
+			if (next <= FITNESS_BUCKETS && tree[next] < remaining) {
+				position = next;
+				remaining -= tree[next];
+			}
+		}
+		// position is the number of buckets preceding the one holding the value
+		return valueOf(position);
+	}
+
+	private static int bucketOf(double fitness) {
+		int bucket = (int) (Math.max(0, Math.min(1, fitness)) * FITNESS_BUCKETS);
+		return Math.min(bucket, FITNESS_BUCKETS - 1);
+	}
+
+	private static double valueOf(int bucket) {
+		return Math.min(1, (bucket + 0.5) / FITNESS_BUCKETS);
+	}
+
+}
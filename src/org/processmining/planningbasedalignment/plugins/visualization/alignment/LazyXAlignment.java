@@ -0,0 +1,142 @@
+package org.processmining.planningbasedalignment.plugins.visualization.alignment;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.factory.XFactoryRegistry;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.XTrace;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.plugins.DataConformance.Alignment;
+import org.processmining.plugins.DataConformance.visualization.alignment.XTraceResolver;
+import org.processmining.plugins.balancedconformance.export.XAlignmentConverter;
+import org.processmining.xesalignmentextension.XAlignmentExtension;
+import org.processmining.xesalignmentextension.XAlignmentExtension.XAlignment;
+import org.processmining.xesalignmentextension.XAlignmentExtension.XAlignmentMove;
+
+/**
+ * An {@link XAlignment} that is converted from the related {@link Alignment} only when its moves are accessed (e.g.
+ * when the row showing it is painted). When the result keeps its alignments in a store, only the index of the
+ * alignment is held, and the {@link Alignment} itself is built out of the store right before the conversion. The
+ * conversion is softly cached, so that it can be reclaimed under memory pressure and redone on demand. The fitness
+ * is answered without any conversion, so that sorting by fitness and computing statistics do not touch the moves.
+ *
+ * The same object can stand for a variant, namely for all the traces having the same alignment. In that case, the
+ * name of the shown trace (a copy of the original one) reports the number of traces in the variant.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+final class LazyXAlignment implements XAlignment {
+
+	/**
+	 * The result whose alignment store holds the alignment, along with the index of the alignment in the store (null
+	 * if the result does not keep its alignments in a store).
+	 */
+	private final PlanningBasedReplayResult replayResult;
+	private final int index;
+
+	/**
+	 * The alignment, if the result does not keep its alignments in a store (null otherwise).
+	 */
+	private final Alignment alignment;
+
+	private final XTraceResolver traceResolver;
+	private final XAlignmentConverter converter;
+
+	/**
+	 * The case ids of the traces having this alignment (the first one is the case id of the converted alignment).
+	 */
+	private final List<String> caseIds;
+
+	private double fitness;
+	private SoftReference<XAlignment> view;
+
+	LazyXAlignment(Alignment alignment, XTraceResolver traceResolver, XAlignmentConverter converter) {
+		this.replayResult = null;
+		this.index = -1;
+		this.alignment = alignment;
+		this.traceResolver = traceResolver;
+		this.converter = converter;
+		this.caseIds = Collections.singletonList(alignment.getTraceName());
+		this.fitness = alignment.getFitness();
+	}
+
+	LazyXAlignment(PlanningBasedReplayResult replayResult, int index, XTraceResolver traceResolver,
+			XAlignmentConverter converter) {
+		this(replayResult, index, traceResolver, converter,
+				Collections.singletonList(replayResult.getAlignmentStore().getCaseId(index)));
+	}
+
+	LazyXAlignment(PlanningBasedReplayResult replayResult, int index, XTraceResolver traceResolver,
+			XAlignmentConverter converter, List<String> caseIds) {
+		this.replayResult = replayResult;
+		this.index = index;
+		this.alignment = null;
+		this.traceResolver = traceResolver;
+		this.converter = converter;
+		this.caseIds = caseIds;
+		this.fitness = replayResult.getAlignmentStore().getFitness(index);
+	}
+
+	public XTrace getTrace() {
+		return getView().getTrace();
+	}
+
+	public double getFitness() {
+		return fitness;
+	}
+
+	public void setFitness(double fitness) {
+		this.fitness = fitness;
+		getView().setFitness(fitness);
+	}
+
+	public Iterator<XAlignmentMove> iterator() {
+		return getView().iterator();
+	}
+
+	/**
+	 * @return true if this object stands for more than one trace
+	 */
+	public boolean isVariant() {
+		return caseIds.size() > 1;
+	}
+
+	/**
+	 * Convert the alignment, if its conversion is not cached.
+	 */
+	private synchronized XAlignment getView() {
+		XAlignment result = (view == null) ? null : view.get();
+		if (result == null) {
+			Alignment converted = (alignment != null) ?
+					alignment : replayResult.getAlignmentStore().getAlignment(index);
+			result = converter.viewAsXAlignment(converted, traceResolver.getOriginalTrace(caseIds.get(0)));
+			if (isVariant()) {
+				// rename a copy, since the trace of the view may be the one in the log
+				XTrace trace = XFactoryRegistry.instance().currentDefault().createTrace(
+						(XAttributeMap) result.getTrace().getAttributes().clone());
+				trace.addAll(result.getTrace());
+				XConceptExtension.instance().assignName(trace,
+						caseIds.get(0) + " (+" + (caseIds.size() - 1) + " traces)");
+				result = XAlignmentExtension.instance().extendXTrace(trace);
+			}
+			view = new SoftReference<XAlignment>(result);
+		}
+		return result;
+	}
+
+	/* GETTERS & SETTERS */
+
+	public List<String> getCaseIds() {
+		return caseIds;
+	}
+
+	public int getTracesNum() {
+		return caseIds.size();
+	}
+
+}
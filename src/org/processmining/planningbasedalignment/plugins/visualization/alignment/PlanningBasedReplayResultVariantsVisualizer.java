@@ -0,0 +1,33 @@
+package org.processmining.planningbasedalignment.plugins.visualization.alignment;
+
+import javax.swing.JComponent;
+
+import org.processmining.contexts.uitopia.annotations.Visualizer;
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.annotations.Plugin;
+import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+
+/**
+ * Visualize the result of a Planning-based Alignment showing each distinct alignment once, along with the number of
+ * traces having it.
+ * 
+ * @author Giacomo Lanciano
+ *
+ */
+@Plugin(
+	name = "02 Planning-based Alignment (Variants)",
+	returnLabels = { "Planning-based Alignment (Variants)" },
+	returnTypes = { JComponent.class },
+	parameterLabels = { "Matching Instances" }
+)
+@Visualizer
+public class PlanningBasedReplayResultVariantsVisualizer {
+
+	@PluginVariant(requiredParameterLabels = { 0 })
+	public JComponent visualize(PluginContext context, PlanningBasedReplayResult alignments) {
+		return new PlanningBasedReplayResultVisualizer().doVisualize(
+				context, PlanningBasedReplayResultVisualizer.createTraceResolver(alignments), alignments, true);
+	}
+
+}
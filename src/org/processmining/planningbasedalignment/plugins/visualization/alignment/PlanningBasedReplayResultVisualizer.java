@@ -1,33 +1,38 @@
 package org.processmining.planningbasedalignment.plugins.visualization.alignment;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.swing.JComponent;
 
 import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.model.XLog;
 import org.deckfour.xes.model.XTrace;
 import org.processmining.contexts.uitopia.annotations.Visualizer;
 import org.processmining.framework.plugin.PluginContext;
 import org.processmining.framework.plugin.annotations.Plugin;
 import org.processmining.framework.plugin.annotations.PluginVariant;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
 import org.processmining.planningbasedalignment.plugins.visualization.alignment.StrippedDownAlignmentView.Layout;
 import org.processmining.plugins.DataConformance.Alignment;
-import org.processmining.plugins.DataConformance.ResultReplay;
 import org.processmining.plugins.DataConformance.visualization.alignment.ColorTheme;
 import org.processmining.plugins.DataConformance.visualization.alignment.XTraceResolver;
 import org.processmining.plugins.balancedconformance.export.XAlignmentConverter;
-import org.processmining.plugins.balancedconformance.result.AlignmentCollection;
 import org.processmining.xesalignmentextension.XAlignmentExtension.XAlignment;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
-
 /**
  * Borrowed from DataAwareReplayer.
  *
+ * Alignments are shown through {@link LazyXAlignment}s, so that only the rows being painted are converted. The
+ * visualization grouped by variant shows each distinct alignment once, along with the number of traces having it.
+ *
  */
 @Plugin(
 	name = "01 Planning-based Alignment",
@@ -38,46 +43,43 @@ import com.google.common.collect.Iterables;
 @Visualizer
 public class PlanningBasedReplayResultVisualizer {
 
+	/**
+	 * The saturation and brightness of the generated activity colors.
+	 */
+	private static final float ACTIVITY_COLOR_SATURATION = 0.45f;
+	private static final float ACTIVITY_COLOR_BRIGHTNESS = 0.95f;
+
 	@PluginVariant(requiredParameterLabels = { 0 })
 	public JComponent visualize(PluginContext context, PlanningBasedReplayResult alignments) {
-		
-		ResultReplay result = (ResultReplay) alignments;
-		final Map<String, XTrace> traceMap = buildTraceMap(result);
-		XTraceResolver traceResolver = new XTraceResolver() {
-
-			public XTrace getOriginalTrace(String name) {
-				return traceMap.get(name);
-			}
-
-			public boolean hasOriginalTraces() {
-				return true;
-			}
-		};
-		return doVisualize(context, traceResolver, alignments);		
+		return doVisualize(context, createTraceResolver(alignments), alignments, false);
 	}
 
-	private Iterable<XAlignment> convertToXAlignment(AlignmentCollection alignments,
-			final XTraceResolver traceResolver, final XAlignmentConverter converter) {
-		return Iterables.transform(alignments.getAlignments(), new Function<Alignment, XAlignment>() {
-
-			public XAlignment apply(Alignment a) {
-				return converter.viewAsXAlignment(a, traceResolver.getOriginalTrace(a.getTraceName()));
-			}
-		});
+	public JComponent doVisualize(PluginContext context, final XTraceResolver traceResolver,
+			PlanningBasedReplayResult replayResult) {
+		return doVisualize(context, traceResolver, replayResult, false);
 	}
 
 	public JComponent doVisualize(PluginContext context, final XTraceResolver traceResolver,
-			PlanningBasedReplayResult replayResult) {
-		
+			PlanningBasedReplayResult replayResult, boolean groupByVariant) {
+
 		// initialize converter
 		XAlignmentConverter converter = new XAlignmentConverter();
 		converter.setClassifier(replayResult.getClassifier()).setVariableMapping(replayResult.getVariableMapping());
-		
-		// convert replay result into XAlignments iterable
-		Iterable<XAlignment> alignments = convertToXAlignment(replayResult, traceResolver, converter);
-		
-		Map<String, Color> activityColorMap = ColorTheme.createColorMap(alignments);
-		
+
+		// wrap alignments in lazy XAlignments
+		List<XAlignment> alignments;
+		AbstractAlignmentStore alignmentStore = replayResult.getAlignmentStore();
+		if (groupByVariant && alignmentStore != null)
+			alignments = createVariantAlignments(replayResult, alignmentStore, traceResolver, converter);
+		else
+			alignments = createLazyAlignments(replayResult, traceResolver, converter);
+
+		Map<String, Color> activityColorMap;
+		if (alignmentStore != null)
+			activityColorMap = createColorMap(alignmentStore);
+		else
+			activityColorMap = ColorTheme.createColorMap(alignments);
+
 		// create alignment view
 		StrippedDownAlignmentView alignmentView = new StrippedDownAlignmentView(
 				Layout.TWOCOLUMN, context, traceResolver, activityColorMap, replayResult);
@@ -85,12 +87,149 @@ public class PlanningBasedReplayResultVisualizer {
 		return alignmentView;
 	}
 
-	private Map<String, XTrace> buildTraceMap(ResultReplay logReplayResult) {
-		HashMap<String, XTrace> traceMap = new HashMap<>();
-		for (XTrace trace : logReplayResult.getAlignedLog()) {
-			traceMap.put(XConceptExtension.instance().extractName(trace), trace);
+	private List<XAlignment> createLazyAlignments(PlanningBasedReplayResult replayResult,
+			XTraceResolver traceResolver, XAlignmentConverter converter) {
+		AbstractAlignmentStore alignmentStore = replayResult.getAlignmentStore();
+		if (alignmentStore == null) {
+			List<XAlignment> alignments = new ArrayList<>(replayResult.getAlignments().size());
+			for (Alignment alignment : replayResult.getAlignments())
+				alignments.add(new LazyXAlignment(alignment, traceResolver, converter));
+			return alignments;
+		}
+
+		List<XAlignment> alignments = new ArrayList<>(alignmentStore.size());
+		for (int i = 0; i < alignmentStore.size(); i++)
+			alignments.add(new LazyXAlignment(replayResult, i, traceResolver, converter));
+		return alignments;
+	}
+
+	/**
+	 * Group the alignments having the same sequence of moves, comparing the encoded moves in the alignment store.
+	 */
+	private List<XAlignment> createVariantAlignments(PlanningBasedReplayResult replayResult,
+			AbstractAlignmentStore alignmentStore, XTraceResolver traceResolver, XAlignmentConverter converter) {
+
+		// the store indexes of the representatives of the variants, by hash of the sequence of moves
+		Map<Long, List<Integer>> representatives = new HashMap<>();
+		Map<Integer, List<String>> variantCaseIds = new HashMap<>();
+		List<Integer> variantOrder = new ArrayList<>();
+
+		for (int index = 0; index < alignmentStore.size(); index++) {
+			Long hash = hashMoves(alignmentStore, index);
+			List<Integer> candidates = representatives.get(hash);
+			if (candidates == null) {
+				candidates = new ArrayList<>(1);
+				representatives.put(hash, candidates);
+			}
+			Integer representative = null;
+			for (Integer candidate : candidates) {
+				if (sameMoves(alignmentStore, candidate, index)) {
+					representative = candidate;
+					break;
+				}
+			}
+			if (representative == null) {
+				representative = index;
+				candidates.add(index);
+				variantOrder.add(index);
+				variantCaseIds.put(index, new ArrayList<String>());
+			}
+			variantCaseIds.get(representative).add(alignmentStore.getCaseId(index));
+		}
+
+		List<XAlignment> alignments = new ArrayList<>(variantOrder.size());
+		for (Integer variant : variantOrder) {
+			alignments.add(new LazyXAlignment(
+					replayResult, variant, traceResolver, converter, variantCaseIds.get(variant)));
+		}
+		return alignments;
+	}
+
+	private static long hashMoves(AbstractAlignmentStore alignmentStore, int index) {
+		long hash = 0xcbf29ce484222325L;
+		for (int move = 0; move < alignmentStore.getMovesNum(index); move++) {
+			hash = (hash ^ alignmentStore.getMoveType(index, move)) * 0x100000001b3L;
+			hash = (hash ^ alignmentStore.getMoveIndex(index, move)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private static boolean sameMoves(AbstractAlignmentStore alignmentStore, int index, int otherIndex) {
+		int movesNum = alignmentStore.getMovesNum(index);
+		if (movesNum != alignmentStore.getMovesNum(otherIndex))
+			return false;
+		for (int move = 0; move < movesNum; move++) {
+			if (alignmentStore.getMoveType(index, move) != alignmentStore.getMoveType(otherIndex, move)
+					|| alignmentStore.getMoveIndex(index, move) != alignmentStore.getMoveIndex(otherIndex, move))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Assign a color to each activity known by the alignment store, without looking at the alignments.
+	 */
+	private static Map<String, Color> createColorMap(AbstractAlignmentStore alignmentStore) {
+		Set<String> activities = new LinkedHashSet<>();
+		for (int i = 0; i < alignmentStore.getTransitionsNum(); i++) {
+			Transition transition = alignmentStore.getTransition(i);
+			if (!transition.isInvisible())
+				activities.add(transition.getLabel());
+		}
+		for (int i = 0; i < alignmentStore.getEventClassesNum(); i++)
+			activities.add(alignmentStore.getEventClass(i).getId());
+
+		Map<String, Color> colorMap = new HashMap<>();
+		int activitiesNum = activities.size();
+		int i = 0;
+		for (String activity : activities) {
+			float hue = (float) i++ / Math.max(1, activitiesNum);
+			colorMap.put(activity, Color.getHSBColor(hue, ACTIVITY_COLOR_SATURATION, ACTIVITY_COLOR_BRIGHTNESS));
 		}
-		return traceMap;
+		return colorMap;
+	}
+
+	/**
+	 * Create a resolver looking up traces by the position recorded in the alignment store, so that no map over the
+	 * whole log has to be built. A map is built lazily only if positions do not match the log.
+	 */
+	public static XTraceResolver createTraceResolver(final PlanningBasedReplayResult replayResult) {
+		final XLog log = replayResult.getAlignedLog();
+		final AbstractAlignmentStore alignmentStore = replayResult.getAlignmentStore();
+
+		return new XTraceResolver() {
+
+			private Map<String, XTrace> traceMap;
+
+			public XTrace getOriginalTrace(String name) {
+				if (alignmentStore != null) {
+					int index = alignmentStore.indexOf(name);
+					if (index >= 0) {
+						int logPos = alignmentStore.getTracePosition(index) - 1;
+						if (logPos >= 0 && logPos < log.size()) {
+							XTrace trace = log.get(logPos);
+							if (name.equals(XConceptExtension.instance().extractName(trace)))
+								return trace;
+						}
+					}
+				}
+				return getTraceMap().get(name);
+			}
+
+			public boolean hasOriginalTraces() {
+				return true;
+			}
+
+			private synchronized Map<String, XTrace> getTraceMap() {
+				if (traceMap == null) {
+					traceMap = new HashMap<>();
+					for (XTrace trace : log) {
+						traceMap.put(XConceptExtension.instance().extractName(trace), trace);
+					}
+				}
+				return traceMap;
+			}
+		};
 	}
 
 }
@@ -9,10 +9,19 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -27,11 +36,11 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.ListModel;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 import javax.swing.table.DefaultTableModel;
 
-import org.apache.commons.math3.stat.StatUtils;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.deckfour.xes.model.XEvent;
 import org.processmining.framework.plugin.PluginContext;
@@ -46,7 +55,11 @@ import org.processmining.framework.util.ui.widgets.traceview.ProMTraceView.Trace
 import org.processmining.framework.util.ui.widgets.traceview.masterdetail.DetailView;
 import org.processmining.framework.util.ui.widgets.traceview.model.FilteredListModelImpl;
 import org.processmining.framework.util.ui.widgets.traceview.model.FilteredListModelImpl.ListModelFilter;
+import org.processmining.log.utils.XUtils;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.algorithms.AlignmentPddlEncoding;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AlignmentIndex;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.LogLinearHistogram;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
 import org.processmining.plugins.DataConformance.visualization.alignment.AlignmentListView;
 import org.processmining.plugins.DataConformance.visualization.alignment.AlignmentListView.XAlignmentOrdering;
@@ -67,6 +80,7 @@ import org.processmining.xeslite.query.syntax.ParseException;
 
 import com.fluxicon.slickerbox.factory.SlickerFactory;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 
 /**
  * Borrowed from DataAwareReplayer.
@@ -95,6 +109,12 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 
 					});
 				} else {
+					ListModelFilter<XAlignment> indexedFilter = createIndexedFilter(query);
+					if (indexedFilter != null) {
+						listView.filter(indexedFilter);
+						return;
+					}
+					
 					final Predicate<XAlignment> predicate = new AlignmentQueryPredicate(searchQueryField.getText());
 					;
 					listView.filter(new ListModelFilter<XAlignment>() {
@@ -104,20 +124,118 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 						}
 					});
 				}
-				// TODO disable stats update after query (for the time being)
-				//updateStatistics();
 			} catch (ParseException e1) {
 				ProMUIHelper.showErrorMessage(searchPanel, e1.getMessage(), "Error parsing query");
 			}
 		}
+
+		/**
+		 * Answer a query made of a single name (possibly a regular expression, if prefixed by '~', or a substring,
+		 * if prefixed by '%') through the inverted index of the result, matching the names of activities and
+		 * traces without converting any alignment. Names that match no activity and no trace may refer to other
+		 * attributes, hence they are left to {@link AlignmentQueryPredicate}.
+		 * 
+		 * @return The filter, or null if the query cannot be answered through the index.
+		 */
+		private ListModelFilter<XAlignment> createIndexedFilter(String query) {
+			final AlignmentIndex alignmentIndex = replayResult.getAlignmentIndex();
+			if (alignmentIndex == null || COMPOUND_QUERY_PATTERN.matcher(query).find())
+				return null;
+
+			Predicate<String> namePredicate;
+			if (query.startsWith("~")) {
+				try {
+					final Pattern pattern = Pattern.compile(query.substring(1));
+					namePredicate = new Predicate<String>() {
+
+						public boolean apply(String name) {
+							return name != null && pattern.matcher(name).matches();
+						}
+					};
+				} catch (PatternSyntaxException e) {
+					return null;
+				}
+			} else if (query.startsWith("%")) {
+				final String substring = query.substring(1);
+				namePredicate = new Predicate<String>() {
+
+					public boolean apply(String name) {
+						return name != null && name.contains(substring);
+					}
+				};
+			} else {
+				namePredicate = Predicates.equalTo(query);
+			}
+
+			// the name has to match a known activity or trace
+			final AbstractAlignmentStore alignmentStore = replayResult.getAlignmentStore();
+			boolean knownName = false;
+			for (String activity : alignmentIndex.getActivities()) {
+				if (namePredicate.apply(activity)) {
+					knownName = true;
+					break;
+				}
+			}
+
+			// alignments containing a matching activity, plus the ones of matching traces
+			final BitSet matches = alignmentIndex.getAlignments(namePredicate);
+			if (query.startsWith("~") || query.startsWith("%")) {
+				for (int i = 0; i < alignmentStore.size(); i++) {
+					if (namePredicate.apply(alignmentStore.getCaseId(i))) {
+						matches.set(i);
+						knownName = true;
+					}
+				}
+			} else {
+				int index = alignmentStore.indexOf(query);
+				if (index >= 0) {
+					matches.set(index);
+					knownName = true;
+				}
+			}
+			if (!knownName)
+				return null;
+
+			return new ListModelFilter<XAlignment>() {
+
+				public boolean accept(XAlignment a) {
+					List<String> caseIds = (a instanceof LazyXAlignment) ?
+							((LazyXAlignment) a).getCaseIds() : Collections.singletonList(XUtils.getConceptName(a.getTrace()));
+					for (String caseId : caseIds) {
+						int index = alignmentStore.indexOf(caseId);
+						if (index >= 0 && matches.get(index))
+							return true;
+					}
+					return false;
+				}
+			};
+		}
 	}
 
+	/**
+	 * Matches the queries that combine several conditions (e.g. on fitness), which are not answered by the index.
+	 */
+	private static final Pattern COMPOUND_QUERY_PATTERN = Pattern.compile("[<>=()&|!\"]");
+
 	public enum Layout {
 		TWOCOLUMN, ONECOLUMN
 	}
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The thread updating the statistics of all the views, shared so that no thread outlives its view (the updates of
+	 * each view are still applied in order).
+	 */
+	private static final ExecutorService STATISTICS_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Alignment statistics");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
 	private final XTraceResolver traceResolver;
 	private final Map<String, Color> activityColorMap;
 	private Comparator<XAlignment> currentOrder = XAlignmentOrdering.FITNESS_DESC;
@@ -126,6 +244,17 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 	private DefaultTableModel statisticsModel;
 	private PlanningBasedReplayResult replayResult;
 
+	/**
+	 * The alignments in the list model, as last seen by the statistics (accessed on the EDT only).
+	 */
+	private final List<XAlignment> shownAlignments = new ArrayList<>();
+
+	/**
+	 * The fitness statistics of the alignments in the list model, updated from list deltas off the EDT.
+	 */
+	private final FitnessStatistics fitnessStatistics = new FitnessStatistics();
+	private final AtomicBoolean statisticsRefreshPending = new AtomicBoolean(false);
+
 	public StrippedDownAlignmentView(
 			Layout layout, PluginContext context, XTraceResolver traceMap, Map<String, Color> activityColorMap,
 			PlanningBasedReplayResult replayResult) {
@@ -154,17 +283,24 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 			listView.getListModel().addListDataListener(new ListDataListener() {
 
 				public void intervalRemoved(ListDataEvent e) {
-					// TODO disable stats update after query (for the time being)
-					//updateStatistics();
+					applyListDelta(Math.min(e.getIndex0(), e.getIndex1()), Math.max(e.getIndex0(), e.getIndex1()), 0);
 				}
 
 				public void intervalAdded(ListDataEvent e) {
-					updateStatistics();
+					int index0 = Math.min(e.getIndex0(), e.getIndex1());
+					applyListDelta(index0, index0 - 1, Math.abs(e.getIndex1() - e.getIndex0()) + 1);
 				}
 
 				public void contentsChanged(ListDataEvent e) {
-					// TODO disable stats update after query (for the time being)
-					//updateStatistics();
+					int index0 = Math.min(e.getIndex0(), e.getIndex1());
+					int index1 = Math.max(e.getIndex0(), e.getIndex1());
+					if (index0 < 0 || shownAlignments.size() != listView.getListModel().getSize()
+							|| index1 >= shownAlignments.size()) {
+						// unknown change, replace everything
+						applyListDelta(0, shownAlignments.size() - 1, listView.getListModel().getSize());
+					} else {
+						applyListDelta(index0, index1, index1 - index0 + 1);
+					}
 				}
 			});
 
@@ -176,6 +312,12 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 			rightPanel.add(createHeading("ALIGNMENT STATISTICS"));
 			rightPanel.add(Box.createVerticalStrut(5));
 			rightPanel.add(createStatisticsPanel());
+			rightPanel.add(Box.createVerticalStrut(5));
+			rightPanel.add(createExportHistogramsButton());
+			rightPanel.add(Box.createVerticalStrut(5));
+			rightPanel.add(createShowTraceStatisticsButton());
+			rightPanel.add(Box.createVerticalStrut(5));
+			rightPanel.add(createExportAlignmentsButton(context));
 
 			rightPanel.add(Box.createVerticalStrut(10));
 
@@ -402,7 +544,7 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 						final int countSelected = listView.getList().getSelectedIndices().length;
 						final JMenuItem menuItemExport = new JMenuItem(
 								String.format("Export log traces of %s selected alignment(s)", countSelected));
-						menuItemExport.addActionListener(new ActionExportTraces(context, listView, traceResolver));
+						menuItemExport.addActionListener(new ActionExportTraces(context, listView, traceResolver, replayResult));
 						menu.add(menuItemExport);
 					}
 
@@ -453,19 +595,15 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 		NumberFormat realFormat = NumberFormat.getNumberInstance();
 		realFormat.setMaximumFractionDigits(2);
 
-		ListModel<XAlignment> model = listView.getListModel();
-		int tracesNum = model.getSize();
+		// fitness stats are maintained incrementally (see applyListDelta)
+		long tracesNum = fitnessStatistics.getCount();
+		int shownNum = shownAlignments.size();
 		statisticsModel.getDataVector().clear();
 		statisticsModel.addRow(new String[] { "Count Traces", integerFormat.format(tracesNum)});
-		
-		// get fitness values from alignments list
-		double[] fitness = new double[tracesNum];
-		for (int i = 0; i < model.getSize(); i++) {
-			XAlignment alignment = model.getElementAt(i);
-			fitness[i] = alignment.getFitness();
-		}
-		statisticsModel.addRow(new String[] { "Average Fitness", percentageFormat.format(StatUtils.mean(fitness))});
-		statisticsModel.addRow(new String[] { "Median Fitness", percentageFormat.format(StatUtils.percentile(fitness, 50))});
+		if (tracesNum != shownNum)
+			statisticsModel.addRow(new String[] { "Count Variants", integerFormat.format(shownNum)});
+		statisticsModel.addRow(new String[] { "Average Fitness", percentageFormat.format(fitnessStatistics.getMean())});
+		statisticsModel.addRow(new String[] { "Median Fitness", percentageFormat.format(fitnessStatistics.getMedian())});
 		
 		// time stats
 		SummaryStatistics alignmentTimeSummary = replayResult.getAlignmentTimeSummary();
@@ -480,6 +618,8 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 			statisticsModel.addRow(
 					new String[] { "Standard deviation", realFormat.format(alignmentTimeSummary.getStandardDeviation())
 							+ AlignmentPddlEncoding.DEFAULT_TIME_UNIT });
+			addPercentileRows(
+					"(actual) Time", replayResult.getAlignmentTimeHistogram(), AlignmentPddlEncoding.DEFAULT_TIME_UNIT);
 		}
 		
 		// expanded states stats
@@ -495,6 +635,7 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 			statisticsModel.addRow( new String[] { 
 							"Standard deviation", 
 							realFormat.format(expandedStatesSummary.getStandardDeviation()) });
+			addPercentileRows("Expanded States", replayResult.getExpandedStatesHistogram(), "");
 		}
 		
 		// generate states stats
@@ -509,10 +650,117 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 					new String[] { "Minimum Generated States", realFormat.format(generatedStatesSummary.getMin()) });
 			statisticsModel.addRow(new String[] { "Standard deviation",
 					realFormat.format(generatedStatesSummary.getStandardDeviation()) });
+			addPercentileRows("Generated States", replayResult.getGeneratedStatesHistogram(), "");
+		}
+		
+		// other phases stats (only percentiles are available)
+		LogLinearHistogram preprocessingTimeHistogram = replayResult.getPreprocessingTimeHistogram();
+		if (preprocessingTimeHistogram != null && preprocessingTimeHistogram.getTotalCount() > 0) {
+			statisticsModel.addRow(new String[] { "", "" });
+			addPercentileRows(
+					"Preprocessing Time", preprocessingTimeHistogram, AlignmentPddlEncoding.DEFAULT_TIME_UNIT);
+		}
+		LogLinearHistogram translatorTimeHistogram = replayResult.getTranslatorTimeHistogram();
+		if (translatorTimeHistogram != null && translatorTimeHistogram.getTotalCount() > 0) {
+			statisticsModel.addRow(new String[] { "", "" });
+			addPercentileRows("Translator Time", translatorTimeHistogram, AlignmentPddlEncoding.DEFAULT_TIME_UNIT);
 		}
 		
 		statisticsModel.fireTableDataChanged();
 	}
+	
+	/**
+	 * Replace the alignments in the given range of the last seen list contents with the given number of alignments
+	 * now found in the list model from the same position. The values to add and remove are collected on the EDT,
+	 * while the statistics are updated on a background thread, which then schedules a refresh of the table.
+	 */
+	private void applyListDelta(int index0, int index1, int addedNum) {
+		ListModel<XAlignment> model = listView.getListModel();
+
+		List<XAlignment> removedRange = shownAlignments.subList(index0, index1 + 1);
+		final double[] removedFitness = new double[removedRange.size()];
+		final int[] removedWeights = new int[removedRange.size()];
+		for (int i = 0; i < removedFitness.length; i++) {
+			removedFitness[i] = removedRange.get(i).getFitness();
+			removedWeights[i] = getTracesNum(removedRange.get(i));
+		}
+		removedRange.clear();
+
+		final double[] addedFitness = new double[addedNum];
+		final int[] addedWeights = new int[addedNum];
+		List<XAlignment> addedRange = new ArrayList<>(addedNum);
+		for (int i = 0; i < addedNum; i++) {
+			XAlignment alignment = model.getElementAt(index0 + i);
+			addedRange.add(alignment);
+			addedFitness[i] = alignment.getFitness();
+			addedWeights[i] = getTracesNum(alignment);
+		}
+		shownAlignments.addAll(index0, addedRange);
+
+		STATISTICS_EXECUTOR.execute(new Runnable() {
+
+			public void run() {
+				for (int i = 0; i < removedFitness.length; i++)
+					fitnessStatistics.remove(removedFitness[i], removedWeights[i]);
+				for (int i = 0; i < addedFitness.length; i++)
+					fitnessStatistics.add(addedFitness[i], addedWeights[i]);
+
+				// coalesce refreshes of the table
+				if (statisticsRefreshPending.compareAndSet(false, true)) {
+					SwingUtilities.invokeLater(new Runnable() {
+
+						public void run() {
+							statisticsRefreshPending.set(false);
+							updateStatistics();
+						}
+					});
+				}
+			}
+		});
+	}
+	
+	/**
+	 * @return the number of traces shown by the given alignment (more than one if it stands for a variant)
+	 */
+	private static int getTracesNum(XAlignment alignment) {
+		if (alignment instanceof LazyXAlignment)
+			return ((LazyXAlignment) alignment).getTracesNum();
+		return 1;
+	}
+	
+	/**
+	 * Add a row to the statistics table for each reported percentile of the given histogram.
+	 */
+	private void addPercentileRows(String name, LogLinearHistogram histogram, String unit) {
+		if (histogram == null || histogram.getTotalCount() == 0)
+			return;
+		
+		NumberFormat realFormat = NumberFormat.getNumberInstance();
+		realFormat.setMaximumFractionDigits(2);
+		for (double percentile : LogLinearHistogram.REPORTED_PERCENTILES) {
+			statisticsModel.addRow(new String[] { 
+					"p" + realFormat.format(percentile) + " " + name, 
+					realFormat.format(histogram.getValueAtPercentile(percentile)) + unit });
+		}
+	}
+	
+	private JComponent createExportHistogramsButton() {
+		JButton exportButton = SlickerFactory.instance().createButton("Export histograms (CSV)");
+		exportButton.addActionListener(new ActionExportHistograms(this, replayResult));
+		return exportButton;
+	}
+	
+	private JComponent createShowTraceStatisticsButton() {
+		JButton showButton = SlickerFactory.instance().createButton("Show per-trace statistics");
+		showButton.addActionListener(new ActionShowTraceStatistics(this, replayResult));
+		return showButton;
+	}
+	
+	private JComponent createExportAlignmentsButton(PluginContext context) {
+		JButton exportButton = SlickerFactory.instance().createButton("Export all alignments");
+		exportButton.addActionListener(new ActionExportAlignments(this, context, replayResult));
+		return exportButton;
+	}
 
 	private JPanel createDetailFilterPanel() {
 
@@ -578,8 +826,6 @@ public class StrippedDownAlignmentView extends JPanel implements DetailView<XAli
 			public void actionPerformed(ActionEvent e) {
 				traceList.filter(filter);
 				
-				// TODO disable stats update after query (for the time being)
-				//updateStatistics();
 			}
 
 		});
@@ -10,6 +10,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -36,7 +37,10 @@ import org.processmining.models.graphbased.directed.petrinet.PetrinetNode;
 import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
 import org.processmining.models.jgraph.ProMJGraphVisualizer;
 import org.processmining.models.jgraph.visualization.ProMJGraphPanel;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AlignmentIndex;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.visualization.alignment.PlanningBasedReplayResultVisualizer;
 import org.processmining.plugins.DataConformance.Alignment;
 import org.processmining.plugins.DataConformance.framework.ExecutionStep;
 import org.processmining.plugins.DataConformance.visualization.DataAwareStepTypes;
@@ -57,7 +61,6 @@ public class AnalyzePanel extends JPanel {
 
 	private static final long serialVersionUID = 5707969720823392664L;
 
-	@SuppressWarnings("unused")
 	private static class AnalyzePanelListener extends MouseAdapter {
 
 		private final ProMJGraphPanel panel;
@@ -123,6 +126,13 @@ public class AnalyzePanel extends JPanel {
 
 								@Override
 								public GroupedAlignmentInput<XAlignment> doInBackground() {
+									AlignmentIndex alignmentIndex = replayResult.getAlignmentIndex();
+									if (alignmentIndex != null) {
+										return createGroupedInput(alignmentIndex.getAlignments(
+												node.getLabel(), AbstractAlignmentStore.MODEL_MOVE,
+												AbstractAlignmentStore.LOG_MOVE));
+									}
+									
 									final Map<String, XTrace> traceMap = new HashMap<>();
 									ArrayList<XAlignment> filteredAlignments = new ArrayList<>();
 									XAlignmentConverter converter = new XAlignmentConverter();
@@ -214,6 +224,10 @@ public class AnalyzePanel extends JPanel {
 
 								@Override
 								public GroupedAlignmentInput<XAlignment> doInBackground() {
+									AlignmentIndex alignmentIndex = replayResult.getAlignmentIndex();
+									if (alignmentIndex != null)
+										return createGroupedInput(alignmentIndex.getAlignments(node.getLabel()));
+									
 									final Map<String, XTrace> traceMap = new HashMap<>();
 									List<XAlignment> filteredAlignments = new ArrayList<>();
 									XAlignmentConverter converter = new XAlignmentConverter();
@@ -293,6 +307,29 @@ public class AnalyzePanel extends JPanel {
 			}
 		}
 
+		/**
+		 * Build the input of the grouped view out of the alignments with the given indexes in the alignment store,
+		 * converting only them.
+		 */
+		private GroupedAlignmentInput<XAlignment> createGroupedInput(BitSet alignments) {
+			AbstractAlignmentStore alignmentStore = replayResult.getAlignmentStore();
+			XTraceResolver traceResolver = PlanningBasedReplayResultVisualizer.createTraceResolver(replayResult);
+			XAlignmentConverter converter = new XAlignmentConverter();
+			converter.setClassifier(replayResult.getClassifier());
+			converter.setVariableMapping(replayResult.getVariableMapping());
+			
+			List<XAlignment> filteredAlignments = new ArrayList<>(alignments.cardinality());
+			for (int i = alignments.nextSetBit(0); i >= 0; i = alignments.nextSetBit(i + 1)) {
+				String traceName = alignmentStore.getCaseId(i);
+				filteredAlignments.add(converter.viewAsXAlignment(
+						alignmentStore.getAlignment(i), traceResolver.getOriginalTrace(traceName)));
+			}
+			Map<String, Color> activityColorMap = ColorTheme.createColorMap(filteredAlignments);
+			GroupedAlignments<XAlignment> groupedResult = new GroupedAlignmentsSimpleImpl(
+					filteredAlignments, activityColorMap);
+			return new GroupedAlignmentInput<>(groupedResult, traceResolver, activityColorMap);
+		}
+
 		private Transition getSelectedTransition(Collection<DirectedGraphNode> selectNodes) {
 			Iterator<DirectedGraphNode> iterator = selectNodes.iterator();
 			Transition node = null;
@@ -316,8 +353,8 @@ public class AnalyzePanel extends JPanel {
 		ViewSpecificAttributeMap viewSpecificMap = new ViewSpecificAttributeMap();
 		this.panel = ProMJGraphVisualizer.instance().visualizeGraph(context, net, viewSpecificMap);
 		this.panel.getGraph().setEditable(false);
-//		this.panel.getGraph()
-//				.addMouseListener(new AnalyzePanelListener(context, panel, replayResult));
+		this.panel.getGraph()
+				.addMouseListener(new AnalyzePanelListener(context, panel, replayResult));
 		this.add(panel);
 	}
 
@@ -14,6 +14,7 @@ import org.processmining.models.graphbased.AttributeMap;
 import org.processmining.models.graphbased.directed.petrinet.PetrinetGraph;
 import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
 import org.processmining.models.graphbased.directed.petrinetwithdata.newImpl.PetriNetWithDataFactory;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.MoveCounters;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
 
 import weka.gui.GenericObjectEditor;
@@ -34,42 +35,7 @@ public class ProjectionOnPetrinetVisualizer {
 
 	@PluginVariant(requiredParameterLabels = { 0 })
 	public JComponent visualize(PluginContext context, final PlanningBasedReplayResult replayResult) throws Exception {
-		PetrinetGraph original = replayResult.getPetrinet();
-		PetriNetWithDataFactory factory=new PetriNetWithDataFactory(original, original.getLabel());
-
-		final DataPetriNet cloneNet = factory.getRetValue();
-		
-		for(Transition node : cloneNet.getTransitions()) {
-			if (node.isInvisible()) {
-				node.getAttributeMap().remove(AttributeMap.TOOLTIP);
-				node.getAttributeMap().put(AttributeMap.FILLCOLOR, new Color(0,0,0,127));
-			}
-			else {
-				float actArray[] = replayResult.actArray.get(node.getLabel());
-				if (actArray!=null) {
-					float syncMoves = actArray[0] + actArray[1];
-					float logMoves = actArray[2];
-					float modelMoves = actArray[3];
-					float controlFlowDeviation = syncMoves / (syncMoves + logMoves + modelMoves);
-					
-					// add coloring
-					Color fillColor=getColorForValue(controlFlowDeviation);
-					Color textColor=new Color(255-fillColor.getRed(),255-fillColor.getGreen(),255-fillColor.getBlue());
-					node.getAttributeMap().put(AttributeMap.FILLCOLOR, fillColor);
-					node.getAttributeMap().put(AttributeMap.LABELCOLOR, textColor);
-					
-					// add activity tooltip
-					StringBuffer tooltip=new StringBuffer("<html><table><tr><td><b>Number of synchronous moves:</b> ");
-					tooltip.append((int) syncMoves);
-					tooltip.append("</td></tr><tr><td><b>Number of moves in log:</b> ");
-					tooltip.append((int) logMoves);
-					tooltip.append("</td></tr><tr><td><b>Number of moves in model:</b> ");
-					tooltip.append((int) modelMoves);
-					tooltip.append("</td></tr></table></html>");
-					node.getAttributeMap().put(AttributeMap.TOOLTIP,tooltip.toString());
-				}
-			}
-		}
+		final DataPetriNet cloneNet = getDecoratedNet(replayResult);
 
 		// Load Weka on a separate thread as this takes quite some time
 		Executors.newSingleThreadExecutor().execute(new Runnable() {
@@ -84,6 +50,75 @@ public class ProjectionOnPetrinetVisualizer {
 		return new AnalyzePanel(context, cloneNet, replayResult);
 	}
 
+	/**
+	 * Clone the net of the given result and decorate it with the move counters. Every panel gets its own clone, since
+	 * the graph of a panel registers its listeners on the net it shows.
+	 */
+	private DataPetriNet getDecoratedNet(PlanningBasedReplayResult replayResult) {
+		PetrinetGraph original = replayResult.getPetrinet();
+		PetriNetWithDataFactory factory = new PetriNetWithDataFactory(original, original.getLabel());
+		DataPetriNet cloneNet = factory.getRetValue();
+
+		MoveCounters moveCounters = replayResult.getMoveCounters();
+		for (Transition node : cloneNet.getTransitions()) {
+			if (node.isInvisible()) {
+				node.getAttributeMap().remove(AttributeMap.TOOLTIP);
+				node.getAttributeMap().put(AttributeMap.FILLCOLOR, new Color(0,0,0,127));
+				continue;
+			}
+
+			int[] counts = getCounts(replayResult, moveCounters, node.getLabel());
+			if (counts != null)
+				decorate(node, counts[MoveCounters.SYNCHRONOUS_MOVES], counts[MoveCounters.LOG_MOVES],
+						counts[MoveCounters.MODEL_MOVES]);
+		}
+		return cloneNet;
+	}
+
+	/**
+	 * Retrieve the move counters of the given activity, from the counters collected while parsing or, if not
+	 * available, from the activity statistics computed by the replay result.
+	 */
+	private int[] getCounts(PlanningBasedReplayResult replayResult, MoveCounters moveCounters, String activity) {
+		if (moveCounters != null)
+			return moveCounters.getCounts(activity);
+
+		float actArray[] = replayResult.actArray.get(activity);
+		if (actArray == null)
+			return null;
+		int[] counts = new int[3];
+		counts[MoveCounters.SYNCHRONOUS_MOVES] = (int) (actArray[0] + actArray[1]);
+		counts[MoveCounters.LOG_MOVES] = (int) actArray[2];
+		counts[MoveCounters.MODEL_MOVES] = (int) actArray[3];
+		return counts;
+	}
+
+	/**
+	 * Color the given transition according to its deviations, and describe its moves in the tooltip.
+	 */
+	private void decorate(Transition node, float syncMoves, float logMoves, float modelMoves) {
+		float total = syncMoves + logMoves + modelMoves;
+		if (total == 0)
+			return;
+		float controlFlowDeviation = syncMoves / total;
+		
+		// add coloring
+		Color fillColor=getColorForValue(controlFlowDeviation);
+		Color textColor=new Color(255-fillColor.getRed(),255-fillColor.getGreen(),255-fillColor.getBlue());
+		node.getAttributeMap().put(AttributeMap.FILLCOLOR, fillColor);
+		node.getAttributeMap().put(AttributeMap.LABELCOLOR, textColor);
+		
+		// add activity tooltip
+		StringBuffer tooltip=new StringBuffer("<html><table><tr><td><b>Number of synchronous moves:</b> ");
+		tooltip.append((int) syncMoves);
+		tooltip.append("</td></tr><tr><td><b>Number of moves in log:</b> ");
+		tooltip.append((int) logMoves);
+		tooltip.append("</td></tr><tr><td><b>Number of moves in model:</b> ");
+		tooltip.append((int) modelMoves);
+		tooltip.append("</td></tr></table></html>");
+		node.getAttributeMap().put(AttributeMap.TOOLTIP,tooltip.toString());
+	}
+
 	/**
 	 * Associate the value with a Color. Value 0 corresponds to RED colour and Value 1 to GREEN. 
 	 * @param value A float value between 0 and 1
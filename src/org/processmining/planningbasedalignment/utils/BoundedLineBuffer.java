@@ -0,0 +1,75 @@
+package org.processmining.planningbasedalignment.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ring buffer keeping only the most recent lines added to it.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class BoundedLineBuffer {
+
+	/**
+	 * The slots holding the lines.
+	 */
+	private String[] lines;
+
+	/**
+	 * The position where the next line will be written.
+	 */
+	private int next;
+
+	/**
+	 * The number of lines currently held.
+	 */
+	private int size;
+
+	public BoundedLineBuffer(int capacity) {
+		this.lines = new String[capacity];
+		this.next = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Add the given line, possibly overwriting the oldest one.
+	 *
+	 * @param line The line to be added.
+	 */
+	public void add(String line) {
+		lines[next] = line;
+		next = (next + 1) % lines.length;
+		if (size < lines.length)
+			size++;
+	}
+
+	/**
+	 * Remove all the lines.
+	 */
+	public void clear() {
+		for (int i = 0; i < lines.length; i++)
+			lines[i] = null;
+		next = 0;
+		size = 0;
+	}
+
+	/**
+	 * @return the lines currently held, from the oldest to the most recent
+	 */
+	public List<String> toList() {
+		List<String> result = new ArrayList<String>(size);
+		int first = (next - size + lines.length) % lines.length;
+		for (int i = 0; i < size; i++)
+			result.add(lines[(first + i) % lines.length]);
+		return result;
+	}
+
+	/**
+	 * @return the number of lines currently held
+	 */
+	public int size() {
+		return size;
+	}
+
+}
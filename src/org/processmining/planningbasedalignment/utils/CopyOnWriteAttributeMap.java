@@ -0,0 +1,161 @@
+package org.processmining.planningbasedalignment.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+
+/**
+ * An {@link XAttributeMap} that shares the attributes of a base map, keeping only its own changes (added, replaced
+ * and removed attributes). It allows to derive an element from another one that differs in a few attributes (e.g.
+ * the timestamp) without copying all of them. The base map is never modified through this map, so it must not be
+ * modified elsewhere while this map is in use.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class CopyOnWriteAttributeMap extends AbstractMap<String, XAttribute> implements XAttributeMap {
+
+	/**
+	 * The shared attributes.
+	 */
+	private final Map<String, XAttribute> base;
+
+	/**
+	 * The attributes added or replaced through this map (none of them is in removedKeys).
+	 */
+	private final Map<String, XAttribute> overlay;
+
+	/**
+	 * The keys of the attributes of the base map that have been removed through this map.
+	 */
+	private final Set<String> removedKeys;
+
+	public CopyOnWriteAttributeMap(XAttributeMap base) {
+		if (base instanceof CopyOnWriteAttributeMap) {
+			// share the same base, instead of stacking overlays
+			CopyOnWriteAttributeMap other = (CopyOnWriteAttributeMap) base;
+			this.base = other.base;
+			this.overlay = new LinkedHashMap<String, XAttribute>(other.overlay);
+			this.removedKeys = new HashSet<String>(other.removedKeys);
+		} else {
+			this.base = base;
+			this.overlay = new LinkedHashMap<String, XAttribute>(4);
+			this.removedKeys = new HashSet<String>(4);
+		}
+	}
+
+	@Override
+	public XAttribute get(Object key) {
+		XAttribute attribute = overlay.get(key);
+		if (attribute != null || overlay.containsKey(key))
+			return attribute;
+		return removedKeys.contains(key) ? null : base.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (overlay.containsKey(key))
+			return true;
+		return !removedKeys.contains(key) && base.containsKey(key);
+	}
+
+	@Override
+	public XAttribute put(String key, XAttribute value) {
+		XAttribute previous = get(key);
+		removedKeys.remove(key);
+		overlay.put(key, value);
+		return previous;
+	}
+
+	@Override
+	public XAttribute remove(Object key) {
+		if (!containsKey(key))
+			return null;
+		XAttribute previous = get(key);
+		overlay.remove(key);
+		if (base.containsKey(key))
+			removedKeys.add((String) key);
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		overlay.clear();
+		removedKeys.addAll(base.keySet());
+	}
+
+	@Override
+	public int size() {
+		int size = base.size() - removedKeys.size();
+		for (String key : overlay.keySet()) {
+			if (!base.containsKey(key))
+				size++;
+		}
+		return size;
+	}
+
+	@Override
+	public Set<Map.Entry<String, XAttribute>> entrySet() {
+		return new AbstractSet<Map.Entry<String, XAttribute>>() {
+
+			@Override
+			public Iterator<Map.Entry<String, XAttribute>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return CopyOnWriteAttributeMap.this.size();
+			}
+		};
+	}
+
+	@Override
+	public Object clone() {
+		return new CopyOnWriteAttributeMap(this);
+	}
+
+	/**
+	 * Iterate over the visible attributes of the base map, then over the ones of the overlay.
+	 */
+	private final class EntryIterator implements Iterator<Map.Entry<String, XAttribute>> {
+
+		private final Iterator<Map.Entry<String, XAttribute>> baseIterator = base.entrySet().iterator();
+		private final Iterator<Map.Entry<String, XAttribute>> overlayIterator = overlay.entrySet().iterator();
+		private Map.Entry<String, XAttribute> next = findNext();
+
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		public Map.Entry<String, XAttribute> next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			Map.Entry<String, XAttribute> current = next;
+			next = findNext();
+			return current;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private Map.Entry<String, XAttribute> findNext() {
+			while (baseIterator.hasNext()) {
+				Map.Entry<String, XAttribute> entry = baseIterator.next();
+				if (!removedKeys.contains(entry.getKey()) && !overlay.containsKey(entry.getKey()))
+					return new AbstractMap.SimpleImmutableEntry<String, XAttribute>(entry);
+			}
+			return overlayIterator.hasNext() ? overlayIterator.next() : null;
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package org.processmining.planningbasedalignment.utils;
+
+/**
+ * Utility functions to write CSV files.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class CsvUtils {
+
+	public static final String SEPARATOR = ",";
+
+	private CsvUtils() {
+	}
+
+	/**
+	 * Quote the given value to be written in a CSV cell, doubling the quotes it contains.
+	 *
+	 * @param value The value to be quoted.
+	 * @return The quoted value (an empty cell if the value is null).
+	 */
+	public static String quoteValue(String value) {
+		if (value == null)
+			return "";
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+}
@@ -0,0 +1,191 @@
+package org.processmining.planningbasedalignment.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A minimal JSON reader, turning objects into maps (preserving the order of the keys), arrays into lists, numbers into
+ * {@link BigDecimal}s (so that their textual value is preserved), and strings, booleans and nulls into the
+ * corresponding Java values.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class JsonReader {
+
+	private final String text;
+	private int position = 0;
+
+	public JsonReader(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * Parse the given JSON file.
+	 *
+	 * @param file The file (UTF-8 encoded).
+	 * @return The parsed value.
+	 * @throws IOException if the file cannot be read.
+	 * @throws IllegalArgumentException if the file is not valid JSON.
+	 */
+	public static Object parse(File file) throws IOException {
+		return new JsonReader(FileUtils.readFileToString(file, "UTF-8")).parse();
+	}
+
+	/**
+	 * Parse the whole text.
+	 *
+	 * @return The parsed value.
+	 * @throws IllegalArgumentException if the text is not valid JSON.
+	 */
+	public Object parse() {
+		Object result = parseValue();
+		skipWhitespace();
+		if (position < text.length())
+			throw error("end of input");
+		return result;
+	}
+
+	private Object parseValue() {
+		skipWhitespace();
+		char c = peek();
+		if (c == '{')
+			return parseObject();
+		if (c == '[')
+			return parseArray();
+		if (c == '"')
+			return parseString();
+
+		int start = position;
+		while (position < text.length() && ",]} \t\r\n".indexOf(text.charAt(position)) < 0)
+			position++;
+		String literal = text.substring(start, position);
+		if (literal.equals("null"))
+			return null;
+		if (literal.equals("true") || literal.equals("false"))
+			return Boolean.valueOf(literal);
+		try {
+			return new BigDecimal(literal);
+		} catch (NumberFormatException e) {
+			position = start;
+			throw error("value");
+		}
+	}
+
+	private Map<String, Object> parseObject() {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		expect('{');
+		skipWhitespace();
+		if (peek() == '}') {
+			position++;
+			return result;
+		}
+		while (true) {
+			skipWhitespace();
+			String key = parseString();
+			skipWhitespace();
+			expect(':');
+			result.put(key, parseValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+			} else {
+				expect('}');
+				return result;
+			}
+		}
+	}
+
+	private List<Object> parseArray() {
+		List<Object> result = new ArrayList<Object>();
+		expect('[');
+		skipWhitespace();
+		if (peek() == ']') {
+			position++;
+			return result;
+		}
+		while (true) {
+			result.add(parseValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+			} else {
+				expect(']');
+				return result;
+			}
+		}
+	}
+
+	private String parseString() {
+		expect('"');
+		StringBuffer result = new StringBuffer();
+		while (true) {
+			if (position >= text.length())
+				throw error("closing quote");
+			char c = text.charAt(position++);
+			if (c == '"')
+				return result.toString();
+			if (c != '\\') {
+				result.append(c);
+				continue;
+			}
+			if (position >= text.length())
+				throw error("escaped character");
+			char escaped = text.charAt(position++);
+			switch (escaped) {
+				case 'b' :
+					result.append('\b');
+					break;
+				case 'f' :
+					result.append('\f');
+					break;
+				case 'n' :
+					result.append('\n');
+					break;
+				case 'r' :
+					result.append('\r');
+					break;
+				case 't' :
+					result.append('\t');
+					break;
+				case 'u' :
+					if (position + 4 > text.length())
+						throw error("unicode escape");
+					result.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+					position += 4;
+					break;
+				default :
+					result.append(escaped);
+			}
+		}
+	}
+
+	private char peek() {
+		if (position >= text.length())
+			throw error("more input");
+		return text.charAt(position);
+	}
+
+	private void expect(char expected) {
+		if (peek() != expected)
+			throw error("'" + expected + "'");
+		position++;
+	}
+
+	private void skipWhitespace() {
+		while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+			position++;
+	}
+
+	private IllegalArgumentException error(String expected) {
+		return new IllegalArgumentException("Invalid JSON: " + expected + " expected at position " + position + ".");
+	}
+
+}
@@ -0,0 +1,124 @@
+package org.processmining.planningbasedalignment.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.processmining.framework.plugin.Progress;
+
+/**
+ * A processor of a range of items (e.g. the traces of a log) in parallel. The range is split in contiguous chunks,
+ * processed by a fixed pool of workers (one per available processor), and the results of the chunks are consumed in
+ * order, in the calling thread, as soon as they are available.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class ParallelChunkProcessor {
+
+	/**
+	 * The default maximum number of items processed by a worker in a single task.
+	 */
+	public static final int DEFAULT_MAX_CHUNK_SIZE = 1000;
+
+	private ParallelChunkProcessor() {
+	}
+
+	/**
+	 * The processing of a chunk of items, run by a worker (it must be thread-safe).
+	 *
+	 * @param <R> The type of the result of a chunk.
+	 */
+	public interface ChunkTask<R> {
+
+		/**
+		 * Process the items in the given positions.
+		 *
+		 * @param chunkStart The position of the first item of the chunk (inclusive).
+		 * @param chunkEnd The position of the last item of the chunk (exclusive).
+		 * @return The result of the chunk.
+		 */
+		R process(int chunkStart, int chunkEnd);
+	}
+
+	/**
+	 * The consumer of the results of the chunks, called in the calling thread in the order of the chunks.
+	 *
+	 * @param <R> The type of the result of a chunk.
+	 */
+	public interface ChunkConsumer<R> {
+
+		/**
+		 * Consume the result of the next chunk.
+		 *
+		 * @param chunkResult The result of the chunk.
+		 */
+		void consume(R chunkResult);
+	}
+
+	/**
+	 * Process the given number of items in chunks of at most {@link #DEFAULT_MAX_CHUNK_SIZE} items.
+	 *
+	 * @see #process(int, int, ChunkTask, ChunkConsumer, Progress)
+	 */
+	public static <R> boolean process(int itemsNum, ChunkTask<R> task, ChunkConsumer<R> consumer, Progress progress) {
+		return process(itemsNum, DEFAULT_MAX_CHUNK_SIZE, task, consumer, progress);
+	}
+
+	/**
+	 * Process the given number of items in parallel, consuming the results of the chunks in order.
+	 *
+	 * @param itemsNum The number of items to process.
+	 * @param maxChunkSize The maximum number of items processed by a worker in a single task.
+	 * @param task The processing of a chunk.
+	 * @param consumer The consumer of the results of the chunks.
+	 * @param progress The progress whose cancellation stops the processing (it may be null).
+	 * @return true if all the chunks have been processed and consumed, false if the processing has been cancelled or
+	 *         the calling thread has been interrupted (in which case the interrupt status is restored).
+	 * @throws RuntimeException wrapping the cause of the failure of a chunk.
+	 */
+	public static <R> boolean process(int itemsNum, int maxChunkSize, final ChunkTask<R> task,
+			ChunkConsumer<R> consumer, Progress progress) {
+
+		// split the items in contiguous chunks, to be processed by a pool of workers
+		int workersNum = Runtime.getRuntime().availableProcessors();
+		int chunkSize = Math.max(1, Math.min(maxChunkSize, (itemsNum + workersNum - 1) / workersNum));
+		ExecutorService executor = Executors.newFixedThreadPool(workersNum);
+		List<Future<R>> chunks = new ArrayList<Future<R>>();
+		for (int start = 0; start < itemsNum; start += chunkSize) {
+			final int chunkStart = start;
+			final int chunkEnd = Math.min(start + chunkSize, itemsNum);
+			chunks.add(executor.submit(new Callable<R>() {
+
+				public R call() {
+					return task.process(chunkStart, chunkEnd);
+				}
+			}));
+		}
+		executor.shutdown();
+
+		// consume the results of the chunks in order
+		try {
+			for (Future<R> chunk : chunks) {
+				if (progress != null && progress.isCancelled()) {
+					executor.shutdownNow();
+					return false;
+				}
+				consumer.consume(chunk.get());
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			executor.shutdownNow();
+			throw new RuntimeException(e.getCause());
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,154 @@
+package org.processmining.planningbasedalignment.utils;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A worker thread for reading the output of the planner manager on its stdout. The handler is notified each time that
+ * the planner completes a trace. Moreover, if the planner manager streams the alignments, each of them is enclosed
+ * between a begin and an end marker line (both reporting the position of the trace in the log) and is handed over to
+ * the given {@link AlignmentOutputHandler} as soon as its end marker is read. Any other line is kept in a bounded
+ * buffer, handed over along with the completion of the related trace for diagnostics, and it is printed on stdout
+ * (as done by {@link StreamAsyncReader}) only in debug mode.
+ *
+ * If the handler fails, the failure is recorded and no further output is handed over, but the stream is still drained
+ * until its end, so that the planner manager never blocks on a full pipe. The failure can be retrieved once the
+ * reader has terminated.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class PlannerOutputStreamReader extends StreamAsyncReader {
+
+	public static final String BEGIN_ALIGNMENT_MARKER = "; begin alignment ";
+	public static final String END_ALIGNMENT_MARKER = "; end alignment ";
+	public static final String COMPLETED_TRACE_MARKER = "; completed trace ";
+	public static final String COMPLETED_TRACE_TIME_SEPARATOR = " in ";
+	public static final String PROCESSING_TRACE_MARKER = "processing trace #";
+	public static final int DEFAULT_DIAGNOSTIC_LINES_NUM = 50;
+
+	/**
+	 * The callback to be notified each time that an alignment has been completely read.
+	 */
+	private AlignmentOutputHandler handler;
+
+	/**
+	 * The lines of the alignment currently being read (null if outside of an alignment block).
+	 */
+	private List<String> currentAlignmentLines;
+
+	/**
+	 * The position in the log of the trace related to the alignment currently being read.
+	 */
+	private int currentTracePos;
+
+	/**
+	 * The most recent raw output lines related to the trace currently being processed by the planner.
+	 */
+	private BoundedLineBuffer diagnosticLines;
+
+	/**
+	 * The flag stating whether raw output lines have to be printed on stdout.
+	 */
+	private boolean debug;
+
+	/**
+	 * The first failure occurred while handling the output (null if none).
+	 */
+	private volatile Throwable failure;
+
+	public PlannerOutputStreamReader(
+			InputStream inputStream, String type, AlignmentOutputHandler handler, boolean debug) {
+		super(inputStream, type);
+		this.handler = handler;
+		this.debug = debug;
+		this.diagnosticLines = new BoundedLineBuffer(DEFAULT_DIAGNOSTIC_LINES_NUM);
+	}
+
+	@Override
+	protected void processLine(String line) {
+		if (failure != null)
+			return;
+
+		try {
+			handleLine(line);
+		} catch (Throwable e) {
+			// keep draining the stream, the failure is reported once the reader has terminated
+			failure = e;
+		}
+	}
+
+	/**
+	 * Handle a single line read from the stream, notifying the handler if needed.
+	 *
+	 * @param line The line read from the stream.
+	 */
+	private void handleLine(String line) {
+		if (line.startsWith(PROCESSING_TRACE_MARKER)) {
+			diagnosticLines.clear();
+			diagnosticLines.add(line);
+			if (debug)
+				super.processLine(line);
+
+		} else if (line.startsWith(BEGIN_ALIGNMENT_MARKER)) {
+			currentTracePos = Integer.parseInt(line.substring(BEGIN_ALIGNMENT_MARKER.length()).trim());
+			currentAlignmentLines = new ArrayList<String>();
+
+		} else if (line.startsWith(END_ALIGNMENT_MARKER) && currentAlignmentLines != null) {
+			handler.handleAlignment(currentTracePos, currentAlignmentLines);
+			currentAlignmentLines = null;
+
+		} else if (currentAlignmentLines != null) {
+			currentAlignmentLines.add(line);
+
+		} else if (line.startsWith(COMPLETED_TRACE_MARKER)) {
+			// e.g. "; completed trace 12 in 345.6 ms"
+			String[] tokens = line.substring(COMPLETED_TRACE_MARKER.length()).split(COMPLETED_TRACE_TIME_SEPARATOR);
+			int tracePos = Integer.parseInt(tokens[0].trim());
+			double plannerTime = Double.parseDouble(tokens[1].replaceAll("ms", "").trim());
+			handler.handlePlannerCompletion(tracePos, plannerTime, diagnosticLines.toList());
+			diagnosticLines.clear();
+
+		} else {
+			diagnosticLines.add(line);
+			if (debug)
+				super.processLine(line);
+		}
+	}
+
+	/* GETTERS & SETTERS */
+
+	/**
+	 * @return the first failure occurred while handling the output, or null if none
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	/**
+	 * The callback used to consume the completions and the alignments read from the planner output stream.
+	 *
+	 * @author Giacomo Lanciano
+	 *
+	 */
+	public interface AlignmentOutputHandler {
+
+		/**
+		 * Consume the output lines (moves and statistics) of the alignment of the trace in the given position.
+		 *
+		 * @param tracePos The position of the trace in the log (0 is reserved for the empty trace).
+		 * @param outputLines The lines produced by the planner for the trace.
+		 */
+		void handleAlignment(int tracePos, List<String> outputLines);
+
+		/**
+		 * Record that the planner has completed the trace in the given position.
+		 *
+		 * @param tracePos The position of the trace in the log (0 is reserved for the empty trace).
+		 * @param plannerTime The time spent by the planner on the trace (in milliseconds).
+		 * @param diagnosticLines The most recent raw output lines related to the trace.
+		 */
+		void handlePlannerCompletion(int tracePos, double plannerTime, List<String> diagnosticLines);
+	}
+}
@@ -0,0 +1,238 @@
+package org.processmining.planningbasedalignment.utils;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.processmining.framework.plugin.PluginContext;
+import org.processmining.framework.plugin.Progress;
+
+/**
+ * An in-process hub collecting the progress of the stages of the alignment (e.g. encoding, planning, parsing). Each
+ * stage is fed directly by the code performing the work, through atomic counters, and reports its throughput, the
+ * moving average of the per-trace latency and an estimate of the remaining time to the {@link PluginContext}. The
+ * most recently started stage drives the progress bar, while reports to the log are throttled.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class ProgressHub {
+
+	public static final long DEFAULT_REPORT_INTERVAL_MILLISECS = 1000;
+	private static final String TIME_UNIT = " ms";
+
+	/**
+	 * The smoothing factor of the exponential moving average of the latency.
+	 */
+	private static final double LATENCY_SMOOTHING_FACTOR = 0.1;
+
+	/**
+	 * The context where the plug-in runs.
+	 */
+	private PluginContext context;
+
+	/**
+	 * The minimum interval between two reports to the log.
+	 */
+	private long reportIntervalMillisecs;
+
+	/**
+	 * The stage currently driving the progress bar.
+	 */
+	private volatile Stage progressBarStage;
+
+	/**
+	 * The stages started so far, in starting order.
+	 */
+	private final List<Stage> stages = Collections.synchronizedList(new ArrayList<Stage>());
+
+	public ProgressHub(PluginContext context) {
+		this(context, DEFAULT_REPORT_INTERVAL_MILLISECS);
+	}
+
+	public ProgressHub(PluginContext context, long reportIntervalMillisecs) {
+		this.context = context;
+		this.reportIntervalMillisecs = reportIntervalMillisecs;
+	}
+
+	/**
+	 * Start tracking a new stage, that takes over the progress bar.
+	 *
+	 * @param name The name of the stage (e.g. "PDDL encodings").
+	 * @param total The total number of traces the stage has to process.
+	 * @return The {@link Stage} to be fed with the processed traces.
+	 */
+	public Stage startStage(String name, long total) {
+		Stage stage = new Stage(name, total);
+		progressBarStage = stage;
+		stages.add(stage);
+
+		Progress progress = context.getProgress();
+		progress.setIndeterminate(false);
+		progress.setMinimum(0);
+		progress.setMaximum((int) total);
+		progress.setValue(0);
+
+		return stage;
+	}
+
+	/**
+	 * @return the stages started so far, in starting order
+	 */
+	public List<Stage> getStages() {
+		synchronized (stages) {
+			return new ArrayList<Stage>(stages);
+		}
+	}
+
+	/**
+	 * Provide a standard format for displaying real values.
+	 */
+	private static NumberFormat getRealNumberFormat() {
+		NumberFormat realFormat = NumberFormat.getNumberInstance();
+		realFormat.setMaximumFractionDigits(1);
+		return realFormat;
+	}
+
+	/**
+	 * A stage of the alignment whose progress is tracked by the hub.
+	 *
+	 * @author Giacomo Lanciano
+	 *
+	 */
+	public class Stage {
+
+		private final String name;
+		private final long total;
+		private final long startTime;
+		private final AtomicLong completed;
+		private final AtomicLong lastReportTime;
+		private final AtomicLong lastCompletionTime;
+		private volatile long finishTime;
+		private double averageLatency;
+
+		private Stage(String name, long total) {
+			this.name = name;
+			this.total = total;
+			this.startTime = System.nanoTime();
+			this.completed = new AtomicLong();
+			this.lastReportTime = new AtomicLong(startTime);
+			this.lastCompletionTime = new AtomicLong(startTime);
+			this.averageLatency = -1;
+		}
+
+		/**
+		 * Record the completion of a trace, taking as latency the time elapsed since the previous completion.
+		 */
+		public void completed() {
+			long now = System.nanoTime();
+			long previous = lastCompletionTime.getAndSet(now);
+			completed(TimeUnit.NANOSECONDS.toMillis(now - previous));
+		}
+
+		/**
+		 * Record the completion of a trace.
+		 *
+		 * @param latencyMillisecs The time spent on the trace.
+		 */
+		public void completed(double latencyMillisecs) {
+			long completedNum = completed.incrementAndGet();
+			lastCompletionTime.set(System.nanoTime());
+
+			synchronized (this) {
+				if (averageLatency < 0)
+					averageLatency = latencyMillisecs;
+				else
+					averageLatency += LATENCY_SMOOTHING_FACTOR * (latencyMillisecs - averageLatency);
+			}
+
+			if (progressBarStage == this)
+				context.getProgress().setValue((int) completedNum);
+
+			// report to the log only if enough time has passed since the last report
+			long now = System.nanoTime();
+			long lastReport = lastReportTime.get();
+			if (TimeUnit.NANOSECONDS.toMillis(now - lastReport) >= reportIntervalMillisecs
+					&& lastReportTime.compareAndSet(lastReport, now)) {
+				context.log(toString());
+			}
+		}
+
+		/**
+		 * Report the final figures of the stage to the log.
+		 */
+		public void finish() {
+			finishTime = System.nanoTime();
+			NumberFormat realFormat = getRealNumberFormat();
+			double elapsedSecs = getElapsedSeconds();
+			context.log(name + ": " + completed.get() + "/" + total + " done in " + realFormat.format(elapsedSecs)
+					+ " s (" + realFormat.format(getThroughput()) + " traces/s).");
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getTotal() {
+			return total;
+		}
+
+		/**
+		 * @return the time elapsed from the start of the stage to its end (or to now, if not finished yet), in
+		 *         milliseconds
+		 */
+		public double getElapsedMillisecs() {
+			return getElapsedSeconds() * 1000;
+		}
+
+		/**
+		 * @return the number of traces processed so far
+		 */
+		public long getCompleted() {
+			return completed.get();
+		}
+
+		/**
+		 * @return the number of traces processed per second
+		 */
+		public double getThroughput() {
+			double elapsedSecs = getElapsedSeconds();
+			return (elapsedSecs > 0) ? completed.get() / elapsedSecs : 0;
+		}
+
+		/**
+		 * @return the moving average of the time spent on each trace (in milliseconds)
+		 */
+		public synchronized double getAverageLatency() {
+			return Math.max(averageLatency, 0);
+		}
+
+		/**
+		 * @return the estimated number of seconds needed to complete the stage, or -1 if it cannot be estimated yet
+		 */
+		public long getEstimatedSecondsLeft() {
+			double throughput = getThroughput();
+			if (throughput <= 0)
+				return -1;
+			return Math.round((total - completed.get()) / throughput);
+		}
+
+		private double getElapsedSeconds() {
+			long endTime = (finishTime != 0) ? finishTime : System.nanoTime();
+			return (endTime - startTime) / 1e9;
+		}
+
+		@Override
+		public String toString() {
+			NumberFormat realFormat = getRealNumberFormat();
+			long eta = getEstimatedSecondsLeft();
+			return name + ": " + completed.get() + "/" + total
+					+ " (" + realFormat.format(getThroughput()) + " traces/s"
+					+ ", avg latency " + realFormat.format(getAverageLatency()) + TIME_UNIT
+					+ ", ETA " + ((eta < 0) ? "n/a" : eta + " s") + ")";
+		}
+	}
+}
@@ -11,7 +11,7 @@ import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.SystemUtils;
-import org.processmining.contexts.uitopia.UIPluginContext;
+import org.processmining.framework.plugin.PluginContext;
 import org.processmining.planningbasedalignment.plugins.planningbasedalignment.algorithms.PlanningBasedAlignment;
 
 /**
@@ -63,11 +63,11 @@ public class ResourcesUnpacker extends Thread {
     private static final String OSX_BUILDS_DIR = "osx_builds/";
     
     /**
-     * The context of the UI.
+     * The context where the plug-in runs.
      */
-	private UIPluginContext context;
+	private PluginContext context;
 
-	public ResourcesUnpacker(UIPluginContext context) {
+	public ResourcesUnpacker(PluginContext context) {
 		super();
 		this.context = context;
 	}
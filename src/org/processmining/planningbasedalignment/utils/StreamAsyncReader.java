@@ -16,12 +16,12 @@ public class StreamAsyncReader extends Thread {
 	/**
 	 * The {@link InputStream} to be handled.
 	 */
-	InputStream inputStream;
+	protected InputStream inputStream;
 	
 	/**
 	 * The tag to be associated to each prints.
 	 */
-	String type;
+	protected String type;
 
 	public StreamAsyncReader(InputStream inputStream, String type) {
 		this.inputStream = inputStream;
@@ -35,10 +35,19 @@ public class StreamAsyncReader extends Thread {
 			BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
 			String line = null;
 			while ((line = bufferedReader.readLine()) != null)
-				System.out.println(type + ">" + line);
+				processLine(line);
 			
 		} catch (IOException e) {
 			e.printStackTrace();  
 		}
 	}
+	
+	/**
+	 * Handle a single line read from the stream. By default, the line is printed on stdout along with the tag.
+	 * 
+	 * @param line The line read from the stream.
+	 */
+	protected void processLine(String line) {
+		System.out.println(type + ">" + line);
+	}
 }
\ No newline at end of file
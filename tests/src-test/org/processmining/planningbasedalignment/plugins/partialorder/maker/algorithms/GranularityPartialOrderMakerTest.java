@@ -0,0 +1,138 @@
+package org.processmining.planningbasedalignment.plugins.partialorder.maker.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests that {@link GranularityPartialOrderMaker} sets the checkpoints on the local wall-clock time, also across
+ * daylight saving time changes and in time zones whose offset is not a whole number of hours.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class GranularityPartialOrderMakerTest {
+
+	private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+	private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+	private static final TimeZone ROME = TimeZone.getTimeZone("Europe/Rome");
+	private static final TimeZone KOLKATA = TimeZone.getTimeZone("Asia/Kolkata");
+	private static final TimeZone KATHMANDU = TimeZone.getTimeZone("Asia/Kathmandu");
+	private static final TimeZone LORD_HOWE = TimeZone.getTimeZone("Australia/Lord_Howe");
+
+	@Test
+	public void testSpringForwardDay() {
+		// on 2021-03-28, Rome skips from 02:00 CET (+01:00) to 03:00 CEST (+02:00), i.e. at 01:00 UTC
+		GranularityPartialOrderMaker daily = new GranularityPartialOrderMaker(DAY, 0, ROME);
+		assertEquals(utc(2021, 3, 27, 23, 0), daily.modifyTimestamp(utc(2021, 3, 28, 0, 30)));
+		assertEquals(utc(2021, 3, 27, 23, 0), daily.modifyTimestamp(utc(2021, 3, 28, 8, 0)));
+		assertEquals(utc(2021, 3, 28, 22, 0), daily.modifyTimestamp(utc(2021, 3, 28, 22, 30)));
+
+		GranularityPartialOrderMaker hourly = new GranularityPartialOrderMaker(HOUR, 0, ROME);
+		assertEquals(utc(2021, 3, 28, 0, 0), hourly.modifyTimestamp(utc(2021, 3, 28, 0, 59)));
+		assertEquals(utc(2021, 3, 28, 1, 0), hourly.modifyTimestamp(utc(2021, 3, 28, 1, 30)));
+
+		// days starting at 06:00 local time
+		GranularityPartialOrderMaker shifted = new GranularityPartialOrderMaker(DAY, 6 * HOUR, ROME);
+		assertEquals(utc(2021, 3, 27, 5, 0), shifted.modifyTimestamp(utc(2021, 3, 28, 3, 0)));
+		assertEquals(utc(2021, 3, 28, 4, 0), shifted.modifyTimestamp(utc(2021, 3, 28, 4, 0)));
+
+		assertCheckpointsAreLocalMidnights(daily, ROME, utc(2021, 3, 26, 0, 0), utc(2021, 3, 30, 0, 0));
+	}
+
+	@Test
+	public void testFallBackDay() {
+		// on 2021-10-31, Rome goes back from 03:00 CEST (+02:00) to 02:00 CET (+01:00), i.e. at 01:00 UTC
+		GranularityPartialOrderMaker daily = new GranularityPartialOrderMaker(DAY, 0, ROME);
+		assertEquals(utc(2021, 10, 30, 22, 0), daily.modifyTimestamp(utc(2021, 10, 30, 22, 0)));
+		assertEquals(utc(2021, 10, 30, 22, 0), daily.modifyTimestamp(utc(2021, 10, 31, 22, 59)));
+		assertEquals(utc(2021, 10, 31, 23, 0), daily.modifyTimestamp(utc(2021, 10, 31, 23, 0)));
+
+		// the hour from 02:00 to 03:00 local time occurs twice, and each occurrence is a separate checkpoint
+		GranularityPartialOrderMaker hourly = new GranularityPartialOrderMaker(HOUR, 0, ROME);
+		assertEquals(utc(2021, 10, 31, 0, 0), hourly.modifyTimestamp(utc(2021, 10, 31, 0, 30)));
+		assertEquals(utc(2021, 10, 31, 1, 0), hourly.modifyTimestamp(utc(2021, 10, 31, 1, 30)));
+		assertEquals(utc(2021, 10, 31, 2, 0), hourly.modifyTimestamp(utc(2021, 10, 31, 2, 30)));
+
+		assertCheckpointsAreLocalMidnights(daily, ROME, utc(2021, 10, 29, 0, 0), utc(2021, 11, 2, 0, 0));
+	}
+
+	@Test
+	public void testNonHourAlignedZones() {
+		// Kolkata is at +05:30
+		GranularityPartialOrderMaker daily = new GranularityPartialOrderMaker(DAY, 0, KOLKATA);
+		assertEquals(utc(2021, 6, 14, 18, 30), daily.modifyTimestamp(utc(2021, 6, 14, 18, 40)));
+		assertEquals(utc(2021, 6, 13, 18, 30), daily.modifyTimestamp(utc(2021, 6, 14, 18, 20)));
+		assertCheckpointsAreLocalMidnights(daily, KOLKATA, utc(2021, 6, 10, 0, 0), utc(2021, 6, 20, 0, 0));
+
+		// Kathmandu is at +05:45, so that hourly checkpoints fall at a quarter past the hour in UTC
+		GranularityPartialOrderMaker hourly = new GranularityPartialOrderMaker(HOUR, 0, KATHMANDU);
+		assertEquals(utc(2021, 6, 14, 4, 15), hourly.modifyTimestamp(utc(2021, 6, 14, 5, 5)));
+		assertEquals(utc(2021, 6, 14, 5, 15), hourly.modifyTimestamp(utc(2021, 6, 14, 5, 15)));
+
+		GranularityPartialOrderMaker quarterly = new GranularityPartialOrderMaker(
+				TimeUnit.MINUTES.toMillis(15), 0, KATHMANDU);
+		assertEquals(utc(2021, 6, 14, 5, 0), quarterly.modifyTimestamp(utc(2021, 6, 14, 5, 14)));
+	}
+
+	@Test
+	public void testHalfHourDaylightSavingTimeChange() {
+		// on 2021-04-04, Lord Howe goes back from 02:00 (+11:00) to 01:30 (+10:30), i.e. at 15:00 UTC of the day before
+		GranularityPartialOrderMaker daily = new GranularityPartialOrderMaker(DAY, 0, LORD_HOWE);
+		assertEquals(utc(2021, 4, 3, 13, 0), daily.modifyTimestamp(utc(2021, 4, 4, 13, 29)));
+		assertEquals(utc(2021, 4, 4, 13, 30), daily.modifyTimestamp(utc(2021, 4, 4, 13, 30)));
+
+		GranularityPartialOrderMaker hourly = new GranularityPartialOrderMaker(HOUR, 0, LORD_HOWE);
+		assertEquals(utc(2021, 4, 3, 14, 0), hourly.modifyTimestamp(utc(2021, 4, 3, 14, 59)));
+		// 01:40 of the repeated half hour is rounded down to 01:00, that occurs only once (at +11:00)
+		assertEquals(utc(2021, 4, 3, 14, 0), hourly.modifyTimestamp(utc(2021, 4, 3, 15, 10)));
+
+		assertCheckpointsAreLocalMidnights(daily, LORD_HOWE, utc(2021, 4, 1, 0, 0), utc(2021, 4, 7, 0, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveGranularityIsRejected() {
+		new GranularityPartialOrderMaker(0, 0, ROME);
+	}
+
+	/**
+	 * Check that every timestamp in the given interval (every 10 minutes) is moved to the local midnight of its day.
+	 */
+	private static void assertCheckpointsAreLocalMidnights(
+			GranularityPartialOrderMaker maker, TimeZone timeZone, long from, long to) {
+
+		Calendar timestampCalendar = new GregorianCalendar(timeZone);
+		Calendar checkpointCalendar = new GregorianCalendar(timeZone);
+		for (long timestamp = from; timestamp < to; timestamp += TimeUnit.MINUTES.toMillis(10)) {
+			long checkpoint = maker.modifyTimestamp(timestamp);
+			timestampCalendar.setTimeInMillis(timestamp);
+			checkpointCalendar.setTimeInMillis(checkpoint);
+
+			String message = "Checkpoint of " + timestamp;
+			assertTrue(message, checkpoint <= timestamp);
+			assertEquals(message, timestampCalendar.get(Calendar.YEAR), checkpointCalendar.get(Calendar.YEAR));
+			assertEquals(message, timestampCalendar.get(Calendar.DAY_OF_YEAR),
+					checkpointCalendar.get(Calendar.DAY_OF_YEAR));
+			assertEquals(message, 0, checkpointCalendar.get(Calendar.HOUR_OF_DAY));
+			assertEquals(message, 0, checkpointCalendar.get(Calendar.MINUTE));
+		}
+	}
+
+	/**
+	 * @return the given UTC time, in milliseconds since the epoch
+	 */
+	private static long utc(int year, int month, int day, int hour, int minute) {
+		Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		calendar.clear();
+		calendar.set(year, month - 1, day, hour, minute);
+		return calendar.getTimeInMillis();
+	}
+
+}
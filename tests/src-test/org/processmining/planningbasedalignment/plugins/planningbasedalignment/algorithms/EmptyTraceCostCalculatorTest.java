@@ -0,0 +1,173 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.graphbased.directed.petrinet.impl.PetrinetFactory;
+import org.processmining.models.semantics.petrinet.Marking;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.parameters.PlanningBasedAlignmentParameters;
+
+/**
+ * Tests the in-JVM computation of the cost of aligning the empty trace done by {@link EmptyTraceCostCalculator}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class EmptyTraceCostCalculatorTest {
+
+	private Petrinet petrinet;
+	private Map<Transition, Integer> costs;
+
+	@Before
+	public void setUp() {
+		petrinet = PetrinetFactory.newPetrinet("net");
+		costs = new HashMap<Transition, Integer>();
+	}
+
+	@Test
+	public void testSequence() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Place p2 = petrinet.addPlace("p2");
+		addTransition("a", 1, p0, p1);
+		addTransition("b", 2, p1, p2);
+
+		assertEquals(3, compute(p0, p2), 0);
+	}
+
+	@Test
+	public void testCheapestChoice() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		addTransition("a", 5, p0, p1);
+		addTransition("b", 2, p0, p1);
+
+		assertEquals(2, compute(p0, p1), 0);
+	}
+
+	@Test
+	public void testInvisibleSkip() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Place p2 = petrinet.addPlace("p2");
+		addTransition("a", 1, p0, p1);
+		addTransition("b", 1, p1, p2);
+		Transition skip = addTransition("", 0, p0, p2);
+		skip.setInvisible(true);
+
+		assertEquals(0, compute(p0, p2), 0);
+	}
+
+	@Test
+	public void testParallelBranches() {
+		// split -> (a || b) -> join
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Place p2 = petrinet.addPlace("p2");
+		Place p3 = petrinet.addPlace("p3");
+		Place p4 = petrinet.addPlace("p4");
+		Place p5 = petrinet.addPlace("p5");
+		Transition split = addTransition("split", 0, p0, p1);
+		petrinet.addArc(split, p2);
+		addTransition("a", 1, p1, p3);
+		addTransition("b", 1, p2, p4);
+		Transition join = addTransition("join", 0, p3, p5);
+		petrinet.addArc(p4, join);
+
+		assertEquals(2, compute(p0, p5), 0);
+	}
+
+	@Test
+	public void testFinalMarkingReachedWithoutFiring() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		addTransition("a", 1, p0, p1);
+
+		assertEquals(0, compute(p0, p0), 0);
+	}
+
+	@Test
+	public void testMissingCostsAreZero() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Transition a = addTransition("a", 1, p0, p1);
+		costs.remove(a);
+
+		assertEquals(0, compute(p0, p1), 0);
+	}
+
+	@Test
+	public void testUnreachableFinalMarking() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Place p2 = petrinet.addPlace("p2");
+		addTransition("a", 1, p0, p1);
+
+		assertNull(compute(p0, p2));
+	}
+
+	@Test
+	public void testMaxStates() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Place p2 = petrinet.addPlace("p2");
+		addTransition("a", 1, p0, p1);
+		addTransition("b", 1, p1, p2);
+
+		assertNull(EmptyTraceCostCalculator.computeEmptyTraceCost(
+				petrinet, marking(p0), marking(p2), costs, 1));
+		assertEquals(2, EmptyTraceCostCalculator.computeEmptyTraceCost(
+				petrinet, marking(p0), marking(p2), costs, 3), 0);
+	}
+
+	@Test
+	public void testCachedCostFollowsParameters() {
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Transition a = addTransition("a", 4, p0, p1);
+
+		PlanningBasedAlignmentParameters parameters = new PlanningBasedAlignmentParameters();
+		parameters.setInitialMarking(marking(p0));
+		parameters.setFinalMarking(marking(p1));
+		parameters.setMovesOnModelCosts(costs);
+		assertEquals(4, EmptyTraceCostCalculator.getEmptyTraceCost(petrinet, parameters), 0);
+		assertEquals(4, EmptyTraceCostCalculator.getEmptyTraceCost(petrinet, parameters), 0);
+
+		// the cached cost is not used for different costs or markings
+		Map<Transition, Integer> otherCosts = new HashMap<Transition, Integer>(costs);
+		otherCosts.put(a, 7);
+		parameters.setMovesOnModelCosts(otherCosts);
+		assertEquals(7, EmptyTraceCostCalculator.getEmptyTraceCost(petrinet, parameters), 0);
+
+		parameters.setFinalMarking(marking(p0));
+		assertEquals(0, EmptyTraceCostCalculator.getEmptyTraceCost(petrinet, parameters), 0);
+	}
+
+	private Transition addTransition(String label, int cost, Place input, Place output) {
+		Transition transition = petrinet.addTransition(label);
+		petrinet.addArc(input, transition);
+		petrinet.addArc(transition, output);
+		costs.put(transition, cost);
+		return transition;
+	}
+
+	private Float compute(Place initialPlace, Place finalPlace) {
+		return EmptyTraceCostCalculator.computeEmptyTraceCost(petrinet, marking(initialPlace), marking(finalPlace),
+				costs, EmptyTraceCostCalculator.DEFAULT_MAX_STATES);
+	}
+
+	private static Marking marking(Place place) {
+		Marking marking = new Marking();
+		marking.add(place);
+		return marking;
+	}
+
+}
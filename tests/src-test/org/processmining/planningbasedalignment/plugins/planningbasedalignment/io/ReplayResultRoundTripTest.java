@@ -0,0 +1,208 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.factory.XFactory;
+import org.deckfour.xes.factory.XFactoryRegistry;
+import org.deckfour.xes.model.XEvent;
+import org.deckfour.xes.model.XLog;
+import org.deckfour.xes.model.XTrace;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.elements.Place;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.graphbased.directed.petrinet.impl.PetrinetFactory;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.AbstractAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.CompactAlignmentStore;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.PlanningBasedReplayResult;
+import org.processmining.planningbasedalignment.plugins.planningbasedalignment.models.TraceAlignmentStatistics;
+
+/**
+ * Tests writing alignments with {@link ReplayResultWriter} and reading them back with {@link ReplayResultReader}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class ReplayResultRoundTripTest {
+
+	private File file;
+	private Petrinet petrinet;
+	private Transition a;
+	private Transition tau;
+	private XLog log;
+	private CompactAlignmentStore alignmentStore;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("round_trip_", "." + ReplayResultFormat.FILE_EXTENSION);
+
+		// p0 -> a -> p1 -> tau -> p2
+		petrinet = PetrinetFactory.newPetrinet("net");
+		Place p0 = petrinet.addPlace("p0");
+		Place p1 = petrinet.addPlace("p1");
+		Place p2 = petrinet.addPlace("p2");
+		a = petrinet.addTransition("a");
+		tau = petrinet.addTransition("tau");
+		tau.setInvisible(true);
+		petrinet.addArc(p0, a);
+		petrinet.addArc(a, p1);
+		petrinet.addArc(p1, tau);
+		petrinet.addArc(tau, p2);
+
+		log = createLog(new String[] { "a" }, new String[] { "b", "a" });
+
+		// the alignments are appended out of order, as done by the planner
+		XEventClass b = new XEventClass("b", 0);
+		alignmentStore = new CompactAlignmentStore();
+		alignmentStore.beginAlignment(2, "case2");
+		alignmentStore.addLogMove(b);
+		alignmentStore.addSynchronousMove(a);
+		alignmentStore.addModelMove(tau);
+		alignmentStore.endAlignment(1);
+		alignmentStore.beginAlignment(1, "case1");
+		alignmentStore.addSynchronousMove(a);
+		alignmentStore.addModelMove(tau);
+		alignmentStore.endAlignment(0);
+		alignmentStore.sortByTracePosition();
+		alignmentStore.setFitness(0, 1);
+		alignmentStore.setFitness(1, 0.5f);
+	}
+
+	@After
+	public void tearDown() {
+		alignmentStore.dispose();
+		file.delete();
+	}
+
+	@Test
+	public void testAlignmentsRoundTrip() throws IOException {
+		write(log);
+
+		FileAlignmentStore readStore = new ReplayResultReader(file).readAlignmentStore();
+		try {
+			assertEquals(2, readStore.size());
+			for (int i = 0; i < alignmentStore.size(); i++) {
+				assertEquals(alignmentStore.getTracePosition(i), readStore.getTracePosition(i));
+				assertEquals(alignmentStore.getCaseId(i), readStore.getCaseId(i));
+				assertEquals(alignmentStore.getCost(i), readStore.getCost(i), 0);
+				assertEquals(alignmentStore.getFitness(i), readStore.getFitness(i), 0);
+				assertEquals(alignmentStore.getMovesNum(i), readStore.getMovesNum(i));
+				for (int move = 0; move < alignmentStore.getMovesNum(i); move++)
+					assertEquals(alignmentStore.getMoveType(i, move), readStore.getMoveType(i, move));
+			}
+
+			// moves refer to the saved copy of the Petri net
+			assertEquals(AbstractAlignmentStore.LOG_MOVE, readStore.getMoveType(1, 0));
+			assertEquals("b", readStore.getMoveEventClass(1, 0).getId());
+			assertEquals("a", readStore.getMoveTransition(1, 1).getLabel());
+			assertTrue(readStore.getMoveTransition(1, 2).isInvisible());
+			assertEquals(1, readStore.indexOf("case2"));
+		} finally {
+			readStore.dispose();
+		}
+	}
+
+	@Test
+	public void testReadPairsResultWithLog() throws IOException {
+		TraceAlignmentStatistics traceStatistics = new TraceAlignmentStatistics(1, "case1");
+		traceStatistics.setSearchTime(42);
+		write(log, Arrays.asList(traceStatistics));
+
+		PlanningBasedReplayResult result = new ReplayResultReader(file).read(log, petrinet);
+		try {
+			assertSame(log, result.getAlignedLog());
+			assertEquals(2, result.getAlignments().size());
+			assertEquals(1, result.getTraceAlignmentStatistics().size());
+			assertEquals(42, result.getTraceAlignmentStatistics().get(0).getSearchTime(), 0);
+		} finally {
+			result.dispose();
+		}
+	}
+
+	@Test
+	public void testReadRejectsOtherLog() throws IOException {
+		write(log);
+
+		ReplayResultReader reader = new ReplayResultReader(file);
+		XLog otherLog = createLog(new String[] { "a" }, new String[] { "a", "b" });
+		try {
+			reader.read(otherLog, petrinet);
+			fail("The result has been read for a log it has not been computed on.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testReadRejectsOtherPetrinet() throws IOException {
+		write(log);
+
+		Petrinet otherPetrinet = PetrinetFactory.newPetrinet("net");
+		otherPetrinet.addTransition("a");
+		try {
+			new ReplayResultReader(file).read(log, otherPetrinet);
+			fail("The result has been read for a Petri net it has not been computed on.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnfinishedFileIsRejected() throws IOException {
+		ReplayResultWriter writer = new ReplayResultWriter(file,
+				ReplayResultFormat.computeLogFingerprint(log), ReplayResultFormat.computeModelFingerprint(petrinet));
+		writer.writeAlignment(alignmentStore, 0);
+		writer.close();
+
+		new ReplayResultReader(file);
+	}
+
+	private void write(XLog alignedLog) throws IOException {
+		write(alignedLog, null);
+	}
+
+	private void write(XLog alignedLog, List<TraceAlignmentStatistics> traceAlignmentStatistics) throws IOException {
+		ReplayResultWriter writer = new ReplayResultWriter(file, ReplayResultFormat.computeLogFingerprint(alignedLog),
+				ReplayResultFormat.computeModelFingerprint(petrinet));
+		try {
+			for (int i = 0; i < alignmentStore.size(); i++)
+				writer.writeAlignment(alignmentStore, i);
+			writer.finish(alignmentStore, petrinet, traceAlignmentStatistics);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Create a log with a trace (named caseN) per given sequence of event names.
+	 */
+	private static XLog createLog(String[]... traces) {
+		XFactory factory = XFactoryRegistry.instance().currentDefault();
+		XConceptExtension conceptExtension = XConceptExtension.instance();
+		XLog result = factory.createLog();
+		for (int i = 0; i < traces.length; i++) {
+			XTrace trace = factory.createTrace();
+			conceptExtension.assignName(trace, "case" + (i + 1));
+			for (String eventName : traces[i]) {
+				XEvent event = factory.createEvent();
+				conceptExtension.assignName(event, eventName);
+				trace.add(event);
+			}
+			result.add(trace);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,132 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.processmining.models.graphbased.directed.petrinet.Petrinet;
+import org.processmining.models.graphbased.directed.petrinet.elements.Transition;
+import org.processmining.models.graphbased.directed.petrinet.impl.PetrinetFactory;
+
+import com.google.common.base.Predicate;
+
+/**
+ * Tests the lookups of the alignments containing a given activity in an {@link AlignmentIndex}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class AlignmentIndexTest {
+
+	private CompactAlignmentStore alignmentStore;
+	private AlignmentIndex alignmentIndex;
+
+	@Before
+	public void setUp() {
+		Petrinet petrinet = PetrinetFactory.newPetrinet("net");
+		Transition a = petrinet.addTransition("a");
+		Transition otherA = petrinet.addTransition("a");
+		Transition b = petrinet.addTransition("b");
+		XEventClass bClass = new XEventClass("b", 0);
+		XEventClass cClass = new XEventClass("c", 1);
+
+		alignmentStore = new CompactAlignmentStore();
+
+		// 0: a, >>b, a (a moves on the same transition are indexed once)
+		alignmentStore.beginAlignment(1, "case1");
+		alignmentStore.addSynchronousMove(a);
+		alignmentStore.addModelMove(b);
+		alignmentStore.addSynchronousMove(a);
+		alignmentStore.endAlignment(1);
+
+		// 1: b>>, a (on the other transition labeled a)
+		alignmentStore.beginAlignment(2, "case2");
+		alignmentStore.addLogMove(bClass);
+		alignmentStore.addSynchronousMove(otherA);
+		alignmentStore.endAlignment(1);
+
+		// 2: c>>, >>a
+		alignmentStore.beginAlignment(3, "case3");
+		alignmentStore.addLogMove(cClass);
+		alignmentStore.addModelMove(a);
+		alignmentStore.endAlignment(2);
+
+		// 3: empty alignment
+		alignmentStore.beginAlignment(4, "case4");
+		alignmentStore.endAlignment(0);
+
+		alignmentIndex = new AlignmentIndex(alignmentStore);
+	}
+
+	@After
+	public void tearDown() {
+		alignmentStore.dispose();
+	}
+
+	@Test
+	public void testAllMoveTypes() {
+		assertEquals(4, alignmentIndex.size());
+		assertAlignments(alignmentIndex.getAlignments("a"), 0, 1, 2);
+		assertAlignments(alignmentIndex.getAlignments("b"), 0, 1);
+		assertAlignments(alignmentIndex.getAlignments("c"), 2);
+		assertAlignments(alignmentIndex.getAlignments("d"));
+	}
+
+	@Test
+	public void testMoveTypes() {
+		assertAlignments(alignmentIndex.getAlignments("a", AbstractAlignmentStore.SYNCHRONOUS_MOVE), 0, 1);
+		assertAlignments(alignmentIndex.getAlignments("a", AbstractAlignmentStore.MODEL_MOVE), 2);
+		assertAlignments(alignmentIndex.getAlignments("a", AbstractAlignmentStore.LOG_MOVE));
+
+		// transition b and event class b are different keys with the same activity name
+		assertAlignments(alignmentIndex.getAlignments("b", AbstractAlignmentStore.MODEL_MOVE), 0);
+		assertAlignments(alignmentIndex.getAlignments("b", AbstractAlignmentStore.LOG_MOVE), 1);
+		assertAlignments(alignmentIndex.getAlignments(
+				"b", AbstractAlignmentStore.SYNCHRONOUS_MOVE, AbstractAlignmentStore.LOG_MOVE), 1);
+	}
+
+	@Test
+	public void testActivityPredicate() {
+		Predicate<String> notA = new Predicate<String>() {
+			public boolean apply(String activity) {
+				return !"a".equals(activity);
+			}
+		};
+
+		assertAlignments(alignmentIndex.getAlignments(notA), 0, 1, 2);
+		assertAlignments(alignmentIndex.getAlignments(notA, AbstractAlignmentStore.LOG_MOVE), 1, 2);
+		assertAlignments(alignmentIndex.getAlignments(notA, AbstractAlignmentStore.SYNCHRONOUS_MOVE));
+	}
+
+	@Test
+	public void testActivities() {
+		assertEquals(Arrays.asList("a", "b", "c"), Arrays.asList(alignmentIndex.getActivities().toArray()));
+	}
+
+	@Test
+	public void testEmptyStore() {
+		CompactAlignmentStore emptyStore = new CompactAlignmentStore();
+		try {
+			AlignmentIndex emptyIndex = new AlignmentIndex(emptyStore);
+			assertEquals(0, emptyIndex.size());
+			assertTrue(emptyIndex.getActivities().isEmpty());
+			assertAlignments(emptyIndex.getAlignments("a"));
+		} finally {
+			emptyStore.dispose();
+		}
+	}
+
+	private static void assertAlignments(BitSet actual, int... expected) {
+		BitSet expectedSet = new BitSet();
+		for (int alignment : expected)
+			expectedSet.set(alignment);
+		assertEquals(expectedSet, actual);
+	}
+
+}
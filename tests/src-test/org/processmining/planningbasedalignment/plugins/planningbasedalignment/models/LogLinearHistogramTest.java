@@ -0,0 +1,158 @@
+package org.processmining.planningbasedalignment.plugins.planningbasedalignment.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the bucket layout of {@link LogLinearHistogram} and the percentiles it estimates.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class LogLinearHistogramTest {
+
+	private static final double MAX_RELATIVE_ERROR = 1.0 / 64;
+
+	@Test
+	public void testBucketsAreContiguous() {
+		int lastIndex = LogLinearHistogram.getBucketIndex(Long.MAX_VALUE);
+		assertEquals(0, LogLinearHistogram.getBucketLowerBound(0));
+		for (int i = 0; i <= lastIndex; i++) {
+			long lowerBound = LogLinearHistogram.getBucketLowerBound(i);
+			long upperBound = LogLinearHistogram.getBucketUpperBound(i);
+			assertTrue("Empty bucket " + i, lowerBound <= upperBound);
+			assertEquals(i, LogLinearHistogram.getBucketIndex(lowerBound));
+			assertEquals(i, LogLinearHistogram.getBucketIndex(upperBound));
+			if (i > 0)
+				assertEquals(LogLinearHistogram.getBucketUpperBound(i - 1) + 1, lowerBound);
+		}
+		assertEquals(Long.MAX_VALUE, LogLinearHistogram.getBucketUpperBound(lastIndex));
+	}
+
+	@Test
+	public void testBucketsWidth() {
+		// small values are kept exactly
+		for (int i = 0; i < 128; i++)
+			assertEquals(LogLinearHistogram.getBucketLowerBound(i), LogLinearHistogram.getBucketUpperBound(i));
+
+		// larger values are bucketed with a bounded relative error
+		int lastIndex = LogLinearHistogram.getBucketIndex(Long.MAX_VALUE);
+		for (int i = 128; i <= lastIndex; i++) {
+			long lowerBound = LogLinearHistogram.getBucketLowerBound(i);
+			long width = LogLinearHistogram.getBucketUpperBound(i) - lowerBound + 1;
+			assertTrue("Bucket " + i + " is too wide", (double) width / lowerBound <= MAX_RELATIVE_ERROR);
+		}
+	}
+
+	@Test
+	public void testPercentilesOfSmallValuesAreExact() {
+		LogLinearHistogram histogram = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+		for (int i = 1; i <= 100; i++)
+			histogram.recordValue(i);
+
+		assertEquals(100, histogram.getTotalCount());
+		assertEquals(1, histogram.getValueAtPercentile(0), 0);
+		assertEquals(1, histogram.getValueAtPercentile(1), 0);
+		assertEquals(50, histogram.getValueAtPercentile(50), 0);
+		assertEquals(90, histogram.getValueAtPercentile(90), 0);
+		assertEquals(100, histogram.getValueAtPercentile(100), 0);
+	}
+
+	@Test
+	public void testPercentilesOfLargeValuesAreBounded() {
+		LogLinearHistogram histogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
+		for (int i = 1; i <= 100000; i++)
+			histogram.recordValue(i);
+
+		for (double percentile : LogLinearHistogram.REPORTED_PERCENTILES) {
+			double expected = percentile * 1000;
+			double estimate = histogram.getValueAtPercentile(percentile);
+			assertEquals("Percentile " + percentile, expected, estimate, expected * MAX_RELATIVE_ERROR);
+		}
+		assertEquals(1, histogram.getMin(), 0);
+		assertEquals(100000, histogram.getMax(), 0);
+	}
+
+	@Test
+	public void testScaleKeepsFractions() {
+		LogLinearHistogram histogram = new LogLinearHistogram(LogLinearHistogram.TIME_SCALE);
+		histogram.recordValue(1.5);
+		histogram.recordValue(2.25);
+
+		assertEquals(1.5, histogram.getMin(), 0);
+		assertEquals(2.25, histogram.getMax(), 0);
+		assertEquals(1.5, histogram.getValueAtPercentile(50), 0);
+	}
+
+	@Test
+	public void testInvalidValuesAreDiscarded() {
+		LogLinearHistogram histogram = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+		assertTrue(Double.isNaN(histogram.getValueAtPercentile(50)));
+
+		histogram.recordValue(-1);
+		histogram.recordValue(Double.NaN);
+		histogram.recordValue(3);
+
+		assertEquals(1, histogram.getTotalCount());
+		assertEquals(2, histogram.getDiscardedCount());
+		assertEquals(3, histogram.getValueAtPercentile(50), 0);
+	}
+
+	@Test
+	public void testMerge() {
+		LogLinearHistogram first = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+		LogLinearHistogram second = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+		for (int i = 1; i <= 50; i++)
+			first.recordValue(i);
+		for (int i = 51; i <= 100; i++)
+			second.recordValue(i);
+		second.recordValue(-1);
+
+		first.merge(second);
+
+		assertEquals(100, first.getTotalCount());
+		assertEquals(1, first.getDiscardedCount());
+		assertEquals(1, first.getMin(), 0);
+		assertEquals(100, first.getMax(), 0);
+		assertEquals(75, first.getValueAtPercentile(75), 0);
+		assertEquals(50, second.getTotalCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeRejectsOtherScale() {
+		new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE).merge(
+				new LogLinearHistogram(LogLinearHistogram.TIME_SCALE));
+	}
+
+	@Test
+	public void testConcurrentCrossMergeTerminates() throws InterruptedException {
+		final LogLinearHistogram first = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+		final LogLinearHistogram second = new LogLinearHistogram(LogLinearHistogram.COUNT_SCALE);
+
+		Thread firstMerger = new Thread(new Runnable() {
+			public void run() {
+				for (int i = 0; i < 10000; i++)
+					first.merge(second);
+			}
+		});
+		Thread secondMerger = new Thread(new Runnable() {
+			public void run() {
+				for (int i = 0; i < 10000; i++)
+					second.merge(first);
+			}
+		});
+		firstMerger.setDaemon(true);
+		secondMerger.setDaemon(true);
+		firstMerger.start();
+		secondMerger.start();
+		firstMerger.join(60000);
+		secondMerger.join(60000);
+
+		assertFalse("The histograms deadlocked while merged into each other", firstMerger.isAlive());
+		assertFalse("The histograms deadlocked while merged into each other", secondMerger.isAlive());
+	}
+
+}
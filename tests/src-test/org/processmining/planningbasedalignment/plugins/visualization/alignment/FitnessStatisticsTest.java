@@ -0,0 +1,122 @@
+package org.processmining.planningbasedalignment.plugins.visualization.alignment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the running mean and median kept by {@link FitnessStatistics}.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class FitnessStatisticsTest {
+
+	/**
+	 * The error allowed on the median, that is estimated from fitness buckets.
+	 */
+	private static final double MEDIAN_DELTA = 1e-4;
+
+	private static final double MEAN_DELTA = 1e-9;
+
+	@Test
+	public void testEmpty() {
+		FitnessStatistics statistics = new FitnessStatistics();
+
+		assertEquals(0, statistics.getCount());
+		assertTrue(Double.isNaN(statistics.getMean()));
+		assertTrue(Double.isNaN(statistics.getMedian()));
+	}
+
+	@Test
+	public void testOddCount() {
+		FitnessStatistics statistics = new FitnessStatistics();
+		statistics.add(0.9, 1);
+		statistics.add(0.1, 1);
+		statistics.add(0.5, 1);
+
+		assertEquals(3, statistics.getCount());
+		assertEquals(0.5, statistics.getMean(), MEAN_DELTA);
+		assertEquals(0.5, statistics.getMedian(), MEDIAN_DELTA);
+	}
+
+	@Test
+	public void testEvenCountAveragesMiddleValues() {
+		FitnessStatistics statistics = new FitnessStatistics();
+		statistics.add(0.2, 1);
+		statistics.add(0.4, 1);
+		statistics.add(0.8, 1);
+		statistics.add(1, 1);
+
+		assertEquals(0.6, statistics.getMean(), MEAN_DELTA);
+		assertEquals(0.6, statistics.getMedian(), MEDIAN_DELTA);
+	}
+
+	@Test
+	public void testWeights() {
+		FitnessStatistics statistics = new FitnessStatistics();
+		statistics.add(0.3, 3);
+		statistics.add(1, 1);
+
+		assertEquals(4, statistics.getCount());
+		assertEquals(0.475, statistics.getMean(), MEAN_DELTA);
+		assertEquals(0.3, statistics.getMedian(), MEDIAN_DELTA);
+	}
+
+	@Test
+	public void testRemove() {
+		FitnessStatistics statistics = new FitnessStatistics();
+		statistics.add(0.1, 2);
+		statistics.add(0.7, 1);
+		statistics.add(0.9, 1);
+
+		statistics.remove(0.1, 2);
+
+		assertEquals(2, statistics.getCount());
+		assertEquals(0.8, statistics.getMean(), MEAN_DELTA);
+		assertEquals(0.8, statistics.getMedian(), MEDIAN_DELTA);
+
+		statistics.remove(0.7, 1);
+		statistics.remove(0.9, 1);
+		assertEquals(0, statistics.getCount());
+		assertTrue(Double.isNaN(statistics.getMedian()));
+	}
+
+	@Test
+	public void testClear() {
+		FitnessStatistics statistics = new FitnessStatistics();
+		statistics.add(0.4, 5);
+
+		statistics.clear();
+		assertEquals(0, statistics.getCount());
+		assertTrue(Double.isNaN(statistics.getMean()));
+
+		statistics.add(0.6, 1);
+		assertEquals(0.6, statistics.getMean(), MEAN_DELTA);
+		assertEquals(0.6, statistics.getMedian(), MEDIAN_DELTA);
+	}
+
+	@Test
+	public void testNaNIsIgnored() {
+		FitnessStatistics statistics = new FitnessStatistics();
+		statistics.add(Double.NaN, 1);
+		statistics.add(0.25, 1);
+
+		assertEquals(1, statistics.getCount());
+		assertEquals(0.25, statistics.getMean(), MEAN_DELTA);
+		assertEquals(0.25, statistics.getMedian(), MEDIAN_DELTA);
+	}
+
+	@Test
+	public void testMedianOfManyValues() {
+		FitnessStatistics statistics = new FitnessStatistics();
+		for (int i = 0; i <= 1000; i++)
+			statistics.add(i / 1000.0, 1);
+
+		assertEquals(1001, statistics.getCount());
+		assertEquals(0.5, statistics.getMean(), MEAN_DELTA);
+		assertEquals(0.5, statistics.getMedian(), MEDIAN_DELTA);
+	}
+
+}
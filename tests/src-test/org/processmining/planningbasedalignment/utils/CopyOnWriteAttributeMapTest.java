@@ -0,0 +1,149 @@
+package org.processmining.planningbasedalignment.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.deckfour.xes.model.XAttribute;
+import org.deckfour.xes.model.XAttributeMap;
+import org.deckfour.xes.model.impl.XAttributeLiteralImpl;
+import org.deckfour.xes.model.impl.XAttributeMapImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that {@link CopyOnWriteAttributeMap} shows the attributes of its base map along with its own changes, without
+ * ever modifying the base map.
+ *
+ * @author Giacomo Lanciano
+ *
+ */
+public class CopyOnWriteAttributeMapTest {
+
+	private XAttributeMap base;
+	private XAttribute name;
+	private XAttribute timestamp;
+	private XAttribute resource;
+
+	@Before
+	public void setUp() {
+		name = new XAttributeLiteralImpl("concept:name", "a");
+		timestamp = new XAttributeLiteralImpl("time:timestamp", "2021-01-01T00:00:00.000+00:00");
+		resource = new XAttributeLiteralImpl("org:resource", "Pete");
+		base = new XAttributeMapImpl();
+		base.put(name.getKey(), name);
+		base.put(timestamp.getKey(), timestamp);
+		base.put(resource.getKey(), resource);
+	}
+
+	@Test
+	public void testReadsThroughBase() {
+		CopyOnWriteAttributeMap map = new CopyOnWriteAttributeMap(base);
+
+		assertEquals(3, map.size());
+		assertSame(name, map.get("concept:name"));
+		assertTrue(map.containsKey("org:resource"));
+		assertFalse(map.containsKey("lifecycle:transition"));
+		assertNull(map.get("lifecycle:transition"));
+		assertEquals(base, map);
+	}
+
+	@Test
+	public void testPutDoesNotModifyBase() {
+		CopyOnWriteAttributeMap map = new CopyOnWriteAttributeMap(base);
+		XAttribute newTimestamp = new XAttributeLiteralImpl("time:timestamp", "2021-01-02T00:00:00.000+00:00");
+		XAttribute lifecycle = new XAttributeLiteralImpl("lifecycle:transition", "complete");
+
+		assertSame(timestamp, map.put(newTimestamp.getKey(), newTimestamp));
+		assertNull(map.put(lifecycle.getKey(), lifecycle));
+
+		assertEquals(4, map.size());
+		assertSame(newTimestamp, map.get("time:timestamp"));
+		assertSame(lifecycle, map.get("lifecycle:transition"));
+		assertEquals(3, base.size());
+		assertSame(timestamp, base.get("time:timestamp"));
+		assertFalse(base.containsKey("lifecycle:transition"));
+	}
+
+	@Test
+	public void testRemoveHidesBaseAttribute() {
+		CopyOnWriteAttributeMap map = new CopyOnWriteAttributeMap(base);
+
+		assertSame(resource, map.remove("org:resource"));
+		assertNull(map.remove("org:resource"));
+		assertNull(map.remove("lifecycle:transition"));
+
+		assertEquals(2, map.size());
+		assertFalse(map.containsKey("org:resource"));
+		assertNull(map.get("org:resource"));
+		assertSame(resource, base.get("org:resource"));
+
+		// a removed attribute can be put back
+		assertNull(map.put(resource.getKey(), resource));
+		assertEquals(3, map.size());
+		assertSame(resource, map.get("org:resource"));
+	}
+
+	@Test
+	public void testClear() {
+		CopyOnWriteAttributeMap map = new CopyOnWriteAttributeMap(base);
+		map.put("lifecycle:transition", new XAttributeLiteralImpl("lifecycle:transition", "complete"));
+
+		map.clear();
+
+		assertEquals(0, map.size());
+		assertTrue(map.isEmpty());
+		assertFalse(map.entrySet().iterator().hasNext());
+		assertEquals(3, base.size());
+	}
+
+	@Test
+	public void testEntrySetShowsEachVisibleAttributeOnce() {
+		CopyOnWriteAttributeMap map = new CopyOnWriteAttributeMap(base);
+		XAttribute newTimestamp = new XAttributeLiteralImpl("time:timestamp", "2021-01-02T00:00:00.000+00:00");
+		XAttribute lifecycle = new XAttributeLiteralImpl("lifecycle:transition", "complete");
+		map.put(newTimestamp.getKey(), newTimestamp);
+		map.put(lifecycle.getKey(), lifecycle);
+		map.remove("org:resource");
+
+		Map<String, XAttribute> expected = new HashMap<String, XAttribute>();
+		expected.put(name.getKey(), name);
+		expected.put(newTimestamp.getKey(), newTimestamp);
+		expected.put(lifecycle.getKey(), lifecycle);
+
+		Map<String, XAttribute> visited = new HashMap<String, XAttribute>();
+		int entriesNum = 0;
+		for (Map.Entry<String, XAttribute> entry : map.entrySet()) {
+			visited.put(entry.getKey(), entry.getValue());
+			entriesNum++;
+		}
+		assertEquals(expected.size(), entriesNum);
+		assertEquals(expected, visited);
+		assertEquals(expected, map);
+		assertEquals(expected.keySet(), map.keySet());
+	}
+
+	@Test
+	public void testCopiesShareBaseButNotChanges() {
+		CopyOnWriteAttributeMap map = new CopyOnWriteAttributeMap(base);
+		map.remove("org:resource");
+
+		CopyOnWriteAttributeMap copy = (CopyOnWriteAttributeMap) map.clone();
+		XAttribute lifecycle = new XAttributeLiteralImpl("lifecycle:transition", "complete");
+		copy.put(lifecycle.getKey(), lifecycle);
+		copy.put(resource.getKey(), resource);
+
+		assertEquals(2, map.size());
+		assertFalse(map.containsKey("lifecycle:transition"));
+		assertFalse(map.containsKey("org:resource"));
+		assertEquals(4, copy.size());
+		assertSame(resource, copy.get("org:resource"));
+		assertEquals(3, base.size());
+	}
+
+}